@@ -1,11 +1,24 @@
 package org.usfirst.frc.team1318.robot;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Calendar;
+
+import org.usfirst.frc.team1318.robot.common.ControlLoopScheduler;
 import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
+import org.usfirst.frc.team1318.robot.common.LoopWatchdog;
 import org.usfirst.frc.team1318.robot.common.MechanismManager;
 import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
 import org.usfirst.frc.team1318.robot.driver.common.Driver;
 import org.usfirst.frc.team1318.robot.driver.common.autonomous.AutonomousDriver;
 import org.usfirst.frc.team1318.robot.driver.common.user.UserDriver;
+import org.usfirst.frc.team1318.robot.paths.PathManager;
+import org.usfirst.frc.team1318.robot.replay.MatchRecorder;
 
 import com.google.inject.Guice;
 import com.google.inject.Injector;
@@ -29,6 +42,10 @@ import edu.wpi.first.wpilibj.IterativeRobot;
  * - Mechanisms - define the logic that controls a mechanism given inputs/outputs.
  * - Logger - defines what should be logged and to where (dashboard, etc.).
  * 
+ * When CONTROL_LOOP_USE_SCHEDULER is set, the control loop is run at a fixed rate by the ControlLoopScheduler
+ * on its own thread, and the periodic callbacks from the IterativeRobot don't run the loop themselves (unless an
+ * iteration on the scheduler's thread fails, in which case they take over).
+ * 
  * @author Will
  */
 public class Robot extends IterativeRobot
@@ -42,6 +59,9 @@ public class Robot extends IterativeRobot
     // Mechanisms and injector
     private MechanismManager mechanisms;
     private IDashboardLogger logger;
+    private ControlLoopScheduler scheduler;
+    private MatchRecorder recorder;
+    private LoopWatchdog watchdog;
     private Injector injector;
 
     private ITimer timer;
@@ -60,6 +80,17 @@ public class Robot extends IterativeRobot
 
         this.timer = this.getInjector().getInstance(ITimer.class);
         this.logger.logNumber(Robot.LogName, "time", this.timer.get());
+
+        this.recorder = this.getInjector().getInstance(MatchRecorder.class);
+        this.watchdog = this.getInjector().getInstance(LoopWatchdog.class);
+
+        // start planning the autonomous paths (if they are used) in the background, well before autonomous starts
+        this.getInjector().getInstance(PathManager.class);
+
+        if (TuningConstants.CONTROL_LOOP_USE_SCHEDULER)
+        {
+            this.scheduler = this.getInjector().getInstance(ControlLoopScheduler.class);
+        }
     }
 
     /**
@@ -68,6 +99,12 @@ public class Robot extends IterativeRobot
      */
     public void disabledInit()
     {
+        // stop the control loop before stopping anything that it uses
+        if (this.scheduler != null)
+        {
+            this.scheduler.stop();
+        }
+
         this.timer.stop();
         this.timer.reset();
 
@@ -79,8 +116,15 @@ public class Robot extends IterativeRobot
         if (this.mechanisms != null)
         {
             this.mechanisms.stop();
+
+            // write out the timing of each mechanism and the traces of the iterations that ran over budget since we
+            // were last disabled, for post-match analysis
+            this.dumpTimings();
         }
 
+        // write out and close what has been recorded so far, in case the robot is turned off
+        this.recorder.stop();
+
         this.logger.logString(Robot.LogName, "state", "Disabled");
     }
 
@@ -92,6 +136,7 @@ public class Robot extends IterativeRobot
     {
         // Create an autonomous driver
         this.driver = this.getInjector().getInstance(AutonomousDriver.class);
+        this.recorder.recordMode("Autonomous");
 
         this.generalInit();
 
@@ -107,6 +152,7 @@ public class Robot extends IterativeRobot
     {
         // create driver for user's joystick
         this.driver = this.getInjector().getInstance(UserDriver.class);
+        this.recorder.recordMode("Teleop");
 
         this.generalInit();
 
@@ -119,10 +165,31 @@ public class Robot extends IterativeRobot
      */
     public void generalInit()
     {
+        // make sure the control loop isn't still running with the previous driver
+        if (this.scheduler != null)
+        {
+            this.scheduler.stop();
+        }
+
         // apply the driver to the mechanisms
         this.mechanisms.setDriver(this.driver);
 
+        // continue the recording where it left off when we were disabled
+        try
+        {
+            this.recorder.resume();
+        }
+        catch (IOException e)
+        {
+            this.logger.logString(Robot.LogName, "recordingError", e.toString());
+        }
+
         this.timer.start();
+
+        if (this.scheduler != null)
+        {
+            this.scheduler.start(this.driver);
+        }
     }
 
     /**
@@ -139,7 +206,11 @@ public class Robot extends IterativeRobot
      */
     public void autonomousPeriodic()
     {
-        this.generalPeriodic();
+        // run the loop here if we aren't using the scheduler, or if its loop has failed
+        if (this.scheduler == null || !this.scheduler.isRunning())
+        {
+            this.generalPeriodic();
+        }
     }
 
     /**
@@ -148,7 +219,11 @@ public class Robot extends IterativeRobot
      */
     public void teleopPeriodic()
     {
-        this.generalPeriodic();
+        // run the loop here if we aren't using the scheduler, or if its loop has failed
+        if (this.scheduler == null || !this.scheduler.isRunning())
+        {
+            this.generalPeriodic();
+        }
     }
 
     /**
@@ -156,15 +231,74 @@ public class Robot extends IterativeRobot
      */
     public void generalPeriodic()
     {
+        this.watchdog.startCycle();
+
         this.mechanisms.readSensors();
+        this.watchdog.endPhase(LoopWatchdog.ReadSensorsPhase);
 
         this.driver.update();
+        this.watchdog.endPhase(LoopWatchdog.DriverUpdatePhase);
 
         // run each mechanism
         this.mechanisms.update();
 
+        this.recorder.endFrame(this.driver);
+        this.watchdog.endPhase(LoopWatchdog.MechanismsUpdatePhase);
+
         this.logger.logNumber(Robot.LogName, "time", this.timer.get());
         this.logger.flush();
+        this.watchdog.endPhase(LoopWatchdog.LoggerFlushPhase);
+
+        this.watchdog.endCycle(this.timer.get());
+    }
+
+    /**
+     * Append the profile of each mechanism and the traces of the iterations that ran over budget to the timing file
+     * on the robot (so that they can be retrieved after the match), then reset them for the next mode.  Once the
+     * timing file gets too big, it replaces the previous one and a new one is started.
+     */
+    private void dumpTimings()
+    {
+        if (this.watchdog.getCycleCount() == 0)
+        {
+            // nothing has run since the last time we were disabled
+            return;
+        }
+
+        Path timingFile = Paths.get(TuningConstants.LOOP_TIMING_FILE);
+        try
+        {
+            if (Files.exists(timingFile) && Files.size(timingFile) >= TuningConstants.LOOP_TIMING_FILE_MAX_SIZE)
+            {
+                // only keep the previous file, so that the timing files can't fill up the roboRIO
+                Files.move(
+                    timingFile,
+                    Paths.get(TuningConstants.LOOP_TIMING_FILE + ".old"),
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch (IOException e)
+        {
+            this.logger.logString(Robot.LogName, "timingError", e.toString());
+        }
+
+        try (PrintStream output = new PrintStream(new FileOutputStream(TuningConstants.LOOP_TIMING_FILE, true)))
+        {
+            output.println(String.format("---- %1$tF %1$tT ----", Calendar.getInstance()));
+            this.mechanisms.dumpProfile(output);
+            this.watchdog.dump(output);
+            if (output.checkError())
+            {
+                this.logger.logString(Robot.LogName, "timingError", "failed to write " + TuningConstants.LOOP_TIMING_FILE);
+            }
+        }
+        catch (IOException e)
+        {
+            this.logger.logString(Robot.LogName, "timingError", e.toString());
+        }
+
+        this.mechanisms.resetProfile();
+        this.watchdog.reset();
     }
 
     /**
@@ -1,15 +1,22 @@
 package org.usfirst.frc.team1318.robot;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.List;
 
 import javax.inject.Singleton;
 
 import org.usfirst.frc.team1318.robot.climber.ClimberMechanism;
+import org.usfirst.frc.team1318.robot.common.BinaryTelemetryLogger;
 import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
 import org.usfirst.frc.team1318.robot.common.IMechanism;
+import org.usfirst.frc.team1318.robot.common.LogPublishPolicy;
 import org.usfirst.frc.team1318.robot.common.MechanismManager;
+import org.usfirst.frc.team1318.robot.common.MultiLogger;
 import org.usfirst.frc.team1318.robot.common.SmartDashboardLogger;
+import org.usfirst.frc.team1318.robot.common.ThrottledLogger;
+import org.usfirst.frc.team1318.robot.common.wpilib.CANIOCoordinator;
 import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
 import org.usfirst.frc.team1318.robot.common.wpilib.IWpilibProvider;
 import org.usfirst.frc.team1318.robot.common.wpilib.TimerWrapper;
@@ -20,6 +27,9 @@ import org.usfirst.frc.team1318.robot.driver.common.IButtonMap;
 import org.usfirst.frc.team1318.robot.drivetrain.DriveTrainMechanism;
 import org.usfirst.frc.team1318.robot.elevator.ElevatorMechanism;
 import org.usfirst.frc.team1318.robot.general.PositionManager;
+import org.usfirst.frc.team1318.robot.paths.PathManager;
+import org.usfirst.frc.team1318.robot.replay.MatchRecorder;
+import org.usfirst.frc.team1318.robot.replay.RecordingWpilibProvider;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
@@ -27,14 +37,60 @@ import com.google.inject.Provides;
 
 public class RobotModule extends AbstractModule
 {
+    // values (in "component.key" form) that are recorded by the binary telemetry logger, when it is enabled
+    private static final String[] TelemetrySchema = new String[] { "r.time", "vision.mAngle", "vision.dist" };
+
     @Override
     protected void configure()
     {
-        this.bind(IWpilibProvider.class).to(WpilibProvider.class);
         this.bind(ITimer.class).to(TimerWrapper.class);
         this.bind(IButtonMap.class).to(ButtonMap.class);
     }
 
+    @Singleton
+    @Provides
+    public IWpilibProvider getWpilibProvider(Injector injector)
+    {
+        IWpilibProvider provider = injector.getInstance(WpilibProvider.class);
+        if (TuningConstants.MATCH_RECORDING_ENABLED)
+        {
+            provider = new RecordingWpilibProvider(provider, injector.getInstance(MatchRecorder.class));
+        }
+
+        return provider;
+    }
+
+    @Singleton
+    @Provides
+    public MatchRecorder getMatchRecorder(IButtonMap buttonMap, ITimer timer, IDashboardLogger logger)
+    {
+        MatchRecorder recorder = new MatchRecorder(buttonMap, timer, logger);
+        if (TuningConstants.MATCH_RECORDING_ENABLED)
+        {
+            try
+            {
+                String fileName = String.format("/home/lvuser/%1$d.match", Calendar.getInstance().getTime().getTime());
+                recorder.start(fileName);
+            }
+            catch (IOException e)
+            {
+                logger.logString("r", "recordingError", e.toString());
+            }
+        }
+
+        return recorder;
+    }
+
+    @Singleton
+    @Provides
+    public PathManager getPathManager(IDashboardLogger logger)
+    {
+        return new PathManager(
+            TuningConstants.DRIVETRAIN_USE_PATHS,
+            TuningConstants.DRIVETRAIN_PATH_CACHE_ENABLED ? TuningConstants.DRIVETRAIN_PATH_CACHE_FILE : null,
+            logger);
+    }
+
     @Singleton
     @Provides
     public MechanismManager getMechanismManager(Injector injector)
@@ -47,7 +103,10 @@ public class RobotModule extends AbstractModule
         mechanismList.add(injector.getInstance(ElevatorMechanism.class));
         mechanismList.add(injector.getInstance(ClimberMechanism.class));
         //mechanismList.add(injector.getInstance(VisionManager.class));
-        return new MechanismManager(mechanismList);
+        return new MechanismManager(
+            mechanismList,
+            injector.getInstance(IDashboardLogger.class),
+            injector.getInstance(CANIOCoordinator.class));
     }
 
     @Singleton
@@ -55,16 +114,48 @@ public class RobotModule extends AbstractModule
     public IDashboardLogger getLogger()
     {
         IDashboardLogger logger = new SmartDashboardLogger();
-        //        try
-        //        {
-        //            String fileName = String.format("/home/lvuser/%1$d.csv", Calendar.getInstance().getTime().getTime());
-        //            IDashboardLogger csvLogger = new CSVLogger(fileName, new String[] { "r.time", "vision.mAngle", "vision.dist" });
-        //            logger = new MultiLogger(logger, csvLogger);
-        //        }
-        //        catch (IOException e)
-        //        {
-        //            e.printStackTrace();
-        //        }
+        if (TuningConstants.LOG_THROTTLING_ENABLED)
+        {
+            // only throttle what goes to the dashboard, telemetry files should still get every value.
+            // use a timer of its own, as the robot's timer is stopped and reset for each mode
+            ITimer throttlingTimer = new TimerWrapper();
+            throttlingTimer.start();
+
+            ThrottledLogger throttledLogger = new ThrottledLogger(
+                logger,
+                throttlingTimer,
+                new LogPublishPolicy(
+                    TuningConstants.LOG_THROTTLING_MIN_PERIOD,
+                    TuningConstants.LOG_THROTTLING_DEADBAND,
+                    TuningConstants.LOG_THROTTLING_REFRESH_PERIOD));
+
+            // the robot's state and the autonomous selection only change occasionally, so show every change immediately
+            throttledLogger.setPolicy("r", "state", LogPublishPolicy.Always);
+            throttledLogger.setPolicy("auto", LogPublishPolicy.Always);
+            logger = throttledLogger;
+        }
+
+        if (TuningConstants.TELEMETRY_LOGGING_ENABLED)
+        {
+            try
+            {
+                String fileName = String.format("/home/lvuser/%1$d.bin", Calendar.getInstance().getTime().getTime());
+                BinaryTelemetryLogger telemetryLogger = new BinaryTelemetryLogger(
+                    fileName,
+                    RobotModule.TelemetrySchema,
+                    TuningConstants.TELEMETRY_QUEUE_CAPACITY,
+                    TuningConstants.TELEMETRY_USE_MEMORY_MAPPED_FILE,
+                    logger);
+                logger = new MultiLogger(logger, telemetryLogger);
+
+                // write out the remaining frames and close the file when the robot code is shut down (e.g. redeployed)
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> telemetryLogger.close(), "TelemetryShutdown"));
+            }
+            catch (IOException e)
+            {
+                logger.logString("r", "telemetryError", e.toString());
+            }
+        }
 
         return logger;
     }
@@ -1,5 +1,7 @@
 package org.usfirst.frc.team1318.robot;
 
+import org.usfirst.frc.team1318.robot.common.ControlLoopOverrunPolicy;
+
 /**
  * All constants related to tuning the operation of the robot.
  * 
@@ -11,6 +13,43 @@ public class TuningConstants
     public static final boolean COMPETITION_ROBOT = true;
     public static final boolean THROW_EXCEPTIONS = !TuningConstants.COMPETITION_ROBOT;
 
+    //================================================== Control Loop ==============================================================
+
+    // Whether to run the control loop on a fixed-rate scheduler thread instead of the IterativeRobot periodic callbacks
+    public static final boolean CONTROL_LOOP_USE_SCHEDULER = false; // not yet run on the robot
+    public static final double CONTROL_LOOP_PERIOD = 0.01; // in seconds
+    public static final ControlLoopOverrunPolicy CONTROL_LOOP_OVERRUN_POLICY = ControlLoopOverrunPolicy.Skip;
+    public static final int CONTROL_LOOP_MAX_CATCH_UP_ITERATIONS = 2;
+    public static final double ITERATIVE_ROBOT_LOOP_PERIOD = 0.02; // in seconds (the periodic callbacks run as driver station packets arrive)
+
+    // Mechanism profiler (per-mechanism readSensors/update timings)
+    public static final boolean MECHANISM_PROFILER_ENABLED = true;
+    public static final int MECHANISM_PROFILER_SAMPLE_COUNT = 500; // number of recent samples to keep per mechanism per phase
+    public static final int MECHANISM_PROFILER_LOG_INTERVAL = 25; // number of loops between logging each mechanism's summary
+
+    // Loop watchdog (trace the phases of control loop iterations that run over budget)
+    public static final double LOOP_WATCHDOG_BUDGET = TuningConstants.CONTROL_LOOP_USE_SCHEDULER ? TuningConstants.CONTROL_LOOP_PERIOD : TuningConstants.ITERATIVE_ROBOT_LOOP_PERIOD; // in seconds
+    public static final int LOOP_WATCHDOG_TRACE_CAPACITY = 100; // number of recent overruns to keep traces of
+    public static final String LOOP_TIMING_FILE = "/home/lvuser/timing.txt"; // file that the profile and traces are appended to when disabled
+    public static final long LOOP_TIMING_FILE_MAX_SIZE = 1024 * 1024; // in bytes, after which the timing file is moved to LOOP_TIMING_FILE + ".old" and a new one is started
+
+    // Coordinate Talon SRX reads/writes into explicit read and write phases, suppressing unchanged setpoints
+    public static final boolean CAN_IO_COORDINATOR_ENABLED = false; // not yet run on the robot
+
+    // Dashboard log throttling (publish changed values at most every min period, and refresh every refresh period)
+    public static final boolean LOG_THROTTLING_ENABLED = true;
+    public static final double LOG_THROTTLING_MIN_PERIOD = 0.1; // in seconds
+    public static final double LOG_THROTTLING_DEADBAND = 0.001;
+    public static final double LOG_THROTTLING_REFRESH_PERIOD = 1.0; // in seconds
+
+    // Binary telemetry logging (recorded to a file on the roboRIO, convert with BinaryTelemetryConverter)
+    public static final boolean TELEMETRY_LOGGING_ENABLED = false;
+    public static final int TELEMETRY_QUEUE_CAPACITY = 256; // number of frames that can be waiting for the writer thread
+    public static final boolean TELEMETRY_USE_MEMORY_MAPPED_FILE = false;
+
+    // Match recording (all sensor values and operation states, recorded to a file on the roboRIO, replay with MatchReplayer)
+    public static final boolean MATCH_RECORDING_ENABLED = false;
+
     //================================================== Autonomous ==============================================================
 
     public static final double DRIVETRAIN_POSITIONAL_ACCEPTABLE_DELTA = 1.0;
@@ -18,6 +57,10 @@ public class TuningConstants
     // Acceptable vision centering range values in degrees
     public static final double MAX_VISION_CENTERING_RANGE_DEGREES = 5.0;
 
+    // Vision latency compensation (track the target's heading at the time the frame was captured, using the pose history)
+    public static final boolean VISION_LATENCY_COMPENSATION_ENABLED = true;
+    public static final int POSE_HISTORY_CAPACITY = 50; // number of control loop iterations to remember the robot's pose for
+
     // Navx Turn Constants
     public static final double NAVX_TURN_MIN_ACCEPTABLE_ANGLE_VALUE = -720.0;
     public static final double NAVX_TURN_MAX_ACCEPTABLE_ANGLE_VALUE = 720.0;
@@ -133,6 +176,26 @@ public class TuningConstants
 
     public static final double DRIVETRAIN_ENCODER_ODOMETRY_ANGLE_CORRECTION = 1.0; // account for turning weirdness (any degree offset in the angle)
 
+    // Drivetrain motion profiles (for DriveDistanceProfiledTask and TurnProfiledTask), within the limits of traction
+    public static final boolean DRIVETRAIN_PROFILE_USE_S_CURVE = true;
+    public static final double DRIVETRAIN_PROFILE_MAX_VELOCITY = 100.0; // in inches per second
+    public static final double DRIVETRAIN_PROFILE_MAX_ACCELERATION = 100.0; // in inches per second per second
+    public static final double DRIVETRAIN_PROFILE_MAX_JERK = 500.0; // in inches per second per second per second
+
+    // Drivetrain path planning (for the spline paths followed by FollowPathTask), within the limits of traction
+    public static final boolean DRIVETRAIN_USE_PATHS = false; // whether autonomous routines follow spline paths where available (not yet run on the robot)
+    public static final double DRIVETRAIN_PATH_MAX_VELOCITY = TuningConstants.DRIVETRAIN_PROFILE_MAX_VELOCITY; // in inches per second
+    public static final double DRIVETRAIN_PATH_MAX_ACCELERATION = TuningConstants.DRIVETRAIN_PROFILE_MAX_ACCELERATION; // in inches per second per second
+    public static final double DRIVETRAIN_PATH_MAX_CENTRIPETAL_ACCELERATION = 80.0; // in inches per second per second
+    public static final boolean DRIVETRAIN_PATH_CACHE_ENABLED = true; // whether planned trajectories are kept in a file, so they're only re-planned when the paths change
+    public static final String DRIVETRAIN_PATH_CACHE_FILE = "/home/lvuser/paths.traj";
+
+    // Drivetrain path following feedback (Ramsete), correcting the planned wheel velocities using the fused pose from the PositionManager
+    public static final boolean DRIVETRAIN_USE_PATH_FEEDBACK = false; // whether paths are followed with pose feedback (or just the planned wheel positions) (not yet run on the robot)
+    public static final double DRIVETRAIN_RAMSETE_B = 0.0013; // aggressiveness of the correction, in radians^2 per inch^2 (2.0 per meter^2)
+    public static final double DRIVETRAIN_RAMSETE_ZETA = 0.7; // damping of the correction (between 0 and 1)
+    public static final double DRIVETRAIN_RAMSETE_MAX_CORRECTION = 12.0; // furthest (in inches) that each wheel's position goal can be corrected from the planned position
+
     //================================================== Elevator ==============================================================
 
     public static final boolean ELEVATOR_USE_MOTION_MAGIC = TuningConstants.COMPETITION_ROBOT;
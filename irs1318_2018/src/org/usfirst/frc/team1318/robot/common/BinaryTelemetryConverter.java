@@ -0,0 +1,142 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts a telemetry file written by the BinaryTelemetryLogger into the CSV format that was written by the CSVLogger,
+ * so that existing analysis spreadsheets/scripts keep working.  Values that weren't logged in a frame are left empty.
+ *
+ * Usage: BinaryTelemetryConverter input.bin [output.csv]
+ *
+ */
+public class BinaryTelemetryConverter
+{
+    /**
+     * Convert a binary telemetry file to CSV
+     * @param args the binary file to read, and optionally the CSV file to write
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Usage: BinaryTelemetryConverter input.bin [output.csv]");
+            return;
+        }
+
+        String binaryFileName = args[0];
+        String csvFileName;
+        if (args.length > 1)
+        {
+            csvFileName = args[1];
+        }
+        else if (binaryFileName.endsWith(".bin"))
+        {
+            csvFileName = binaryFileName.substring(0, binaryFileName.length() - 4) + ".csv";
+        }
+        else
+        {
+            csvFileName = binaryFileName + ".csv";
+        }
+
+        long frames = BinaryTelemetryConverter.convert(binaryFileName, csvFileName);
+        System.out.println(String.format("Converted %d frames to %s", frames, csvFileName));
+    }
+
+    /**
+     * Convert a binary telemetry file to CSV
+     * @param binaryFileName to read
+     * @param csvFileName to write
+     * @return the number of frames that were converted
+     * @throws IOException
+     */
+    public static long convert(String binaryFileName, String csvFileName) throws IOException
+    {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(binaryFileName)));
+            BufferedWriter output = new BufferedWriter(new FileWriter(csvFileName)))
+        {
+            int magic = input.readInt();
+            int version = input.readInt();
+            if (magic != BinaryTelemetryLogger.Magic || version != BinaryTelemetryLogger.Version)
+            {
+                throw new IOException(String.format("%s is not a supported telemetry file", binaryFileName));
+            }
+
+            int columnCount = input.readInt();
+            String[] schema = new String[columnCount];
+            for (int i = 0; i < columnCount; i++)
+            {
+                schema[i] = input.readUTF();
+            }
+
+            output.append(String.join(",", schema));
+            output.append("\r\n"); // file will be read in windows
+
+            byte[] frameBytes = new byte[Long.BYTES + columnCount * Double.BYTES];
+            ByteBuffer frame = ByteBuffer.wrap(frameBytes);
+
+            long frames = 0;
+            while (true)
+            {
+                try
+                {
+                    input.readFully(frameBytes);
+                }
+                catch (EOFException e)
+                {
+                    // the end of the file, or a last frame that was only partially written (e.g. the robot lost power)
+                    break;
+                }
+
+                // a memory-mapped file that wasn't closed cleanly ends with zeroed space
+                frame.clear();
+                long sequenceNumber = frame.getLong();
+                if (sequenceNumber == 0)
+                {
+                    break;
+                }
+
+                for (int i = 0; i < columnCount; i++)
+                {
+                    if (i > 0)
+                    {
+                        output.append(",");
+                    }
+
+                    double value = frame.getDouble();
+                    if (!Double.isNaN(value))
+                    {
+                        output.append(BinaryTelemetryConverter.formatValue(value));
+                    }
+                }
+
+                output.append("\r\n");
+                frames++;
+            }
+
+            return frames;
+        }
+    }
+
+    /**
+     * Format a value the way the CSVLogger would have (whole numbers without a decimal point, as they were likely integers)
+     * @param value to format
+     * @return the formatted value
+     */
+    private static String formatValue(double value)
+    {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+        {
+            return String.valueOf((long)value);
+        }
+
+        return String.valueOf(value);
+    }
+}
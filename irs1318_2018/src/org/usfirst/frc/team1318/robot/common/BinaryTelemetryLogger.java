@@ -0,0 +1,482 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import org.opencv.core.Point;
+
+/**
+ * Logger that records numeric values into a binary telemetry file.
+ *
+ * Each value in the schema is assigned an integer slot, and values logged during a control loop iteration are stored
+ * into a preallocated frame (one double per slot).  When the logger is flushed, the frame is handed off to a background
+ * writer thread through a lock-free single-producer/single-consumer queue of preallocated frames, so the control loop
+ * never formats strings or touches the disk.  The writer thread encodes frames into a large buffer and writes it to the
+ * file in big sequential chunks (or copies them into a memory-mapped region of the file).
+ *
+ * File format (big-endian):
+ *     int magic, int version, int columnCount, columnCount x UTF column name,
+ *     then frames of: long sequence number (starting at 1), columnCount x double value (NaN when not logged)
+ *
+ * Use BinaryTelemetryConverter to convert the file to CSV.  Strings and points are not recorded.  Errors writing the
+ * file are reported to the provided error logger (from the writer thread).
+ *
+ */
+public class BinaryTelemetryLogger implements IDashboardLogger
+{
+    public static final int Magic = 0x31333138; // "1318"
+    public static final int Version = 1;
+
+    private static final int BufferSize = 64 * 1024;
+    private static final long IdleWaitNanos = 10000000L; // 10ms
+    private static final long MaxUnwrittenNanos = 1000000000L; // 1s
+
+    private static final String LogName = "telemetry";
+
+    private final IDashboardLogger errorLogger;
+
+    private final Map<String, Map<String, Integer>> slots;
+    private final int columnCount;
+    private final int frameSize;
+
+    // queue of preallocated frames, with the producer owning the frame at tail until it is published
+    private final double[][] frames;
+    private volatile long head; // next frame to be written by the writer thread
+    private volatile long tail; // frame currently being filled by the control loop
+    private double[] currentFrame;
+    private long droppedFrames;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final boolean useMemoryMappedFile;
+    private final Thread writerThread;
+    private volatile boolean isRunning;
+
+    // owned by the writer thread
+    private ByteBuffer buffer;
+    private long bufferFilePosition;
+    private long sequenceNumber;
+    private long lastWriteTime;
+
+    /**
+     * Initializes a new instance of the BinaryTelemetryLogger class.
+     * @param fileName to write to
+     * @param schema of values (in "component.key" form) to record
+     * @param queueCapacity the number of frames that can be waiting to be written
+     * @param useMemoryMappedFile whether to write frames into a memory-mapped file instead of using file writes
+     * @param errorLogger to report errors writing the file to
+     * @throws IOException
+     */
+    public BinaryTelemetryLogger(
+        String fileName,
+        String[] schema,
+        int queueCapacity,
+        boolean useMemoryMappedFile,
+        IDashboardLogger errorLogger) throws IOException
+    {
+        this.errorLogger = errorLogger;
+
+        this.slots = new HashMap<String, Map<String, Integer>>();
+        for (int i = 0; i < schema.length; i++)
+        {
+            String schemaEntry = schema[i];
+            int separatorIndex = schemaEntry.indexOf('.');
+            String component = schemaEntry.substring(0, separatorIndex);
+            String key = schemaEntry.substring(separatorIndex + 1);
+
+            Map<String, Integer> componentSlots = this.slots.get(component);
+            if (componentSlots == null)
+            {
+                componentSlots = new HashMap<String, Integer>();
+                this.slots.put(component, componentSlots);
+            }
+
+            componentSlots.put(key, i);
+        }
+
+        this.columnCount = schema.length;
+        this.frameSize = Long.BYTES + this.columnCount * Double.BYTES;
+
+        this.frames = new double[queueCapacity][this.columnCount];
+        for (double[] frame : this.frames)
+        {
+            Arrays.fill(frame, Double.NaN);
+        }
+
+        this.head = 0;
+        this.tail = 0;
+        this.currentFrame = this.frames[0];
+        this.droppedFrames = 0;
+
+        // write the header
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(BinaryTelemetryLogger.Magic);
+        header.writeInt(BinaryTelemetryLogger.Version);
+        header.writeInt(this.columnCount);
+        for (String schemaEntry : schema)
+        {
+            header.writeUTF(schemaEntry);
+        }
+
+        header.flush();
+
+        this.file = new RandomAccessFile(fileName, "rw");
+        this.file.setLength(0);
+        this.channel = this.file.getChannel();
+        this.channel.write(ByteBuffer.wrap(headerBytes.toByteArray()));
+
+        // make sure the buffer holds a whole number of frames so a memory-mapped region never splits a frame
+        this.useMemoryMappedFile = useMemoryMappedFile;
+        this.bufferFilePosition = this.channel.position();
+        int bufferSize = Math.max(1, BinaryTelemetryLogger.BufferSize / this.frameSize) * this.frameSize;
+        if (this.useMemoryMappedFile)
+        {
+            this.buffer = this.channel.map(MapMode.READ_WRITE, this.bufferFilePosition, bufferSize);
+        }
+        else
+        {
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        this.sequenceNumber = 0;
+        this.lastWriteTime = System.nanoTime();
+
+        this.isRunning = true;
+        this.writerThread = new Thread(() -> this.runWriter(), "TelemetryWriter");
+        this.writerThread.setDaemon(true);
+        this.writerThread.setPriority(Thread.MIN_PRIORITY);
+        this.writerThread.start();
+    }
+
+    /**
+     * Write a boolean to the current frame (as 1.0 or 0.0)
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     */
+    @Override
+    public void logBoolean(String component, String key, boolean value)
+    {
+        this.setValue(this.getSlot(component, key), value ? 1.0 : 0.0);
+    }
+
+    /**
+     * Write a number (double) to the current frame
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     */
+    @Override
+    public void logNumber(String component, String key, double value)
+    {
+        this.setValue(this.getSlot(component, key), value);
+    }
+
+    /**
+     * Write a number (double) to the current frame (as NaN when null)
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     */
+    @Override
+    public void logNumber(String component, String key, Double value)
+    {
+        this.setValue(this.getSlot(component, key), value != null ? value : Double.NaN);
+    }
+
+    /**
+     * Write a number (integer) to the current frame
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     */
+    @Override
+    public void logInteger(String component, String key, int value)
+    {
+        this.setValue(this.getSlot(component, key), value);
+    }
+
+    /**
+     * Write a number (integer) to the current frame
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     * @param formatString to use
+     */
+    @Override
+    public void logInteger(String component, String key, int value, String formatString)
+    {
+        this.setValue(this.getSlot(component, key), value);
+    }
+
+    /**
+     * Points are not recorded in binary telemetry
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     */
+    @Override
+    public void logPoint(String component, String key, Point value)
+    {
+    }
+
+    /**
+     * Strings are not recorded in binary telemetry
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     */
+    @Override
+    public void logString(String component, String key, String value)
+    {
+    }
+
+    /**
+     * Register a boolean channel that writes directly into its slot in the current frame
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public IBooleanLogChannel registerBooleanChannel(String component, String key)
+    {
+        int slot = this.getSlot(component, key);
+        return value -> this.setValue(slot, value ? 1.0 : 0.0);
+    }
+
+    /**
+     * Register a number (double) channel that writes directly into its slot in the current frame
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public INumberLogChannel registerNumberChannel(String component, String key)
+    {
+        int slot = this.getSlot(component, key);
+        return value -> this.setValue(slot, value);
+    }
+
+    /**
+     * Strings are not recorded in binary telemetry
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public IStringLogChannel registerStringChannel(String component, String key)
+    {
+        return value ->
+        {
+        };
+    }
+
+    /**
+     * Complete the current frame and hand it off to the writer thread.  If the writer has fallen too far behind,
+     * the frame is dropped rather than blocking the control loop.
+     */
+    @Override
+    public void flush()
+    {
+        long nextTail = this.tail + 1;
+        if (nextTail - this.head < this.frames.length)
+        {
+            // publish the current frame, and start filling the next (free) one
+            this.tail = nextTail;
+            this.currentFrame = this.frames[(int)(nextTail % this.frames.length)];
+        }
+        else
+        {
+            this.droppedFrames++;
+        }
+
+        Arrays.fill(this.currentFrame, Double.NaN);
+    }
+
+    /**
+     * Retrieve the number of frames that were dropped because the writer thread couldn't keep up
+     * @return the number of dropped frames
+     */
+    public long getDroppedFrames()
+    {
+        return this.droppedFrames;
+    }
+
+    /**
+     * Stop the writer thread, writing any frames that are waiting, and close the file
+     */
+    public void close()
+    {
+        this.isRunning = false;
+        LockSupport.unpark(this.writerThread);
+
+        try
+        {
+            this.writerThread.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the slot for the provided component and key
+     * @param component to log for
+     * @param key to write to
+     * @return the slot, or -1 if the value is not in the schema
+     */
+    private int getSlot(String component, String key)
+    {
+        Map<String, Integer> componentSlots = this.slots.get(component);
+        if (componentSlots == null)
+        {
+            return -1;
+        }
+
+        Integer slot = componentSlots.get(key);
+        if (slot == null)
+        {
+            return -1;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Set the value of a slot in the current frame
+     * @param slot to set, or -1 to ignore
+     * @param value to set
+     */
+    private void setValue(int slot, double value)
+    {
+        if (slot >= 0)
+        {
+            this.currentFrame[slot] = value;
+        }
+    }
+
+    /**
+     * Write frames from the queue to the file until the logger is closed.  This is run on the writer thread.
+     */
+    private void runWriter()
+    {
+        try
+        {
+            while (this.isRunning)
+            {
+                if (!this.writeAvailableFrames())
+                {
+                    if (!this.useMemoryMappedFile && System.nanoTime() - this.lastWriteTime > BinaryTelemetryLogger.MaxUnwrittenNanos)
+                    {
+                        // don't keep frames in memory for too long, in case we lose power
+                        this.writeBuffer();
+                    }
+
+                    LockSupport.parkNanos(BinaryTelemetryLogger.IdleWaitNanos);
+                }
+            }
+
+            this.writeAvailableFrames();
+            this.writeBuffer();
+
+            // trim any unused space at the end of the file
+            this.channel.truncate(this.bufferFilePosition);
+            this.channel.force(true);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            this.errorLogger.logString(BinaryTelemetryLogger.LogName, "writeError", e.toString());
+        }
+        finally
+        {
+            try
+            {
+                this.file.close();
+            }
+            catch (IOException e)
+            {
+                this.errorLogger.logString(BinaryTelemetryLogger.LogName, "closeError", e.toString());
+            }
+        }
+    }
+
+    /**
+     * Encode all of the frames that are waiting in the queue into the buffer
+     * @return true if there were any frames to encode
+     * @throws IOException
+     */
+    private boolean writeAvailableFrames() throws IOException
+    {
+        long currentHead = this.head;
+        long currentTail = this.tail;
+        if (currentHead == currentTail)
+        {
+            return false;
+        }
+
+        while (currentHead < currentTail)
+        {
+            if (this.buffer.remaining() < this.frameSize)
+            {
+                this.writeBuffer();
+            }
+
+            double[] frame = this.frames[(int)(currentHead % this.frames.length)];
+            this.buffer.putLong(++this.sequenceNumber);
+            for (int i = 0; i < this.columnCount; i++)
+            {
+                this.buffer.putDouble(frame[i]);
+            }
+
+            currentHead++;
+            this.head = currentHead;
+        }
+
+        return true;
+    }
+
+    /**
+     * Write out the contents of the buffer, or move on to the next region of the memory-mapped file
+     * @throws IOException
+     */
+    private void writeBuffer() throws IOException
+    {
+        if (this.buffer.position() == 0)
+        {
+            return;
+        }
+
+        if (this.useMemoryMappedFile)
+        {
+            // always map the next region (even when closing, as there may still be frames to write) - any unused
+            // space at the end of the file is trimmed when the file is closed
+            this.bufferFilePosition += this.buffer.position();
+            ((MappedByteBuffer)this.buffer).force();
+            this.buffer = this.channel.map(MapMode.READ_WRITE, this.bufferFilePosition, this.buffer.capacity());
+        }
+        else
+        {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining())
+            {
+                this.bufferFilePosition += this.channel.write(this.buffer, this.bufferFilePosition);
+            }
+
+            this.buffer.clear();
+        }
+
+        this.lastWriteTime = System.nanoTime();
+    }
+}
@@ -34,4 +34,9 @@ public class ComplementaryFilter
     {
         this.currentValue = 0.0;
     }
+
+    public void reset(double startingValue)
+    {
+        this.currentValue = startingValue;
+    }
 }
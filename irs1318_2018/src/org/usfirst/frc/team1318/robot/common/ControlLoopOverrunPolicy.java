@@ -0,0 +1,14 @@
+package org.usfirst.frc.team1318.robot.common;
+
+/**
+ * Describes what the control loop scheduler should do when an iteration runs past the start of the next one.
+ *
+ */
+public enum ControlLoopOverrunPolicy
+{
+    // drop the missed iterations and wait for the next deadline that is still in the future
+    Skip,
+
+    // run the missed iterations back-to-back (up to a limit) so that the loop stays on its original schedule
+    CatchUp;
+}
@@ -0,0 +1,486 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.usfirst.frc.team1318.robot.TuningConstants;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+import org.usfirst.frc.team1318.robot.driver.common.Driver;
+import org.usfirst.frc.team1318.robot.replay.MatchRecorder;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Control loop scheduler.
+ *
+ * Runs the robot's control loop (read sensors, update driver, update mechanisms, flush logs) on a dedicated thread
+ * at a fixed period, instead of whenever the IterativeRobot happens to receive a packet from the driver station.
+ * Deadlines are tracked against the timer so that the loop stays on a fixed schedule rather than drifting by the
+ * time each iteration takes, and iterations that run past the next deadline are handled based on the overrun policy.
+ *
+ * If an iteration fails with an exception, the loop thread stops and isRunning() becomes false, so that the Robot
+ * falls back to running the control loop from its periodic callbacks.  When THROW_EXCEPTIONS is set, the exception is
+ * rethrown so that the loop thread dies with its full stack trace.
+ *
+ */
+@Singleton
+public class ControlLoopScheduler implements Runnable
+{
+    private static final String LogName = "loop";
+
+    private final MechanismManager mechanisms;
+    private final IDashboardLogger logger;
+    private final ITimer timer;
+    private final MatchRecorder recorder;
+    private final LoopWatchdog watchdog;
+
+    private final INumberLogChannel timeLog;
+    private final INumberLogChannel durationLog;
+    private final INumberLogChannel averageDurationLog;
+    private final INumberLogChannel maxDurationLog;
+    private final INumberLogChannel averagePeriodLog;
+    private final INumberLogChannel maxLatenessLog;
+    private final INumberLogChannel overrunsLog;
+    private final INumberLogChannel skippedLog;
+
+    private final double period;
+    private final ControlLoopOverrunPolicy overrunPolicy;
+    private final int maxCatchUpIterations;
+
+    private final ComplementaryFilter averageDuration;
+    private final ComplementaryFilter averagePeriod;
+
+    private volatile boolean isRunning;
+    private Thread loopThread;
+    private Driver driver;
+
+    // per-iteration timing statistics (written by the loop thread, read from other threads)
+    private volatile long iterationCount;
+    private volatile long overrunCount;
+    private volatile long skippedCount;
+    private volatile double lastDuration;
+    private volatile double averageDurationValue;
+    private volatile double maxDuration;
+    private volatile double lastPeriod;
+    private volatile double averagePeriodValue;
+    private volatile double lastLateness;
+    private volatile double maxLateness;
+
+    /**
+     * Initializes a new ControlLoopScheduler using the period and overrun policy from the tuning constants
+     * @param mechanisms to read and update each iteration
+     * @param logger to use
+     * @param timer to use for deadline tracking
+     * @param recorder to complete a recorded frame at the end of each iteration
+     * @param watchdog to time the phases of each iteration
+     */
+    @Inject
+    public ControlLoopScheduler(
+        MechanismManager mechanisms,
+        IDashboardLogger logger,
+        ITimer timer,
+        MatchRecorder recorder,
+        LoopWatchdog watchdog)
+    {
+        this(
+            mechanisms,
+            logger,
+            timer,
+            recorder,
+            watchdog,
+            TuningConstants.CONTROL_LOOP_PERIOD,
+            TuningConstants.CONTROL_LOOP_OVERRUN_POLICY,
+            TuningConstants.CONTROL_LOOP_MAX_CATCH_UP_ITERATIONS);
+    }
+
+    /**
+     * Initializes a new ControlLoopScheduler
+     * @param mechanisms to read and update each iteration
+     * @param logger to use
+     * @param timer to use for deadline tracking
+     * @param recorder to complete a recorded frame at the end of each iteration
+     * @param watchdog to time the phases of each iteration
+     * @param period of the control loop (in seconds)
+     * @param overrunPolicy describing what to do when an iteration runs past the next deadline
+     * @param maxCatchUpIterations the most iterations we will run back-to-back before giving up and resynchronizing
+     */
+    public ControlLoopScheduler(
+        MechanismManager mechanisms,
+        IDashboardLogger logger,
+        ITimer timer,
+        MatchRecorder recorder,
+        LoopWatchdog watchdog,
+        double period,
+        ControlLoopOverrunPolicy overrunPolicy,
+        int maxCatchUpIterations)
+    {
+        this.mechanisms = mechanisms;
+        this.logger = logger;
+        this.timer = timer;
+        this.recorder = recorder;
+        this.watchdog = watchdog;
+
+        this.timeLog = logger.registerNumberChannel(ControlLoopScheduler.LogName, "time");
+        this.durationLog = logger.registerNumberChannel(ControlLoopScheduler.LogName, "duration");
+        this.averageDurationLog = logger.registerNumberChannel(ControlLoopScheduler.LogName, "avg_duration");
+        this.maxDurationLog = logger.registerNumberChannel(ControlLoopScheduler.LogName, "max_duration");
+        this.averagePeriodLog = logger.registerNumberChannel(ControlLoopScheduler.LogName, "avg_period");
+        this.maxLatenessLog = logger.registerNumberChannel(ControlLoopScheduler.LogName, "max_lateness");
+        this.overrunsLog = logger.registerNumberChannel(ControlLoopScheduler.LogName, "overruns");
+        this.skippedLog = logger.registerNumberChannel(ControlLoopScheduler.LogName, "skipped");
+
+        this.period = period;
+        this.overrunPolicy = overrunPolicy;
+        this.maxCatchUpIterations = maxCatchUpIterations;
+
+        this.averageDuration = new ComplementaryFilter(0.9, 0.1);
+        this.averagePeriod = new ComplementaryFilter(0.9, 0.1);
+
+        this.isRunning = false;
+        this.loopThread = null;
+        this.driver = null;
+
+        this.resetStatistics();
+    }
+
+    /**
+     * Start running the control loop with the provided driver.  The timer should already be started.
+     * @param driver to update each iteration
+     */
+    public synchronized void start(Driver driver)
+    {
+        this.stop();
+
+        this.driver = driver;
+        this.resetStatistics();
+
+        this.isRunning = true;
+        this.loopThread = new Thread(this, "ControlLoop");
+        this.loopThread.setDaemon(true);
+        this.loopThread.setPriority(Thread.MAX_PRIORITY);
+        this.loopThread.start();
+    }
+
+    /**
+     * Stop running the control loop, waiting for the loop thread to exit (so that nothing else is updating the
+     * mechanisms once this returns).
+     */
+    public synchronized void stop()
+    {
+        this.isRunning = false;
+        if (this.loopThread != null)
+        {
+            LockSupport.unpark(this.loopThread);
+
+            boolean interrupted = false;
+            while (this.loopThread.isAlive())
+            {
+                try
+                {
+                    this.loopThread.join();
+                }
+                catch (InterruptedException ex)
+                {
+                    // keep waiting - the current iteration must complete before anything else touches the mechanisms
+                    interrupted = true;
+                }
+            }
+
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            this.loopThread = null;
+        }
+    }
+
+    /**
+     * Gets a value indicating whether the control loop is currently running
+     * @return true if the loop thread is running, otherwise false (if it was stopped, or an iteration failed)
+     */
+    public boolean isRunning()
+    {
+        return this.isRunning;
+    }
+
+    /**
+     * Run the control loop until stopped.  This is run on the loop thread.
+     */
+    @Override
+    public void run()
+    {
+        double nextDeadline = this.timer.get();
+        double prevStartTime = nextDeadline;
+        while (this.isRunning)
+        {
+            this.waitUntil(nextDeadline);
+            if (!this.isRunning)
+            {
+                break;
+            }
+
+            double startTime = this.timer.get();
+            try
+            {
+                this.runIteration();
+            }
+            catch (Throwable ex)
+            {
+                // stop the loop thread, so that the Robot goes back to running the loop from its periodic callbacks
+                this.isRunning = false;
+                this.logger.logString(ControlLoopScheduler.LogName, "error", ControlLoopScheduler.describe(ex));
+                if (TuningConstants.THROW_EXCEPTIONS)
+                {
+                    // let the thread die with the exception so that the full stack trace is reported
+                    throw ex;
+                }
+
+                break;
+            }
+
+            double endTime = this.timer.get();
+
+            nextDeadline = this.recordIteration(nextDeadline, prevStartTime, startTime, endTime);
+            prevStartTime = startTime;
+        }
+    }
+
+    /**
+     * Run a single iteration of the control loop.
+     */
+    void runIteration()
+    {
+        this.watchdog.startCycle();
+
+        this.mechanisms.readSensors();
+        this.watchdog.endPhase(LoopWatchdog.ReadSensorsPhase);
+
+        try
+        {
+            this.driver.update();
+        }
+        catch (Exception ex)
+        {
+            if (TuningConstants.THROW_EXCEPTIONS)
+            {
+                throw ex;
+            }
+        }
+
+        this.watchdog.endPhase(LoopWatchdog.DriverUpdatePhase);
+
+        this.mechanisms.update();
+        this.recorder.endFrame(this.driver);
+        this.watchdog.endPhase(LoopWatchdog.MechanismsUpdatePhase);
+
+        this.timeLog.publish(this.timer.get());
+        this.durationLog.publish(this.lastDuration);
+        this.averageDurationLog.publish(this.averageDurationValue);
+        this.maxDurationLog.publish(this.maxDuration);
+        this.averagePeriodLog.publish(this.averagePeriodValue);
+        this.maxLatenessLog.publish(this.maxLateness);
+        this.overrunsLog.publish(this.overrunCount);
+        this.skippedLog.publish(this.skippedCount);
+        this.logger.flush();
+        this.watchdog.endPhase(LoopWatchdog.LoggerFlushPhase);
+
+        this.watchdog.endCycle(this.timer.get());
+    }
+
+    /**
+     * Record the timing statistics for an iteration, and calculate the deadline for the next one
+     * @param deadline that the iteration was scheduled to start at
+     * @param prevStartTime the time that the previous iteration started
+     * @param startTime the time that the iteration actually started
+     * @param endTime the time that the iteration completed
+     * @return the deadline for the next iteration
+     */
+    double recordIteration(double deadline, double prevStartTime, double startTime, double endTime)
+    {
+        this.iterationCount++;
+
+        this.lastDuration = endTime - startTime;
+        this.maxDuration = Math.max(this.maxDuration, this.lastDuration);
+        this.averageDuration.update(this.lastDuration);
+        this.averageDurationValue = this.averageDuration.getValue();
+
+        this.lastLateness = startTime - deadline;
+        this.maxLateness = Math.max(this.maxLateness, this.lastLateness);
+
+        if (this.iterationCount > 1)
+        {
+            this.lastPeriod = startTime - prevStartTime;
+            this.averagePeriod.update(this.lastPeriod);
+            this.averagePeriodValue = this.averagePeriod.getValue();
+        }
+
+        double nextDeadline = deadline + this.period;
+        if (endTime <= nextDeadline)
+        {
+            return nextDeadline;
+        }
+
+        // the iteration ran past the start of the next one
+        this.overrunCount++;
+
+        // the number of whole periods that we are behind the next deadline
+        int missedIterations = (int)Math.floor((endTime - nextDeadline) / this.period);
+        if (this.overrunPolicy == ControlLoopOverrunPolicy.Skip)
+        {
+            // skip to the first deadline that is still in the future
+            this.skippedCount += missedIterations + 1;
+            return nextDeadline + (missedIterations + 1) * this.period;
+        }
+
+        if (missedIterations >= this.maxCatchUpIterations)
+        {
+            // too far behind to catch up, so resynchronize the schedule starting now
+            this.skippedCount += missedIterations;
+            return endTime;
+        }
+
+        // run the next iteration immediately, keeping the original schedule
+        return nextDeadline;
+    }
+
+    /**
+     * Wait until the provided deadline has arrived or the loop is stopped
+     * @param deadline to wait until
+     */
+    private void waitUntil(double deadline)
+    {
+        double remaining = deadline - this.timer.get();
+        while (this.isRunning && remaining > 0.0)
+        {
+            LockSupport.parkNanos((long)(remaining * 1000000000.0));
+            remaining = deadline - this.timer.get();
+        }
+    }
+
+    /**
+     * Describe an exception along with where it was thrown from
+     * @param ex to describe
+     * @return the description of the exception
+     */
+    static String describe(Throwable ex)
+    {
+        StackTraceElement[] stackTrace = ex.getStackTrace();
+        if (stackTrace.length == 0)
+        {
+            return ex.toString();
+        }
+
+        return ex.toString() + " at " + stackTrace[0].toString();
+    }
+
+    /**
+     * Reset all of the timing statistics
+     */
+    private void resetStatistics()
+    {
+        this.iterationCount = 0;
+        this.overrunCount = 0;
+        this.skippedCount = 0;
+        this.lastDuration = 0.0;
+        this.maxDuration = 0.0;
+        this.lastPeriod = this.period;
+        this.lastLateness = 0.0;
+        this.maxLateness = 0.0;
+
+        this.averageDuration.reset();
+        this.averagePeriod.reset();
+        this.averageDurationValue = 0.0;
+        this.averagePeriodValue = 0.0;
+    }
+
+    /**
+     * Retrieve the number of iterations run since the loop was started
+     * @return the number of iterations
+     */
+    public long getIterationCount()
+    {
+        return this.iterationCount;
+    }
+
+    /**
+     * Retrieve the number of iterations that ran past the start of the next iteration
+     * @return the number of overruns
+     */
+    public long getOverrunCount()
+    {
+        return this.overrunCount;
+    }
+
+    /**
+     * Retrieve the number of scheduled iterations that were dropped because of overruns
+     * @return the number of skipped iterations
+     */
+    public long getSkippedCount()
+    {
+        return this.skippedCount;
+    }
+
+    /**
+     * Retrieve how long the most recent iteration took
+     * @return the duration in seconds
+     */
+    public double getLastDuration()
+    {
+        return this.lastDuration;
+    }
+
+    /**
+     * Retrieve the (smoothed) average duration of an iteration
+     * @return the duration in seconds
+     */
+    public double getAverageDuration()
+    {
+        return this.averageDurationValue;
+    }
+
+    /**
+     * Retrieve the longest duration of an iteration since the loop was started
+     * @return the duration in seconds
+     */
+    public double getMaxDuration()
+    {
+        return this.maxDuration;
+    }
+
+    /**
+     * Retrieve the time between the starts of the two most recent iterations
+     * @return the period in seconds
+     */
+    public double getLastPeriod()
+    {
+        return this.lastPeriod;
+    }
+
+    /**
+     * Retrieve the (smoothed) average time between the starts of iterations
+     * @return the period in seconds
+     */
+    public double getAveragePeriod()
+    {
+        return this.averagePeriodValue;
+    }
+
+    /**
+     * Retrieve how late the most recent iteration started compared to its deadline
+     * @return the lateness in seconds
+     */
+    public double getLastLateness()
+    {
+        return this.lastLateness;
+    }
+
+    /**
+     * Retrieve how late the latest iteration started compared to its deadline since the loop was started
+     * @return the lateness in seconds
+     */
+    public double getMaxLateness()
+    {
+        return this.maxLateness;
+    }
+}
@@ -61,6 +61,30 @@ public interface IDashboardLogger
      */
     void logString(String component, String key, String value);
 
+    /**
+     * Register a boolean channel that can be written to repeatedly without allocating
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    IBooleanLogChannel registerBooleanChannel(String component, String key);
+
+    /**
+     * Register a number (double) channel that can be written to repeatedly without allocating
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    INumberLogChannel registerNumberChannel(String component, String key);
+
+    /**
+     * Register a string channel that can be written to repeatedly without allocating
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    IStringLogChannel registerStringChannel(String component, String key);
+
     /**
      * Flush the output stream, if appropriate..
      */
@@ -0,0 +1,16 @@
+package org.usfirst.frc.team1318.robot.common;
+
+/**
+ * A string value that has been registered with a logger once, and can then be published repeatedly
+ * without looking up or formatting the key again.
+ *
+ */
+@FunctionalInterface
+public interface IStringLogChannel
+{
+    /**
+     * Publish a new value for the channel
+     * @param value to write
+     */
+    void publish(String value);
+}
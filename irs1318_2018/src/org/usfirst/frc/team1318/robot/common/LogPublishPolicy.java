@@ -0,0 +1,50 @@
+package org.usfirst.frc.team1318.robot.common;
+
+/**
+ * Describes how often a value should be published by the ThrottledLogger.
+ *
+ * A value is published the first time it is logged, whenever it has changed (by more than the deadband for numbers)
+ * and at least the minimum period has passed since it was last published, and whenever the refresh period has passed
+ * since it was last published (even if it hasn't changed).  A change that comes sooner than the minimum period is
+ * published once the minimum period has passed.
+ *
+ */
+public class LogPublishPolicy
+{
+    /**
+     * Policy that publishes every value that is logged
+     */
+    public static final LogPublishPolicy Always = new LogPublishPolicy(0.0, -1.0, 0.0);
+
+    private final double minPeriod;
+    private final double deadband;
+    private final double refreshPeriod;
+
+    /**
+     * Initializes a new LogPublishPolicy
+     * @param minPeriod the minimum time between publishing changed values, in seconds
+     * @param deadband the amount a number must change by to be considered changed
+     * @param refreshPeriod the time after which a value is published even if it hasn't changed, in seconds
+     */
+    public LogPublishPolicy(double minPeriod, double deadband, double refreshPeriod)
+    {
+        this.minPeriod = minPeriod;
+        this.deadband = deadband;
+        this.refreshPeriod = refreshPeriod;
+    }
+
+    public double getMinPeriod()
+    {
+        return this.minPeriod;
+    }
+
+    public double getDeadband()
+    {
+        return this.deadband;
+    }
+
+    public double getRefreshPeriod()
+    {
+        return this.refreshPeriod;
+    }
+}
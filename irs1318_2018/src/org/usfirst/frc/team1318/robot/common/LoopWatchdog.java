@@ -0,0 +1,309 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import org.usfirst.frc.team1318.robot.TuningConstants;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Control loop watchdog.
+ *
+ * Timestamps each phase of the control loop (read sensors, update the driver, update the mechanisms, flush the logger)
+ * and checks the whole iteration against a time budget.  When an iteration runs over budget, a trace of that
+ * iteration is kept: how long each phase took, which mechanism was slowest (and in which phase, based on the
+ * timings from the MechanismProfiler), and whether the garbage collector ran during the iteration.
+ *
+ * The traces of the most recent overruns are kept in preallocated arrays so that recording them does not allocate,
+ * and can be dumped for post-match analysis (and then reset, so that each dump only covers the iterations since the
+ * previous one).
+ *
+ */
+@Singleton
+public class LoopWatchdog
+{
+    public static final int ReadSensorsPhase = 0;
+    public static final int DriverUpdatePhase = 1;
+    public static final int MechanismsUpdatePhase = 2;
+    public static final int LoggerFlushPhase = 3;
+
+    private static final String LogName = "watchdog";
+    private static final String[] PhaseNames = new String[] { "read", "driver", "update", "flush" };
+    private static final String[] MechanismPhaseNames = new String[] { "read", "update" };
+    private static final double NanosPerMilli = 1000000.0;
+
+    private final long budgetNanos;
+    private final MechanismProfiler profiler;
+    private final GarbageCollectorMXBean[] garbageCollectors;
+
+    private final INumberLogChannel overrunsLog;
+    private final INumberLogChannel lastOverrunLog;
+
+    // timing of the current iteration
+    private long cycleCount;
+    private long cycleStartNanos;
+    private long phaseStartNanos;
+    private final long[] phaseNanos;
+    private long cycleStartGcCount;
+    private long cycleStartGcMillis;
+
+    // traces of the most recent overruns (a ring buffer, with the oldest trace overwritten first)
+    private final long[] traceCycles;
+    private final double[] traceTimes;
+    private final long[] traceDurations;
+    private final long[][] tracePhaseNanos;
+    private final int[] traceSlowestMechanisms;
+    private final int[] traceSlowestMechanismPhases;
+    private final long[] traceSlowestMechanismNanos;
+    private final long[] traceGcCounts;
+    private final long[] traceGcMillis;
+    private long overrunCount;
+    private long worstDuration;
+
+    /**
+     * Initializes a new LoopWatchdog using the budget and trace capacity from the tuning constants
+     * @param mechanisms whose profiler (if any) provides the per-mechanism timings
+     * @param logger to use
+     */
+    @Inject
+    public LoopWatchdog(MechanismManager mechanisms, IDashboardLogger logger)
+    {
+        this(
+            mechanisms.getProfiler(),
+            logger,
+            TuningConstants.LOOP_WATCHDOG_BUDGET,
+            TuningConstants.LOOP_WATCHDOG_TRACE_CAPACITY);
+    }
+
+    /**
+     * Initializes a new LoopWatchdog
+     * @param profiler providing the per-mechanism timings, or null if mechanisms aren't profiled
+     * @param logger to use
+     * @param budget the longest an iteration should take (in seconds)
+     * @param traceCapacity the number of recent overruns to keep traces of
+     */
+    public LoopWatchdog(MechanismProfiler profiler, IDashboardLogger logger, double budget, int traceCapacity)
+    {
+        this.budgetNanos = (long)(budget * 1000000000.0);
+        this.profiler = profiler;
+
+        List<GarbageCollectorMXBean> garbageCollectorList = ManagementFactory.getGarbageCollectorMXBeans();
+        this.garbageCollectors = garbageCollectorList.toArray(new GarbageCollectorMXBean[garbageCollectorList.size()]);
+
+        this.overrunsLog = logger.registerNumberChannel(LoopWatchdog.LogName, "overruns");
+        this.lastOverrunLog = logger.registerNumberChannel(LoopWatchdog.LogName, "last_overrun");
+
+        this.phaseNanos = new long[LoopWatchdog.PhaseNames.length];
+
+        this.traceCycles = new long[traceCapacity];
+        this.traceTimes = new double[traceCapacity];
+        this.traceDurations = new long[traceCapacity];
+        this.tracePhaseNanos = new long[traceCapacity][LoopWatchdog.PhaseNames.length];
+        this.traceSlowestMechanisms = new int[traceCapacity];
+        this.traceSlowestMechanismPhases = new int[traceCapacity];
+        this.traceSlowestMechanismNanos = new long[traceCapacity];
+        this.traceGcCounts = new long[traceCapacity];
+        this.traceGcMillis = new long[traceCapacity];
+
+        this.reset();
+    }
+
+    /**
+     * Mark the start of a control loop iteration
+     */
+    public void startCycle()
+    {
+        this.cycleStartGcCount = this.getGcCount();
+        this.cycleStartGcMillis = this.getGcMillis();
+
+        this.cycleStartNanos = System.nanoTime();
+        this.phaseStartNanos = this.cycleStartNanos;
+        for (int i = 0; i < this.phaseNanos.length; i++)
+        {
+            this.phaseNanos[i] = 0L;
+        }
+    }
+
+    /**
+     * Mark the end of a phase of the current iteration (the next phase starts immediately)
+     * @param phase that ended (ReadSensorsPhase, DriverUpdatePhase, MechanismsUpdatePhase or LoggerFlushPhase)
+     */
+    public void endPhase(int phase)
+    {
+        long now = System.nanoTime();
+        this.phaseNanos[phase] += now - this.phaseStartNanos;
+        this.phaseStartNanos = now;
+    }
+
+    /**
+     * Mark the end of a control loop iteration, keeping a trace of it if it ran over budget
+     * @param time of the iteration (from the timer), to identify it in the trace
+     * @return true if the iteration ran over budget
+     */
+    public boolean endCycle(double time)
+    {
+        long duration = System.nanoTime() - this.cycleStartNanos;
+        this.cycleCount++;
+        if (duration <= this.budgetNanos)
+        {
+            return false;
+        }
+
+        int trace = (int)(this.overrunCount % this.traceCycles.length);
+        this.overrunCount++;
+        this.worstDuration = Math.max(this.worstDuration, duration);
+
+        this.traceCycles[trace] = this.cycleCount;
+        this.traceTimes[trace] = time;
+        this.traceDurations[trace] = duration;
+        System.arraycopy(this.phaseNanos, 0, this.tracePhaseNanos[trace], 0, this.phaseNanos.length);
+        this.traceGcCounts[trace] = this.getGcCount() - this.cycleStartGcCount;
+        this.traceGcMillis[trace] = this.getGcMillis() - this.cycleStartGcMillis;
+
+        // find the slowest mechanism in this iteration
+        int slowestMechanism = -1;
+        int slowestMechanismPhase = -1;
+        long slowestMechanismNanos = 0L;
+        if (this.profiler != null)
+        {
+            for (int i = 0; i < this.profiler.getMechanismCount(); i++)
+            {
+                for (int phase = 0; phase < LoopWatchdog.MechanismPhaseNames.length; phase++)
+                {
+                    long nanos = this.profiler.getHistogram(i, phase).getLast();
+                    if (nanos > slowestMechanismNanos)
+                    {
+                        slowestMechanism = i;
+                        slowestMechanismPhase = phase;
+                        slowestMechanismNanos = nanos;
+                    }
+                }
+            }
+        }
+
+        this.traceSlowestMechanisms[trace] = slowestMechanism;
+        this.traceSlowestMechanismPhases[trace] = slowestMechanismPhase;
+        this.traceSlowestMechanismNanos[trace] = slowestMechanismNanos;
+
+        this.overrunsLog.publish(this.overrunCount);
+        this.lastOverrunLog.publish(duration / LoopWatchdog.NanosPerMilli);
+        return true;
+    }
+
+    /**
+     * Retrieve the number of iterations since the watchdog was reset
+     * @return the number of iterations
+     */
+    public long getCycleCount()
+    {
+        return this.cycleCount;
+    }
+
+    /**
+     * Retrieve the number of iterations that ran over budget since the watchdog was reset
+     * @return the number of overruns
+     */
+    public long getOverrunCount()
+    {
+        return this.overrunCount;
+    }
+
+    /**
+     * Write the traces of the most recent overruns (times in milliseconds) for post-match analysis
+     * @param output to write the traces to
+     */
+    public void dump(PrintStream output)
+    {
+        output.println(
+            String.format(
+                "%d of %d iterations ran over the %.3fms budget (worst %.3fms)",
+                this.overrunCount,
+                this.cycleCount,
+                this.budgetNanos / LoopWatchdog.NanosPerMilli,
+                this.worstDuration / LoopWatchdog.NanosPerMilli));
+
+        if (this.overrunCount == 0)
+        {
+            return;
+        }
+
+        output.println(
+            String.format(
+                "%8s %8s %9s %9s %9s %9s %9s %-32s %9s %3s %6s",
+                "cycle", "time", "total", "read", "driver", "update", "flush", "slowest mechanism", "mech", "gc", "gc ms"));
+
+        int traceCount = (int)Math.min(this.overrunCount, this.traceCycles.length);
+        for (int i = 0; i < traceCount; i++)
+        {
+            // oldest first
+            int trace = (int)((this.overrunCount - traceCount + i) % this.traceCycles.length);
+
+            String slowestMechanism = "";
+            if (this.traceSlowestMechanisms[trace] >= 0)
+            {
+                slowestMechanism = this.profiler.getMechanismName(this.traceSlowestMechanisms[trace])
+                    + "." + LoopWatchdog.MechanismPhaseNames[this.traceSlowestMechanismPhases[trace]];
+            }
+
+            long[] phases = this.tracePhaseNanos[trace];
+            output.println(
+                String.format(
+                    "%8d %8.3f %9.3f %9.3f %9.3f %9.3f %9.3f %-32s %9.3f %3d %6d",
+                    this.traceCycles[trace],
+                    this.traceTimes[trace],
+                    this.traceDurations[trace] / LoopWatchdog.NanosPerMilli,
+                    phases[LoopWatchdog.ReadSensorsPhase] / LoopWatchdog.NanosPerMilli,
+                    phases[LoopWatchdog.DriverUpdatePhase] / LoopWatchdog.NanosPerMilli,
+                    phases[LoopWatchdog.MechanismsUpdatePhase] / LoopWatchdog.NanosPerMilli,
+                    phases[LoopWatchdog.LoggerFlushPhase] / LoopWatchdog.NanosPerMilli,
+                    slowestMechanism,
+                    this.traceSlowestMechanismNanos[trace] / LoopWatchdog.NanosPerMilli,
+                    this.traceGcCounts[trace],
+                    this.traceGcMillis[trace]));
+        }
+    }
+
+    /**
+     * Clear all of the overrun traces, and the iteration and overrun counts
+     */
+    public void reset()
+    {
+        this.cycleCount = 0;
+        this.overrunCount = 0;
+        this.worstDuration = 0L;
+    }
+
+    /**
+     * Get the total number of garbage collections so far
+     * @return the number of collections
+     */
+    private long getGcCount()
+    {
+        long count = 0;
+        for (GarbageCollectorMXBean garbageCollector : this.garbageCollectors)
+        {
+            count += Math.max(0L, garbageCollector.getCollectionCount());
+        }
+
+        return count;
+    }
+
+    /**
+     * Get the total time spent in garbage collection so far
+     * @return the time in milliseconds
+     */
+    private long getGcMillis()
+    {
+        long millis = 0;
+        for (GarbageCollectorMXBean garbageCollector : this.garbageCollectors)
+        {
+            millis += Math.max(0L, garbageCollector.getCollectionTime());
+        }
+
+        return millis;
+    }
+}
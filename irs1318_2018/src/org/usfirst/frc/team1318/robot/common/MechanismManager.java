@@ -1,24 +1,65 @@
 package org.usfirst.frc.team1318.robot.common;
 
+import java.io.PrintStream;
 import java.util.List;
 
 import org.usfirst.frc.team1318.robot.TuningConstants;
+import org.usfirst.frc.team1318.robot.common.wpilib.CANIOCoordinator;
 import org.usfirst.frc.team1318.robot.driver.common.Driver;
 
 public class MechanismManager implements IMechanism
 {
     public final List<IMechanism> mechanismList;
 
+    private final MechanismProfiler profiler;
+    private final CANIOCoordinator canCoordinator;
+
+    /**
+     * Initializes a new MechanismManager without profiling
+     * @param mechanismList the mechanisms to manage
+     */
     public MechanismManager(List<IMechanism> mechanismList)
+    {
+        this(mechanismList, null, null);
+    }
+
+    /**
+     * Initializes a new MechanismManager, profiling each mechanism if enabled in the tuning constants
+     * @param mechanismList the mechanisms to manage
+     * @param logger to use for logging profiler summaries, or null to disable profiling
+     * @param canCoordinator to read sensors before and write outputs after the mechanisms, or null if not coordinated
+     */
+    public MechanismManager(List<IMechanism> mechanismList, IDashboardLogger logger, CANIOCoordinator canCoordinator)
     {
         this.mechanismList = mechanismList;
+        this.canCoordinator = canCoordinator;
+
+        if (TuningConstants.MECHANISM_PROFILER_ENABLED && logger != null)
+        {
+            this.profiler = new MechanismProfiler(
+                mechanismList,
+                logger,
+                TuningConstants.MECHANISM_PROFILER_SAMPLE_COUNT,
+                TuningConstants.MECHANISM_PROFILER_LOG_INTERVAL);
+        }
+        else
+        {
+            this.profiler = null;
+        }
     }
 
     @Override
     public void readSensors()
     {
-        for (IMechanism mechanism : this.mechanismList)
+        if (this.canCoordinator != null)
         {
+            this.canCoordinator.readSensors();
+        }
+
+        for (int i = 0; i < this.mechanismList.size(); i++)
+        {
+            IMechanism mechanism = this.mechanismList.get(i);
+            long startTime = System.nanoTime();
             try
             {
                 mechanism.readSensors();
@@ -30,14 +71,21 @@ public class MechanismManager implements IMechanism
                     throw ex;
                 }
             }
+
+            if (this.profiler != null)
+            {
+                this.profiler.record(i, MechanismProfiler.ReadSensorsPhase, System.nanoTime() - startTime);
+            }
         }
     }
 
     @Override
     public void update()
     {
-        for (IMechanism mechanism : this.mechanismList)
+        for (int i = 0; i < this.mechanismList.size(); i++)
         {
+            IMechanism mechanism = this.mechanismList.get(i);
+            long startTime = System.nanoTime();
             try
             {
                 mechanism.update();
@@ -49,6 +97,21 @@ public class MechanismManager implements IMechanism
                     throw ex;
                 }
             }
+
+            if (this.profiler != null)
+            {
+                this.profiler.record(i, MechanismProfiler.UpdatePhase, System.nanoTime() - startTime);
+            }
+        }
+
+        if (this.canCoordinator != null)
+        {
+            this.canCoordinator.writeOutputs();
+        }
+
+        if (this.profiler != null)
+        {
+            this.profiler.logIfDue();
         }
     }
 
@@ -79,4 +142,36 @@ public class MechanismManager implements IMechanism
             mechanism.setDriver(driver);
         }
     }
+
+    /**
+     * Retrieve the profiler for the mechanisms
+     * @return the profiler, or null if profiling is disabled
+     */
+    public MechanismProfiler getProfiler()
+    {
+        return this.profiler;
+    }
+
+    /**
+     * Write the profiling summary of each mechanism for post-match analysis
+     * @param output to write the summary to
+     */
+    public void dumpProfile(PrintStream output)
+    {
+        if (this.profiler != null)
+        {
+            this.profiler.dump(output);
+        }
+    }
+
+    /**
+     * Clear the profiling timings of each mechanism (e.g. after they have been written out)
+     */
+    public void resetProfile()
+    {
+        if (this.profiler != null)
+        {
+            this.profiler.reset();
+        }
+    }
 }
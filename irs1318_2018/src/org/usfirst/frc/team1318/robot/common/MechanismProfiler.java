@@ -0,0 +1,188 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Mechanism profiler.
+ *
+ * Records how long each mechanism takes in each phase of the control loop (readSensors and update) into a timing
+ * histogram per mechanism per phase.  All histograms and log channels are created up-front so that recording a timing
+ * does not allocate.  Summaries are logged for one mechanism at a time at a throttled rate, and can be dumped in
+ * full for post-match analysis.
+ *
+ */
+public class MechanismProfiler
+{
+    public static final int ReadSensorsPhase = 0;
+    public static final int UpdatePhase = 1;
+
+    private static final String LogName = "prof";
+    private static final String[] PhaseNames = new String[] { "read", "update" };
+    private static final String[] StatisticNames = new String[] { "min", "mean", "p50", "p99", "max" };
+    private static final double NanosPerMilli = 1000000.0;
+
+    private final int logInterval;
+
+    private final String[] mechanismNames;
+    private final TimingHistogram[][] histograms;
+    private final INumberLogChannel[][][] logChannels;
+
+    private int updatesSinceLog;
+    private int nextMechanismToLog;
+
+    /**
+     * Initializes a new MechanismProfiler
+     * @param mechanismList the mechanisms that will be profiled, in order
+     * @param logger to use
+     * @param capacity the number of recent samples to keep per mechanism per phase
+     * @param logInterval the number of control loop iterations between logging the summary for a mechanism
+     */
+    public MechanismProfiler(List<IMechanism> mechanismList, IDashboardLogger logger, int capacity, int logInterval)
+    {
+        this.logInterval = logInterval;
+
+        int mechanismCount = mechanismList.size();
+        this.mechanismNames = new String[mechanismCount];
+        this.histograms = new TimingHistogram[mechanismCount][MechanismProfiler.PhaseNames.length];
+        this.logChannels = new INumberLogChannel[mechanismCount][MechanismProfiler.PhaseNames.length][MechanismProfiler.StatisticNames.length];
+        for (int i = 0; i < mechanismCount; i++)
+        {
+            this.mechanismNames[i] = mechanismList.get(i).getClass().getSimpleName();
+            for (int phase = 0; phase < MechanismProfiler.PhaseNames.length; phase++)
+            {
+                this.histograms[i][phase] = new TimingHistogram(capacity);
+                for (int statistic = 0; statistic < MechanismProfiler.StatisticNames.length; statistic++)
+                {
+                    this.logChannels[i][phase][statistic] = logger.registerNumberChannel(
+                        MechanismProfiler.LogName,
+                        String.format(
+                            "%s.%s.%s",
+                            this.mechanismNames[i],
+                            MechanismProfiler.PhaseNames[phase],
+                            MechanismProfiler.StatisticNames[statistic]));
+                }
+            }
+        }
+
+        this.updatesSinceLog = 0;
+        this.nextMechanismToLog = 0;
+    }
+
+    /**
+     * Record the time a mechanism took for a phase
+     * @param mechanismIndex the index of the mechanism within the mechanism list
+     * @param phase the phase (ReadSensorsPhase or UpdatePhase)
+     * @param nanos the time taken, in nanoseconds
+     */
+    public void record(int mechanismIndex, int phase, long nanos)
+    {
+        this.histograms[mechanismIndex][phase].record(nanos);
+    }
+
+    /**
+     * Called once per control loop iteration.  Every logInterval iterations, log the summary of the next mechanism.
+     */
+    public void logIfDue()
+    {
+        this.updatesSinceLog++;
+        if (this.updatesSinceLog < this.logInterval || this.mechanismNames.length == 0)
+        {
+            return;
+        }
+
+        this.updatesSinceLog = 0;
+
+        int mechanismIndex = this.nextMechanismToLog;
+        for (int phase = 0; phase < MechanismProfiler.PhaseNames.length; phase++)
+        {
+            TimingHistogram histogram = this.histograms[mechanismIndex][phase];
+            histogram.computeSummary();
+
+            INumberLogChannel[] channels = this.logChannels[mechanismIndex][phase];
+            channels[0].publish(histogram.getMin() / MechanismProfiler.NanosPerMilli);
+            channels[1].publish(histogram.getMean() / MechanismProfiler.NanosPerMilli);
+            channels[2].publish(histogram.getP50() / MechanismProfiler.NanosPerMilli);
+            channels[3].publish(histogram.getP99() / MechanismProfiler.NanosPerMilli);
+            channels[4].publish(histogram.getMax() / MechanismProfiler.NanosPerMilli);
+        }
+
+        this.nextMechanismToLog = (this.nextMechanismToLog + 1) % this.mechanismNames.length;
+    }
+
+    /**
+     * Write a summary table of all mechanisms and phases (in milliseconds) for post-match analysis
+     * @param output to write the summary to
+     */
+    public void dump(PrintStream output)
+    {
+        output.println(String.format("%-24s %-7s %8s %9s %9s %9s %9s %9s", "mechanism", "phase", "samples", "min", "mean", "p50", "p99", "max"));
+        for (int i = 0; i < this.mechanismNames.length; i++)
+        {
+            for (int phase = 0; phase < MechanismProfiler.PhaseNames.length; phase++)
+            {
+                TimingHistogram histogram = this.histograms[i][phase];
+                histogram.computeSummary();
+
+                output.println(
+                    String.format(
+                        "%-24s %-7s %8d %9.3f %9.3f %9.3f %9.3f %9.3f",
+                        this.mechanismNames[i],
+                        MechanismProfiler.PhaseNames[phase],
+                        histogram.getTotalSampleCount(),
+                        histogram.getMin() / MechanismProfiler.NanosPerMilli,
+                        histogram.getMean() / MechanismProfiler.NanosPerMilli,
+                        histogram.getP50() / MechanismProfiler.NanosPerMilli,
+                        histogram.getP99() / MechanismProfiler.NanosPerMilli,
+                        histogram.getMax() / MechanismProfiler.NanosPerMilli));
+            }
+        }
+    }
+
+    /**
+     * Retrieve the histogram for a mechanism and phase
+     * @param mechanismIndex the index of the mechanism within the mechanism list
+     * @param phase the phase (ReadSensorsPhase or UpdatePhase)
+     * @return the histogram of timings
+     */
+    public TimingHistogram getHistogram(int mechanismIndex, int phase)
+    {
+        return this.histograms[mechanismIndex][phase];
+    }
+
+    /**
+     * Retrieve the number of mechanisms being profiled
+     * @return the number of mechanisms
+     */
+    public int getMechanismCount()
+    {
+        return this.mechanismNames.length;
+    }
+
+    /**
+     * Retrieve the name of a mechanism
+     * @param mechanismIndex the index of the mechanism within the mechanism list
+     * @return the name of the mechanism
+     */
+    public String getMechanismName(int mechanismIndex)
+    {
+        return this.mechanismNames[mechanismIndex];
+    }
+
+    /**
+     * Clear all of the recorded timings
+     */
+    public void reset()
+    {
+        for (TimingHistogram[] mechanismHistograms : this.histograms)
+        {
+            for (TimingHistogram histogram : mechanismHistograms)
+            {
+                histogram.reset();
+            }
+        }
+
+        this.updatesSinceLog = 0;
+        this.nextMechanismToLog = 0;
+    }
+}
@@ -0,0 +1,181 @@
+package org.usfirst.frc.team1318.robot.common;
+
+/**
+ * Motion profile.
+ *
+ * A precomputed, time-parameterized table of the position, velocity and acceleration to follow while moving from a
+ * start position (0) to an end position, sampled at a fixed time step.  The tables are held in primitive arrays, so
+ * looking up the state at a time is linear interpolation between the two nearest samples, with no allocation.
+ * Times before the start or after the end of the profile are clamped to the start or end.
+ *
+ * Profiles are created by the MotionProfileGenerator.
+ *
+ */
+public class MotionProfile
+{
+    private final double timeStep;
+    private final double[] positions;
+    private final double[] velocities;
+    private final double[] accelerations;
+
+    /**
+     * Initializes a new MotionProfile
+     * @param timeStep the time between each sample
+     * @param positions the position at each sample
+     * @param velocities the velocity at each sample
+     * @param accelerations the acceleration at each sample
+     */
+    public MotionProfile(double timeStep, double[] positions, double[] velocities, double[] accelerations)
+    {
+        if (positions.length == 0 || positions.length != velocities.length || positions.length != accelerations.length)
+        {
+            throw new IllegalArgumentException("expected the same (non-zero) number of positions, velocities and accelerations");
+        }
+
+        this.timeStep = timeStep;
+        this.positions = positions;
+        this.velocities = velocities;
+        this.accelerations = accelerations;
+    }
+
+    /**
+     * Gets the time that it takes to follow the profile
+     * @return the duration, in seconds
+     */
+    public double getDuration()
+    {
+        return (this.positions.length - 1) * this.timeStep;
+    }
+
+    /**
+     * Gets the position at the end of the profile
+     * @return the end position
+     */
+    public double getEndPosition()
+    {
+        return this.positions[this.positions.length - 1];
+    }
+
+    /**
+     * Gets the time between each sample
+     * @return the time step, in seconds
+     */
+    public double getTimeStep()
+    {
+        return this.timeStep;
+    }
+
+    /**
+     * Gets the number of samples in the profile
+     * @return the number of samples
+     */
+    public int getSampleCount()
+    {
+        return this.positions.length;
+    }
+
+    /**
+     * Gets the position of a sample
+     * @param sample index (between 0 and the number of samples - 1)
+     * @return the position
+     */
+    public double getSamplePosition(int sample)
+    {
+        return this.positions[sample];
+    }
+
+    /**
+     * Gets the velocity of a sample
+     * @param sample index (between 0 and the number of samples - 1)
+     * @return the velocity
+     */
+    public double getSampleVelocity(int sample)
+    {
+        return this.velocities[sample];
+    }
+
+    /**
+     * Gets the acceleration of a sample
+     * @param sample index (between 0 and the number of samples - 1)
+     * @return the acceleration
+     */
+    public double getSampleAcceleration(int sample)
+    {
+        return this.accelerations[sample];
+    }
+
+    /**
+     * Gets the position that we should be at a certain time
+     * @param time since the start of the profile, in seconds
+     * @return the position
+     */
+    public double getPosition(double time)
+    {
+        return this.sample(this.positions, time);
+    }
+
+    /**
+     * Gets the velocity that we should be moving at a certain time
+     * @param time since the start of the profile, in seconds
+     * @return the velocity
+     */
+    public double getVelocity(double time)
+    {
+        return this.sample(this.velocities, time);
+    }
+
+    /**
+     * Gets the acceleration that we should have at a certain time
+     * @param time since the start of the profile, in seconds
+     * @return the acceleration
+     */
+    public double getAcceleration(double time)
+    {
+        return this.sample(this.accelerations, time);
+    }
+
+    /**
+     * Creates a copy of this profile in different units (e.g. converting from inches to encoder ticks)
+     * @param factor to multiply the positions, velocities and accelerations by
+     * @return the scaled profile
+     */
+    public MotionProfile scale(double factor)
+    {
+        double[] scaledPositions = new double[this.positions.length];
+        double[] scaledVelocities = new double[this.velocities.length];
+        double[] scaledAccelerations = new double[this.accelerations.length];
+        for (int i = 0; i < this.positions.length; i++)
+        {
+            scaledPositions[i] = this.positions[i] * factor;
+            scaledVelocities[i] = this.velocities[i] * factor;
+            scaledAccelerations[i] = this.accelerations[i] * factor;
+        }
+
+        return new MotionProfile(this.timeStep, scaledPositions, scaledVelocities, scaledAccelerations);
+    }
+
+    /**
+     * Interpolate between the samples on either side of a time
+     * @param values to sample
+     * @param time since the start of the profile, in seconds
+     * @return the interpolated value
+     */
+    private double sample(double[] values, double time)
+    {
+        double index = time / this.timeStep;
+        if (!(index > 0.0))
+        {
+            return values[0];
+        }
+
+        int lastIndex = values.length - 1;
+        if (index >= lastIndex)
+        {
+            return values[lastIndex];
+        }
+
+        int before = (int)index;
+        double fraction = index - before;
+        return values[before] + fraction * (values[before + 1] - values[before]);
+    }
+}
@@ -0,0 +1,243 @@
+package org.usfirst.frc.team1318.robot.common;
+
+/**
+ * Motion profile generator.
+ *
+ * Generates the minimum-time motion profile for moving a distance within velocity and acceleration limits:
+ *
+ * Trapezoidal profiles accelerate at the max acceleration until reaching the max velocity, cruise, and then
+ * decelerate at the max acceleration (for short distances, the max velocity is never reached and the profile is a
+ * triangle).  The acceleration changes instantly, which can cause wheel slip and jerky mechanisms.
+ *
+ * S-curve profiles also limit the jerk (rate of change of acceleration).  They are generated by filtering the
+ * trapezoidal profile with a moving average over maxAcceleration / maxJerk seconds, which ramps the acceleration
+ * between zero and its max at the max jerk, keeps the velocity and acceleration within their limits, and reaches the
+ * same distance (taking maxAcceleration / maxJerk seconds longer than the trapezoidal profile).
+ *
+ */
+public class MotionProfileGenerator
+{
+    public static final double DefaultTimeStep = 0.01; // in seconds
+
+    /**
+     * Generate a trapezoidal motion profile
+     * @param distance to move (can be negative to move backwards)
+     * @param maxVelocity the maximum velocity, in distance units per second
+     * @param maxAcceleration the maximum acceleration, in distance units per second per second
+     * @return the motion profile
+     */
+    public static MotionProfile GenerateTrapezoidal(double distance, double maxVelocity, double maxAcceleration)
+    {
+        return MotionProfileGenerator.GenerateSCurve(
+            distance,
+            maxVelocity,
+            maxAcceleration,
+            Double.POSITIVE_INFINITY,
+            MotionProfileGenerator.DefaultTimeStep);
+    }
+
+    /**
+     * Generate a jerk-limited (S-curve) motion profile
+     * @param distance to move (can be negative to move backwards)
+     * @param maxVelocity the maximum velocity, in distance units per second
+     * @param maxAcceleration the maximum acceleration, in distance units per second per second
+     * @param maxJerk the maximum jerk, in distance units per second per second per second (infinite for trapezoidal)
+     * @return the motion profile
+     */
+    public static MotionProfile GenerateSCurve(double distance, double maxVelocity, double maxAcceleration, double maxJerk)
+    {
+        return MotionProfileGenerator.GenerateSCurve(
+            distance,
+            maxVelocity,
+            maxAcceleration,
+            maxJerk,
+            MotionProfileGenerator.DefaultTimeStep);
+    }
+
+    /**
+     * Generate a jerk-limited (S-curve) motion profile
+     * @param distance to move (can be negative to move backwards)
+     * @param maxVelocity the maximum velocity, in distance units per second
+     * @param maxAcceleration the maximum acceleration, in distance units per second per second
+     * @param maxJerk the maximum jerk, in distance units per second per second per second (infinite for trapezoidal)
+     * @param timeStep the time between each sample of the profile, in seconds
+     * @return the motion profile
+     */
+    public static MotionProfile GenerateSCurve(
+        double distance,
+        double maxVelocity,
+        double maxAcceleration,
+        double maxJerk,
+        double timeStep)
+    {
+        if (!(maxVelocity > 0.0) || !(maxAcceleration > 0.0) || !(maxJerk > 0.0) || !(timeStep > 0.0))
+        {
+            throw new IllegalArgumentException("expected positive velocity, acceleration, jerk and time step limits");
+        }
+
+        // generate the profile for a positive distance, and mirror it at the end for a negative distance
+        double direction = distance < 0.0 ? -1.0 : 1.0;
+        distance = Math.abs(distance);
+
+        // the peak velocity is the max velocity, unless we need to start decelerating before reaching it
+        double peakVelocity = Math.min(maxVelocity, Math.sqrt(distance * maxAcceleration));
+        double accelerationTime = peakVelocity / maxAcceleration;
+        double cruiseTime = peakVelocity > 0.0 ? (distance - peakVelocity * accelerationTime) / peakVelocity : 0.0;
+        double trapezoidalDuration = 2.0 * accelerationTime + cruiseTime;
+
+        // the moving average is over a whole number of samples, so the jerk is at most the max jerk
+        int filterLength = 1;
+        if (!Double.isInfinite(maxJerk))
+        {
+            filterLength = Math.max(1, (int)Math.ceil(maxAcceleration / maxJerk / timeStep));
+        }
+
+        int trapezoidalSampleCount = (int)Math.ceil(trapezoidalDuration / timeStep - 1e-9) + 1;
+        int sampleCount = trapezoidalSampleCount + filterLength - 1;
+
+        double[] positions = new double[sampleCount];
+        double[] velocities = new double[sampleCount];
+        double[] accelerations = new double[sampleCount];
+
+        // moving average over the most recent filterLength samples of the trapezoidal profile (which is at rest before
+        // its start and after its end)
+        double positionSum = 0.0;
+        double velocitySum = 0.0;
+        double accelerationSum = 0.0;
+        for (int i = 0; i < sampleCount; i++)
+        {
+            double time = i * timeStep;
+            positionSum += MotionProfileGenerator.TrapezoidalPosition(time, distance, peakVelocity, maxAcceleration, accelerationTime, cruiseTime);
+            velocitySum += MotionProfileGenerator.TrapezoidalVelocity(time, peakVelocity, maxAcceleration, accelerationTime, cruiseTime);
+            accelerationSum += MotionProfileGenerator.TrapezoidalAcceleration(time, maxAcceleration, accelerationTime, cruiseTime);
+
+            int removed = i - filterLength;
+            if (removed >= 0)
+            {
+                double removedTime = removed * timeStep;
+                positionSum -= MotionProfileGenerator.TrapezoidalPosition(removedTime, distance, peakVelocity, maxAcceleration, accelerationTime, cruiseTime);
+                velocitySum -= MotionProfileGenerator.TrapezoidalVelocity(removedTime, peakVelocity, maxAcceleration, accelerationTime, cruiseTime);
+                accelerationSum -= MotionProfileGenerator.TrapezoidalAcceleration(removedTime, maxAcceleration, accelerationTime, cruiseTime);
+            }
+
+            positions[i] = direction * positionSum / filterLength;
+            velocities[i] = direction * velocitySum / filterLength;
+            accelerations[i] = direction * accelerationSum / filterLength;
+        }
+
+        // avoid accumulated rounding error at the end of the profile
+        positions[sampleCount - 1] = direction * distance;
+        velocities[sampleCount - 1] = 0.0;
+        accelerations[sampleCount - 1] = 0.0;
+
+        return new MotionProfile(timeStep, positions, velocities, accelerations);
+    }
+
+    /**
+     * Calculate the position along a (positive) trapezoidal profile
+     * @param time since the start of the profile
+     * @param distance to move
+     * @param peakVelocity the velocity that is cruised at
+     * @param acceleration while accelerating and decelerating
+     * @param accelerationTime time spent accelerating (and decelerating)
+     * @param cruiseTime time spent at the peak velocity
+     * @return the position
+     */
+    private static double TrapezoidalPosition(
+        double time,
+        double distance,
+        double peakVelocity,
+        double acceleration,
+        double accelerationTime,
+        double cruiseTime)
+    {
+        double decelerationStartTime = accelerationTime + cruiseTime;
+        if (time <= 0.0)
+        {
+            return 0.0;
+        }
+        else if (time < accelerationTime)
+        {
+            return 0.5 * acceleration * time * time;
+        }
+        else if (time < decelerationStartTime)
+        {
+            return 0.5 * peakVelocity * accelerationTime + peakVelocity * (time - accelerationTime);
+        }
+        else if (time < decelerationStartTime + accelerationTime)
+        {
+            double remainingTime = decelerationStartTime + accelerationTime - time;
+            return distance - 0.5 * acceleration * remainingTime * remainingTime;
+        }
+
+        return distance;
+    }
+
+    /**
+     * Calculate the velocity along a (positive) trapezoidal profile
+     * @param time since the start of the profile
+     * @param peakVelocity the velocity that is cruised at
+     * @param acceleration while accelerating and decelerating
+     * @param accelerationTime time spent accelerating (and decelerating)
+     * @param cruiseTime time spent at the peak velocity
+     * @return the velocity
+     */
+    private static double TrapezoidalVelocity(
+        double time,
+        double peakVelocity,
+        double acceleration,
+        double accelerationTime,
+        double cruiseTime)
+    {
+        double decelerationStartTime = accelerationTime + cruiseTime;
+        if (time <= 0.0)
+        {
+            return 0.0;
+        }
+        else if (time < accelerationTime)
+        {
+            return acceleration * time;
+        }
+        else if (time < decelerationStartTime)
+        {
+            return peakVelocity;
+        }
+        else if (time < decelerationStartTime + accelerationTime)
+        {
+            return acceleration * (decelerationStartTime + accelerationTime - time);
+        }
+
+        return 0.0;
+    }
+
+    /**
+     * Calculate the acceleration along a (positive) trapezoidal profile
+     * @param time since the start of the profile
+     * @param acceleration while accelerating and decelerating
+     * @param accelerationTime time spent accelerating (and decelerating)
+     * @param cruiseTime time spent at the peak velocity
+     * @return the acceleration
+     */
+    private static double TrapezoidalAcceleration(double time, double acceleration, double accelerationTime, double cruiseTime)
+    {
+        double decelerationStartTime = accelerationTime + cruiseTime;
+        if (time < 0.0)
+        {
+            return 0.0;
+        }
+        else if (time < accelerationTime)
+        {
+            return acceleration;
+        }
+        else if (time < decelerationStartTime)
+        {
+            return 0.0;
+        }
+        else if (time < decelerationStartTime + accelerationTime)
+        {
+            return -acceleration;
+        }
+
+        return 0.0;
+    }
+}
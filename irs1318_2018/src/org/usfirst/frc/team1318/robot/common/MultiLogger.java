@@ -121,6 +121,78 @@ public class MultiLogger implements IDashboardLogger
         }
     }
 
+    /**
+     * Register a boolean channel with each of the loggers
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public IBooleanLogChannel registerBooleanChannel(String component, String key)
+    {
+        IBooleanLogChannel[] channels = new IBooleanLogChannel[this.loggers.length];
+        for (int i = 0; i < this.loggers.length; i++)
+        {
+            channels[i] = this.loggers[i].registerBooleanChannel(component, key);
+        }
+
+        return value ->
+        {
+            for (IBooleanLogChannel channel : channels)
+            {
+                channel.publish(value);
+            }
+        };
+    }
+
+    /**
+     * Register a number (double) channel with each of the loggers
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public INumberLogChannel registerNumberChannel(String component, String key)
+    {
+        INumberLogChannel[] channels = new INumberLogChannel[this.loggers.length];
+        for (int i = 0; i < this.loggers.length; i++)
+        {
+            channels[i] = this.loggers[i].registerNumberChannel(component, key);
+        }
+
+        return value ->
+        {
+            for (INumberLogChannel channel : channels)
+            {
+                channel.publish(value);
+            }
+        };
+    }
+
+    /**
+     * Register a string channel with each of the loggers
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public IStringLogChannel registerStringChannel(String component, String key)
+    {
+        IStringLogChannel[] channels = new IStringLogChannel[this.loggers.length];
+        for (int i = 0; i < this.loggers.length; i++)
+        {
+            channels[i] = this.loggers[i].registerStringChannel(component, key);
+        }
+
+        return value ->
+        {
+            for (IStringLogChannel channel : channels)
+            {
+                channel.publish(value);
+            }
+        };
+    }
+
     /**
      * Flush the output stream, if appropriate..
      */
@@ -341,4 +341,44 @@ public class PIDHandler
         this.errorFilter.reset();
         this.outputFilter.reset();
     }
+
+    /**
+     * Prepare to take over control from another controller (or from open-loop control) without a bump in the output.
+     * The output and its filter start from the output that is currently applied, the integral is seeded so that the
+     * proportional, integral and feed-forward terms together reproduce that output at the current error, and the error
+     * history starts from the current error so that the first derivative doesn't kick.
+     * 
+     * @param setpoint describes the goal value
+     * @param measuredValue describes the measured value
+     * @param output value that is currently applied
+     */
+    public void seed(double setpoint, double measuredValue, double output)
+    {
+        if (this.maxOutput != null && output > this.maxOutput)
+        {
+            output = this.maxOutput;
+        }
+        else if (this.minOutput != null && output < this.minOutput)
+        {
+            output = this.minOutput;
+        }
+
+        double error = setpoint - measuredValue;
+        this.prevError = error;
+        this.prevMeasuredValue = measuredValue;
+        this.prevTime = this.timer.get();
+        if (this.ki != 0.0)
+        {
+            this.integral = (output - this.kp * error - this.kf * setpoint) / this.ki;
+        }
+        else
+        {
+            this.integral = 0.0;
+        }
+
+        this.output = output;
+
+        this.errorFilter.reset(error);
+        this.outputFilter.reset(output);
+    }
 }
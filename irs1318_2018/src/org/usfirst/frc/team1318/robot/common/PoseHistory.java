@@ -0,0 +1,231 @@
+package org.usfirst.frc.team1318.robot.common;
+
+/**
+ * Pose history.
+ *
+ * Fixed-size ring buffer of the robot's recent poses (navX angle and odometry), each stamped with the time it was
+ * recorded, so that we can look up where the robot was pointing when a (delayed) measurement such as a camera frame
+ * was taken.  Poses are held in primitive arrays and are added in time order, so adding is constant-time with no
+ * allocation and lookups are a binary search.
+ *
+ */
+public class PoseHistory
+{
+    private static final int NavxAngle = 0;
+    private static final int OdometryAngle = 1;
+    private static final int OdometryX = 2;
+    private static final int OdometryY = 3;
+
+    private final int capacity;
+    private final double[] times;
+    private final double[] navxAngles;
+    private final double[] odometryAngles;
+    private final double[] odometryXs;
+    private final double[] odometryYs;
+
+    private int newest;
+    private int count;
+
+    /**
+     * Initializes a new PoseHistory
+     * @param capacity the number of poses to remember
+     */
+    public PoseHistory(int capacity)
+    {
+        this.capacity = capacity;
+        this.times = new double[capacity];
+        this.navxAngles = new double[capacity];
+        this.odometryAngles = new double[capacity];
+        this.odometryXs = new double[capacity];
+        this.odometryYs = new double[capacity];
+
+        this.clear();
+    }
+
+    /**
+     * Forget all of the recorded poses
+     */
+    public void clear()
+    {
+        this.newest = -1;
+        this.count = 0;
+    }
+
+    /**
+     * Gets the number of poses that are currently remembered
+     * @return the number of poses
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * Record a pose (older poses are forgotten once the buffer is full).  If the time is before the newest pose (for
+     * example, because the timer was restarted), the history is cleared first.
+     * @param time that the pose was measured
+     * @param navxAngle the navX angle, in degrees
+     * @param odometryAngle the odometry angle, in degrees
+     * @param odometryX the odometry x position
+     * @param odometryY the odometry y position
+     */
+    public void add(double time, double navxAngle, double odometryAngle, double odometryX, double odometryY)
+    {
+        if (this.count > 0 && time < this.times[this.newest])
+        {
+            this.clear();
+        }
+
+        this.newest = (this.newest + 1) % this.capacity;
+        if (this.count < this.capacity)
+        {
+            this.count++;
+        }
+
+        this.times[this.newest] = time;
+        this.navxAngles[this.newest] = navxAngle;
+        this.odometryAngles[this.newest] = odometryAngle;
+        this.odometryXs[this.newest] = odometryX;
+        this.odometryYs[this.newest] = odometryY;
+    }
+
+    /**
+     * Gets the navX angle at the provided time, interpolating between the recorded poses
+     * @param time to look up
+     * @return the navX angle in degrees, or NaN if no poses have been recorded
+     */
+    public double getNavxAngle(double time)
+    {
+        return this.interpolate(time, PoseHistory.NavxAngle);
+    }
+
+    /**
+     * Gets the odometry angle at the provided time, interpolating between the recorded poses
+     * @param time to look up
+     * @return the odometry angle in degrees, or NaN if no poses have been recorded
+     */
+    public double getOdometryAngle(double time)
+    {
+        return this.interpolate(time, PoseHistory.OdometryAngle);
+    }
+
+    /**
+     * Gets the odometry x position at the provided time, interpolating between the recorded poses
+     * @param time to look up
+     * @return the odometry x position, or NaN if no poses have been recorded
+     */
+    public double getOdometryX(double time)
+    {
+        return this.interpolate(time, PoseHistory.OdometryX);
+    }
+
+    /**
+     * Gets the odometry y position at the provided time, interpolating between the recorded poses
+     * @param time to look up
+     * @return the odometry y position, or NaN if no poses have been recorded
+     */
+    public double getOdometryY(double time)
+    {
+        return this.interpolate(time, PoseHistory.OdometryY);
+    }
+
+    /**
+     * Interpolate a value at the provided time.  Times before the oldest pose or after the newest pose use the
+     * oldest or newest pose, respectively.
+     * @param time to look up
+     * @param value which value to interpolate
+     * @return the interpolated value, or NaN if no poses have been recorded
+     */
+    private double interpolate(double time, int value)
+    {
+        if (this.count == 0)
+        {
+            return Double.NaN;
+        }
+
+        // binary search for the last pose at or before the time (positions are relative to the oldest pose)
+        int oldest = this.getIndex(0);
+        if (time <= this.times[oldest])
+        {
+            return this.getValue(oldest, value);
+        }
+
+        int newest = this.newest;
+        if (time >= this.times[newest])
+        {
+            return this.getValue(newest, value);
+        }
+
+        int low = 0;
+        int high = this.count - 1;
+        while (high - low > 1)
+        {
+            int middle = (low + high) >>> 1;
+            if (this.times[this.getIndex(middle)] <= time)
+            {
+                low = middle;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        int before = this.getIndex(low);
+        int after = this.getIndex(high);
+        double span = this.times[after] - this.times[before];
+        if (span <= 0.0)
+        {
+            return this.getValue(after, value);
+        }
+
+        double beforeValue = this.getValue(before, value);
+        double afterValue = this.getValue(after, value);
+        if (value == PoseHistory.OdometryAngle)
+        {
+            // odometry angle wraps at 360 degrees, so interpolate across the smaller difference
+            double difference = afterValue - beforeValue;
+            if (difference > 180.0)
+            {
+                afterValue -= 360.0;
+            }
+            else if (difference < -180.0)
+            {
+                afterValue += 360.0;
+            }
+        }
+
+        double ratio = (time - this.times[before]) / span;
+        double result = beforeValue + (afterValue - beforeValue) * ratio;
+        if (value == PoseHistory.OdometryAngle)
+        {
+            // interpolating across the wrap can go past 360 degrees, so wrap the result the same way as the odometry angle
+            result %= 360.0;
+        }
+
+        return result;
+    }
+
+    private int getIndex(int position)
+    {
+        return (this.newest - this.count + 1 + position + this.capacity) % this.capacity;
+    }
+
+    private double getValue(int index, int value)
+    {
+        switch (value)
+        {
+            case PoseHistory.NavxAngle:
+                return this.navxAngles[index];
+
+            case PoseHistory.OdometryAngle:
+                return this.odometryAngles[index];
+
+            case PoseHistory.OdometryX:
+                return this.odometryXs[index];
+
+            default:
+                return this.odometryYs[index];
+        }
+    }
+}
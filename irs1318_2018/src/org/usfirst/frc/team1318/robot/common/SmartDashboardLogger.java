@@ -1,15 +1,33 @@
 package org.usfirst.frc.team1318.robot.common;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.opencv.core.Point;
 
+import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 /**
  * Logger that logs current values to a dashboard.
+ * 
+ * NetworkTables entries are looked up once per component/key and cached, so repeated logging of the same key
+ * doesn't need to format the key or look it up again.  NetworkTables only sends values over the network when
+ * they change, so values are written directly without reading back the current value first.
  *
  */
 public class SmartDashboardLogger implements IDashboardLogger
 {
+    private final Map<String, Map<String, NetworkTableEntry>> entries;
+
+    /**
+     * Initializes a new SmartDashboardLogger
+     */
+    public SmartDashboardLogger()
+    {
+        this.entries = new ConcurrentHashMap<String, Map<String, NetworkTableEntry>>();
+    }
+
     /**
      * Write a boolean to the smart dashboard
      * @param component to log for
@@ -19,11 +37,7 @@ public class SmartDashboardLogger implements IDashboardLogger
     @Override
     public void logBoolean(String component, String key, boolean value)
     {
-        String logKey = String.format("%s.%s", component, key);
-        if (SmartDashboard.getBoolean(logKey, !value) != value)
-        {
-            SmartDashboard.putBoolean(logKey, value);
-        }
+        this.getEntry(component, key).setBoolean(value);
     }
 
     /**
@@ -35,11 +49,7 @@ public class SmartDashboardLogger implements IDashboardLogger
     @Override
     public void logNumber(String component, String key, double value)
     {
-        String logKey = String.format("%s.%s", component, key);
-        if (SmartDashboard.getNumber(logKey, value + 0.5) != value)
-        {
-            SmartDashboard.putNumber(logKey, value);
-        }
+        this.getEntry(component, key).setDouble(value);
     }
 
     /**
@@ -51,14 +61,13 @@ public class SmartDashboardLogger implements IDashboardLogger
     @Override
     public void logNumber(String component, String key, Double value)
     {
-        String logKey = String.format("%s.%s", component, key);
         String valueString = "N/A";
         if (value != null)
         {
             valueString = "" + value;
         }
 
-        SmartDashboard.putString(logKey, valueString);
+        this.getEntry(component, key).setString(valueString);
     }
 
     /**
@@ -83,11 +92,7 @@ public class SmartDashboardLogger implements IDashboardLogger
     @Override
     public void logInteger(String component, String key, int value, String formatString)
     {
-        String logKey = String.format("%s.%s", component, key);
-        if (SmartDashboard.getNumber(logKey, value + 0.5) != value)
-        {
-            SmartDashboard.putNumber(logKey, value);
-        }
+        this.getEntry(component, key).setDouble(value);
     }
 
     /**
@@ -117,11 +122,52 @@ public class SmartDashboardLogger implements IDashboardLogger
     @Override
     public void logString(String component, String key, String value)
     {
-        String logKey = String.format("%s.%s", component, key);
-        if (SmartDashboard.getString(logKey, null) != value)
+        String valueString = "N/A";
+        if (value != null)
         {
-            SmartDashboard.putString(logKey, value);
+            valueString = value;
         }
+
+        this.getEntry(component, key).setString(valueString);
+    }
+
+    /**
+     * Register a boolean channel that can be written to repeatedly without allocating
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public IBooleanLogChannel registerBooleanChannel(String component, String key)
+    {
+        NetworkTableEntry entry = this.getEntry(component, key);
+        return value -> entry.setBoolean(value);
+    }
+
+    /**
+     * Register a number (double) channel that can be written to repeatedly without allocating
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public INumberLogChannel registerNumberChannel(String component, String key)
+    {
+        NetworkTableEntry entry = this.getEntry(component, key);
+        return value -> entry.setDouble(value);
+    }
+
+    /**
+     * Register a string channel that can be written to repeatedly without allocating
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public IStringLogChannel registerStringChannel(String component, String key)
+    {
+        NetworkTableEntry entry = this.getEntry(component, key);
+        return value -> entry.setString(value != null ? value : "N/A");
     }
 
     /**
@@ -131,4 +177,33 @@ public class SmartDashboardLogger implements IDashboardLogger
     public void flush()
     {
     }
+
+    /**
+     * Get the NetworkTables entry for the component and key, looking it up only the first time it is used
+     * @param component to log for
+     * @param key to write to
+     * @return the entry for the key
+     */
+    private NetworkTableEntry getEntry(String component, String key)
+    {
+        Map<String, NetworkTableEntry> componentEntries = this.entries.get(component);
+        if (componentEntries == null)
+        {
+            componentEntries = new ConcurrentHashMap<String, NetworkTableEntry>();
+            Map<String, NetworkTableEntry> existingEntries = this.entries.putIfAbsent(component, componentEntries);
+            if (existingEntries != null)
+            {
+                componentEntries = existingEntries;
+            }
+        }
+
+        NetworkTableEntry entry = componentEntries.get(key);
+        if (entry == null)
+        {
+            entry = SmartDashboard.getEntry(String.format("%s.%s", component, key));
+            componentEntries.put(key, entry);
+        }
+
+        return entry;
+    }
 }
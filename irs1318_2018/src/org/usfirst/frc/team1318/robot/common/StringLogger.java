@@ -91,6 +91,42 @@ public abstract class StringLogger implements IDashboardLogger
         this.logString(component, key, valueString);
     }
 
+    /**
+     * Register a boolean channel that can be written to repeatedly
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public IBooleanLogChannel registerBooleanChannel(String component, String key)
+    {
+        return value -> this.logBoolean(component, key, value);
+    }
+
+    /**
+     * Register a number (double) channel that can be written to repeatedly
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public INumberLogChannel registerNumberChannel(String component, String key)
+    {
+        return value -> this.logNumber(component, key, value);
+    }
+
+    /**
+     * Register a string channel that can be written to repeatedly
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public IStringLogChannel registerStringChannel(String component, String key)
+    {
+        return value -> this.logString(component, key, value);
+    }
+
     /**
      * Flush the output stream, if appropriate..
      */
@@ -0,0 +1,643 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.opencv.core.Point;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+
+/**
+ * Logger that wraps another logger, only passing along values according to per-key publish policies.
+ *
+ * Most values are logged every control loop iteration, but only change occasionally (or only need to be seen at a
+ * much lower rate on the dashboard).  This logger keeps track of the last value that was published for each key and
+ * skips publishing values that haven't changed (beyond a deadband) or that are being published faster than allowed,
+ * while still refreshing each value periodically.  A change that is held back (because it came too soon after the
+ * last value was published) is kept, and published on a later flush once the minimum period has passed, so that the
+ * latest value of a key that isn't logged again (e.g. the robot's state) is never lost.
+ *
+ * Policies are chosen per key, then per component, then the default, and should be set before the values are logged.
+ * Times come from the provided timer (which should keep running, rather than being reset for each mode).  Values may
+ * be logged from multiple threads, so each key's state is synchronized.
+ *
+ */
+public class ThrottledLogger implements IDashboardLogger
+{
+    private static final int NoValue = 0;
+    private static final int BooleanValue = 1;
+    private static final int NumberValue = 2;
+    private static final int NullableNumberValue = 3;
+    private static final int IntegerValue = 4;
+    private static final int PointValue = 5;
+    private static final int StringValue = 6;
+
+    private final IDashboardLogger logger;
+    private final ITimer timer;
+    private final LogPublishPolicy defaultPolicy;
+
+    private final Map<String, LogPublishPolicy> componentPolicies;
+    private final Map<String, Map<String, LogPublishPolicy>> keyPolicies;
+    private final Map<String, Map<String, KeyState>> keyStates;
+    private final List<KeyState> keyStateList;
+
+    /**
+     * Initializes a new instance of the ThrottledLogger class
+     * @param logger to publish values to
+     * @param timer to use to tell how long it has been since each value was published
+     * @param defaultPolicy to use for keys that don't have a more specific policy
+     */
+    public ThrottledLogger(IDashboardLogger logger, ITimer timer, LogPublishPolicy defaultPolicy)
+    {
+        this.logger = logger;
+        this.timer = timer;
+        this.defaultPolicy = defaultPolicy;
+
+        this.componentPolicies = new HashMap<String, LogPublishPolicy>();
+        this.keyPolicies = new HashMap<String, Map<String, LogPublishPolicy>>();
+        this.keyStates = new ConcurrentHashMap<String, Map<String, KeyState>>();
+        this.keyStateList = new CopyOnWriteArrayList<KeyState>();
+    }
+
+    /**
+     * Set the policy to use for all keys for a component
+     * @param component to set the policy for
+     * @param policy to use
+     */
+    public void setPolicy(String component, LogPublishPolicy policy)
+    {
+        this.componentPolicies.put(component, policy);
+    }
+
+    /**
+     * Set the policy to use for a single key
+     * @param component to set the policy for
+     * @param key to set the policy for
+     * @param policy to use
+     */
+    public void setPolicy(String component, String key, LogPublishPolicy policy)
+    {
+        Map<String, LogPublishPolicy> componentKeyPolicies = this.keyPolicies.get(component);
+        if (componentKeyPolicies == null)
+        {
+            componentKeyPolicies = new HashMap<String, LogPublishPolicy>();
+            this.keyPolicies.put(component, componentKeyPolicies);
+        }
+
+        componentKeyPolicies.put(key, policy);
+    }
+
+    /**
+     * Write a boolean to the smart dashboard, if it should be published
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     */
+    @Override
+    public void logBoolean(String component, String key, boolean value)
+    {
+        if (this.getKeyState(component, key).shouldPublish(value, this.timer.get()))
+        {
+            this.logger.logBoolean(component, key, value);
+        }
+    }
+
+    /**
+     * Write a number (double) to the smart dashboard, if it should be published
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     */
+    @Override
+    public void logNumber(String component, String key, double value)
+    {
+        if (this.getKeyState(component, key).shouldPublish(value, this.timer.get()))
+        {
+            this.logger.logNumber(component, key, value);
+        }
+    }
+
+    /**
+     * Write a number (Double) to the smart dashboard, if it should be published
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     */
+    @Override
+    public void logNumber(String component, String key, Double value)
+    {
+        if (this.getKeyState(component, key).shouldPublish(value, this.timer.get()))
+        {
+            this.logger.logNumber(component, key, value);
+        }
+    }
+
+    /**
+     * Write a number (integer) to the smart dashboard, if it should be published
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     */
+    @Override
+    public void logInteger(String component, String key, int value)
+    {
+        if (this.getKeyState(component, key).shouldPublish(value, null, this.timer.get()))
+        {
+            this.logger.logInteger(component, key, value);
+        }
+    }
+
+    /**
+     * Write a number (integer) to the smart dashboard, if it should be published
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     * @param formatString to use
+     */
+    @Override
+    public void logInteger(String component, String key, int value, String formatString)
+    {
+        if (this.getKeyState(component, key).shouldPublish(value, formatString, this.timer.get()))
+        {
+            this.logger.logInteger(component, key, value, formatString);
+        }
+    }
+
+    /**
+     * Write a point (x,y or N/A) to the smart dashboard, if it should be published
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     */
+    @Override
+    public void logPoint(String component, String key, Point value)
+    {
+        if (this.getKeyState(component, key).shouldPublish(value, this.timer.get()))
+        {
+            this.logger.logPoint(component, key, value);
+        }
+    }
+
+    /**
+     * Write a string to the smart dashboard, if it should be published
+     * @param component to log for
+     * @param key to write to
+     * @param value to write
+     */
+    @Override
+    public void logString(String component, String key, String value)
+    {
+        if (this.getKeyState(component, key).shouldPublish(value, this.timer.get()))
+        {
+            this.logger.logString(component, key, value);
+        }
+    }
+
+    /**
+     * Register a boolean channel that only publishes according to the key's policy
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public IBooleanLogChannel registerBooleanChannel(String component, String key)
+    {
+        KeyState state = this.getKeyState(component, key);
+        IBooleanLogChannel channel = this.logger.registerBooleanChannel(component, key);
+        state.setBooleanChannel(channel);
+        return value ->
+        {
+            if (state.shouldPublish(value, this.timer.get()))
+            {
+                channel.publish(value);
+            }
+        };
+    }
+
+    /**
+     * Register a number (double) channel that only publishes according to the key's policy
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public INumberLogChannel registerNumberChannel(String component, String key)
+    {
+        KeyState state = this.getKeyState(component, key);
+        INumberLogChannel channel = this.logger.registerNumberChannel(component, key);
+        state.setNumberChannel(channel);
+        return value ->
+        {
+            if (state.shouldPublish(value, this.timer.get()))
+            {
+                channel.publish(value);
+            }
+        };
+    }
+
+    /**
+     * Register a string channel that only publishes according to the key's policy
+     * @param component to log for
+     * @param key to write to
+     * @return the channel to publish values to
+     */
+    @Override
+    public IStringLogChannel registerStringChannel(String component, String key)
+    {
+        KeyState state = this.getKeyState(component, key);
+        IStringLogChannel channel = this.logger.registerStringChannel(component, key);
+        state.setStringChannel(channel);
+        return value ->
+        {
+            if (state.shouldPublish(value, this.timer.get()))
+            {
+                channel.publish(value);
+            }
+        };
+    }
+
+    /**
+     * Publish any changes that were held back and whose minimum period has now passed, then flush the output stream,
+     * if appropriate..
+     */
+    @Override
+    public void flush()
+    {
+        double now = this.timer.get();
+        for (int i = 0; i < this.keyStateList.size(); i++)
+        {
+            this.keyStateList.get(i).publishPending(this.logger, now);
+        }
+
+        this.logger.flush();
+    }
+
+    /**
+     * Get (or create) the publishing state for the provided component and key
+     * @param component to log for
+     * @param key to write to
+     * @return the state for the key
+     */
+    private KeyState getKeyState(String component, String key)
+    {
+        // values may be logged from multiple threads (e.g. the control loop and the robot's mode transitions)
+        Map<String, KeyState> componentStates = this.keyStates.get(component);
+        if (componentStates == null)
+        {
+            this.keyStates.putIfAbsent(component, new ConcurrentHashMap<String, KeyState>());
+            componentStates = this.keyStates.get(component);
+        }
+
+        KeyState state = componentStates.get(key);
+        if (state == null)
+        {
+            KeyState newState = new KeyState(component, key, this.getPolicy(component, key));
+            state = componentStates.putIfAbsent(key, newState);
+            if (state == null)
+            {
+                state = newState;
+                this.keyStateList.add(newState);
+            }
+        }
+
+        return state;
+    }
+
+    /**
+     * Get the most specific policy for the provided component and key
+     * @param component to log for
+     * @param key to write to
+     * @return the policy to use
+     */
+    private LogPublishPolicy getPolicy(String component, String key)
+    {
+        Map<String, LogPublishPolicy> componentKeyPolicies = this.keyPolicies.get(component);
+        if (componentKeyPolicies != null && componentKeyPolicies.containsKey(key))
+        {
+            return componentKeyPolicies.get(key);
+        }
+
+        if (this.componentPolicies.containsKey(component))
+        {
+            return this.componentPolicies.get(component);
+        }
+
+        return this.defaultPolicy;
+    }
+
+    /**
+     * The last published value and time for a single key, and the latest change that hasn't been published yet
+     */
+    private static class KeyState
+    {
+        private final String component;
+        private final String key;
+        private final LogPublishPolicy policy;
+
+        private IBooleanLogChannel booleanChannel;
+        private INumberLogChannel numberChannel;
+        private IStringLogChannel stringChannel;
+
+        private boolean hasPublished;
+        private double lastPublishTime;
+
+        private double lastNumber;
+        private boolean lastBoolean;
+        private Object lastObject;
+
+        private int pendingType;
+        private double pendingNumber;
+        private boolean pendingBoolean;
+        private Object pendingObject;
+        private String pendingFormat;
+
+        KeyState(String component, String key, LogPublishPolicy policy)
+        {
+            this.component = component;
+            this.key = key;
+            this.policy = policy;
+            this.hasPublished = false;
+            this.pendingType = ThrottledLogger.NoValue;
+        }
+
+        synchronized void setBooleanChannel(IBooleanLogChannel channel)
+        {
+            this.booleanChannel = channel;
+        }
+
+        synchronized void setNumberChannel(INumberLogChannel channel)
+        {
+            this.numberChannel = channel;
+        }
+
+        synchronized void setStringChannel(IStringLogChannel channel)
+        {
+            this.stringChannel = channel;
+        }
+
+        synchronized boolean shouldPublish(double value, double now)
+        {
+            boolean changed = this.isChanged(value);
+            if (this.shouldPublishChange(changed, now))
+            {
+                this.lastNumber = value;
+                return true;
+            }
+
+            if (this.shouldHoldBack(changed))
+            {
+                this.pendingType = ThrottledLogger.NumberValue;
+                this.pendingNumber = value;
+            }
+
+            return false;
+        }
+
+        synchronized boolean shouldPublish(Double value, double now)
+        {
+            double number = value != null ? value : Double.NaN;
+            boolean changed = this.isChanged(number);
+            if (this.shouldPublishChange(changed, now))
+            {
+                this.lastNumber = number;
+                return true;
+            }
+
+            if (this.shouldHoldBack(changed))
+            {
+                this.pendingType = ThrottledLogger.NullableNumberValue;
+                this.pendingNumber = number;
+                this.pendingObject = value;
+            }
+
+            return false;
+        }
+
+        synchronized boolean shouldPublish(int value, String formatString, double now)
+        {
+            boolean changed = this.isChanged(value);
+            if (this.shouldPublishChange(changed, now))
+            {
+                this.lastNumber = value;
+                return true;
+            }
+
+            if (this.shouldHoldBack(changed))
+            {
+                this.pendingType = ThrottledLogger.IntegerValue;
+                this.pendingNumber = value;
+                this.pendingFormat = formatString;
+            }
+
+            return false;
+        }
+
+        synchronized boolean shouldPublish(boolean value, double now)
+        {
+            boolean changed = value != this.lastBoolean;
+            if (this.shouldPublishChange(changed, now))
+            {
+                this.lastBoolean = value;
+                return true;
+            }
+
+            if (this.shouldHoldBack(changed))
+            {
+                this.pendingType = ThrottledLogger.BooleanValue;
+                this.pendingBoolean = value;
+            }
+
+            return false;
+        }
+
+        synchronized boolean shouldPublish(String value, double now)
+        {
+            boolean changed = !Objects.equals(value, this.lastObject);
+            if (this.shouldPublishChange(changed, now))
+            {
+                this.lastObject = value;
+                return true;
+            }
+
+            if (this.shouldHoldBack(changed))
+            {
+                this.pendingType = ThrottledLogger.StringValue;
+                this.pendingObject = value;
+            }
+
+            return false;
+        }
+
+        synchronized boolean shouldPublish(Point value, double now)
+        {
+            boolean changed;
+            Point lastPoint = (Point)this.lastObject;
+            if (value == null || lastPoint == null)
+            {
+                changed = value != lastPoint;
+            }
+            else
+            {
+                changed = Math.abs(value.x - lastPoint.x) > this.policy.getDeadband()
+                    || Math.abs(value.y - lastPoint.y) > this.policy.getDeadband();
+            }
+
+            // copy the point, as the caller may re-use it
+            if (this.shouldPublishChange(changed, now))
+            {
+                this.lastObject = value != null ? value.clone() : null;
+                return true;
+            }
+
+            if (this.shouldHoldBack(changed))
+            {
+                this.pendingType = ThrottledLogger.PointValue;
+                this.pendingObject = value != null ? value.clone() : null;
+            }
+
+            return false;
+        }
+
+        /**
+         * Publish the change that was held back, if there is one and the minimum period has now passed
+         * @param logger to publish to (unless the key was registered as a channel)
+         * @param now the current time
+         */
+        synchronized void publishPending(IDashboardLogger logger, double now)
+        {
+            if (this.pendingType == ThrottledLogger.NoValue || !this.hasPeriodPassed(this.policy.getMinPeriod(), now))
+            {
+                return;
+            }
+
+            int type = this.pendingType;
+            this.pendingType = ThrottledLogger.NoValue;
+            this.lastPublishTime = now;
+            switch (type)
+            {
+                case ThrottledLogger.BooleanValue:
+                    this.lastBoolean = this.pendingBoolean;
+                    if (this.booleanChannel != null)
+                    {
+                        this.booleanChannel.publish(this.pendingBoolean);
+                    }
+                    else
+                    {
+                        logger.logBoolean(this.component, this.key, this.pendingBoolean);
+                    }
+
+                    break;
+
+                case ThrottledLogger.NumberValue:
+                    this.lastNumber = this.pendingNumber;
+                    if (this.numberChannel != null)
+                    {
+                        this.numberChannel.publish(this.pendingNumber);
+                    }
+                    else
+                    {
+                        logger.logNumber(this.component, this.key, this.pendingNumber);
+                    }
+
+                    break;
+
+                case ThrottledLogger.NullableNumberValue:
+                    this.lastNumber = this.pendingNumber;
+                    logger.logNumber(this.component, this.key, (Double)this.pendingObject);
+                    break;
+
+                case ThrottledLogger.IntegerValue:
+                    this.lastNumber = this.pendingNumber;
+                    if (this.pendingFormat != null)
+                    {
+                        logger.logInteger(this.component, this.key, (int)this.pendingNumber, this.pendingFormat);
+                    }
+                    else
+                    {
+                        logger.logInteger(this.component, this.key, (int)this.pendingNumber);
+                    }
+
+                    break;
+
+                case ThrottledLogger.PointValue:
+                    this.lastObject = this.pendingObject;
+                    logger.logPoint(this.component, this.key, (Point)this.pendingObject);
+                    break;
+
+                default:
+                    this.lastObject = this.pendingObject;
+                    if (this.stringChannel != null)
+                    {
+                        this.stringChannel.publish((String)this.pendingObject);
+                    }
+                    else
+                    {
+                        logger.logString(this.component, this.key, (String)this.pendingObject);
+                    }
+
+                    break;
+            }
+
+            this.pendingObject = null;
+        }
+
+        private boolean isChanged(double value)
+        {
+            if (Double.isNaN(value) || Double.isNaN(this.lastNumber))
+            {
+                return Double.isNaN(value) != Double.isNaN(this.lastNumber);
+            }
+
+            return Math.abs(value - this.lastNumber) > this.policy.getDeadband();
+        }
+
+        /**
+         * Check whether a value should be published now
+         * @param changed whether the value differs from the last one that was published
+         * @param now the current time
+         * @return true if the value should be published now
+         */
+        private boolean shouldPublishChange(boolean changed, double now)
+        {
+            if (!this.hasPublished
+                || this.hasPeriodPassed(this.policy.getRefreshPeriod(), now)
+                || (changed && this.hasPeriodPassed(this.policy.getMinPeriod(), now)))
+            {
+                this.hasPublished = true;
+                this.lastPublishTime = now;
+                this.pendingType = ThrottledLogger.NoValue;
+                this.pendingObject = null;
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Check whether a value that isn't being published now should be held back to publish on a later flush (and
+         * forget any change that was held back before, if the value is back to the last one that was published)
+         * @param changed whether the value differs from the last one that was published
+         * @return true if the caller should hold back the value
+         */
+        private boolean shouldHoldBack(boolean changed)
+        {
+            if (!changed)
+            {
+                this.pendingType = ThrottledLogger.NoValue;
+                this.pendingObject = null;
+            }
+
+            return changed;
+        }
+
+        private boolean hasPeriodPassed(double period, double now)
+        {
+            // a timer that has gone backwards (e.g. it was reset) counts as the period having passed
+            double elapsed = now - this.lastPublishTime;
+            return elapsed < 0.0 || elapsed >= period;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import java.util.Arrays;
+
+/**
+ * Timing histogram.
+ *
+ * Keeps the most recent timing samples (in nanoseconds) in a preallocated ring buffer so that recording a sample
+ * never allocates.  Summary statistics (min/mean/p50/p90/p99/max) are calculated over the samples currently in the buffer
+ * when computeSummary() is called, using a preallocated scratch buffer for sorting.
+ *
+ */
+public class TimingHistogram
+{
+    private final long[] samples;
+    private final long[] sortedSamples;
+
+    private int nextIndex;
+    private int sampleCount;
+    private long totalSampleCount;
+    private long lastSample;
+
+    // summary values, calculated in computeSummary()
+    private long min;
+    private long max;
+    private double mean;
+    private long p50;
+    private long p90;
+    private long p99;
+
+    /**
+     * Initializes a new TimingHistogram
+     * @param capacity the number of recent samples to keep
+     */
+    public TimingHistogram(int capacity)
+    {
+        this.samples = new long[capacity];
+        this.sortedSamples = new long[capacity];
+
+        this.reset();
+    }
+
+    /**
+     * Record a new sample, replacing the oldest sample if the buffer is full
+     * @param nanos the duration to record, in nanoseconds
+     */
+    public void record(long nanos)
+    {
+        this.samples[this.nextIndex] = nanos;
+        this.nextIndex++;
+        if (this.nextIndex >= this.samples.length)
+        {
+            this.nextIndex = 0;
+        }
+
+        if (this.sampleCount < this.samples.length)
+        {
+            this.sampleCount++;
+        }
+
+        this.totalSampleCount++;
+        this.lastSample = nanos;
+    }
+
+    /**
+     * Calculate the summary statistics over the samples that are currently in the buffer
+     */
+    public void computeSummary()
+    {
+        if (this.sampleCount == 0)
+        {
+            this.min = 0;
+            this.max = 0;
+            this.mean = 0.0;
+            this.p50 = 0;
+            this.p90 = 0;
+            this.p99 = 0;
+            return;
+        }
+
+        System.arraycopy(this.samples, 0, this.sortedSamples, 0, this.sampleCount);
+        Arrays.sort(this.sortedSamples, 0, this.sampleCount);
+
+        long total = 0;
+        for (int i = 0; i < this.sampleCount; i++)
+        {
+            total += this.sortedSamples[i];
+        }
+
+        this.min = this.sortedSamples[0];
+        this.max = this.sortedSamples[this.sampleCount - 1];
+        this.mean = (double)total / this.sampleCount;
+        this.p50 = this.getPercentile(0.50);
+        this.p90 = this.getPercentile(0.90);
+        this.p99 = this.getPercentile(0.99);
+    }
+
+    /**
+     * Clear all of the samples
+     */
+    public void reset()
+    {
+        this.nextIndex = 0;
+        this.sampleCount = 0;
+        this.totalSampleCount = 0;
+        this.lastSample = 0;
+
+        this.min = 0;
+        this.max = 0;
+        this.mean = 0.0;
+        this.p50 = 0;
+        this.p90 = 0;
+        this.p99 = 0;
+    }
+
+    /**
+     * Retrieve the most recently recorded sample
+     * @return the most recent duration, in nanoseconds
+     */
+    public long getLast()
+    {
+        return this.lastSample;
+    }
+
+    /**
+     * Retrieve the number of samples currently in the buffer
+     * @return the number of samples
+     */
+    public int getSampleCount()
+    {
+        return this.sampleCount;
+    }
+
+    /**
+     * Retrieve the number of samples recorded since the last reset
+     * @return the number of samples
+     */
+    public long getTotalSampleCount()
+    {
+        return this.totalSampleCount;
+    }
+
+    /**
+     * Retrieve the minimum as of the last call to computeSummary()
+     * @return the minimum duration, in nanoseconds
+     */
+    public long getMin()
+    {
+        return this.min;
+    }
+
+    /**
+     * Retrieve the maximum as of the last call to computeSummary()
+     * @return the maximum duration, in nanoseconds
+     */
+    public long getMax()
+    {
+        return this.max;
+    }
+
+    /**
+     * Retrieve the mean as of the last call to computeSummary()
+     * @return the mean duration, in nanoseconds
+     */
+    public double getMean()
+    {
+        return this.mean;
+    }
+
+    /**
+     * Retrieve the median as of the last call to computeSummary()
+     * @return the median duration, in nanoseconds
+     */
+    public long getP50()
+    {
+        return this.p50;
+    }
+
+    /**
+     * Retrieve the 90th percentile as of the last call to computeSummary()
+     * @return the 90th percentile duration, in nanoseconds
+     */
+    public long getP90()
+    {
+        return this.p90;
+    }
+
+    /**
+     * Retrieve the 99th percentile as of the last call to computeSummary()
+     * @return the 99th percentile duration, in nanoseconds
+     */
+    public long getP99()
+    {
+        return this.p99;
+    }
+
+    /**
+     * Retrieve a percentile from the sorted samples (nearest-rank)
+     * @param percentile to retrieve, between 0 and 1
+     * @return the sample at that percentile
+     */
+    private long getPercentile(double percentile)
+    {
+        int index = (int)Math.ceil(percentile * this.sampleCount) - 1;
+        return this.sortedSamples[(int)Helpers.EnforceRange(index, 0, this.sampleCount - 1)];
+    }
+}
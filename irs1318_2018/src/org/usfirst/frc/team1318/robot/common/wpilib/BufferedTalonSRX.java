@@ -0,0 +1,300 @@
+package org.usfirst.frc.team1318.robot.common.wpilib;
+
+/**
+ * Talon SRX whose sensor reads and control writes are coordinated by the CANIOCoordinator.
+ *
+ * Sensor values are read from the Talon in the coordinator's read phase (only the values that the mechanism has asked
+ * for at some point), and the getters return the values from that snapshot.  The control mode and setpoint are
+ * remembered when set, and only sent to the Talon in the coordinator's write phase if they differ from what was last
+ * sent.  Configuration, stop and sensor reset calls are passed straight through (and a sensor reset also updates the
+ * position in the snapshot, so that it is seen before the next read phase).
+ *
+ */
+public class BufferedTalonSRX implements ITalonSRX
+{
+    private static final int PositionRead = 1;
+    private static final int VelocityRead = 2;
+    private static final int ErrorRead = 4;
+    private static final int LimitSwitchRead = 8;
+
+    private final ITalonSRX talon;
+    private final CANIOCoordinator coordinator;
+
+    // sensor values, as of the last read phase
+    private int requestedReads;
+    private int position;
+    private double velocity;
+    private double error;
+    private TalonSRXLimitSwitchStatus limitSwitchStatus;
+
+    // control mode and setpoint requested by the mechanism, and what was last sent to the Talon
+    private TalonSRXControlMode desiredControlMode;
+    private double desiredValue;
+    private boolean isOutputDirty;
+    private TalonSRXControlMode sentControlMode;
+    private double sentValue;
+    private boolean hasSentValue;
+
+    BufferedTalonSRX(ITalonSRX talon, CANIOCoordinator coordinator)
+    {
+        this.talon = talon;
+        this.coordinator = coordinator;
+
+        this.requestedReads = 0;
+
+        this.desiredControlMode = TalonSRXControlMode.PercentOutput;
+        this.isOutputDirty = false;
+        this.sentControlMode = TalonSRXControlMode.PercentOutput;
+        this.hasSentValue = false;
+    }
+
+    /**
+     * Read the requested sensor values from the Talon
+     */
+    void readSensors()
+    {
+        if ((this.requestedReads & BufferedTalonSRX.PositionRead) != 0)
+        {
+            this.readPosition();
+        }
+
+        if ((this.requestedReads & BufferedTalonSRX.VelocityRead) != 0)
+        {
+            this.readVelocity();
+        }
+
+        if ((this.requestedReads & BufferedTalonSRX.ErrorRead) != 0)
+        {
+            this.readError();
+        }
+
+        if ((this.requestedReads & BufferedTalonSRX.LimitSwitchRead) != 0)
+        {
+            this.readLimitSwitchStatus();
+        }
+    }
+
+    /**
+     * Send the control mode and setpoint to the Talon, if they have changed since they were last sent
+     */
+    void writeOutputs()
+    {
+        if (!this.isOutputDirty)
+        {
+            return;
+        }
+
+        this.isOutputDirty = false;
+        if (this.hasSentValue
+            && this.desiredControlMode == this.sentControlMode
+            && this.desiredValue == this.sentValue)
+        {
+            this.coordinator.recordSuppressedWrite();
+            return;
+        }
+
+        this.talon.setControlMode(this.desiredControlMode);
+        this.talon.set(this.desiredValue);
+        this.coordinator.recordWrite();
+
+        this.sentControlMode = this.desiredControlMode;
+        this.sentValue = this.desiredValue;
+        this.hasSentValue = true;
+    }
+
+    @Override
+    public void set(double value)
+    {
+        this.desiredValue = value;
+        this.isOutputDirty = true;
+    }
+
+    @Override
+    public void setControlMode(TalonSRXControlMode mode)
+    {
+        // send the new mode (with the last setpoint) even if the setpoint isn't set again
+        this.desiredControlMode = mode;
+        this.isOutputDirty = true;
+    }
+
+    @Override
+    public void setSensorType(TalonSRXFeedbackDevice feedbackDevice)
+    {
+        this.talon.setSensorType(feedbackDevice);
+        this.coordinator.recordWrite();
+    }
+
+    @Override
+    public void setSelectedSlot(int slotId)
+    {
+        this.talon.setSelectedSlot(slotId);
+        this.coordinator.recordWrite();
+    }
+
+    @Override
+    public void setPIDF(double p, double i, double d, double f, int slotId)
+    {
+        this.talon.setPIDF(p, i, d, f, slotId);
+        this.coordinator.recordWrite();
+    }
+
+    @Override
+    public void setMotionMagicPIDF(double p, double i, double d, double f, int velocity, int acceleration, int slotId)
+    {
+        this.talon.setMotionMagicPIDF(p, i, d, f, velocity, acceleration, slotId);
+        this.coordinator.recordWrite();
+    }
+
+    @Override
+    public void setPIDF(double p, double i, double d, double f, int izone, double closeLoopRampRate, int slotId)
+    {
+        this.talon.setPIDF(p, i, d, f, izone, closeLoopRampRate, slotId);
+        this.coordinator.recordWrite();
+    }
+
+    @Override
+    public void setForwardLimitSwitch(boolean enabled, boolean normallyOpen)
+    {
+        this.talon.setForwardLimitSwitch(enabled, normallyOpen);
+        this.coordinator.recordWrite();
+    }
+
+    @Override
+    public void setReverseLimitSwitch(boolean enabled, boolean normallyOpen)
+    {
+        this.talon.setReverseLimitSwitch(enabled, normallyOpen);
+        this.coordinator.recordWrite();
+    }
+
+    @Override
+    public void setInvertOutput(boolean flip)
+    {
+        this.talon.setInvertOutput(flip);
+        this.coordinator.recordWrite();
+    }
+
+    @Override
+    public void setInvertSensor(boolean flip)
+    {
+        this.talon.setInvertSensor(flip);
+        this.coordinator.recordWrite();
+    }
+
+    @Override
+    public void setNeutralMode(TalonSRXNeutralMode neutralMode)
+    {
+        this.talon.setNeutralMode(neutralMode);
+        this.coordinator.recordWrite();
+    }
+
+    @Override
+    public void setVoltageCompensation(boolean enabled, double maxVoltage)
+    {
+        this.talon.setVoltageCompensation(enabled, maxVoltage);
+        this.coordinator.recordWrite();
+    }
+
+    @Override
+    public void stop()
+    {
+        // stop immediately, and make sure the next setpoint is sent even if it matches the one from before stopping
+        this.talon.stop();
+        this.coordinator.recordWrite();
+
+        this.isOutputDirty = false;
+        this.sentControlMode = TalonSRXControlMode.Disabled;
+        this.sentValue = 0.0;
+        this.hasSentValue = true;
+    }
+
+    @Override
+    public void setPosition(int position)
+    {
+        this.talon.setPosition(position);
+        this.coordinator.recordWrite();
+
+        this.position = position;
+    }
+
+    @Override
+    public void reset()
+    {
+        this.talon.reset();
+        this.coordinator.recordWrite();
+
+        this.position = 0;
+    }
+
+    @Override
+    public int getPosition()
+    {
+        if ((this.requestedReads & BufferedTalonSRX.PositionRead) == 0)
+        {
+            // first request, so include it in the read phase from now on
+            this.requestedReads |= BufferedTalonSRX.PositionRead;
+            this.readPosition();
+        }
+
+        return this.position;
+    }
+
+    @Override
+    public double getVelocity()
+    {
+        if ((this.requestedReads & BufferedTalonSRX.VelocityRead) == 0)
+        {
+            this.requestedReads |= BufferedTalonSRX.VelocityRead;
+            this.readVelocity();
+        }
+
+        return this.velocity;
+    }
+
+    @Override
+    public double getError()
+    {
+        if ((this.requestedReads & BufferedTalonSRX.ErrorRead) == 0)
+        {
+            this.requestedReads |= BufferedTalonSRX.ErrorRead;
+            this.readError();
+        }
+
+        return this.error;
+    }
+
+    @Override
+    public TalonSRXLimitSwitchStatus getLimitSwitchStatus()
+    {
+        if ((this.requestedReads & BufferedTalonSRX.LimitSwitchRead) == 0)
+        {
+            this.requestedReads |= BufferedTalonSRX.LimitSwitchRead;
+            this.readLimitSwitchStatus();
+        }
+
+        return this.limitSwitchStatus;
+    }
+
+    private void readPosition()
+    {
+        this.position = this.talon.getPosition();
+        this.coordinator.recordRead();
+    }
+
+    private void readVelocity()
+    {
+        this.velocity = this.talon.getVelocity();
+        this.coordinator.recordRead();
+    }
+
+    private void readError()
+    {
+        this.error = this.talon.getError();
+        this.coordinator.recordRead();
+    }
+
+    private void readLimitSwitchStatus()
+    {
+        this.limitSwitchStatus = this.talon.getLimitSwitchStatus();
+        this.coordinator.recordRead();
+    }
+}
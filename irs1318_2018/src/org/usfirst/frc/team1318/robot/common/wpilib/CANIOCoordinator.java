@@ -0,0 +1,153 @@
+package org.usfirst.frc.team1318.robot.common.wpilib;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Singleton;
+
+import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
+import org.usfirst.frc.team1318.robot.common.INumberLogChannel;
+
+import com.google.inject.Inject;
+
+/**
+ * CAN I/O coordinator.
+ *
+ * Makes the read/compute/write phases of the control loop explicit for the Talon SRX motor controllers on the CAN bus.
+ * All of the sensor values that are used from each Talon are read together in the read phase (before the mechanisms
+ * read their sensors), and the control mode and setpoint that the mechanisms request are only sent to the Talon in the
+ * write phase (after the mechanisms have updated), and only when they differ from what was last sent.
+ *
+ * Also keeps track of the number of reads and writes (frames) that were passed through to the Talons, and the
+ * number of writes that were suppressed because nothing had changed.
+ *
+ */
+@Singleton
+public class CANIOCoordinator
+{
+    private static final String LogName = "can";
+
+    private final List<BufferedTalonSRX> talons;
+
+    private final INumberLogChannel readsChannel;
+    private final INumberLogChannel writesChannel;
+    private final INumberLogChannel suppressedWritesChannel;
+
+    private int reads;
+    private int writes;
+    private int suppressedWrites;
+
+    private long totalReads;
+    private long totalWrites;
+    private long totalSuppressedWrites;
+
+    /**
+     * Initializes a new CANIOCoordinator
+     * @param logger to use
+     */
+    @Inject
+    public CANIOCoordinator(IDashboardLogger logger)
+    {
+        this.talons = new ArrayList<BufferedTalonSRX>();
+
+        this.readsChannel = logger.registerNumberChannel(CANIOCoordinator.LogName, "reads");
+        this.writesChannel = logger.registerNumberChannel(CANIOCoordinator.LogName, "writes");
+        this.suppressedWritesChannel = logger.registerNumberChannel(CANIOCoordinator.LogName, "suppressed_writes");
+
+        this.reads = 0;
+        this.writes = 0;
+        this.suppressedWrites = 0;
+
+        this.totalReads = 0;
+        this.totalWrites = 0;
+        this.totalSuppressedWrites = 0;
+    }
+
+    /**
+     * Register a Talon SRX so that its reads and writes are coordinated
+     * @param talon to register
+     * @return the Talon SRX that should be used by the mechanism
+     */
+    public ITalonSRX register(ITalonSRX talon)
+    {
+        BufferedTalonSRX bufferedTalon = new BufferedTalonSRX(talon, this);
+        this.talons.add(bufferedTalon);
+        return bufferedTalon;
+    }
+
+    /**
+     * Read phase - read the sensor values that are used from each of the Talons
+     */
+    public void readSensors()
+    {
+        for (int i = 0; i < this.talons.size(); i++)
+        {
+            this.talons.get(i).readSensors();
+        }
+    }
+
+    /**
+     * Write phase - send any changed control modes and setpoints to each of the Talons, and log the counts for this loop
+     */
+    public void writeOutputs()
+    {
+        for (int i = 0; i < this.talons.size(); i++)
+        {
+            this.talons.get(i).writeOutputs();
+        }
+
+        this.readsChannel.publish(this.reads);
+        this.writesChannel.publish(this.writes);
+        this.suppressedWritesChannel.publish(this.suppressedWrites);
+
+        this.totalReads += this.reads;
+        this.totalWrites += this.writes;
+        this.totalSuppressedWrites += this.suppressedWrites;
+
+        this.reads = 0;
+        this.writes = 0;
+        this.suppressedWrites = 0;
+    }
+
+    /**
+     * Retrieve the number of reads that have been passed through to the Talons
+     * @return the number of reads
+     */
+    public long getTotalReads()
+    {
+        return this.totalReads + this.reads;
+    }
+
+    /**
+     * Retrieve the number of writes that have been passed through to the Talons
+     * @return the number of writes
+     */
+    public long getTotalWrites()
+    {
+        return this.totalWrites + this.writes;
+    }
+
+    /**
+     * Retrieve the number of writes that were suppressed because the control mode and setpoint hadn't changed
+     * @return the number of suppressed writes
+     */
+    public long getTotalSuppressedWrites()
+    {
+        return this.totalSuppressedWrites + this.suppressedWrites;
+    }
+
+    void recordRead()
+    {
+        this.reads++;
+    }
+
+    void recordWrite()
+    {
+        this.writes++;
+    }
+
+    void recordSuppressedWrite()
+    {
+        this.suppressedWrites++;
+    }
+}
@@ -0,0 +1,18 @@
+package org.usfirst.frc.team1318.robot.common.wpilib;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+public class DriverStationWrapper implements IDriverStation
+{
+    private final DriverStation wrappedObject;
+
+    public DriverStationWrapper()
+    {
+        this.wrappedObject = DriverStation.getInstance();
+    }
+
+    public String getGameSpecificMessage()
+    {
+        return this.wrappedObject.getGameSpecificMessage();
+    }
+}
@@ -0,0 +1,6 @@
+package org.usfirst.frc.team1318.robot.common.wpilib;
+
+public interface IDriverStation
+{
+    String getGameSpecificMessage();
+}
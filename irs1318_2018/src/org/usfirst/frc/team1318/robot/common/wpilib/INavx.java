@@ -0,0 +1,12 @@
+package org.usfirst.frc.team1318.robot.common.wpilib;
+
+public interface INavx
+{
+    boolean isConnected();
+    double getAngle();
+    double getDisplacementX();
+    double getDisplacementY();
+    double getDisplacementZ();
+    void reset();
+    void resetDisplacement();
+}
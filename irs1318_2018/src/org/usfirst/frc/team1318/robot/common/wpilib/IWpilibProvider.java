@@ -21,4 +21,6 @@ public interface IWpilibProvider
     public IRelay getRelay(int channel, RelayDirection direction);
     public ISolenoid getSolenoid(int channel);
     public ISolenoid getSolenoid(int module, int channel);
+    public INavx getNavx();
+    public IDriverStation getDriverStation();
 }
@@ -2,9 +2,24 @@ package org.usfirst.frc.team1318.robot.common.wpilib;
 
 import javax.inject.Singleton;
 
+import org.usfirst.frc.team1318.robot.TuningConstants;
+
+import com.google.inject.Inject;
+
 @Singleton
 public class WpilibProvider implements IWpilibProvider
 {
+    private final CANIOCoordinator canCoordinator;
+
+    private INavx navx;
+
+    @Inject
+    public WpilibProvider(CANIOCoordinator canCoordinator)
+    {
+        this.canCoordinator = canCoordinator;
+        this.navx = null;
+    }
+
     @Override
     public IAnalogInput getAnalogInput(int channel)
     {
@@ -14,7 +29,13 @@ public class WpilibProvider implements IWpilibProvider
     @Override
     public ITalonSRX getTalonSRX(int deviceNumber)
     {
-        return new TalonSRXWrapper(deviceNumber);
+        ITalonSRX talon = new TalonSRXWrapper(deviceNumber);
+        if (TuningConstants.CAN_IO_COORDINATOR_ENABLED)
+        {
+            talon = this.canCoordinator.register(talon);
+        }
+
+        return talon;
     }
 
     @Override
@@ -118,4 +139,22 @@ public class WpilibProvider implements IWpilibProvider
     {
         return new SolenoidWrapper(module, channel);
     }
+
+    @Override
+    public synchronized INavx getNavx()
+    {
+        // there is only one navX on the robot, so share a single connection to it
+        if (this.navx == null)
+        {
+            this.navx = new NavxWrapper();
+        }
+
+        return this.navx;
+    }
+
+    @Override
+    public IDriverStation getDriverStation()
+    {
+        return new DriverStationWrapper();
+    }
 }
@@ -1,8 +1,10 @@
 package org.usfirst.frc.team1318.robot.driver;
 
 import org.usfirst.frc.team1318.robot.ElectronicsConstants;
+import org.usfirst.frc.team1318.robot.TuningConstants;
 import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
 import org.usfirst.frc.team1318.robot.common.wpilib.IDigitalInput;
+import org.usfirst.frc.team1318.robot.common.wpilib.IDriverStation;
 import org.usfirst.frc.team1318.robot.common.wpilib.IWpilibProvider;
 import org.usfirst.frc.team1318.robot.driver.common.IControlTask;
 import org.usfirst.frc.team1318.robot.driver.controltasks.AdvancedIntakeOuttakeTask;
@@ -11,19 +13,21 @@ import org.usfirst.frc.team1318.robot.driver.controltasks.DriveDistancePositionT
 import org.usfirst.frc.team1318.robot.driver.controltasks.DriveDistanceTimedTask;
 import org.usfirst.frc.team1318.robot.driver.controltasks.DriveVelocityTimedTask;
 import org.usfirst.frc.team1318.robot.driver.controltasks.ElevatorMovementTask;
+import org.usfirst.frc.team1318.robot.driver.controltasks.FollowPathTask;
 import org.usfirst.frc.team1318.robot.driver.controltasks.IntakeArmDownTask;
 import org.usfirst.frc.team1318.robot.driver.controltasks.IntakeArmUpTask;
 import org.usfirst.frc.team1318.robot.driver.controltasks.NavxTurnTask;
 import org.usfirst.frc.team1318.robot.driver.controltasks.OuttakeTask;
 import org.usfirst.frc.team1318.robot.driver.controltasks.PIDBrakeTask;
+import org.usfirst.frc.team1318.robot.driver.controltasks.RamseteFollowPathTask;
 import org.usfirst.frc.team1318.robot.driver.controltasks.SequentialTask;
 import org.usfirst.frc.team1318.robot.driver.controltasks.WaitTask;
+import org.usfirst.frc.team1318.robot.paths.DriveTrajectory;
+import org.usfirst.frc.team1318.robot.paths.PathManager;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
-import edu.wpi.first.wpilibj.DriverStation;
-
 @Singleton
 public class AutonomousRoutineSelector
 {
@@ -37,6 +41,10 @@ public class AutonomousRoutineSelector
     private final IDigitalInput dipSwitchE;
     private final IDigitalInput dipSwitchF;
 
+    private final IDriverStation driverStation;
+
+    private final PathManager pathManager;
+
     private enum Position
     {
         Center, Left, Right, Special;
@@ -48,7 +56,8 @@ public class AutonomousRoutineSelector
     @Inject
     public AutonomousRoutineSelector(
         IDashboardLogger logger,
-        IWpilibProvider provider)
+        IWpilibProvider provider,
+        PathManager pathManager)
     {
         // initialize robot parts that are used to select autonomous routine (e.g. dipswitches) here...
         this.logger = logger;
@@ -58,6 +67,10 @@ public class AutonomousRoutineSelector
         this.dipSwitchD = provider.getDigitalInput(ElectronicsConstants.AUTO_DIP_SWITCH_D_DIGITAL_CHANNEL);
         this.dipSwitchE = provider.getDigitalInput(ElectronicsConstants.AUTO_DIP_SWITCH_E_DIGITAL_CHANNEL);
         this.dipSwitchF = provider.getDigitalInput(ElectronicsConstants.AUTO_DIP_SWITCH_F_DIGITAL_CHANNEL);
+
+        this.driverStation = provider.getDriverStation();
+
+        this.pathManager = pathManager;
     }
 
     /**
@@ -108,7 +121,7 @@ public class AutonomousRoutineSelector
                 break;
         }
 
-        String rawSideData = DriverStation.getInstance().getGameSpecificMessage();
+        String rawSideData = this.driverStation.getGameSpecificMessage();
 
         // print routine parameters to the smartdash
         this.logger.logString(AutonomousRoutineSelector.LogName, "gameData", rawSideData);
@@ -450,10 +463,39 @@ public class AutonomousRoutineSelector
             new PIDBrakeTask());
     }
 
-    private static IControlTask PlaceFirstOfTwoCubesOnSameSideScale(boolean startingLeft)
+    /**
+     * Follow a planned path, using pose feedback to correct for drift (e.g. wheel slip) where enabled
+     * @param trajectory to follow
+     * @return the task that follows the path
+     */
+    private static IControlTask FollowPath(DriveTrajectory trajectory)
     {
-        return SequentialTask.Sequence(
-            ConcurrentTask.AllTasks(
+        if (TuningConstants.DRIVETRAIN_USE_PATH_FEEDBACK)
+        {
+            return new RamseteFollowPathTask(trajectory);
+        }
+
+        return new FollowPathTask(trajectory);
+    }
+
+    private IControlTask PlaceFirstOfTwoCubesOnSameSideScale(boolean startingLeft)
+    {
+        IControlTask driveToScale;
+        if (TuningConstants.DRIVETRAIN_USE_PATHS)
+        {
+            // turn towards the scale while driving to it, and raise the elevator so that it is ready as we arrive
+            DriveTrajectory trajectory = this.pathManager.getTrajectory(
+                startingLeft ? PathManager.SameSideScaleLeft : PathManager.SameSideScaleRight);
+            driveToScale = ConcurrentTask.AllTasks(
+                AutonomousRoutineSelector.FollowPath(trajectory),
+                SequentialTask.Sequence(
+                    AutonomousRoutineSelector.InitialSetUp(true),
+                    new WaitTask(Math.max(0.0, trajectory.getDuration() - 1.75)),
+                    new ElevatorMovementTask(1.75, Operation.ElevatorHighScalePosition)));
+        }
+        else
+        {
+            driveToScale = ConcurrentTask.AllTasks(
                 SequentialTask.Sequence(
                     new DriveDistanceTimedTask(248.00, 3.0), //255.25
                     new NavxTurnTask(startingLeft ? 45.0 : -45.0),
@@ -461,7 +503,11 @@ public class AutonomousRoutineSelector
                 SequentialTask.Sequence(
                     AutonomousRoutineSelector.InitialSetUp(true),
                     new WaitTask(2.75),
-                    new ElevatorMovementTask(1.75, Operation.ElevatorHighScalePosition))),
+                    new ElevatorMovementTask(1.75, Operation.ElevatorHighScalePosition)));
+        }
+
+        return SequentialTask.Sequence(
+            driveToScale,
             ConcurrentTask.AnyTasks(
                 new PIDBrakeTask(),
                 new OuttakeTask(0.75, true)),
@@ -474,7 +520,7 @@ public class AutonomousRoutineSelector
                         new ElevatorMovementTask(0.5, Operation.ElevatorCarryPosition)))));
     }
 
-    private static IControlTask PlaceTwoCubesOnSameSideScale(boolean startingLeft)
+    private IControlTask PlaceTwoCubesOnSameSideScale(boolean startingLeft)
     {
         return SequentialTask.Sequence(
             PlaceFirstOfTwoCubesOnSameSideScale(startingLeft),
@@ -504,7 +550,7 @@ public class AutonomousRoutineSelector
             AutonomousRoutineSelector.PostRoutineBackUp());
     }
 
-    private static IControlTask PlaceCubesOnSameSideScaleAndSwitch(boolean startingLeft)
+    private IControlTask PlaceCubesOnSameSideScaleAndSwitch(boolean startingLeft)
     {
         return SequentialTask.Sequence(
             PlaceFirstOfTwoCubesOnSameSideScale(startingLeft),
@@ -1,14 +1,7 @@
 package org.usfirst.frc.team1318.robot.driver.common;
 
-import java.util.HashMap;
-import java.util.Map;
-
-import org.usfirst.frc.team1318.robot.TuningConstants;
 import org.usfirst.frc.team1318.robot.driver.Operation;
-import org.usfirst.frc.team1318.robot.driver.common.descriptions.OperationDescription;
-import org.usfirst.frc.team1318.robot.driver.common.states.AnalogOperationState;
-import org.usfirst.frc.team1318.robot.driver.common.states.DigitalOperationState;
-import org.usfirst.frc.team1318.robot.driver.common.states.OperationState;
+import org.usfirst.frc.team1318.robot.driver.common.states.OperationStateStore;
 
 import com.google.inject.Injector;
 
@@ -19,7 +12,7 @@ import com.google.inject.Injector;
 public abstract class Driver
 {
     protected final Injector injector;
-    protected final Map<Operation, OperationState> operationStateMap;
+    protected final OperationStateStore operationStateStore;
 
     /**
      * Initializes a new Driver
@@ -28,12 +21,7 @@ public abstract class Driver
     {
         this.injector = injector;
 
-        Map<Operation, OperationDescription> operationSchema = buttonMap.getOperationSchema();
-        this.operationStateMap = new HashMap<Operation, OperationState>(operationSchema.size());
-        for (Operation operation : operationSchema.keySet())
-        {
-            this.operationStateMap.put(operation, OperationState.createFromDescription(operationSchema.get(operation)));
-        }
+        this.operationStateStore = new OperationStateStore(buttonMap.getOperationSchema());
     }
 
     /**
@@ -53,19 +41,7 @@ public abstract class Driver
      */
     public boolean getDigital(Operation digitalOperation)
     {
-        OperationState state = this.operationStateMap.get(digitalOperation);
-        if (!(state instanceof DigitalOperationState))
-        {
-            if (TuningConstants.THROW_EXCEPTIONS)
-            {
-                throw new RuntimeException("not a digital operation!");
-            }
-
-            return false;
-        }
-
-        DigitalOperationState digitalState = (DigitalOperationState)state;
-        return digitalState.getState();
+        return this.operationStateStore.getDigital(digitalOperation);
     }
 
     /**
@@ -75,18 +51,6 @@ public abstract class Driver
      */
     public double getAnalog(Operation analogOperation)
     {
-        OperationState state = this.operationStateMap.get(analogOperation);
-        if (!(state instanceof AnalogOperationState))
-        {
-            if (TuningConstants.THROW_EXCEPTIONS)
-            {
-                throw new RuntimeException("not an analog operation!");
-            }
-
-            return 0.0;
-        }
-
-        AnalogOperationState analogState = (AnalogOperationState)state;
-        return analogState.getState();
+        return this.operationStateStore.getAnalog(analogOperation);
     }
 }
@@ -1,9 +1,6 @@
 package org.usfirst.frc.team1318.robot.driver.common;
 
-import java.util.Map;
-
-import org.usfirst.frc.team1318.robot.driver.Operation;
-import org.usfirst.frc.team1318.robot.driver.common.states.OperationState;
+import org.usfirst.frc.team1318.robot.driver.common.states.OperationStateStore;
 
 import com.google.inject.Injector;
 
@@ -14,11 +11,11 @@ import com.google.inject.Injector;
 public interface IControlTask
 {
     /**
-     * Initialize the task with the mapping of operations to states
-     * @param operationStateMap indicating the mapping of an operation to its current state
+     * Initialize the task with the store of operation states
+     * @param operationStateStore indicating the current state of each operation
      * @param injector used to retrieve components to utilize for making any decisions
      */
-    public void initialize(Map<Operation, OperationState> operationStateMap, Injector injector);
+    public void initialize(OperationStateStore operationStateStore, Injector injector);
 
     /**
      * Begin the current task.
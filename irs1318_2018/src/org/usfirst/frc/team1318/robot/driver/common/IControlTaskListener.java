@@ -0,0 +1,26 @@
+package org.usfirst.frc.team1318.robot.driver.common;
+
+/**
+ * Interface describing something that is told when the tasks within a composite task (e.g. a SequentialTask or a
+ * ConcurrentTask) begin and end, such as for measuring how long each step of an autonomous routine takes.
+ * 
+ * Composite tasks look for a listener bound in the injector when they are initialized, so nothing is notified on the
+ * robot unless a listener has been bound.
+ * 
+ */
+public interface IControlTaskListener
+{
+    /**
+     * Called when a task within a composite task begins
+     * @param parent composite task running the task
+     * @param task that has begun
+     */
+    public void taskBegun(IControlTask parent, IControlTask task);
+
+    /**
+     * Called when a task within a composite task ends (whether it completed, or was ended or stopped early)
+     * @param parent composite task running the task
+     * @param task that has ended
+     */
+    public void taskEnded(IControlTask parent, IControlTask task);
+}
@@ -1,10 +1,10 @@
 package org.usfirst.frc.team1318.robot.driver.common.autonomous;
 
 import org.usfirst.frc.team1318.robot.driver.AutonomousRoutineSelector;
+import org.usfirst.frc.team1318.robot.driver.Operation;
 import org.usfirst.frc.team1318.robot.driver.common.Driver;
 import org.usfirst.frc.team1318.robot.driver.common.IButtonMap;
 import org.usfirst.frc.team1318.robot.driver.common.IControlTask;
-import org.usfirst.frc.team1318.robot.driver.common.states.OperationState;
 
 import com.google.inject.Inject;
 import com.google.inject.Injector;
@@ -38,11 +38,11 @@ public class AutonomousDriver extends Driver
         this.hasBegun = false;
         this.hasEnded = false;
 
-        this.autonomousTask.initialize(this.operationStateMap, injector);
+        this.autonomousTask.initialize(this.operationStateStore, injector);
 
-        for (OperationState state : this.operationStateMap.values())
+        for (Operation operation : this.operationStateStore.getOperations())
         {
-            state.setIsInterrupted(true);
+            this.operationStateStore.setIsInterrupted(operation, true);
         }
     }
 
@@ -80,6 +80,15 @@ public class AutonomousDriver extends Driver
         }
     }
 
+    /**
+     * Gets whether the autonomous routine has finished running (either completed or cancelled)
+     * @return true if the routine has ended, otherwise false
+     */
+    public boolean hasEnded()
+    {
+        return this.hasEnded;
+    }
+
     /**
      * Tell the driver that operation is stopping
      */
@@ -16,14 +16,20 @@ import edu.wpi.first.wpilibj.Joystick.AxisType;
  */
 public class AnalogOperationState extends OperationState
 {
+    private final OperationStateStore store;
+    private final int index;
+
     private double currentValue;
     private boolean isInterrupted;
     private double interruptValue;
 
-    public AnalogOperationState(AnalogOperationDescription description)
+    public AnalogOperationState(AnalogOperationDescription description, OperationStateStore store, int index)
     {
         super(description);
 
+        this.store = store;
+        this.index = index;
+
         this.currentValue = 0.0;
         this.isInterrupted = false;
         this.interruptValue = 0.0;
@@ -41,6 +47,8 @@ public class AnalogOperationState extends OperationState
         {
             this.interruptValue = 0.0;
         }
+
+        this.store.updateAnalog(this.index, this.getState());
     }
 
     /**
@@ -124,6 +132,7 @@ public class AnalogOperationState extends OperationState
         }
 
         this.currentValue = newValue;
+        this.store.updateAnalog(this.index, this.getState());
         return this.currentValue != oldValue;
     }
 
@@ -148,6 +157,7 @@ public class AnalogOperationState extends OperationState
         }
 
         this.interruptValue = value;
+        this.store.updateAnalog(this.index, this.getState());
     }
 
     public static AxisType fromAxis(AnalogAxis axis)
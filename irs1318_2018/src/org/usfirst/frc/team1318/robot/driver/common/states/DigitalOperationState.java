@@ -19,13 +19,19 @@ import org.usfirst.frc.team1318.robot.driver.common.descriptions.DigitalOperatio
 public class DigitalOperationState extends OperationState
 {
     private final IButton button;
+    private final OperationStateStore store;
+    private final int index;
+
     private boolean isInterrupted;
     private boolean interruptValue;
 
-    public DigitalOperationState(DigitalOperationDescription description)
+    public DigitalOperationState(DigitalOperationDescription description, OperationStateStore store, int index)
     {
         super(description);
 
+        this.store = store;
+        this.index = index;
+
         this.isInterrupted = false;
         this.interruptValue = false;
         switch (description.getButtonType())
@@ -65,6 +71,8 @@ public class DigitalOperationState extends OperationState
         {
             this.interruptValue = false;
         }
+
+        this.store.updateDigital(this.index, this.getState());
     }
 
     /**
@@ -93,6 +101,7 @@ public class DigitalOperationState extends OperationState
         if (!activeShifts.contains(requiredShift))
         {
             this.button.updateState(false);
+            this.store.updateDigital(this.index, this.getState());
             return false;
         }
 
@@ -150,6 +159,7 @@ public class DigitalOperationState extends OperationState
         }
 
         this.button.updateState(buttonPressed);
+        this.store.updateDigital(this.index, this.getState());
         return buttonPressed;
     }
 
@@ -174,5 +184,6 @@ public class DigitalOperationState extends OperationState
         }
 
         this.interruptValue = value;
+        this.store.updateDigital(this.index, this.getState());
     }
 }
@@ -1,6 +1,5 @@
 package org.usfirst.frc.team1318.robot.driver.common.states;
 
-import java.util.Map;
 import java.util.Set;
 
 import org.usfirst.frc.team1318.robot.TuningConstants;
@@ -24,19 +23,19 @@ import com.google.inject.Injector;
 public class MacroOperationState extends OperationState
 {
     private final IButton button;
-    private final Map<Operation, OperationState> operationStateMap;
+    private final OperationStateStore operationStateStore;
     private final Injector injector;
 
     private IControlTask task;
 
     public MacroOperationState(
         MacroOperationDescription description,
-        Map<Operation, OperationState> operationStateMap,
+        OperationStateStore operationStateStore,
         Injector injector)
     {
         super(description);
 
-        this.operationStateMap = operationStateMap;
+        this.operationStateStore = operationStateStore;
         this.injector = injector;
 
         switch (description.getButtonType())
@@ -184,12 +183,12 @@ public class MacroOperationState extends OperationState
             {
                 for (Operation operation : this.getAffectedOperations())
                 {
-                    this.operationStateMap.get(operation).setIsInterrupted(true);
+                    this.operationStateStore.setIsInterrupted(operation, true);
                 }
 
                 // start task
                 this.task = ((MacroOperationDescription)this.getDescription()).constructTask();
-                this.task.initialize(this.operationStateMap, this.injector);
+                this.task.initialize(this.operationStateStore, this.injector);
                 this.task.begin();
             }
 
@@ -214,7 +213,7 @@ public class MacroOperationState extends OperationState
                 {
                     for (Operation operation : this.getAffectedOperations())
                     {
-                        this.operationStateMap.get(operation).setIsInterrupted(false);
+                        this.operationStateStore.setIsInterrupted(operation, false);
                     }
                 }
             }
@@ -231,7 +230,7 @@ public class MacroOperationState extends OperationState
 
             for (Operation operation : this.getAffectedOperations())
             {
-                this.operationStateMap.get(operation).setIsInterrupted(false);
+                this.operationStateStore.setIsInterrupted(operation, false);
             }
         }
     }
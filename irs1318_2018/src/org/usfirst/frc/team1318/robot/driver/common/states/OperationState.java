@@ -51,17 +51,19 @@ public abstract class OperationState
     /**
      * Create the state corresponding to the description
      * @param description to use for creating the state
+     * @param store to write the value of the state through to
+     * @param index of the operation within the store
      * @return state corresponding to the description
      */
-    public static OperationState createFromDescription(OperationDescription description)
+    public static OperationState createFromDescription(OperationDescription description, OperationStateStore store, int index)
     {
         if (description instanceof AnalogOperationDescription)
         {
-            return new AnalogOperationState((AnalogOperationDescription)description);
+            return new AnalogOperationState((AnalogOperationDescription)description, store, index);
         }
         else if (description instanceof DigitalOperationDescription)
         {
-            return new DigitalOperationState((DigitalOperationDescription)description);
+            return new DigitalOperationState((DigitalOperationDescription)description, store, index);
         }
 
         if (TuningConstants.THROW_EXCEPTIONS)
@@ -0,0 +1,152 @@
+package org.usfirst.frc.team1318.robot.driver.common.states;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.usfirst.frc.team1318.robot.TuningConstants;
+import org.usfirst.frc.team1318.robot.driver.Operation;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.OperationDescription;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.OperationType;
+
+/**
+ * Store of the states of all of the operations, indexed by the operation's ordinal.
+ *
+ * The current value of each operation is kept in a primitive array (one for digital operations, one for analog
+ * operations), and each operation state writes its value through to the store whenever it changes, so that reading
+ * an operation's value from a mechanism is a single array load.
+ *
+ */
+public class OperationStateStore
+{
+    private final Operation[] operations;
+    private final OperationState[] states;
+    private final OperationType[] types;
+    private final boolean[] digitalValues;
+    private final double[] analogValues;
+
+    /**
+     * Initializes a new OperationStateStore
+     * @param operationSchema describing the operations to store the state of
+     */
+    public OperationStateStore(Map<Operation, OperationDescription> operationSchema)
+    {
+        int operationCount = Operation.values().length;
+        this.states = new OperationState[operationCount];
+        this.types = new OperationType[operationCount];
+        this.digitalValues = new boolean[operationCount];
+        this.analogValues = new double[operationCount];
+
+        EnumMap<Operation, OperationDescription> sortedSchema = new EnumMap<Operation, OperationDescription>(Operation.class);
+        sortedSchema.putAll(operationSchema);
+
+        this.operations = sortedSchema.keySet().toArray(new Operation[sortedSchema.size()]);
+        for (Operation operation : this.operations)
+        {
+            int index = operation.ordinal();
+            OperationDescription description = sortedSchema.get(operation);
+            this.types[index] = description.getType();
+            this.states[index] = OperationState.createFromDescription(description, this, index);
+        }
+    }
+
+    /**
+     * Gets the operations that have states, in ordinal order
+     * @return the operations
+     */
+    public Operation[] getOperations()
+    {
+        return this.operations;
+    }
+
+    /**
+     * Gets the state of an operation
+     * @param operation to get the state for
+     * @return the state of the operation, or null if it isn't in the schema
+     */
+    public OperationState getState(Operation operation)
+    {
+        return this.states[operation.ordinal()];
+    }
+
+    /**
+     * Get a boolean indicating whether the current digital operation is enabled
+     * @param digitalOperation to get
+     * @return the current value of the digital operation
+     */
+    public boolean getDigital(Operation digitalOperation)
+    {
+        int index = digitalOperation.ordinal();
+        if (TuningConstants.THROW_EXCEPTIONS && this.types[index] != OperationType.Digital)
+        {
+            throw new RuntimeException("not a digital operation!");
+        }
+
+        return this.digitalValues[index];
+    }
+
+    /**
+     * Get a double between -1.0 and 1.0 indicating the current value of the analog operation
+     * @param analogOperation to get
+     * @return the current value of the analog operation
+     */
+    public double getAnalog(Operation analogOperation)
+    {
+        int index = analogOperation.ordinal();
+        if (TuningConstants.THROW_EXCEPTIONS && this.types[index] != OperationType.Analog)
+        {
+            throw new RuntimeException("not an analog operation!");
+        }
+
+        return this.analogValues[index];
+    }
+
+    /**
+     * Sets the interrupt value for a given digital operation
+     * @param digitalOperation to set the interrupt state for
+     * @param value to set as the interrupt
+     */
+    public void setDigitalInterruptState(Operation digitalOperation, boolean value)
+    {
+        ((DigitalOperationState)this.states[digitalOperation.ordinal()]).setInterruptState(value);
+    }
+
+    /**
+     * Sets the interrupt value for a given analog operation
+     * @param analogOperation to set the interrupt state for
+     * @param value to set as the interrupt
+     */
+    public void setAnalogInterruptState(Operation analogOperation, double value)
+    {
+        ((AnalogOperationState)this.states[analogOperation.ordinal()]).setInterruptState(value);
+    }
+
+    /**
+     * Sets whether an operation is being interrupted by a macro
+     * @param operation to set the interrupt for
+     * @param enable value of true indicates that the operation is interrupted
+     */
+    public void setIsInterrupted(Operation operation, boolean enable)
+    {
+        this.states[operation.ordinal()].setIsInterrupted(enable);
+    }
+
+    /**
+     * Called by a digital operation state when its value changes
+     * @param index of the operation
+     * @param value of the operation
+     */
+    void updateDigital(int index, boolean value)
+    {
+        this.digitalValues[index] = value;
+    }
+
+    /**
+     * Called by an analog operation state when its value changes
+     * @param index of the operation
+     * @param value of the operation
+     */
+    void updateAnalog(int index, double value)
+    {
+        this.analogValues[index] = value;
+    }
+}
@@ -0,0 +1,154 @@
+package org.usfirst.frc.team1318.robot.driver.common.user;
+
+import org.usfirst.frc.team1318.robot.TuningConstants;
+import org.usfirst.frc.team1318.robot.common.wpilib.IJoystick;
+
+import edu.wpi.first.wpilibj.Joystick.AxisType;
+
+/**
+ * Snapshot of the state of a joystick, captured once per control loop iteration.
+ *
+ * Only the buttons, axes and POV that have been added to the snapshot are read from the joystick when it is
+ * captured, and the values are then held in primitive fields so that all of the operation states read consistent
+ * inputs within an iteration without each of them going through the HAL.  Inputs that weren't added will read as
+ * released/centered.
+ *
+ */
+public class JoystickSnapshot implements IJoystick
+{
+    private static final AxisType[] Axes = AxisType.values();
+    private static final int MaxButton = 31;
+
+    private final IJoystick joystick;
+
+    // which inputs to read when capturing
+    private int buttonsToRead;
+    private boolean readPov;
+    private final boolean[] axesToRead;
+
+    // values as of the last capture
+    private int buttons;
+    private int pov;
+    private final double[] axisValues;
+
+    /**
+     * Initializes a new JoystickSnapshot
+     * @param joystick to capture the state of
+     */
+    public JoystickSnapshot(IJoystick joystick)
+    {
+        this.joystick = joystick;
+
+        this.buttonsToRead = 0;
+        this.readPov = false;
+        this.axesToRead = new boolean[JoystickSnapshot.Axes.length];
+
+        this.buttons = 0;
+        this.pov = -1;
+        this.axisValues = new double[JoystickSnapshot.Axes.length];
+    }
+
+    /**
+     * Include a button in the snapshot
+     * @param button number to read
+     */
+    public void addButton(int button)
+    {
+        if (button < 1 || button > JoystickSnapshot.MaxButton)
+        {
+            if (TuningConstants.THROW_EXCEPTIONS)
+            {
+                throw new RuntimeException("unexpected button number " + button);
+            }
+
+            return;
+        }
+
+        this.buttonsToRead |= (1 << button);
+    }
+
+    /**
+     * Include the POV (hat) in the snapshot
+     */
+    public void addPov()
+    {
+        this.readPov = true;
+    }
+
+    /**
+     * Include an axis in the snapshot
+     * @param axis to read
+     */
+    public void addAxis(AxisType axis)
+    {
+        this.axesToRead[axis.ordinal()] = true;
+    }
+
+    /**
+     * Read the current state of the joystick
+     */
+    public void capture()
+    {
+        int buttons = 0;
+        for (int button = 1; button <= JoystickSnapshot.MaxButton; button++)
+        {
+            int mask = 1 << button;
+            if ((this.buttonsToRead & mask) != 0 && this.joystick.getRawButton(button))
+            {
+                buttons |= mask;
+            }
+        }
+
+        this.buttons = buttons;
+
+        if (this.readPov)
+        {
+            this.pov = this.joystick.getPOV();
+        }
+
+        for (int i = 0; i < JoystickSnapshot.Axes.length; i++)
+        {
+            if (this.axesToRead[i])
+            {
+                this.axisValues[i] = this.joystick.getAxis(JoystickSnapshot.Axes[i]);
+            }
+        }
+    }
+
+    /**
+     * Get the value of an axis as of the last capture
+     * @param relevantAxis to get
+     * @return the value of the axis
+     */
+    @Override
+    public double getAxis(AxisType relevantAxis)
+    {
+        return this.axisValues[relevantAxis.ordinal()];
+    }
+
+    /**
+     * Get the value of the POV (hat) as of the last capture
+     * @return the angle of the POV, or -1 if not pressed
+     */
+    @Override
+    public int getPOV()
+    {
+        return this.pov;
+    }
+
+    /**
+     * Get whether a button was pressed as of the last capture
+     * @param value the button number
+     * @return true if the button was pressed
+     */
+    @Override
+    public boolean getRawButton(int value)
+    {
+        if (value < 1 || value > JoystickSnapshot.MaxButton)
+        {
+            return false;
+        }
+
+        return (this.buttons & (1 << value)) != 0;
+    }
+}
@@ -1,27 +1,33 @@
 package org.usfirst.frc.team1318.robot.driver.common.user;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.Map;
-import java.util.Set;
 
 import org.usfirst.frc.team1318.robot.ElectronicsConstants;
-import org.usfirst.frc.team1318.robot.common.SetHelper;
-import org.usfirst.frc.team1318.robot.common.wpilib.IJoystick;
 import org.usfirst.frc.team1318.robot.common.wpilib.IWpilibProvider;
 import org.usfirst.frc.team1318.robot.driver.MacroOperation;
 import org.usfirst.frc.team1318.robot.driver.Operation;
 import org.usfirst.frc.team1318.robot.driver.Shift;
 import org.usfirst.frc.team1318.robot.driver.common.Driver;
 import org.usfirst.frc.team1318.robot.driver.common.IButtonMap;
+import org.usfirst.frc.team1318.robot.driver.common.UserInputDeviceButton;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.AnalogOperationDescription;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.DigitalOperationDescription;
 import org.usfirst.frc.team1318.robot.driver.common.descriptions.MacroOperationDescription;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.OperationDescription;
 import org.usfirst.frc.team1318.robot.driver.common.descriptions.ShiftDescription;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.UserInputDevice;
+import org.usfirst.frc.team1318.robot.driver.common.states.AnalogOperationState;
 import org.usfirst.frc.team1318.robot.driver.common.states.MacroOperationState;
 import org.usfirst.frc.team1318.robot.driver.common.states.OperationState;
 
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 
+import edu.wpi.first.wpilibj.Joystick.AxisType;
+
 /**
  * Driver for teleop mode.  User driver translates current state and joystick state information into
  * the specific actions that should be taken by the robot.
@@ -29,14 +35,34 @@ import com.google.inject.Injector;
  */
 public class UserDriver extends Driver
 {
-    private final IJoystick joystickDriver;
-    private final IJoystick joystickCoDriver;
-
-    private final Set<Shift> activeShifts;
+    // the state of the joysticks, captured once at the start of each update
+    private final JoystickSnapshot joystickDriver;
+    private final JoystickSnapshot joystickCoDriver;
 
     private final Map<Shift, ShiftDescription> shiftMap;
     private final Map<MacroOperation, MacroOperationState> macroStateMap;
 
+    // the shifts, operations and macro operations (and their states) in a fixed order, so we can iterate without allocating
+    private final Shift[] shifts;
+    private final ShiftDescription[] shiftDescriptions;
+    private final Operation[] operations;
+    private final OperationState[] operationStates;
+    private final MacroOperation[] macroOperations;
+    private final MacroOperationState[] macroStates;
+
+    // the operations that any macro affects, along with the operations in the schema (a macro can affect an operation
+    // that isn't in the schema), so that each of them has a preallocated entry in the active macro operation map
+    private final Operation[] macroTrackedOperations;
+
+    // state that is re-used for each update, so we don't allocate in the teleop input path
+    private final EnumSet<Shift> activeShifts;
+    private final EnumSet<Operation> modifiedOperations;
+    private final EnumSet<MacroOperation> previouslyActiveMacroOperations;
+    private final EnumSet<MacroOperation> activeMacroOperations;
+    private final EnumMap<Operation, EnumSet<MacroOperation>> activeMacroOperationMap;
+    private final EnumSet<MacroOperation> macroOperationsToCancel;
+    private final EnumSet<MacroOperation> scratchMacroOperations;
+
     /**
      * Initializes a new UserDriver
      * @param injector used to retrieve the components to utilize within the robot
@@ -49,12 +75,12 @@ public class UserDriver extends Driver
     {
         super(injector, buttonMap);
 
-        this.joystickDriver = provider.getJoystick(ElectronicsConstants.JOYSTICK_DRIVER_PORT);
-        this.joystickCoDriver = provider.getJoystick(ElectronicsConstants.JOYSTICK_CO_DRIVER_PORT);
+        this.joystickDriver = new JoystickSnapshot(provider.getJoystick(ElectronicsConstants.JOYSTICK_DRIVER_PORT));
+        this.joystickCoDriver = new JoystickSnapshot(provider.getJoystick(ElectronicsConstants.JOYSTICK_CO_DRIVER_PORT));
+        this.addSnapshotInputs(buttonMap);
 
-        this.activeShifts = new HashSet<Shift>();
         this.shiftMap = buttonMap.getShiftMap();
-        this.macroStateMap = new HashMap<MacroOperation, MacroOperationState>();
+        this.macroStateMap = new EnumMap<MacroOperation, MacroOperationState>(MacroOperation.class);
         Map<MacroOperation, MacroOperationDescription> macroSchema = buttonMap.getMacroOperationSchema();
         for (MacroOperation macroOperation : macroSchema.keySet())
         {
@@ -62,9 +88,45 @@ public class UserDriver extends Driver
                 macroOperation,
                 new MacroOperationState(
                     macroSchema.get(macroOperation),
-                    this.operationStateMap,
+                    this.operationStateStore,
                     this.injector));
         }
+
+        EnumMap<Shift, ShiftDescription> sortedShiftMap = new EnumMap<Shift, ShiftDescription>(Shift.class);
+        sortedShiftMap.putAll(this.shiftMap);
+        this.shifts = sortedShiftMap.keySet().toArray(new Shift[sortedShiftMap.size()]);
+        this.shiftDescriptions = sortedShiftMap.values().toArray(new ShiftDescription[sortedShiftMap.size()]);
+
+        this.operations = this.operationStateStore.getOperations();
+        this.operationStates = new OperationState[this.operations.length];
+        for (int i = 0; i < this.operations.length; i++)
+        {
+            this.operationStates[i] = this.operationStateStore.getState(this.operations[i]);
+        }
+
+        this.macroOperations = this.macroStateMap.keySet().toArray(new MacroOperation[this.macroStateMap.size()]);
+        this.macroStates = this.macroStateMap.values().toArray(new MacroOperationState[this.macroStateMap.size()]);
+
+        this.activeShifts = EnumSet.noneOf(Shift.class);
+        this.modifiedOperations = EnumSet.noneOf(Operation.class);
+        this.previouslyActiveMacroOperations = EnumSet.noneOf(MacroOperation.class);
+        this.activeMacroOperations = EnumSet.noneOf(MacroOperation.class);
+        EnumSet<Operation> trackedOperations = EnumSet.noneOf(Operation.class);
+        Collections.addAll(trackedOperations, this.operations);
+        for (MacroOperationDescription description : macroSchema.values())
+        {
+            Collections.addAll(trackedOperations, description.getAffectedOperations());
+        }
+
+        this.macroTrackedOperations = trackedOperations.toArray(new Operation[trackedOperations.size()]);
+        this.activeMacroOperationMap = new EnumMap<Operation, EnumSet<MacroOperation>>(Operation.class);
+        for (Operation operation : this.macroTrackedOperations)
+        {
+            this.activeMacroOperationMap.put(operation, EnumSet.noneOf(MacroOperation.class));
+        }
+
+        this.macroOperationsToCancel = EnumSet.noneOf(MacroOperation.class);
+        this.scratchMacroOperations = EnumSet.noneOf(MacroOperation.class);
     }
 
     /**
@@ -73,25 +135,27 @@ public class UserDriver extends Driver
     @Override
     public void update()
     {
+        // read the joysticks once, so that every operation sees the same inputs
+        this.joystickDriver.capture();
+        this.joystickCoDriver.capture();
+
         // keep track of macros that were running before we checked user input...
-        Set<MacroOperation> previouslyActiveMacroOperations = new HashSet<MacroOperation>();
-        for (MacroOperation macroOperation : this.macroStateMap.keySet())
+        this.previouslyActiveMacroOperations.clear();
+        for (int i = 0; i < this.macroOperations.length; i++)
         {
-            MacroOperationState macroState = this.macroStateMap.get(macroOperation);
-            if (macroState.getIsActive())
+            if (this.macroStates[i].getIsActive())
             {
-                previouslyActiveMacroOperations.add(macroOperation);
+                this.previouslyActiveMacroOperations.add(this.macroOperations[i]);
             }
         }
 
         // check inputs and update shifts based on it...
         this.activeShifts.clear();
-        for (Shift shift : this.shiftMap.keySet())
+        for (int i = 0; i < this.shifts.length; i++)
         {
-            ShiftDescription shiftDescription = this.shiftMap.get(shift);
-            if (shiftDescription.checkInput(this.joystickDriver, this.joystickCoDriver))
+            if (this.shiftDescriptions[i].checkInput(this.joystickDriver, this.joystickCoDriver))
             {
-                this.activeShifts.add(shift);
+                this.activeShifts.add(this.shifts[i]);
             }
         }
 
@@ -105,47 +169,39 @@ public class UserDriver extends Driver
         this.activeShifts.add(Shift.Any);
 
         // check user inputs for various operations (non-macro) and keep track of:
-        // operations that were interrupted already, and operations that were modified by user input in this update
-        Set<Operation> modifiedOperations = new HashSet<Operation>();
-        Set<Operation> interruptedOperations = new HashSet<Operation>();
-        for (Operation operation : this.operationStateMap.keySet())
+        // operations that were modified by user input in this update
+        this.modifiedOperations.clear();
+        for (int i = 0; i < this.operations.length; i++)
         {
-            OperationState opState = this.operationStateMap.get(operation);
-            boolean receivedInput = opState.checkInput(this.joystickDriver, this.joystickCoDriver, this.activeShifts);
+            boolean receivedInput = this.operationStates[i].checkInput(this.joystickDriver, this.joystickCoDriver, this.activeShifts);
             if (receivedInput)
             {
-                modifiedOperations.add(operation);
-            }
-
-            if (this.operationStateMap.get(operation).getIsInterrupted())
-            {
-                interruptedOperations.add(operation);
+                this.modifiedOperations.add(this.operations[i]);
             }
         }
 
         // check user inputs for various macro operations
         // also keep track of modified and active macro operations, and how macro operations and operations link together
-        Set<MacroOperation> activeMacroOperations = new HashSet<MacroOperation>();
-        Map<Operation, Set<MacroOperation>> activeMacroOperationMap = new HashMap<Operation, Set<MacroOperation>>();
-        for (MacroOperation macroOperation : this.macroStateMap.keySet())
+        this.activeMacroOperations.clear();
+        for (int i = 0; i < this.macroTrackedOperations.length; i++)
         {
-            MacroOperationState macroState = this.macroStateMap.get(macroOperation);
+            this.activeMacroOperationMap.get(this.macroTrackedOperations[i]).clear();
+        }
+
+        for (int i = 0; i < this.macroOperations.length; i++)
+        {
+            MacroOperation macroOperation = this.macroOperations[i];
+            MacroOperationState macroState = this.macroStates[i];
             macroState.checkInput(this.joystickDriver, this.joystickCoDriver, this.activeShifts);
 
             if (macroState.getIsActive())
             {
-                activeMacroOperations.add(macroOperation);
+                this.activeMacroOperations.add(macroOperation);
 
-                for (Operation affectedOperation : macroState.getAffectedOperations())
+                Operation[] affectedOperations = macroState.getAffectedOperations();
+                for (int j = 0; j < affectedOperations.length; j++)
                 {
-                    Set<MacroOperation> relevantMacroOperations = activeMacroOperationMap.get(affectedOperation);
-                    if (relevantMacroOperations == null)
-                    {
-                        relevantMacroOperations = new HashSet<MacroOperation>();
-                        activeMacroOperationMap.put(affectedOperation, relevantMacroOperations);
-                    }
-
-                    relevantMacroOperations.add(macroOperation);
+                    this.activeMacroOperationMap.get(affectedOperations[j]).add(macroOperation);
                 }
             }
         }
@@ -154,54 +210,74 @@ public class UserDriver extends Driver
         // 1. have not been usurped by a user action
         // 2. have not been usurped by a new macro (i.e. that was started in this round)
         // 3. are new macros that do not overlap with other new macros
-        Set<MacroOperation> macroOperationsToCancel = new HashSet<MacroOperation>();
-        for (Operation operation : activeMacroOperationMap.keySet())
+        this.macroOperationsToCancel.clear();
+        for (int i = 0; i < this.macroTrackedOperations.length; i++)
         {
-            Set<MacroOperation> relevantMacroOperations = activeMacroOperationMap.get(operation);
-            if (modifiedOperations.contains(operation))
+            Operation operation = this.macroTrackedOperations[i];
+            EnumSet<MacroOperation> relevantMacroOperations = this.activeMacroOperationMap.get(operation);
+            if (relevantMacroOperations.isEmpty())
+            {
+                continue;
+            }
+
+            if (this.modifiedOperations.contains(operation))
             {
                 // disobeys rule #1:
                 // (macro usurped by user action)
-                macroOperationsToCancel.addAll(relevantMacroOperations);
+                this.macroOperationsToCancel.addAll(relevantMacroOperations);
             }
             else if (relevantMacroOperations.size() > 1)
             {
-                Set<MacroOperation> newRelevantMacroOperations = SetHelper.<MacroOperation> RelativeComplement(
-                    previouslyActiveMacroOperations, relevantMacroOperations);
+                // find the relevant macros that weren't previously active
+                EnumSet<MacroOperation> newRelevantMacroOperations = this.scratchMacroOperations;
+                newRelevantMacroOperations.clear();
+                newRelevantMacroOperations.addAll(relevantMacroOperations);
+                newRelevantMacroOperations.removeAll(this.previouslyActiveMacroOperations);
                 if (newRelevantMacroOperations.size() > 1)
                 {
                     // disobeys rule #3:
                     // (there are 2 or more active macros that weren't previously active)
-                    macroOperationsToCancel.addAll(relevantMacroOperations);
+                    this.macroOperationsToCancel.addAll(relevantMacroOperations);
                 }
                 else
                 {
                     // some disobey rule #2 (remove only those that were previously active, and not the 1 that is newly active...)
-                    macroOperationsToCancel.addAll(SetHelper.<MacroOperation> RelativeComplement(newRelevantMacroOperations,
-                        relevantMacroOperations));
+                    EnumSet<MacroOperation> oldRelevantMacroOperations = this.scratchMacroOperations;
+                    oldRelevantMacroOperations.clear();
+                    oldRelevantMacroOperations.addAll(relevantMacroOperations);
+                    oldRelevantMacroOperations.retainAll(this.previouslyActiveMacroOperations);
+                    this.macroOperationsToCancel.addAll(oldRelevantMacroOperations);
                 }
             }
         }
 
         // cancel macros that didn't follow the rules list above
-        for (MacroOperation macroOperationToCancel : macroOperationsToCancel)
+        for (int i = 0; i < this.macroOperations.length; i++)
         {
-            this.macroStateMap.get(macroOperationToCancel).setIsInterrupted(true);
-            activeMacroOperations.remove(macroOperationToCancel);
+            MacroOperation macroOperation = this.macroOperations[i];
+            if (this.macroOperationsToCancel.contains(macroOperation))
+            {
+                this.macroStates[i].setIsInterrupted(true);
+                this.activeMacroOperations.remove(macroOperation);
+            }
         }
 
         // first, run all of the inactive macros (to clear any old interrupts)...
-        Set<MacroOperation> inactiveMacroOperations = SetHelper.<MacroOperation> RelativeComplement(activeMacroOperations,
-            this.macroStateMap.keySet());
-        for (MacroOperation macroOperation : inactiveMacroOperations)
+        for (int i = 0; i < this.macroOperations.length; i++)
         {
-            this.macroStateMap.get(macroOperation).run();
+            if (!this.activeMacroOperations.contains(this.macroOperations[i]))
+            {
+                this.macroStates[i].run();
+            }
         }
 
         // second, run all of the active macros (which could add interrupts that were cleared in the previous phase)...
-        for (MacroOperation macroOperation : activeMacroOperations)
+        for (int i = 0; i < this.macroOperations.length; i++)
         {
-            this.macroStateMap.get(macroOperation).run();
+            if (this.activeMacroOperations.contains(this.macroOperations[i]))
+            {
+                this.macroStates[i].run();
+            }
         }
     }
 
@@ -212,4 +288,83 @@ public class UserDriver extends Driver
     public void stop()
     {
     }
+
+    /**
+     * Add the joystick inputs that are used by the button map to the joystick snapshots
+     * @param buttonMap describing the shifts, operations and macro operations
+     */
+    private void addSnapshotInputs(IButtonMap buttonMap)
+    {
+        for (ShiftDescription description : buttonMap.getShiftMap().values())
+        {
+            this.addSnapshotButton(description.getUserInputDevice(), description.getUserInputDeviceButton());
+        }
+
+        for (OperationDescription description : buttonMap.getOperationSchema().values())
+        {
+            if (description instanceof DigitalOperationDescription)
+            {
+                this.addSnapshotButton(
+                    description.getUserInputDevice(),
+                    ((DigitalOperationDescription)description).getUserInputDeviceButton());
+            }
+            else if (description instanceof AnalogOperationDescription)
+            {
+                JoystickSnapshot snapshot = this.getSnapshot(description.getUserInputDevice());
+                AxisType axis = AnalogOperationState.fromAxis(((AnalogOperationDescription)description).getUserInputDeviceAxis());
+                if (snapshot != null && axis != null)
+                {
+                    snapshot.addAxis(axis);
+                }
+            }
+        }
+
+        for (MacroOperationDescription description : buttonMap.getMacroOperationSchema().values())
+        {
+            this.addSnapshotButton(description.getUserInputDevice(), description.getUserInputDeviceButton());
+        }
+    }
+
+    /**
+     * Add a button (or the POV) to the relevant joystick snapshot
+     * @param userInputDevice the button is on
+     * @param button to add
+     */
+    private void addSnapshotButton(UserInputDevice userInputDevice, UserInputDeviceButton button)
+    {
+        JoystickSnapshot snapshot = this.getSnapshot(userInputDevice);
+        if (snapshot == null || button == UserInputDeviceButton.NONE)
+        {
+            return;
+        }
+
+        if (button == UserInputDeviceButton.JOYSTICK_POV)
+        {
+            snapshot.addPov();
+        }
+        else
+        {
+            snapshot.addButton(button.Value);
+        }
+    }
+
+    /**
+     * Get the joystick snapshot for a user input device
+     * @param userInputDevice to get the snapshot for
+     * @return the snapshot, or null if the device isn't a joystick
+     */
+    private JoystickSnapshot getSnapshot(UserInputDevice userInputDevice)
+    {
+        switch (userInputDevice)
+        {
+            case Driver:
+                return this.joystickDriver;
+
+            case CoDriver:
+                return this.joystickCoDriver;
+
+            default:
+                return null;
+        }
+    }
 }
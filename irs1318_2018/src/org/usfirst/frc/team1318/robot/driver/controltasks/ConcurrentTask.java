@@ -1,10 +1,7 @@
 package org.usfirst.frc.team1318.robot.driver.controltasks;
 
-import java.util.Map;
-
-import org.usfirst.frc.team1318.robot.driver.Operation;
 import org.usfirst.frc.team1318.robot.driver.common.IControlTask;
-import org.usfirst.frc.team1318.robot.driver.common.states.OperationState;
+import org.usfirst.frc.team1318.robot.driver.common.states.OperationStateStore;
 
 import com.google.inject.Injector;
 
@@ -42,17 +39,17 @@ public class ConcurrentTask extends ControlTaskBase implements IControlTask
     }
 
     /**
-     * Initialize the task with the mapping of operations to states
-     * @param operationStateMap indicating the mapping of an operation to its current state
+     * Initialize the task with the store of operation states
+     * @param operationStateStore indicating the current state of each operation
      * @param injector used to retrieve the components to utilize for making any decisions
      */
     @Override
-    public void initialize(Map<Operation, OperationState> operationStateMap, Injector injector)
+    public void initialize(OperationStateStore operationStateStore, Injector injector)
     {
-        super.initialize(operationStateMap, injector);
+        super.initialize(operationStateStore, injector);
         for (IControlTask task : this.tasks)
         {
-            task.initialize(operationStateMap, injector);
+            task.initialize(operationStateStore, injector);
         }
     }
 
@@ -84,6 +81,7 @@ public class ConcurrentTask extends ControlTaskBase implements IControlTask
     {
         for (IControlTask task : this.tasks)
         {
+            this.notifyTaskBegun(task);
             task.begin();
         }
     }
@@ -105,6 +103,7 @@ public class ConcurrentTask extends ControlTaskBase implements IControlTask
             {
                 this.completedTasks[i] = true;
                 this.tasks[i].end();
+                this.notifyTaskEnded(this.tasks[i]);
                 continue;
             }
 
@@ -127,6 +126,10 @@ public class ConcurrentTask extends ControlTaskBase implements IControlTask
         for (int i = 0; i < this.tasks.length; i++)
         {
             this.tasks[i].stop();
+            if (!this.completedTasks[i])
+            {
+                this.notifyTaskEnded(this.tasks[i]);
+            }
         }
     }
 
@@ -141,6 +144,7 @@ public class ConcurrentTask extends ControlTaskBase implements IControlTask
             if (!this.completedTasks[i])
             {
                 this.tasks[i].end();
+                this.notifyTaskEnded(this.tasks[i]);
             }
         }
     }
@@ -1,30 +1,34 @@
 package org.usfirst.frc.team1318.robot.driver.controltasks;
 
-import java.util.Map;
-
 import org.usfirst.frc.team1318.robot.driver.Operation;
 import org.usfirst.frc.team1318.robot.driver.common.IControlTask;
-import org.usfirst.frc.team1318.robot.driver.common.states.AnalogOperationState;
-import org.usfirst.frc.team1318.robot.driver.common.states.DigitalOperationState;
-import org.usfirst.frc.team1318.robot.driver.common.states.OperationState;
+import org.usfirst.frc.team1318.robot.driver.common.IControlTaskListener;
+import org.usfirst.frc.team1318.robot.driver.common.states.OperationStateStore;
 
+import com.google.inject.Binding;
 import com.google.inject.Injector;
+import com.google.inject.Key;
 
 public abstract class ControlTaskBase implements IControlTask
 {
-    private Map<Operation, OperationState> operationStateMap;
+    private OperationStateStore operationStateStore;
     private Injector injector;
+    private IControlTaskListener taskListener;
 
     /**
-     * Initialize the task with the mapping of operations to states
-     * @param operationStateMap indicating the mapping of an operation to its current state
+     * Initialize the task with the store of operation states
+     * @param operationStateStore indicating the current state of each operation
      * @param components to utilize for making any decisions
      */
     @Override
-    public void initialize(Map<Operation, OperationState> operationStateMap, Injector injector)
+    public void initialize(OperationStateStore operationStateStore, Injector injector)
     {
-        this.operationStateMap = operationStateMap;
+        this.operationStateStore = operationStateStore;
         this.injector = injector;
+
+        // only use a task listener if one has been explicitly bound (e.g. by the simulation)
+        Binding<IControlTaskListener> taskListenerBinding = injector.getExistingBinding(Key.get(IControlTaskListener.class));
+        this.taskListener = taskListenerBinding != null ? taskListenerBinding.getProvider().get() : null;
     }
 
     /**
@@ -66,8 +70,7 @@ public abstract class ControlTaskBase implements IControlTask
      */
     protected void setAnalogOperationState(Operation operation, double value)
     {
-        OperationState operationState = this.operationStateMap.get(operation);
-        ((AnalogOperationState)operationState).setInterruptState(value);
+        this.operationStateStore.setAnalogInterruptState(operation, value);
     }
 
     /**
@@ -77,8 +80,7 @@ public abstract class ControlTaskBase implements IControlTask
      */
     protected void setDigitalOperationState(Operation operation, boolean value)
     {
-        OperationState operationState = this.operationStateMap.get(operation);
-        ((DigitalOperationState)operationState).setInterruptState(value);
+        this.operationStateStore.setDigitalInterruptState(operation, value);
     }
 
     /**
@@ -88,8 +90,7 @@ public abstract class ControlTaskBase implements IControlTask
      */
     protected double getAnalogOperationState(Operation operation)
     {
-        OperationState operationState = this.operationStateMap.get(operation);
-        return ((AnalogOperationState)operationState).getState();
+        return this.operationStateStore.getAnalog(operation);
     }
 
     /**
@@ -99,8 +100,7 @@ public abstract class ControlTaskBase implements IControlTask
      */
     protected boolean getDigitalOperationState(Operation operation)
     {
-        OperationState operationState = this.operationStateMap.get(operation);
-        return ((DigitalOperationState)operationState).getState();
+        return this.operationStateStore.getDigital(operation);
     }
 
     /**
@@ -111,4 +111,28 @@ public abstract class ControlTaskBase implements IControlTask
     {
         return this.injector;
     }
+
+    /**
+     * Notify the task listener (if any) that a task within this task has begun
+     * @param task that has begun
+     */
+    protected void notifyTaskBegun(IControlTask task)
+    {
+        if (this.taskListener != null)
+        {
+            this.taskListener.taskBegun(this, task);
+        }
+    }
+
+    /**
+     * Notify the task listener (if any) that a task within this task has ended
+     * @param task that has ended
+     */
+    protected void notifyTaskEnded(IControlTask task)
+    {
+        if (this.taskListener != null)
+        {
+            this.taskListener.taskEnded(this, task);
+        }
+    }
 }
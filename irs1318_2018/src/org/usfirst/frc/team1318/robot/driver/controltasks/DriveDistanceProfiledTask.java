@@ -0,0 +1,18 @@
+package org.usfirst.frc.team1318.robot.driver.controltasks;
+
+import org.usfirst.frc.team1318.robot.HardwareConstants;
+
+public class DriveDistanceProfiledTask extends DriveRouteTask
+{
+    /**
+     * Initializes a new DriveDistanceProfiledTask, which drives the distance in the minimum time within the
+     * drivetrain's motion profile limits
+     * @param distance to travel overall
+     */
+    public DriveDistanceProfiledTask(double distance)
+    {
+        super(
+            DriveRouteTask.CreateProfile(distance, HardwareConstants.DRIVETRAIN_LEFT_PULSE_DISTANCE),
+            DriveRouteTask.CreateProfile(distance, HardwareConstants.DRIVETRAIN_RIGHT_PULSE_DISTANCE));
+    }
+}
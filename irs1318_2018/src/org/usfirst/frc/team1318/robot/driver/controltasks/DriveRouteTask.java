@@ -3,6 +3,8 @@ package org.usfirst.frc.team1318.robot.driver.controltasks;
 import java.util.function.Function;
 
 import org.usfirst.frc.team1318.robot.TuningConstants;
+import org.usfirst.frc.team1318.robot.common.MotionProfile;
+import org.usfirst.frc.team1318.robot.common.MotionProfileGenerator;
 import org.usfirst.frc.team1318.robot.driver.Operation;
 import org.usfirst.frc.team1318.robot.driver.common.IControlTask;
 import org.usfirst.frc.team1318.robot.drivetrain.DriveTrainMechanism;
@@ -11,6 +13,8 @@ public class DriveRouteTask extends TimedTask implements IControlTask
 {
     private final Function<Double, Double> leftPositionPerTime;
     private final Function<Double, Double> rightPositionPerTime;
+    private final MotionProfile leftProfile;
+    private final MotionProfile rightProfile;
     private DriveTrainMechanism driveTrain;
 
     private double startLeftTicks;
@@ -31,6 +35,47 @@ public class DriveRouteTask extends TimedTask implements IControlTask
 
         this.leftPositionPerTime = left;
         this.rightPositionPerTime = right;
+        this.leftProfile = null;
+        this.rightProfile = null;
+    }
+
+    /**
+     * Initializes a new DriveRouteTask that follows motion profiles (taking as long as the longer of the two profiles)
+     * @param left motion profile of the desired left tick position over time
+     * @param right motion profile of the desired right tick position over time
+     */
+    public DriveRouteTask(MotionProfile left, MotionProfile right)
+    {
+        super(Math.max(left.getDuration(), right.getDuration()));
+
+        this.leftPositionPerTime = null;
+        this.rightPositionPerTime = null;
+        this.leftProfile = left;
+        this.rightProfile = right;
+    }
+
+    /**
+     * Create a motion profile (in ticks) for a side of the drivetrain to move a distance within the drivetrain's
+     * velocity, acceleration (and jerk) limits
+     * @param distance to move, in inches
+     * @param pulseDistance the distance moved per encoder tick on that side
+     * @return the motion profile
+     */
+    protected static MotionProfile CreateProfile(double distance, double pulseDistance)
+    {
+        if (TuningConstants.DRIVETRAIN_PROFILE_USE_S_CURVE)
+        {
+            return MotionProfileGenerator.GenerateSCurve(
+                distance / pulseDistance,
+                TuningConstants.DRIVETRAIN_PROFILE_MAX_VELOCITY / pulseDistance,
+                TuningConstants.DRIVETRAIN_PROFILE_MAX_ACCELERATION / pulseDistance,
+                TuningConstants.DRIVETRAIN_PROFILE_MAX_JERK / pulseDistance);
+        }
+
+        return MotionProfileGenerator.GenerateTrapezoidal(
+            distance / pulseDistance,
+            TuningConstants.DRIVETRAIN_PROFILE_MAX_VELOCITY / pulseDistance,
+            TuningConstants.DRIVETRAIN_PROFILE_MAX_ACCELERATION / pulseDistance);
     }
 
     /**
@@ -46,8 +91,16 @@ public class DriveRouteTask extends TimedTask implements IControlTask
         this.startLeftTicks = this.driveTrain.getLeftPosition();
         this.startRightTicks = this.driveTrain.getRightPosition();
 
-        this.endLeftTicks = this.startLeftTicks + this.leftPositionPerTime.apply(1.0);
-        this.endRightTicks = this.startRightTicks + this.rightPositionPerTime.apply(1.0);
+        if (this.leftProfile != null)
+        {
+            this.endLeftTicks = this.startLeftTicks + this.leftProfile.getEndPosition();
+            this.endRightTicks = this.startRightTicks + this.rightProfile.getEndPosition();
+        }
+        else
+        {
+            this.endLeftTicks = this.startLeftTicks + this.leftPositionPerTime.apply(1.0);
+            this.endRightTicks = this.startRightTicks + this.rightPositionPerTime.apply(1.0);
+        }
 
         this.setDigitalOperationState(Operation.DriveTrainUsePositionalMode, true);
     }
@@ -58,6 +111,15 @@ public class DriveRouteTask extends TimedTask implements IControlTask
     @Override
     public void update()
     {
+        if (this.leftProfile != null)
+        {
+            // the profiles are sampled without allocating (unlike the functions, which box their inputs and outputs)
+            double elapsedTime = this.timer.get() - this.startTime;
+            this.setAnalogOperationState(Operation.DriveTrainLeftPosition, this.startLeftTicks + this.leftProfile.getPosition(elapsedTime));
+            this.setAnalogOperationState(Operation.DriveTrainRightPosition, this.startRightTicks + this.rightProfile.getPosition(elapsedTime));
+            return;
+        }
+
         double t = this.getRatioComplete();
         if (t >= 1.0)
         {
@@ -0,0 +1,18 @@
+package org.usfirst.frc.team1318.robot.driver.controltasks;
+
+import org.usfirst.frc.team1318.robot.HardwareConstants;
+import org.usfirst.frc.team1318.robot.paths.DriveTrajectory;
+
+public class FollowPathTask extends DriveRouteTask
+{
+    /**
+     * Initializes a new FollowPathTask, which follows the wheel trajectories of a planned path using positional mode
+     * @param trajectory to follow (as planned by the PathPlanner)
+     */
+    public FollowPathTask(DriveTrajectory trajectory)
+    {
+        super(
+            trajectory.getLeftProfile().scale(1.0 / HardwareConstants.DRIVETRAIN_LEFT_PULSE_DISTANCE),
+            trajectory.getRightProfile().scale(1.0 / HardwareConstants.DRIVETRAIN_RIGHT_PULSE_DISTANCE));
+    }
+}
@@ -0,0 +1,254 @@
+package org.usfirst.frc.team1318.robot.driver.controltasks;
+
+import org.usfirst.frc.team1318.robot.HardwareConstants;
+import org.usfirst.frc.team1318.robot.TuningConstants;
+import org.usfirst.frc.team1318.robot.common.Helpers;
+import org.usfirst.frc.team1318.robot.common.MotionProfile;
+import org.usfirst.frc.team1318.robot.driver.Operation;
+import org.usfirst.frc.team1318.robot.driver.common.IControlTask;
+import org.usfirst.frc.team1318.robot.drivetrain.DriveTrainMechanism;
+import org.usfirst.frc.team1318.robot.general.PositionManager;
+import org.usfirst.frc.team1318.robot.paths.DriveTrajectory;
+
+/**
+ * Task that follows a planned path using feedback on where the robot actually is (the fused pose from the
+ * PositionManager), based on the Ramsete nonlinear controller.
+ *
+ * Every update, the error between the desired pose along the trajectory and the current pose (in the robot's frame
+ * of reference) is used to correct the planned velocity and turn rate, and from them the left and right wheel
+ * velocities.  The wheel velocities are applied through the drivetrain's positional mode: the difference between the
+ * corrected and planned wheel velocities is accumulated into a correction that is added to the planned wheel positions.
+ * This means that with no error the task behaves exactly like the FollowPathTask, and that (for example) wheel slip
+ * on a long drive is steered out along the way rather than leaving the robot short of where it should end up.  The
+ * correction is limited (DRIVETRAIN_RAMSETE_MAX_CORRECTION), so that a bad pose (e.g. from a glitching sensor) can't
+ * send the wheels far away from the planned path.
+ *
+ * The update only does arithmetic on fields (no allocation), as it runs on every loop.
+ *
+ */
+public class RamseteFollowPathTask extends TimedTask implements IControlTask
+{
+    private final DriveTrajectory trajectory;
+    private final MotionProfile leftProfile;
+    private final MotionProfile rightProfile;
+
+    private PositionManager positionManager;
+
+    private double startX;
+    private double startY;
+    private double startCos;
+    private double startSin;
+    private double startAngle;
+    private double startLeftTicks;
+    private double startRightTicks;
+
+    private double prevTime;
+    private double leftCorrection;
+    private double rightCorrection;
+
+    private double leftPositionGoal;
+    private double rightPositionGoal;
+
+    /**
+     * Initializes a new RamseteFollowPathTask
+     * @param trajectory to follow (as planned by the PathPlanner)
+     */
+    public RamseteFollowPathTask(DriveTrajectory trajectory)
+    {
+        super(trajectory.getDuration());
+
+        this.trajectory = trajectory;
+        this.leftProfile = trajectory.getLeftProfile();
+        this.rightProfile = trajectory.getRightProfile();
+    }
+
+    /**
+     * Begin the current task
+     */
+    @Override
+    public void begin()
+    {
+        super.begin();
+
+        this.positionManager = this.getInjector().getInstance(PositionManager.class);
+        DriveTrainMechanism driveTrain = this.getInjector().getInstance(DriveTrainMechanism.class);
+
+        // the trajectory starts at the origin, facing 0, so it is relative to wherever we are now
+        this.startX = this.positionManager.getFusedX();
+        this.startY = this.positionManager.getFusedY();
+        this.startAngle = this.positionManager.getFusedAngle();
+        this.startCos = Math.cos(this.startAngle * Math.PI / 180.0);
+        this.startSin = Math.sin(this.startAngle * Math.PI / 180.0);
+        this.startLeftTicks = driveTrain.getLeftPosition();
+        this.startRightTicks = driveTrain.getRightPosition();
+
+        this.prevTime = this.startTime;
+        this.leftCorrection = 0.0;
+        this.rightCorrection = 0.0;
+
+        this.leftPositionGoal = this.startLeftTicks;
+        this.rightPositionGoal = this.startRightTicks;
+
+        this.setDigitalOperationState(Operation.DriveTrainUsePositionalMode, true);
+    }
+
+    /**
+     * Run an iteration of the current task and apply any control changes
+     */
+    @Override
+    public void update()
+    {
+        double currentTime = this.timer.get();
+        double elapsedTime = currentTime - this.startTime;
+        double dt = currentTime - this.prevTime;
+        this.prevTime = currentTime;
+
+        // current pose, relative to where we started (x forward, y right, angle clockwise in radians)
+        double offsetX = this.positionManager.getFusedX() - this.startX;
+        double offsetY = this.positionManager.getFusedY() - this.startY;
+        double x = this.startCos * offsetX + this.startSin * offsetY;
+        double y = -this.startSin * offsetX + this.startCos * offsetY;
+        double angle = (this.positionManager.getFusedAngle() - this.startAngle) * Math.PI / 180.0;
+
+        // desired pose and motion along the trajectory
+        double desiredX = this.trajectory.getX(elapsedTime);
+        double desiredY = this.trajectory.getY(elapsedTime);
+        double desiredAngle = this.trajectory.getHeading(elapsedTime) * Math.PI / 180.0;
+        double desiredVelocity = this.trajectory.getVelocity(elapsedTime);
+        double desiredTurnRate = desiredVelocity * this.trajectory.getCurvature(elapsedTime);
+
+        // error in the robot's frame of reference (forward, to the right, and clockwise)
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        double forwardError = cos * (desiredX - x) + sin * (desiredY - y);
+        double sidewaysError = -sin * (desiredX - x) + cos * (desiredY - y);
+        double angleError = Math.atan2(Math.sin(desiredAngle - angle), Math.cos(desiredAngle - angle));
+
+        // Ramsete control law
+        double velocity = RamseteFollowPathTask.calculateVelocity(desiredVelocity, desiredTurnRate, forwardError, angleError);
+        double turnRate = RamseteFollowPathTask.calculateTurnRate(desiredVelocity, desiredTurnRate, sidewaysError, angleError);
+
+        // accumulate how far the corrected wheel velocities differ from the planned ones
+        double halfWheelSeparation = HardwareConstants.DRIVETRAIN_WHEEL_SEPARATION_DISTANCE / 2.0;
+        double leftVelocity = velocity + turnRate * halfWheelSeparation;
+        double rightVelocity = velocity - turnRate * halfWheelSeparation;
+        this.leftCorrection = RamseteFollowPathTask.updateCorrection(
+            this.leftCorrection,
+            leftVelocity,
+            this.leftProfile.getVelocity(elapsedTime),
+            dt);
+        this.rightCorrection = RamseteFollowPathTask.updateCorrection(
+            this.rightCorrection,
+            rightVelocity,
+            this.rightProfile.getVelocity(elapsedTime),
+            dt);
+
+        this.leftPositionGoal = this.startLeftTicks
+            + (this.leftProfile.getPosition(elapsedTime) + this.leftCorrection) / HardwareConstants.DRIVETRAIN_LEFT_PULSE_DISTANCE;
+        this.rightPositionGoal = this.startRightTicks
+            + (this.rightProfile.getPosition(elapsedTime) + this.rightCorrection) / HardwareConstants.DRIVETRAIN_RIGHT_PULSE_DISTANCE;
+
+        this.setAnalogOperationState(Operation.DriveTrainLeftPosition, this.leftPositionGoal);
+        this.setAnalogOperationState(Operation.DriveTrainRightPosition, this.rightPositionGoal);
+    }
+
+    /**
+     * Cancel the current task and clear control changes
+     */
+    @Override
+    public void stop()
+    {
+        super.stop();
+
+        this.setDigitalOperationState(Operation.DriveTrainUsePositionalMode, false);
+        this.setAnalogOperationState(Operation.DriveTrainLeftPosition, 0.0);
+        this.setAnalogOperationState(Operation.DriveTrainRightPosition, 0.0);
+    }
+
+    /**
+     * End the current task and reset control changes appropriately
+     */
+    @Override
+    public void end()
+    {
+        super.end();
+
+        this.setAnalogOperationState(Operation.DriveTrainLeftPosition, this.leftPositionGoal);
+        this.setAnalogOperationState(Operation.DriveTrainRightPosition, this.rightPositionGoal);
+
+        this.setDigitalOperationState(Operation.DriveTrainUsePositionalMode, false);
+    }
+
+    /**
+     * Calculate the corrected velocity using the Ramsete control law
+     * @param desiredVelocity along the trajectory, in inches per second
+     * @param desiredTurnRate along the trajectory, in radians per second (clockwise)
+     * @param forwardError how far the desired pose is ahead of the robot, in inches
+     * @param angleError how far the desired heading is clockwise of the robot's heading, in radians
+     * @return the corrected velocity, in inches per second
+     */
+    static double calculateVelocity(double desiredVelocity, double desiredTurnRate, double forwardError, double angleError)
+    {
+        double k = RamseteFollowPathTask.calculateGain(desiredVelocity, desiredTurnRate);
+        return desiredVelocity * Math.cos(angleError) + k * forwardError;
+    }
+
+    /**
+     * Calculate the corrected turn rate using the Ramsete control law
+     * @param desiredVelocity along the trajectory, in inches per second
+     * @param desiredTurnRate along the trajectory, in radians per second (clockwise)
+     * @param sidewaysError how far the desired pose is to the right of the robot, in inches
+     * @param angleError how far the desired heading is clockwise of the robot's heading, in radians
+     * @return the corrected turn rate, in radians per second (clockwise)
+     */
+    static double calculateTurnRate(double desiredVelocity, double desiredTurnRate, double sidewaysError, double angleError)
+    {
+        double k = RamseteFollowPathTask.calculateGain(desiredVelocity, desiredTurnRate);
+        return desiredTurnRate
+            + k * angleError
+            + TuningConstants.DRIVETRAIN_RAMSETE_B * desiredVelocity * RamseteFollowPathTask.sinc(angleError) * sidewaysError;
+    }
+
+    /**
+     * Accumulate how far a corrected wheel velocity differs from the planned one into the wheel's position correction
+     * @param correction accumulated so far, in inches
+     * @param velocity of the wheel after correction, in inches per second
+     * @param plannedVelocity of the wheel, in inches per second
+     * @param dt since the previous update, in seconds
+     * @return the new correction, limited to DRIVETRAIN_RAMSETE_MAX_CORRECTION
+     */
+    static double updateCorrection(double correction, double velocity, double plannedVelocity, double dt)
+    {
+        return Helpers.EnforceRange(
+            correction + (velocity - plannedVelocity) * dt,
+            -TuningConstants.DRIVETRAIN_RAMSETE_MAX_CORRECTION,
+            TuningConstants.DRIVETRAIN_RAMSETE_MAX_CORRECTION);
+    }
+
+    /**
+     * Calculate the Ramsete gain, which grows with how fast we are moving along the trajectory
+     * @param desiredVelocity along the trajectory, in inches per second
+     * @param desiredTurnRate along the trajectory, in radians per second
+     * @return the gain
+     */
+    private static double calculateGain(double desiredVelocity, double desiredTurnRate)
+    {
+        double b = TuningConstants.DRIVETRAIN_RAMSETE_B;
+        return 2.0 * TuningConstants.DRIVETRAIN_RAMSETE_ZETA * Math.sqrt(desiredTurnRate * desiredTurnRate + b * desiredVelocity * desiredVelocity);
+    }
+
+    /**
+     * Calculate sin(x) / x, which approaches 1 as x approaches 0
+     * @param x to use, in radians
+     * @return sin(x) / x
+     */
+    private static double sinc(double x)
+    {
+        if (Math.abs(x) < 1e-9)
+        {
+            return 1.0;
+        }
+
+        return Math.sin(x) / x;
+    }
+}
@@ -2,12 +2,10 @@ package org.usfirst.frc.team1318.robot.driver.controltasks;
 
 import java.util.Arrays;
 import java.util.LinkedList;
-import java.util.Map;
 import java.util.Queue;
 
-import org.usfirst.frc.team1318.robot.driver.Operation;
 import org.usfirst.frc.team1318.robot.driver.common.IControlTask;
-import org.usfirst.frc.team1318.robot.driver.common.states.OperationState;
+import org.usfirst.frc.team1318.robot.driver.common.states.OperationStateStore;
 
 import com.google.inject.Injector;
 
@@ -43,17 +41,17 @@ public class SequentialTask extends ControlTaskBase implements IControlTask
     }
 
     /**
-     * Initialize the task with the mapping of operations to states
-     * @param operationStateMap indicating the mapping of an operation to its current state
+     * Initialize the task with the store of operation states
+     * @param operationStateStore indicating the current state of each operation
      * @param injector used to retrieve the components to utilize for making any decisions
      */
     @Override
-    public void initialize(Map<Operation, OperationState> operationStateMap, Injector injector)
+    public void initialize(OperationStateStore operationStateStore, Injector injector)
     {
-        super.initialize(operationStateMap, injector);
+        super.initialize(operationStateStore, injector);
         for (IControlTask task : this.orderedTasks)
         {
-            task.initialize(operationStateMap, injector);
+            task.initialize(operationStateStore, injector);
         }
     }
 
@@ -84,12 +82,14 @@ public class SequentialTask extends ControlTaskBase implements IControlTask
                     return;
                 }
 
+                this.notifyTaskBegun(this.currentTask);
                 this.currentTask.begin();
             }
 
             if (this.currentTask.hasCompleted())
             {
                 this.currentTask.end();
+                this.notifyTaskEnded(this.currentTask);
                 this.currentTask = null;
             }
             else if (this.currentTask.shouldCancel())
@@ -112,6 +112,7 @@ public class SequentialTask extends ControlTaskBase implements IControlTask
         if (this.currentTask != null)
         {
             this.currentTask.stop();
+            this.notifyTaskEnded(this.currentTask);
         }
     }
 
@@ -124,6 +125,7 @@ public class SequentialTask extends ControlTaskBase implements IControlTask
         if (this.currentTask != null)
         {
             this.currentTask.end();
+            this.notifyTaskEnded(this.currentTask);
         }
     }
 
@@ -1,8 +1,10 @@
 package org.usfirst.frc.team1318.robot.driver.controltasks;
 
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
 import org.usfirst.frc.team1318.robot.driver.common.IControlTask;
+import org.usfirst.frc.team1318.robot.driver.common.states.OperationStateStore;
 
-import edu.wpi.first.wpilibj.Timer;
+import com.google.inject.Injector;
 
 /**
  * Abstract class defining a task that lasts only for a certain duration.
@@ -11,7 +13,7 @@ import edu.wpi.first.wpilibj.Timer;
 public abstract class TimedTask extends ControlTaskBase implements IControlTask
 {
     protected final double duration;
-    protected final Timer timer;
+    protected ITimer timer;
     protected Double startTime;
 
     /**
@@ -21,17 +23,30 @@ public abstract class TimedTask extends ControlTaskBase implements IControlTask
     protected TimedTask(double duration)
     {
         this.duration = duration;
-        this.timer = new Timer();
+        this.timer = null;
         this.startTime = null;
     }
 
+    /**
+     * Initialize the task with the store of operation states
+     * @param operationStateStore indicating the current state of each operation
+     * @param injector used to retrieve the components to utilize for making any decisions
+     */
+    @Override
+    public void initialize(OperationStateStore operationStateStore, Injector injector)
+    {
+        super.initialize(operationStateStore, injector);
+
+        // use the robot's shared timer (which is already running), so that the task sees the same time as the rest of the robot
+        this.timer = injector.getInstance(ITimer.class);
+    }
+
     /**
      * Begin the current task
      */
     @Override
     public void begin()
     {
-        this.timer.start();
         this.startTime = this.timer.get();
     }
 
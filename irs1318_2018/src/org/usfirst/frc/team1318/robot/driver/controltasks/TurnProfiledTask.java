@@ -0,0 +1,21 @@
+package org.usfirst.frc.team1318.robot.driver.controltasks;
+
+import org.usfirst.frc.team1318.robot.HardwareConstants;
+
+public class TurnProfiledTask extends DriveRouteTask
+{
+    /**
+     * Initializes a new TurnProfiledTask, which turns in the minimum time within the drivetrain's motion profile limits
+     * @param degrees from the current orientation to rotate (positive means turn right/clockwise, negative means turn left/counter-clockwise)
+     */
+    public TurnProfiledTask(double degrees)
+    {
+        super(
+            DriveRouteTask.CreateProfile(
+                Math.PI * HardwareConstants.DRIVETRAIN_WHEEL_SEPARATION_DISTANCE * (degrees / 360.0),
+                HardwareConstants.DRIVETRAIN_LEFT_PULSE_DISTANCE),
+            DriveRouteTask.CreateProfile(
+                -Math.PI * HardwareConstants.DRIVETRAIN_WHEEL_SEPARATION_DISTANCE * (degrees / 360.0),
+                HardwareConstants.DRIVETRAIN_RIGHT_PULSE_DISTANCE));
+    }
+}
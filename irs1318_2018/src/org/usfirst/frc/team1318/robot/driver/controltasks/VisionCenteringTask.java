@@ -5,10 +5,16 @@ import org.usfirst.frc.team1318.robot.common.PIDHandler;
 import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
 import org.usfirst.frc.team1318.robot.driver.Operation;
 import org.usfirst.frc.team1318.robot.driver.common.IControlTask;
+import org.usfirst.frc.team1318.robot.general.PositionManager;
 import org.usfirst.frc.team1318.robot.vision.VisionManager;
+import org.usfirst.frc.team1318.robot.vision.common.VisionResult;
 
 /**
  * Task that turns the robot a certain amount clockwise or counterclockwise in-place based on vision center
+ * 
+ * The vision measurements describe a frame captured a while ago, so (when the navx is available) the target's heading
+ * is calculated from where the robot was pointing when the frame was captured, and then tracked against where the
+ * robot is pointing now.
  */
 public class VisionCenteringTask extends ControlTaskBase implements IControlTask
 {
@@ -19,9 +25,14 @@ public class VisionCenteringTask extends ControlTaskBase implements IControlTask
     private PIDHandler turnPidHandler;
     private Double centeredTime;
     protected VisionManager visionManager;
+    protected PositionManager positionManager;
 
     private int noCenterCount;
 
+    // heading (navx angle) of the target, as of the last vision result
+    private Double targetHeading;
+    private double targetCaptureTime;
+
     /**
     * Initializes a new VisionCenteringTask
     */
@@ -42,6 +53,9 @@ public class VisionCenteringTask extends ControlTaskBase implements IControlTask
         this.centeredTime = null;
 
         this.noCenterCount = 0;
+
+        this.targetHeading = null;
+        this.targetCaptureTime = 0.0;
     }
 
     /**
@@ -51,6 +65,7 @@ public class VisionCenteringTask extends ControlTaskBase implements IControlTask
     public void begin()
     {
         this.visionManager = this.getInjector().getInstance(VisionManager.class);
+        this.positionManager = this.getInjector().getInstance(PositionManager.class);
         this.turnPidHandler = this.createTurnHandler();
         this.setDigitalOperationState(Operation.EnableVision, true);
     }
@@ -63,7 +78,7 @@ public class VisionCenteringTask extends ControlTaskBase implements IControlTask
     {
         this.setDigitalOperationState(Operation.DriveTrainUsePositionalMode, false);
 
-        Double currentMeasuredAngle = this.visionManager.getMeasuredAngle();
+        Double currentMeasuredAngle = this.getCurrentMeasuredAngle();
         Double currentDesiredAngle = this.visionManager.getDesiredAngle();
         if (currentMeasuredAngle != null && currentDesiredAngle != null)
         {
@@ -104,7 +119,7 @@ public class VisionCenteringTask extends ControlTaskBase implements IControlTask
     @Override
     public boolean hasCompleted()
     {
-        Double currentMeasuredAngle = this.visionManager.getMeasuredAngle();
+        Double currentMeasuredAngle = this.getCurrentMeasuredAngle();
         Double currentDesiredAngle = this.visionManager.getDesiredAngle();
         if (currentMeasuredAngle == null || currentDesiredAngle == null)
         {
@@ -155,6 +170,42 @@ public class VisionCenteringTask extends ControlTaskBase implements IControlTask
         return this.noCenterCount >= VisionCenteringTask.NO_CENTER_THRESHOLD;
     }
 
+    /**
+     * Gets the angle from where the robot is currently pointing to the vision target, compensating for the time since
+     * the frame was captured if possible
+     * @return the current angle to the target in degrees, or null if we don't see the target
+     */
+    protected Double getCurrentMeasuredAngle()
+    {
+        VisionResult result = this.visionManager.getLatestResult();
+        if (result == null || result.getMeasuredAngleX() == null)
+        {
+            this.targetHeading = null;
+            return null;
+        }
+
+        if (!TuningConstants.VISION_LATENCY_COMPENSATION_ENABLED
+            || !this.positionManager.getNavxIsConnected())
+        {
+            return result.getMeasuredAngleX();
+        }
+
+        if (this.targetHeading == null || this.targetCaptureTime != result.getCaptureTime())
+        {
+            // new frame, so find the target's heading based on where we were pointing when it was captured
+            double captureAngle = this.positionManager.getNavxAngleAt(result.getCaptureTime());
+            if (Double.isNaN(captureAngle))
+            {
+                return result.getMeasuredAngleX();
+            }
+
+            this.targetHeading = captureAngle + result.getMeasuredAngleX();
+            this.targetCaptureTime = result.getCaptureTime();
+        }
+
+        return this.targetHeading - this.positionManager.getNavxAngle();
+    }
+
     protected PIDHandler createTurnHandler()
     {
         return new PIDHandler(
@@ -0,0 +1,13 @@
+package org.usfirst.frc.team1318.robot.drivetrain;
+
+/**
+ * The modes that the drivetrain can be controlled in, based on whether PID, positional mode and brake mode are in use
+ */
+public enum DriveTrainControlMode
+{
+    Power, // velocity goals applied directly as power, without PID
+    SimplePosition, // position goals converted into power, without PID
+    Velocity, // velocity goals applied using the Talons' velocity PID
+    Position, // position goals converted into velocity goals using the positional PID
+    Brake; // position goals converted into velocity goals using the (stiffer) brake PID
+}
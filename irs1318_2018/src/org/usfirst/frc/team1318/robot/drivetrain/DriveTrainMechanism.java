@@ -42,6 +42,13 @@ public class DriveTrainMechanism implements IMechanism
     private final ITalonSRX leftMotor;
     private final ITalonSRX rightMotor;
 
+    private final PIDHandler leftPositionPID;
+    private final PIDHandler rightPositionPID;
+    private final PIDHandler leftBrakePID;
+    private final PIDHandler rightBrakePID;
+
+    private final Setpoint setpoint;
+
     private Driver driver;
 
     private PIDHandler leftPID;
@@ -50,6 +57,8 @@ public class DriveTrainMechanism implements IMechanism
     private boolean usePID;
     private boolean usePositionalMode;
     private boolean useBrakeMode;
+    private DriveTrainControlMode controlMode;
+    private TalonSRXControlMode motorControlMode;
 
     private double leftVelocity;
     private double leftError;
@@ -109,12 +118,54 @@ public class DriveTrainMechanism implements IMechanism
         rightFollowerMotor.setInvertOutput(HardwareConstants.DRIVETRAIN_RIGHT_INVERT_OUTPUT);
         rightFollowerMotor.set(ElectronicsConstants.DRIVETRAIN_RIGHT_MOTOR_CAN_ID);
 
+        // create the controllers for each mode up-front, so that switching modes doesn't allocate
+        this.leftPositionPID = new PIDHandler(
+            TuningConstants.DRIVETRAIN_POSITION_PID_LEFT_KP,
+            TuningConstants.DRIVETRAIN_POSITION_PID_LEFT_KI,
+            TuningConstants.DRIVETRAIN_POSITION_PID_LEFT_KD,
+            TuningConstants.DRIVETRAIN_POSITION_PID_LEFT_KF,
+            1.0,
+            -TuningConstants.DRIVETRAIN_POSITIONAL_MAX_POWER_LEVEL,
+            TuningConstants.DRIVETRAIN_POSITIONAL_MAX_POWER_LEVEL,
+            this.timer);
+        this.rightPositionPID = new PIDHandler(
+            TuningConstants.DRIVETRAIN_POSITION_PID_RIGHT_KP,
+            TuningConstants.DRIVETRAIN_POSITION_PID_RIGHT_KI,
+            TuningConstants.DRIVETRAIN_POSITION_PID_RIGHT_KD,
+            TuningConstants.DRIVETRAIN_POSITION_PID_RIGHT_KF,
+            1.0,
+            -TuningConstants.DRIVETRAIN_POSITIONAL_MAX_POWER_LEVEL,
+            TuningConstants.DRIVETRAIN_POSITIONAL_MAX_POWER_LEVEL,
+            this.timer);
+        this.leftBrakePID = new PIDHandler(
+            TuningConstants.DRIVETRAIN_BRAKE_PID_LEFT_KP,
+            TuningConstants.DRIVETRAIN_BRAKE_PID_LEFT_KI,
+            TuningConstants.DRIVETRAIN_BRAKE_PID_LEFT_KD,
+            TuningConstants.DRIVETRAIN_BRAKE_PID_LEFT_KF,
+            1.0,
+            -TuningConstants.DRIVETRAIN_BRAKE_MAX_POWER_LEVEL,
+            TuningConstants.DRIVETRAIN_BRAKE_MAX_POWER_LEVEL,
+            this.timer);
+        this.rightBrakePID = new PIDHandler(
+            TuningConstants.DRIVETRAIN_BRAKE_PID_RIGHT_KP,
+            TuningConstants.DRIVETRAIN_BRAKE_PID_RIGHT_KI,
+            TuningConstants.DRIVETRAIN_BRAKE_PID_RIGHT_KD,
+            TuningConstants.DRIVETRAIN_BRAKE_PID_RIGHT_KF,
+            1.0,
+            -TuningConstants.DRIVETRAIN_BRAKE_MAX_POWER_LEVEL,
+            TuningConstants.DRIVETRAIN_BRAKE_MAX_POWER_LEVEL,
+            this.timer);
+
+        this.setpoint = new Setpoint();
+
         this.leftPID = null;
         this.rightPID = null;
 
         this.usePID = TuningConstants.DRIVETRAIN_USE_PID;
         this.usePositionalMode = false;
         this.useBrakeMode = false;
+        this.controlMode = null;
+        this.motorControlMode = null;
 
         this.leftVelocity = 0.0;
         this.leftError = 0.0;
@@ -178,6 +229,15 @@ public class DriveTrainMechanism implements IMechanism
         return this.rightPosition;
     }
 
+    /**
+     * get the mode that the drivetrain is currently being controlled in
+     * @return the current control mode
+     */
+    public DriveTrainControlMode getControlMode()
+    {
+        return this.controlMode;
+    }
+
     /**
      * set the driver that the mechanism should use
      * @param driver to use
@@ -195,6 +255,9 @@ public class DriveTrainMechanism implements IMechanism
             this.useBrakeMode = false;
         }
 
+        // re-apply the mode to the motors even if it hasn't changed (defense-in-depth)
+        this.controlMode = null;
+        this.motorControlMode = null;
         this.setControlMode();
     }
 
@@ -246,23 +309,29 @@ public class DriveTrainMechanism implements IMechanism
             this.usePositionalMode = newUsePositionalMode;
             this.useBrakeMode = newUseBrakeMode;
 
-            // re-create PID handler
+            // switch to the PID handlers for the new mode
             this.setControlMode();
         }
 
         // calculate desired power setting for the current mode
-        Setpoint setpoint;
         if (!this.usePositionalMode)
         {
-            setpoint = this.calculateVelocityModeSetpoint();
+            this.calculateVelocityModeSetpoint(this.setpoint);
         }
         else
         {
-            setpoint = this.calculatePositionModeSetpoint();
+            this.calculatePositionModeSetpoint(this.setpoint);
         }
 
-        double leftSetpoint = setpoint.getLeft();
-        double rightSetpoint = setpoint.getRight();
+        double leftSetpoint = this.setpoint.getLeft();
+        double rightSetpoint = this.setpoint.getRight();
+
+        // if we are using PID, then we base the setpoint on the max velocity
+        if (this.usePID)
+        {
+            leftSetpoint *= TuningConstants.DRIVETRAIN_VELOCITY_PID_LEFT_KS;
+            rightSetpoint *= TuningConstants.DRIVETRAIN_VELOCITY_PID_RIGHT_KS;
+        }
 
         this.logger.logNumber(DriveTrainMechanism.LogName, "leftVelocityGoal", leftSetpoint);
         this.logger.logNumber(DriveTrainMechanism.LogName, "rightVelocityGoal", rightSetpoint);
@@ -284,15 +353,12 @@ public class DriveTrainMechanism implements IMechanism
         this.leftMotor.reset();
         this.rightMotor.reset();
 
-        if (this.leftPID != null)
-        {
-            this.leftPID.reset();
-        }
+        this.leftPositionPID.reset();
+        this.rightPositionPID.reset();
+        this.leftBrakePID.reset();
+        this.rightBrakePID.reset();
 
-        if (this.rightPID != null)
-        {
-            this.rightPID.reset();
-        }
+        this.setpoint.set(0.0, 0.0);
 
         this.leftVelocity = 0.0;
         this.leftError = 0.0;
@@ -303,78 +369,89 @@ public class DriveTrainMechanism implements IMechanism
     }
 
     /**
-     * create a PIDHandler based on our current settings
+     * switch to the control mode (and its PID handlers) for our current settings
      */
     private void setControlMode()
     {
-        TalonSRXControlMode mode = TalonSRXControlMode.PercentOutput;
+        DriveTrainControlMode newControlMode;
         if (this.usePID)
         {
             if (this.usePositionalMode)
             {
-                if (this.useBrakeMode)
-                {
-                    this.leftPID = new PIDHandler(
-                        TuningConstants.DRIVETRAIN_BRAKE_PID_LEFT_KP,
-                        TuningConstants.DRIVETRAIN_BRAKE_PID_LEFT_KI,
-                        TuningConstants.DRIVETRAIN_BRAKE_PID_LEFT_KD,
-                        TuningConstants.DRIVETRAIN_BRAKE_PID_LEFT_KF,
-                        1.0,
-                        -TuningConstants.DRIVETRAIN_BRAKE_MAX_POWER_LEVEL,
-                        TuningConstants.DRIVETRAIN_BRAKE_MAX_POWER_LEVEL,
-                        this.timer);
-                    this.rightPID = new PIDHandler(
-                        TuningConstants.DRIVETRAIN_BRAKE_PID_RIGHT_KP,
-                        TuningConstants.DRIVETRAIN_BRAKE_PID_RIGHT_KI,
-                        TuningConstants.DRIVETRAIN_BRAKE_PID_RIGHT_KD,
-                        TuningConstants.DRIVETRAIN_BRAKE_PID_RIGHT_KF,
-                        1.0,
-                        -TuningConstants.DRIVETRAIN_BRAKE_MAX_POWER_LEVEL,
-                        TuningConstants.DRIVETRAIN_BRAKE_MAX_POWER_LEVEL,
-                        this.timer);
-                }
-                else
-                {
-                    this.leftPID = new PIDHandler(
-                        TuningConstants.DRIVETRAIN_POSITION_PID_LEFT_KP,
-                        TuningConstants.DRIVETRAIN_POSITION_PID_LEFT_KI,
-                        TuningConstants.DRIVETRAIN_POSITION_PID_LEFT_KD,
-                        TuningConstants.DRIVETRAIN_POSITION_PID_LEFT_KF,
-                        1.0,
-                        -TuningConstants.DRIVETRAIN_POSITIONAL_MAX_POWER_LEVEL,
-                        TuningConstants.DRIVETRAIN_POSITIONAL_MAX_POWER_LEVEL,
-                        this.timer);
-                    this.rightPID = new PIDHandler(
-                        TuningConstants.DRIVETRAIN_POSITION_PID_RIGHT_KP,
-                        TuningConstants.DRIVETRAIN_POSITION_PID_RIGHT_KI,
-                        TuningConstants.DRIVETRAIN_POSITION_PID_RIGHT_KD,
-                        TuningConstants.DRIVETRAIN_POSITION_PID_RIGHT_KF,
-                        1.0,
-                        -TuningConstants.DRIVETRAIN_POSITIONAL_MAX_POWER_LEVEL,
-                        TuningConstants.DRIVETRAIN_POSITIONAL_MAX_POWER_LEVEL,
-                        this.timer);
-                }
+                newControlMode = this.useBrakeMode ? DriveTrainControlMode.Brake : DriveTrainControlMode.Position;
             }
             else
             {
+                newControlMode = DriveTrainControlMode.Velocity;
+            }
+        }
+        else
+        {
+            newControlMode = this.usePositionalMode ? DriveTrainControlMode.SimplePosition : DriveTrainControlMode.Power;
+        }
+
+        if (newControlMode == this.controlMode)
+        {
+            return;
+        }
+
+        this.controlMode = newControlMode;
+
+        switch (newControlMode)
+        {
+            case Position:
+                this.leftPID = this.leftPositionPID;
+                this.rightPID = this.rightPositionPID;
+                break;
+
+            case Brake:
+                this.leftPID = this.leftBrakePID;
+                this.rightPID = this.rightBrakePID;
+                break;
+
+            default:
                 this.leftPID = null;
                 this.rightPID = null;
-            }
+                break;
+        }
 
-            mode = TalonSRXControlMode.Velocity;
-            this.leftMotor.setSelectedSlot(DriveTrainMechanism.pidSlotId);
-            this.rightMotor.setSelectedSlot(DriveTrainMechanism.pidSlotId);
+        if (this.leftPID != null && this.driver != null)
+        {
+            // bumpless transfer: the new PID handlers take over from the power level we were most recently applying
+            // (except for braking, which starts from no power so that it engages straight away, rather than easing
+            // off from the power we were driving with)
+            boolean isBraking = newControlMode == DriveTrainControlMode.Brake;
+            this.leftPID.seed(
+                this.driver.getAnalog(Operation.DriveTrainLeftPosition),
+                this.leftPosition,
+                isBraking ? 0.0 : this.setpoint.getLeft());
+            this.rightPID.seed(
+                this.driver.getAnalog(Operation.DriveTrainRightPosition),
+                this.rightPosition,
+                isBraking ? 0.0 : this.setpoint.getRight());
         }
 
-        this.leftMotor.setControlMode(mode);
-        this.rightMotor.setControlMode(mode);
+        // only update the motors when their mode actually changes (e.g. not when switching between positional and brake)
+        TalonSRXControlMode mode = this.usePID ? TalonSRXControlMode.Velocity : TalonSRXControlMode.PercentOutput;
+        if (mode != this.motorControlMode)
+        {
+            this.motorControlMode = mode;
+            if (this.usePID)
+            {
+                this.leftMotor.setSelectedSlot(DriveTrainMechanism.pidSlotId);
+                this.rightMotor.setSelectedSlot(DriveTrainMechanism.pidSlotId);
+            }
+
+            this.leftMotor.setControlMode(mode);
+            this.rightMotor.setControlMode(mode);
+        }
     }
 
     /**
      * Calculate the power setting to use based on the inputs when in velocity mode
-     * @return power settings for left and right motor
+     * @param setpoint to update with the power settings for left and right motor
      */
-    private Setpoint calculateVelocityModeSetpoint()
+    private void calculateVelocityModeSetpoint(Setpoint setpoint)
     {
         // velocity goals represent the desired percentage of the max velocity
         double leftVelocityGoal = 0.0;
@@ -450,21 +527,14 @@ public class DriveTrainMechanism implements IMechanism
         this.assertPowerLevelRange(left, "left");
         this.assertPowerLevelRange(right, "right");
 
-        // if we are using PID, then we base the setpoint on the max velocity
-        if (this.usePID)
-        {
-            left *= TuningConstants.DRIVETRAIN_VELOCITY_PID_LEFT_KS;
-            right *= TuningConstants.DRIVETRAIN_VELOCITY_PID_RIGHT_KS;
-        }
-
-        return new Setpoint(left, right);
+        setpoint.set(left, right);
     }
 
     /**
      * Calculate the power setting to use based on the inputs when in position mode
-     * @return power settings for left and right motor
+     * @param setpoint to update with the power settings for left and right motor
      */
-    private Setpoint calculatePositionModeSetpoint()
+    private void calculatePositionModeSetpoint(Setpoint setpoint)
     {
         // get the desired left and right values from the driver.
         double leftPositionGoal = this.driver.getAnalog(Operation.DriveTrainLeftPosition);
@@ -521,13 +591,7 @@ public class DriveTrainMechanism implements IMechanism
         this.assertPowerLevelRange(leftPower, "left velocity (goal)");
         this.assertPowerLevelRange(rightPower, "right velocity (goal)");
 
-        if (this.usePID)
-        {
-            leftPower *= TuningConstants.DRIVETRAIN_VELOCITY_PID_LEFT_KS;
-            rightPower *= TuningConstants.DRIVETRAIN_VELOCITY_PID_RIGHT_KS;
-        }
-
-        return new Setpoint(leftPower, rightPower);
+        setpoint.set(leftPower, rightPower);
     }
 
     /**
@@ -569,7 +633,7 @@ public class DriveTrainMechanism implements IMechanism
     }
 
     /**
-     * Simple holder of setpoint information for the left and right sides
+     * Simple holder of setpoint information for the left and right sides, re-used every loop
      */
     private class Setpoint
     {
@@ -578,10 +642,19 @@ public class DriveTrainMechanism implements IMechanism
 
         /**
          * Initializes a new Setpoint
+         */
+        public Setpoint()
+        {
+            this.left = 0.0;
+            this.right = 0.0;
+        }
+
+        /**
+         * sets the left and right setpoints
          * @param left value to apply
          * @param right value to apply
          */
-        public Setpoint(double left, double right)
+        public void set(double left, double right)
         {
             this.left = left;
             this.right = right;
@@ -2,17 +2,20 @@ package org.usfirst.frc.team1318.robot.general;
 
 import org.usfirst.frc.team1318.robot.HardwareConstants;
 import org.usfirst.frc.team1318.robot.TuningConstants;
+import org.usfirst.frc.team1318.robot.common.IBooleanLogChannel;
 import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
 import org.usfirst.frc.team1318.robot.common.IMechanism;
+import org.usfirst.frc.team1318.robot.common.INumberLogChannel;
+import org.usfirst.frc.team1318.robot.common.PoseHistory;
+import org.usfirst.frc.team1318.robot.common.wpilib.INavx;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+import org.usfirst.frc.team1318.robot.common.wpilib.IWpilibProvider;
 import org.usfirst.frc.team1318.robot.driver.common.Driver;
 import org.usfirst.frc.team1318.robot.driver.common.autonomous.AutonomousDriver;
 import org.usfirst.frc.team1318.robot.drivetrain.DriveTrainMechanism;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.kauailabs.navx.frc.AHRS;
-
-import edu.wpi.first.wpilibj.SPI;
 
 /**
  * Position manager
@@ -20,17 +23,40 @@ import edu.wpi.first.wpilibj.SPI;
  * This class maintains the approximate current location and orientation of the robot relative to its starting point.
  * This uses Jim's differential odometry algorithm. In the future we can consider adding other sensors to help correct for error.
  * 
+ * A fused position is also kept, which integrates the same odometry distances along the NavX heading (when the NavX is
+ * connected) instead of the encoder-based angle, as the NavX isn't thrown off by the wheels slipping while turning.
+ * The NavX heading is used if the NavX is connected when the position is reset.  If it disconnects after that, the
+ * fused heading falls back to the encoder-based angle (offset so that it continues from the last NavX heading) until
+ * the next reset, rather than switching back and forth and jumping when the NavX connection flickers.  The fused
+ * heading is not wrapped to 360 degrees, like the NavX angle.
+ * 
+ * The recent history of the position and orientation is also kept (stamped with the timer), so that we can find out
+ * where the robot was when a delayed measurement (e.g. a camera frame) was taken.
+ * 
  */
 @Singleton
 public class PositionManager implements IMechanism
 {
     private final static String LogName = "pos";
 
-    private final IDashboardLogger logger;
+    private final INumberLogChannel odometryAngleLog;
+    private final INumberLogChannel odometryXLog;
+    private final INumberLogChannel odometryYLog;
+    private final IBooleanLogChannel navxConnectedLog;
+    private final INumberLogChannel navxAngleLog;
+    private final INumberLogChannel navxXLog;
+    private final INumberLogChannel navxYLog;
+    private final INumberLogChannel navxZLog;
+    private final INumberLogChannel fusedXLog;
+    private final INumberLogChannel fusedYLog;
+
+    private final ITimer timer;
     private final DriveTrainMechanism driveTrainMechanism;
-    private final AHRS navx;
+    private final INavx navx;
+    private final PoseHistory history;
 
     private boolean navxIsConnected;
+    private boolean useNavxHeading;
 
     // Position coordinates
     private double odometryX;
@@ -38,10 +64,14 @@ public class PositionManager implements IMechanism
     private double navxX;
     private double navxY;
     private double navxZ;
+    private double fusedX;
+    private double fusedY;
 
     // Orientation
     private double odometryAngle;
     private double navxAngle;
+    private double fusedAngle;
+    private double fusedAngleOffset; // added to the odometry angle when the fused heading isn't using the navx
 
     // previous data (from which we will calculate changes)
     private double prevLeftDistance;
@@ -50,27 +80,48 @@ public class PositionManager implements IMechanism
     /**
      * Initializes a new PositionManager
      * @param logger to use
+     * @param timer to use to stamp the pose history
      * @param provider for obtaining electronics objects
+     * @param driveTrainMechanism to use for odometry
      */
     @Inject
     public PositionManager(
         IDashboardLogger logger,
+        ITimer timer,
+        IWpilibProvider provider,
         DriveTrainMechanism driveTrainMechanism)
     {
-        this.logger = logger;
+        this.odometryAngleLog = logger.registerNumberChannel(PositionManager.LogName, "odom_angle");
+        this.odometryXLog = logger.registerNumberChannel(PositionManager.LogName, "odom_x");
+        this.odometryYLog = logger.registerNumberChannel(PositionManager.LogName, "odom_y");
+        this.navxConnectedLog = logger.registerBooleanChannel(PositionManager.LogName, "navx_connected");
+        this.navxAngleLog = logger.registerNumberChannel(PositionManager.LogName, "navx_angle");
+        this.navxXLog = logger.registerNumberChannel(PositionManager.LogName, "navx_x");
+        this.navxYLog = logger.registerNumberChannel(PositionManager.LogName, "navx_y");
+        this.navxZLog = logger.registerNumberChannel(PositionManager.LogName, "navx_z");
+        this.fusedXLog = logger.registerNumberChannel(PositionManager.LogName, "fused_x");
+        this.fusedYLog = logger.registerNumberChannel(PositionManager.LogName, "fused_y");
+
+        this.timer = timer;
         this.driveTrainMechanism = driveTrainMechanism;
-        this.navx = new AHRS(SPI.Port.kMXP);
+        this.navx = provider.getNavx();
+        this.history = new PoseHistory(TuningConstants.POSE_HISTORY_CAPACITY);
 
         this.navxIsConnected = false;
+        this.useNavxHeading = false;
 
         this.odometryX = 0.0;
         this.odometryY = 0.0;
         this.navxX = 0.0;
         this.navxY = 0.0;
         this.navxZ = 0.0;
+        this.fusedX = 0.0;
+        this.fusedY = 0.0;
 
         this.odometryAngle = 0.0;
         this.navxAngle = 0.0;
+        this.fusedAngle = 0.0;
+        this.fusedAngleOffset = 0.0;
 
         this.prevLeftDistance = 0.0;
         this.prevRightDistance = 0.0;
@@ -88,6 +139,11 @@ public class PositionManager implements IMechanism
         {
             this.reset();
         }
+        else
+        {
+            // the timer is restarted for each mode, so poses stamped during a previous mode can't be looked up
+            this.history.clear();
+        }
     }
 
     /**
@@ -132,15 +188,33 @@ public class PositionManager implements IMechanism
         this.navxY = this.navx.getDisplacementY() * 100.0;
         this.navxZ = this.navx.getDisplacementZ() * 100.0;
 
+        // update the fused position along the navx heading (or the unwrapped odometry angle, if the navx isn't connected)
+        double unwrappedOdometryAngle = angleR * 180.0 / Math.PI;
+        if (this.useNavxHeading && !this.navxIsConnected)
+        {
+            // the navx disconnected, so continue from its last heading using the odometry angle until the next reset
+            this.useNavxHeading = false;
+            this.fusedAngleOffset = this.fusedAngle - unwrappedOdometryAngle;
+        }
+
+        this.fusedAngle = this.useNavxHeading ? this.navxAngle : unwrappedOdometryAngle + this.fusedAngleOffset;
+        double fusedAngleR = this.fusedAngle * Math.PI / 180.0;
+        this.fusedX += averagePositionChange * Math.cos(fusedAngleR);
+        this.fusedY += averagePositionChange * Math.sin(fusedAngleR);
+
+        this.history.add(this.timer.get(), this.navxAngle, this.odometryAngle, this.odometryX, this.odometryY);
+
         // log the current position and orientation
-        this.logger.logNumber(PositionManager.LogName, "odom_angle", this.odometryAngle);
-        this.logger.logNumber(PositionManager.LogName, "odom_x", this.odometryX);
-        this.logger.logNumber(PositionManager.LogName, "odom_y", this.odometryY);
-        this.logger.logBoolean(PositionManager.LogName, "navx_connected", this.navxIsConnected);
-        this.logger.logNumber(PositionManager.LogName, "navx_angle", this.navxAngle);
-        this.logger.logNumber(PositionManager.LogName, "navx_x", this.navxX);
-        this.logger.logNumber(PositionManager.LogName, "navx_y", this.navxY);
-        this.logger.logNumber(PositionManager.LogName, "navx_z", this.navxZ);
+        this.odometryAngleLog.publish(this.odometryAngle);
+        this.odometryXLog.publish(this.odometryX);
+        this.odometryYLog.publish(this.odometryY);
+        this.navxConnectedLog.publish(this.navxIsConnected);
+        this.navxAngleLog.publish(this.navxAngle);
+        this.navxXLog.publish(this.navxX);
+        this.navxYLog.publish(this.navxY);
+        this.navxZLog.publish(this.navxZ);
+        this.fusedXLog.publish(this.fusedX);
+        this.fusedYLog.publish(this.fusedY);
     }
 
     /**
@@ -232,6 +306,74 @@ public class PositionManager implements IMechanism
         return this.navxZ;
     }
 
+    /**
+     * Retrieve the current fused angle in degrees (the navx angle, or the unwrapped odometry angle if the navx isn't
+     * connected)
+     * @return the current fused angle in degrees
+     */
+    public double getFusedAngle()
+    {
+        return this.fusedAngle;
+    }
+
+    /**
+     * Retrieve the current fused x position
+     * @return the current fused x position
+     */
+    public double getFusedX()
+    {
+        return this.fusedX;
+    }
+
+    /**
+     * Retrieve the current fused y position
+     * @return the current fused y position
+     */
+    public double getFusedY()
+    {
+        return this.fusedY;
+    }
+
+    /**
+     * Retrieve the navx angle at a recent point in time
+     * @param time to look up (from the timer)
+     * @return the angle in degrees at that time, or the oldest/newest angle if the time is outside the history
+     */
+    public double getNavxAngleAt(double time)
+    {
+        return this.history.getNavxAngle(time);
+    }
+
+    /**
+     * Retrieve the odometry angle at a recent point in time
+     * @param time to look up (from the timer)
+     * @return the angle in degrees at that time, or the oldest/newest angle if the time is outside the history
+     */
+    public double getOdometryAngleAt(double time)
+    {
+        return this.history.getOdometryAngle(time);
+    }
+
+    /**
+     * Retrieve the odometry x position at a recent point in time
+     * @param time to look up (from the timer)
+     * @return the x position at that time, or the oldest/newest position if the time is outside the history
+     */
+    public double getOdometryXAt(double time)
+    {
+        return this.history.getOdometryX(time);
+    }
+
+    /**
+     * Retrieve the odometry y position at a recent point in time
+     * @param time to look up (from the timer)
+     * @return the y position at that time, or the oldest/newest position if the time is outside the history
+     */
+    public double getOdometryYAt(double time)
+    {
+        return this.history.getOdometryY(time);
+    }
+
     /**
      * reset the position manager so it considers the current location to be "0"
      */
@@ -242,14 +384,23 @@ public class PositionManager implements IMechanism
         this.navxX = 0.0;
         this.navxY = 0.0;
         this.navxZ = 0.0;
+        this.fusedX = 0.0;
+        this.fusedY = 0.0;
 
         this.odometryAngle = 0.0;
         this.navxAngle = 0.0;
+        this.fusedAngle = 0.0;
+        this.fusedAngleOffset = 0.0;
 
         this.prevLeftDistance = 0.0;
         this.prevRightDistance = 0.0;
 
+        // choose the source of the fused heading until the next reset
+        this.useNavxHeading = this.navx.isConnected();
+
         this.navx.reset();
         this.navx.resetDisplacement();
+
+        this.history.clear();
     }
 }
@@ -0,0 +1,221 @@
+package org.usfirst.frc.team1318.robot.paths;
+
+import org.usfirst.frc.team1318.robot.common.MotionProfile;
+
+/**
+ * Drive trajectory.
+ *
+ * The result of planning a path: where the robot should be (position and heading), how fast it should be moving and
+ * how sharply it should be turning over time, along with the motion profiles for the left and right wheels that
+ * follow the path.  Everything is sampled at a fixed time step and held in primitive arrays, so looking up the state
+ * at a time is linear interpolation with no allocation.  Times before the start or after the end are clamped.
+ *
+ */
+public class DriveTrajectory
+{
+    private final double timeStep;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] headings;
+    private final double[] velocities;
+    private final double[] curvatures;
+
+    private final MotionProfile leftProfile;
+    private final MotionProfile rightProfile;
+
+    /**
+     * Initializes a new DriveTrajectory
+     * @param timeStep the time between each sample
+     * @param xs the x position at each sample, in inches
+     * @param ys the y position at each sample, in inches
+     * @param headings the heading at each sample, in degrees (clockwise positive, without wrapping around)
+     * @param velocities the velocity (of the center of the robot) at each sample, in inches per second
+     * @param curvatures the curvature at each sample, in radians per inch (clockwise positive)
+     * @param leftProfile the motion profile for the left wheels, in inches
+     * @param rightProfile the motion profile for the right wheels, in inches
+     */
+    public DriveTrajectory(
+        double timeStep,
+        double[] xs,
+        double[] ys,
+        double[] headings,
+        double[] velocities,
+        double[] curvatures,
+        MotionProfile leftProfile,
+        MotionProfile rightProfile)
+    {
+        this.timeStep = timeStep;
+        this.xs = xs;
+        this.ys = ys;
+        this.headings = headings;
+        this.velocities = velocities;
+        this.curvatures = curvatures;
+        this.leftProfile = leftProfile;
+        this.rightProfile = rightProfile;
+    }
+
+    /**
+     * Gets the time that it takes to follow the trajectory
+     * @return the duration, in seconds
+     */
+    public double getDuration()
+    {
+        return (this.xs.length - 1) * this.timeStep;
+    }
+
+    /**
+     * Gets the time between each sample
+     * @return the time step, in seconds
+     */
+    public double getTimeStep()
+    {
+        return this.timeStep;
+    }
+
+    /**
+     * Gets the number of samples in the trajectory
+     * @return the number of samples
+     */
+    public int getSampleCount()
+    {
+        return this.xs.length;
+    }
+
+    /**
+     * Gets the x position that we should be at a certain time
+     * @param time since the start of the trajectory, in seconds
+     * @return the x position, in inches
+     */
+    public double getX(double time)
+    {
+        return this.sample(this.xs, time);
+    }
+
+    /**
+     * Gets the y position that we should be at a certain time
+     * @param time since the start of the trajectory, in seconds
+     * @return the y position, in inches
+     */
+    public double getY(double time)
+    {
+        return this.sample(this.ys, time);
+    }
+
+    /**
+     * Gets the heading that we should be facing at a certain time
+     * @param time since the start of the trajectory, in seconds
+     * @return the heading, in degrees (clockwise positive, without wrapping around)
+     */
+    public double getHeading(double time)
+    {
+        return this.sample(this.headings, time);
+    }
+
+    /**
+     * Gets the velocity that we should be moving at a certain time
+     * @param time since the start of the trajectory, in seconds
+     * @return the velocity (of the center of the robot), in inches per second
+     */
+    public double getVelocity(double time)
+    {
+        return this.sample(this.velocities, time);
+    }
+
+    /**
+     * Gets the curvature that we should be turning at a certain time
+     * @param time since the start of the trajectory, in seconds
+     * @return the curvature, in radians per inch (clockwise positive)
+     */
+    public double getCurvature(double time)
+    {
+        return this.sample(this.curvatures, time);
+    }
+
+    /**
+     * Gets the motion profile for the left wheels to follow the trajectory
+     * @return the left motion profile, in inches
+     */
+    public MotionProfile getLeftProfile()
+    {
+        return this.leftProfile;
+    }
+
+    /**
+     * Gets the motion profile for the right wheels to follow the trajectory
+     * @return the right motion profile, in inches
+     */
+    public MotionProfile getRightProfile()
+    {
+        return this.rightProfile;
+    }
+
+    /**
+     * Gets the x positions of the samples (for the TrajectoryCache)
+     * @return the x positions
+     */
+    double[] getXs()
+    {
+        return this.xs;
+    }
+
+    /**
+     * Gets the y positions of the samples (for the TrajectoryCache)
+     * @return the y positions
+     */
+    double[] getYs()
+    {
+        return this.ys;
+    }
+
+    /**
+     * Gets the headings of the samples (for the TrajectoryCache)
+     * @return the headings
+     */
+    double[] getHeadings()
+    {
+        return this.headings;
+    }
+
+    /**
+     * Gets the velocities of the samples (for the TrajectoryCache)
+     * @return the velocities
+     */
+    double[] getVelocities()
+    {
+        return this.velocities;
+    }
+
+    /**
+     * Gets the curvatures of the samples (for the TrajectoryCache)
+     * @return the curvatures
+     */
+    double[] getCurvatures()
+    {
+        return this.curvatures;
+    }
+
+    /**
+     * Interpolate between the samples on either side of a time
+     * @param values to sample
+     * @param time since the start of the trajectory, in seconds
+     * @return the interpolated value
+     */
+    private double sample(double[] values, double time)
+    {
+        double index = time / this.timeStep;
+        if (!(index > 0.0))
+        {
+            return values[0];
+        }
+
+        int lastIndex = values.length - 1;
+        if (index >= lastIndex)
+        {
+            return values[lastIndex];
+        }
+
+        int before = (int)index;
+        double fraction = index - before;
+        return values[before] + fraction * (values[before + 1] - values[before]);
+    }
+}
@@ -0,0 +1,212 @@
+package org.usfirst.frc.team1318.robot.paths;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.usfirst.frc.team1318.robot.HardwareConstants;
+import org.usfirst.frc.team1318.robot.TuningConstants;
+import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
+
+/**
+ * Path manager.
+ *
+ * Holds the paths that the autonomous routines follow, and plans their trajectories on a low-priority background
+ * thread as soon as the manager is created (at robot init), so that the (comparatively slow) planning never happens on
+ * the control loop.  Paths that start on the left side of the field are mirrored for the right side.
+ *
+ * Planned trajectories are kept in a TrajectoryCache file, so after the first boot the trajectories are loaded from the
+ * file instead, and only paths that have changed since they were cached are planned again.  Either way, by the time
+ * autonomous starts, retrieving a path's trajectory is just a lookup.
+ *
+ * When paths aren't being used (DRIVETRAIN_USE_PATHS), nothing is planned and the cache file isn't touched.  The
+ * PathManager is provided by the module, which decides where the cache is kept (only the RobotModule keeps one, on
+ * the robot, so that simulations never read or write it).
+ *
+ */
+public class PathManager
+{
+    public static final String SameSideScaleLeft = "SameSideScaleLeft";
+    public static final String SameSideScaleRight = "SameSideScaleRight";
+
+    private static final String LogName = "paths";
+
+    private final IDashboardLogger logger;
+    private final String cacheFileName;
+    private final PathPlanner planner;
+    private final Map<String, Waypoint[]> paths;
+    private final Map<String, Future<DriveTrajectory>> trajectories;
+    private final ExecutorService executor;
+
+    /**
+     * Initializes a new PathManager, loading the trajectories that are already cached and starting to plan the rest
+     * of the paths in the background
+     * @param planPaths whether to plan the paths (if not, a path is only planned if its trajectory is retrieved)
+     * @param cacheFileName of the trajectory cache file, or null to always plan the paths
+     * @param logger to report failures to
+     */
+    public PathManager(boolean planPaths, String cacheFileName, IDashboardLogger logger)
+    {
+        this.logger = logger;
+        this.cacheFileName = cacheFileName;
+        this.planner = new PathPlanner(
+            TuningConstants.DRIVETRAIN_PATH_MAX_VELOCITY,
+            TuningConstants.DRIVETRAIN_PATH_MAX_ACCELERATION,
+            TuningConstants.DRIVETRAIN_PATH_MAX_CENTRIPETAL_ACCELERATION,
+            HardwareConstants.DRIVETRAIN_WHEEL_SEPARATION_DISTANCE,
+            PathPlanner.DefaultTimeStep);
+
+        this.paths = new HashMap<String, Waypoint[]>();
+        this.trajectories = new HashMap<String, Future<DriveTrajectory>>();
+
+        // drive to the scale on the same side as we start, turning towards it on the way (instead of stopping to turn)
+        this.addMirroredPaths(
+            PathManager.SameSideScaleLeft,
+            PathManager.SameSideScaleRight,
+            new Waypoint(0.0, 0.0, 0.0),
+            new Waypoint(210.0, 0.0, 0.0),
+            new Waypoint(258.25, 10.25, 45.0));
+
+        if (!planPaths)
+        {
+            this.executor = null;
+            return;
+        }
+
+        this.executor = Executors.newSingleThreadExecutor(
+            runnable ->
+            {
+                Thread thread = new Thread(runnable, "PathPlanner");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+
+        TrajectoryCache cache = null;
+        if (cacheFileName != null)
+        {
+            cache = new TrajectoryCache(cacheFileName);
+            cache.load();
+        }
+
+        List<String> plannedPaths = new ArrayList<String>();
+        for (Map.Entry<String, Waypoint[]> path : this.paths.entrySet())
+        {
+            String name = path.getKey();
+            Waypoint[] waypoints = path.getValue();
+
+            DriveTrajectory cachedTrajectory = cache != null ? cache.get(name, this.planner.getFingerprint(waypoints)) : null;
+            if (cachedTrajectory != null)
+            {
+                this.trajectories.put(name, CompletableFuture.completedFuture(cachedTrajectory));
+            }
+            else
+            {
+                this.trajectories.put(name, this.executor.submit(() -> this.planner.plan(waypoints)));
+                plannedPaths.add(name);
+            }
+        }
+
+        if (cache != null && !plannedPaths.isEmpty())
+        {
+            // the executor runs one task at a time, in order, so all of the paths have been planned by the time this runs
+            TrajectoryCache updatedCache = cache;
+            this.executor.execute(() -> this.updateCache(updatedCache, plannedPaths));
+        }
+
+        this.executor.shutdown();
+    }
+
+    /**
+     * Retrieve the planned trajectory for a path (waiting for it to be planned, if it hasn't been yet, or planning it
+     * here if paths weren't planned in the background)
+     * @param name of the path
+     * @return the trajectory
+     */
+    public DriveTrajectory getTrajectory(String name)
+    {
+        Waypoint[] waypoints = this.paths.get(name);
+        if (waypoints == null)
+        {
+            throw new IllegalArgumentException("unknown path " + name);
+        }
+
+        Future<DriveTrajectory> trajectory = this.trajectories.get(name);
+        if (trajectory == null)
+        {
+            return this.planner.plan(waypoints);
+        }
+
+        try
+        {
+            return trajectory.get();
+        }
+        catch (InterruptedException ex)
+        {
+            // plan it here instead
+            Thread.currentThread().interrupt();
+            return this.planner.plan(waypoints);
+        }
+        catch (ExecutionException ex)
+        {
+            throw new RuntimeException("failed to plan path " + name, ex.getCause());
+        }
+    }
+
+    /**
+     * Retrieve the name of the trajectory cache file
+     * @return the file name, or null if trajectories aren't cached
+     */
+    public String getCacheFileName()
+    {
+        return this.cacheFileName;
+    }
+
+    /**
+     * Add newly-planned trajectories to the cache, and save it so that they don't need to be planned next time
+     * (if that fails, the paths are just planned again next time)
+     * @param cache to update
+     * @param plannedPaths names of the paths that were planned
+     */
+    private void updateCache(TrajectoryCache cache, List<String> plannedPaths)
+    {
+        try
+        {
+            for (String name : plannedPaths)
+            {
+                cache.put(name, this.planner.getFingerprint(this.paths.get(name)), this.trajectories.get(name).get());
+            }
+
+            cache.save();
+        }
+        catch (InterruptedException | ExecutionException | IOException ex)
+        {
+            this.logger.logString(PathManager.LogName, "cacheError", ex.toString());
+        }
+    }
+
+    /**
+     * Add a path that starts on the left side of the field, and its mirror image that starts on the right side
+     * @param leftName name of the path starting on the left
+     * @param rightName name of the path starting on the right
+     * @param waypoints of the path starting on the left
+     */
+    private void addMirroredPaths(String leftName, String rightName, Waypoint... waypoints)
+    {
+        Waypoint[] mirroredWaypoints = new Waypoint[waypoints.length];
+        for (int i = 0; i < waypoints.length; i++)
+        {
+            mirroredWaypoints[i] = waypoints[i].mirror();
+        }
+
+        this.paths.put(leftName, waypoints);
+        this.paths.put(rightName, mirroredWaypoints);
+    }
+}
@@ -0,0 +1,279 @@
+package org.usfirst.frc.team1318.robot.paths;
+
+import org.usfirst.frc.team1318.robot.common.MotionProfile;
+
+/**
+ * Path planner.
+ *
+ * Plans a smooth path through a series of waypoints and works out how to drive it as quickly as possible:
+ *   1. fit a quintic Hermite spline between each pair of consecutive waypoints
+ *   2. sample the splines finely, keeping the distance along the path, heading and curvature at each point
+ *   3. limit the velocity at each point so that the outer wheels don't exceed the max velocity and the centripetal
+ *      acceleration (velocity^2 * curvature) doesn't exceed its max, where the path curves
+ *   4. limit the velocity further so that the robot can accelerate (forward pass) and decelerate (backward pass)
+ *      between the points within the max acceleration, starting and ending at rest
+ *   5. integrate the time taken to reach each point, and resample everything at a fixed time step
+ *
+ * The left and right wheel positions come from the change in heading along the path (the same differential-drive
+ * model that the odometry uses), so the resulting motion profiles can be followed by the drivetrain's positional mode.
+ *
+ */
+public class PathPlanner
+{
+    public static final double DefaultTimeStep = 0.01; // in seconds
+    private static final int SamplesPerSpline = 500;
+    private static final int Version = 1; // change whenever the planning changes, so that cached trajectories are re-planned
+
+    private final double maxVelocity;
+    private final double maxAcceleration;
+    private final double maxCentripetalAcceleration;
+    private final double wheelSeparation;
+    private final double timeStep;
+
+    /**
+     * Initializes a new PathPlanner
+     * @param maxVelocity the maximum velocity of either side of the robot, in inches per second
+     * @param maxAcceleration the maximum acceleration along the path, in inches per second per second
+     * @param maxCentripetalAcceleration the maximum acceleration towards the center of a turn, in inches per second per second
+     * @param wheelSeparation the distance between the left and right wheels, in inches
+     * @param timeStep the time between each sample of the planned trajectory, in seconds
+     */
+    public PathPlanner(
+        double maxVelocity,
+        double maxAcceleration,
+        double maxCentripetalAcceleration,
+        double wheelSeparation,
+        double timeStep)
+    {
+        if (!(maxVelocity > 0.0) || !(maxAcceleration > 0.0) || !(maxCentripetalAcceleration > 0.0) || !(timeStep > 0.0))
+        {
+            throw new IllegalArgumentException("expected positive velocity, acceleration and time step limits");
+        }
+
+        this.maxVelocity = maxVelocity;
+        this.maxAcceleration = maxAcceleration;
+        this.maxCentripetalAcceleration = maxCentripetalAcceleration;
+        this.wheelSeparation = wheelSeparation;
+        this.timeStep = timeStep;
+    }
+
+    /**
+     * Calculate a fingerprint of the waypoints and this planner's limits, which changes whenever a path would be
+     * planned differently (so that a cached trajectory can be checked against the path it was planned for)
+     * @param waypoints to drive through, in order
+     * @return the fingerprint
+     */
+    public long getFingerprint(Waypoint... waypoints)
+    {
+        long fingerprint = PathPlanner.Version;
+        fingerprint = 31 * fingerprint + PathPlanner.SamplesPerSpline;
+        fingerprint = 31 * fingerprint + Double.doubleToLongBits(this.maxVelocity);
+        fingerprint = 31 * fingerprint + Double.doubleToLongBits(this.maxAcceleration);
+        fingerprint = 31 * fingerprint + Double.doubleToLongBits(this.maxCentripetalAcceleration);
+        fingerprint = 31 * fingerprint + Double.doubleToLongBits(this.wheelSeparation);
+        fingerprint = 31 * fingerprint + Double.doubleToLongBits(this.timeStep);
+        for (Waypoint waypoint : waypoints)
+        {
+            fingerprint = 31 * fingerprint + Double.doubleToLongBits(waypoint.getX());
+            fingerprint = 31 * fingerprint + Double.doubleToLongBits(waypoint.getY());
+            fingerprint = 31 * fingerprint + Double.doubleToLongBits(waypoint.getHeading());
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Plan the trajectory for driving through the waypoints, starting and ending at rest
+     * @param waypoints to drive through, in order (at least 2)
+     * @return the planned trajectory
+     */
+    public DriveTrajectory plan(Waypoint... waypoints)
+    {
+        if (waypoints.length < 2)
+        {
+            throw new IllegalArgumentException("expected at least 2 waypoints");
+        }
+
+        // sample the splines
+        int splineCount = waypoints.length - 1;
+        int pointCount = splineCount * PathPlanner.SamplesPerSpline + 1;
+        double[] distances = new double[pointCount];
+        double[] xs = new double[pointCount];
+        double[] ys = new double[pointCount];
+        double[] headings = new double[pointCount];
+        double[] curvatures = new double[pointCount];
+
+        int point = 0;
+        for (int i = 0; i < splineCount; i++)
+        {
+            QuinticHermiteSpline spline = new QuinticHermiteSpline(waypoints[i], waypoints[i + 1]);
+
+            // the first point of each spline is the last point of the previous one
+            for (int j = (i == 0 ? 0 : 1); j <= PathPlanner.SamplesPerSpline; j++)
+            {
+                double s = (double)j / PathPlanner.SamplesPerSpline;
+                xs[point] = spline.getX(s);
+                ys[point] = spline.getY(s);
+                curvatures[point] = spline.getCurvature(s);
+                headings[point] = spline.getHeading(s);
+                if (point == 0)
+                {
+                    distances[point] = 0.0;
+                }
+                else
+                {
+                    distances[point] = distances[point - 1] + Math.hypot(xs[point] - xs[point - 1], ys[point] - ys[point - 1]);
+
+                    // keep the heading continuous (no jump when passing +/- 180 degrees)
+                    headings[point] = headings[point - 1] + PathPlanner.wrapAngle(headings[point] - headings[point - 1]);
+                }
+
+                point++;
+            }
+        }
+
+        // limit the velocity based on the curvature
+        double[] velocities = new double[pointCount];
+        for (int i = 0; i < pointCount; i++)
+        {
+            double absCurvature = Math.abs(curvatures[i]);
+            double velocity = this.maxVelocity / (1.0 + absCurvature * this.wheelSeparation / 2.0);
+            if (absCurvature > 0.0)
+            {
+                velocity = Math.min(velocity, Math.sqrt(this.maxCentripetalAcceleration / absCurvature));
+            }
+
+            velocities[i] = velocity;
+        }
+
+        // limit the velocity based on the acceleration (starting and ending at rest)
+        velocities[0] = 0.0;
+        for (int i = 1; i < pointCount; i++)
+        {
+            double distance = distances[i] - distances[i - 1];
+            velocities[i] = Math.min(velocities[i], Math.sqrt(velocities[i - 1] * velocities[i - 1] + 2.0 * this.maxAcceleration * distance));
+        }
+
+        velocities[pointCount - 1] = 0.0;
+        for (int i = pointCount - 2; i >= 0; i--)
+        {
+            double distance = distances[i + 1] - distances[i];
+            velocities[i] = Math.min(velocities[i], Math.sqrt(velocities[i + 1] * velocities[i + 1] + 2.0 * this.maxAcceleration * distance));
+        }
+
+        // integrate the time taken to reach each point, and the distance travelled by each side
+        double[] times = new double[pointCount];
+        double[] leftDistances = new double[pointCount];
+        double[] rightDistances = new double[pointCount];
+        for (int i = 1; i < pointCount; i++)
+        {
+            double distance = distances[i] - distances[i - 1];
+            double averageVelocity = (velocities[i - 1] + velocities[i]) / 2.0;
+            times[i] = times[i - 1] + (averageVelocity > 0.0 ? distance / averageVelocity : 0.0);
+
+            double headingChange = headings[i] - headings[i - 1];
+            leftDistances[i] = leftDistances[i - 1] + distance + headingChange * this.wheelSeparation / 2.0;
+            rightDistances[i] = rightDistances[i - 1] + distance - headingChange * this.wheelSeparation / 2.0;
+        }
+
+        // resample at the fixed time step
+        double duration = times[pointCount - 1];
+        int sampleCount = (int)Math.ceil(duration / this.timeStep - 1e-9) + 1;
+        double[] sampleXs = new double[sampleCount];
+        double[] sampleYs = new double[sampleCount];
+        double[] sampleHeadings = new double[sampleCount];
+        double[] sampleVelocities = new double[sampleCount];
+        double[] sampleCurvatures = new double[sampleCount];
+        double[] leftPositions = new double[sampleCount];
+        double[] leftVelocities = new double[sampleCount];
+        double[] rightPositions = new double[sampleCount];
+        double[] rightVelocities = new double[sampleCount];
+
+        int before = 0;
+        for (int i = 0; i < sampleCount; i++)
+        {
+            double time = Math.min(i * this.timeStep, duration);
+            while (before < pointCount - 2 && times[before + 1] < time)
+            {
+                before++;
+            }
+
+            double timeBetween = times[before + 1] - times[before];
+            double fraction = timeBetween > 0.0 ? (time - times[before]) / timeBetween : 1.0;
+
+            sampleXs[i] = PathPlanner.interpolate(xs, before, fraction);
+            sampleYs[i] = PathPlanner.interpolate(ys, before, fraction);
+            sampleHeadings[i] = Math.toDegrees(PathPlanner.interpolate(headings, before, fraction));
+            sampleVelocities[i] = PathPlanner.interpolate(velocities, before, fraction);
+            sampleCurvatures[i] = PathPlanner.interpolate(curvatures, before, fraction);
+
+            leftPositions[i] = PathPlanner.interpolate(leftDistances, before, fraction);
+            rightPositions[i] = PathPlanner.interpolate(rightDistances, before, fraction);
+            leftVelocities[i] = sampleVelocities[i] * (1.0 + sampleCurvatures[i] * this.wheelSeparation / 2.0);
+            rightVelocities[i] = sampleVelocities[i] * (1.0 - sampleCurvatures[i] * this.wheelSeparation / 2.0);
+        }
+
+        return new DriveTrajectory(
+            this.timeStep,
+            sampleXs,
+            sampleYs,
+            sampleHeadings,
+            sampleVelocities,
+            sampleCurvatures,
+            new MotionProfile(this.timeStep, leftPositions, leftVelocities, this.differentiate(leftVelocities)),
+            new MotionProfile(this.timeStep, rightPositions, rightVelocities, this.differentiate(rightVelocities)));
+    }
+
+    /**
+     * Calculate the rate of change of values sampled at the time step
+     * @param values to differentiate
+     * @return the rate of change at each sample
+     */
+    private double[] differentiate(double[] values)
+    {
+        double[] rates = new double[values.length];
+        for (int i = 0; i < values.length; i++)
+        {
+            int previous = Math.max(0, i - 1);
+            int next = Math.min(values.length - 1, i + 1);
+            if (next > previous)
+            {
+                rates[i] = (values[next] - values[previous]) / ((next - previous) * this.timeStep);
+            }
+        }
+
+        return rates;
+    }
+
+    /**
+     * Interpolate between a value and the next one
+     * @param values to interpolate between
+     * @param before the index of the first value
+     * @param fraction of the way to the next value
+     * @return the interpolated value
+     */
+    private static double interpolate(double[] values, int before, double fraction)
+    {
+        return values[before] + fraction * (values[before + 1] - values[before]);
+    }
+
+    /**
+     * Wrap an angle to be between -pi and pi
+     * @param angle to wrap, in radians
+     * @return the wrapped angle
+     */
+    private static double wrapAngle(double angle)
+    {
+        while (angle > Math.PI)
+        {
+            angle -= 2.0 * Math.PI;
+        }
+
+        while (angle < -Math.PI)
+        {
+            angle += 2.0 * Math.PI;
+        }
+
+        return angle;
+    }
+}
@@ -0,0 +1,168 @@
+package org.usfirst.frc.team1318.robot.paths;
+
+/**
+ * Quintic Hermite spline between two waypoints.
+ *
+ * The spline passes through both waypoints facing their headings, with no curvature at either end, so that the
+ * splines of consecutive segments of a path join with a continuous heading and curvature (and the wheel velocities
+ * needed to follow the path don't jump where the segments meet).  The spline is evaluated at a parameter that goes
+ * from 0 (at the first waypoint) to 1 (at the second waypoint).
+ *
+ */
+public class QuinticHermiteSpline
+{
+    private static final double TangentScale = 1.2; // tangent length, relative to the distance between the waypoints
+
+    private final double[] xCoefficients;
+    private final double[] yCoefficients;
+
+    /**
+     * Initializes a new QuinticHermiteSpline
+     * @param start waypoint that the spline starts at
+     * @param end waypoint that the spline ends at
+     */
+    public QuinticHermiteSpline(Waypoint start, Waypoint end)
+    {
+        double distance = Math.hypot(end.getX() - start.getX(), end.getY() - start.getY());
+        double tangentLength = QuinticHermiteSpline.TangentScale * distance;
+
+        double startHeading = Math.toRadians(start.getHeading());
+        double endHeading = Math.toRadians(end.getHeading());
+
+        this.xCoefficients = QuinticHermiteSpline.calculateCoefficients(
+            start.getX(),
+            tangentLength * Math.cos(startHeading),
+            end.getX(),
+            tangentLength * Math.cos(endHeading));
+        this.yCoefficients = QuinticHermiteSpline.calculateCoefficients(
+            start.getY(),
+            tangentLength * Math.sin(startHeading),
+            end.getY(),
+            tangentLength * Math.sin(endHeading));
+    }
+
+    /**
+     * Gets the x position along the spline
+     * @param s parameter (between 0 and 1)
+     * @return the x position
+     */
+    public double getX(double s)
+    {
+        return QuinticHermiteSpline.evaluate(this.xCoefficients, s);
+    }
+
+    /**
+     * Gets the y position along the spline
+     * @param s parameter (between 0 and 1)
+     * @return the y position
+     */
+    public double getY(double s)
+    {
+        return QuinticHermiteSpline.evaluate(this.yCoefficients, s);
+    }
+
+    /**
+     * Gets the heading along the spline
+     * @param s parameter (between 0 and 1)
+     * @return the heading, in radians (clockwise positive, between -pi and pi)
+     */
+    public double getHeading(double s)
+    {
+        return Math.atan2(
+            QuinticHermiteSpline.evaluateDerivative(this.yCoefficients, s),
+            QuinticHermiteSpline.evaluateDerivative(this.xCoefficients, s));
+    }
+
+    /**
+     * Gets the curvature (rate of change of heading per distance travelled) along the spline
+     * @param s parameter (between 0 and 1)
+     * @return the curvature, in radians per inch (clockwise positive)
+     */
+    public double getCurvature(double s)
+    {
+        double dx = QuinticHermiteSpline.evaluateDerivative(this.xCoefficients, s);
+        double dy = QuinticHermiteSpline.evaluateDerivative(this.yCoefficients, s);
+        double ddx = QuinticHermiteSpline.evaluateSecondDerivative(this.xCoefficients, s);
+        double ddy = QuinticHermiteSpline.evaluateSecondDerivative(this.yCoefficients, s);
+
+        double speedSquared = dx * dx + dy * dy;
+        if (speedSquared == 0.0)
+        {
+            return 0.0;
+        }
+
+        return (dx * ddy - dy * ddx) / (speedSquared * Math.sqrt(speedSquared));
+    }
+
+    /**
+     * Calculate the polynomial coefficients for a quintic Hermite spline (with no second derivative at either end)
+     * @param start position
+     * @param startTangent first derivative at the start
+     * @param end position
+     * @param endTangent first derivative at the end
+     * @return the coefficients, from the constant term up to the fifth-order term
+     */
+    private static double[] calculateCoefficients(double start, double startTangent, double end, double endTangent)
+    {
+        return new double[]
+        {
+            start,
+            startTangent,
+            0.0,
+            -10.0 * start - 6.0 * startTangent - 4.0 * endTangent + 10.0 * end,
+            15.0 * start + 8.0 * startTangent + 7.0 * endTangent - 15.0 * end,
+            -6.0 * start - 3.0 * startTangent - 3.0 * endTangent + 6.0 * end,
+        };
+    }
+
+    /**
+     * Evaluate a polynomial
+     * @param coefficients of the polynomial, from the constant term up
+     * @param s to evaluate at
+     * @return the value of the polynomial
+     */
+    private static double evaluate(double[] coefficients, double s)
+    {
+        double value = 0.0;
+        for (int i = coefficients.length - 1; i >= 0; i--)
+        {
+            value = value * s + coefficients[i];
+        }
+
+        return value;
+    }
+
+    /**
+     * Evaluate the first derivative of a polynomial
+     * @param coefficients of the polynomial, from the constant term up
+     * @param s to evaluate at
+     * @return the value of the first derivative
+     */
+    private static double evaluateDerivative(double[] coefficients, double s)
+    {
+        double value = 0.0;
+        for (int i = coefficients.length - 1; i >= 1; i--)
+        {
+            value = value * s + i * coefficients[i];
+        }
+
+        return value;
+    }
+
+    /**
+     * Evaluate the second derivative of a polynomial
+     * @param coefficients of the polynomial, from the constant term up
+     * @param s to evaluate at
+     * @return the value of the second derivative
+     */
+    private static double evaluateSecondDerivative(double[] coefficients, double s)
+    {
+        double value = 0.0;
+        for (int i = coefficients.length - 1; i >= 2; i--)
+        {
+            value = value * s + i * (i - 1) * coefficients[i];
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,268 @@
+package org.usfirst.frc.team1318.robot.paths;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.usfirst.frc.team1318.robot.common.MotionProfile;
+
+/**
+ * Trajectory cache.
+ *
+ * Keeps planned trajectories in a compact binary file, so that paths only need to be planned again when they (or the
+ * planner's limits) change.  The file is memory-mapped when it is loaded, and each trajectory's samples are bulk-copied
+ * into the primitive arrays that the trajectory is sampled from.
+ *
+ * Each trajectory is stored with the fingerprint of the path that it was planned for (see PathPlanner.getFingerprint),
+ * and is only returned for a path with the same fingerprint.
+ *
+ * File format (big-endian):
+ *   int magic, int version, int trajectory count
+ *   for each trajectory:
+ *     short name length, UTF-8 name, long fingerprint, double time step, int sample count
+ *     double[sample count] for each of: x, y, heading, velocity, curvature,
+ *       left position, left velocity, left acceleration, right position, right velocity, right acceleration
+ *
+ */
+public class TrajectoryCache
+{
+    public static final int Magic = 0x5452414A; // "TRAJ"
+    public static final int Version = 1;
+
+    private static final int ArraysPerTrajectory = 11;
+
+    private final String fileName;
+    private final Map<String, Long> fingerprints;
+    private final Map<String, DriveTrajectory> trajectories;
+
+    /**
+     * Initializes a new, empty, TrajectoryCache
+     * @param fileName of the file to load the cache from and save it to
+     */
+    public TrajectoryCache(String fileName)
+    {
+        this.fileName = fileName;
+        this.fingerprints = new HashMap<String, Long>();
+        this.trajectories = new LinkedHashMap<String, DriveTrajectory>();
+    }
+
+    /**
+     * Load the trajectories from the file (replacing any trajectories in the cache)
+     * @return true if the file was loaded, or false if it doesn't exist or isn't a valid cache file
+     */
+    public boolean load()
+    {
+        this.fingerprints.clear();
+        this.trajectories.clear();
+
+        Path path = Paths.get(this.fileName);
+        if (!Files.isRegularFile(path))
+        {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 3 * Integer.BYTES
+                || buffer.getInt() != TrajectoryCache.Magic
+                || buffer.getInt() != TrajectoryCache.Version)
+            {
+                return false;
+            }
+
+            int trajectoryCount = buffer.getInt();
+            for (int i = 0; i < trajectoryCount; i++)
+            {
+                byte[] nameBytes = new byte[buffer.getShort()];
+                buffer.get(nameBytes);
+                String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+                long fingerprint = buffer.getLong();
+                double timeStep = buffer.getDouble();
+                int sampleCount = buffer.getInt();
+
+                DoubleBuffer samples = buffer.asDoubleBuffer();
+                double[] xs = TrajectoryCache.readArray(samples, sampleCount);
+                double[] ys = TrajectoryCache.readArray(samples, sampleCount);
+                double[] headings = TrajectoryCache.readArray(samples, sampleCount);
+                double[] velocities = TrajectoryCache.readArray(samples, sampleCount);
+                double[] curvatures = TrajectoryCache.readArray(samples, sampleCount);
+                MotionProfile leftProfile = new MotionProfile(
+                    timeStep,
+                    TrajectoryCache.readArray(samples, sampleCount),
+                    TrajectoryCache.readArray(samples, sampleCount),
+                    TrajectoryCache.readArray(samples, sampleCount));
+                MotionProfile rightProfile = new MotionProfile(
+                    timeStep,
+                    TrajectoryCache.readArray(samples, sampleCount),
+                    TrajectoryCache.readArray(samples, sampleCount),
+                    TrajectoryCache.readArray(samples, sampleCount));
+
+                buffer.position(buffer.position() + TrajectoryCache.ArraysPerTrajectory * sampleCount * Double.BYTES);
+
+                this.fingerprints.put(name, fingerprint);
+                this.trajectories.put(
+                    name,
+                    new DriveTrajectory(timeStep, xs, ys, headings, velocities, curvatures, leftProfile, rightProfile));
+            }
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            // a missing, truncated or corrupt cache just means the paths get planned again
+            this.fingerprints.clear();
+            this.trajectories.clear();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Retrieve a trajectory from the cache
+     * @param name of the path
+     * @param fingerprint of the path (from PathPlanner.getFingerprint)
+     * @return the trajectory, or null if it isn't in the cache or was planned for a different path
+     */
+    public DriveTrajectory get(String name, long fingerprint)
+    {
+        Long cachedFingerprint = this.fingerprints.get(name);
+        if (cachedFingerprint == null || cachedFingerprint != fingerprint)
+        {
+            return null;
+        }
+
+        return this.trajectories.get(name);
+    }
+
+    /**
+     * Add a trajectory to the cache (replacing any trajectory for the path that was already in the cache)
+     * @param name of the path
+     * @param fingerprint of the path (from PathPlanner.getFingerprint)
+     * @param trajectory planned for the path
+     */
+    public void put(String name, long fingerprint, DriveTrajectory trajectory)
+    {
+        this.fingerprints.put(name, fingerprint);
+        this.trajectories.put(name, trajectory);
+    }
+
+    /**
+     * Save the trajectories in the cache to the file (replacing the file atomically, so that a partially-written
+     * file is never loaded)
+     * @throws IOException
+     */
+    public void save() throws IOException
+    {
+        int size = 3 * Integer.BYTES;
+        for (Map.Entry<String, DriveTrajectory> entry : this.trajectories.entrySet())
+        {
+            size += Short.BYTES + entry.getKey().getBytes(StandardCharsets.UTF_8).length;
+            size += Long.BYTES + Double.BYTES + Integer.BYTES;
+            size += TrajectoryCache.ArraysPerTrajectory * entry.getValue().getSampleCount() * Double.BYTES;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(TrajectoryCache.Magic);
+        buffer.putInt(TrajectoryCache.Version);
+        buffer.putInt(this.trajectories.size());
+        for (Map.Entry<String, DriveTrajectory> entry : this.trajectories.entrySet())
+        {
+            byte[] nameBytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short)nameBytes.length);
+            buffer.put(nameBytes);
+
+            DriveTrajectory trajectory = entry.getValue();
+            buffer.putLong(this.fingerprints.get(entry.getKey()));
+            buffer.putDouble(trajectory.getTimeStep());
+            buffer.putInt(trajectory.getSampleCount());
+
+            TrajectoryCache.writeArray(buffer, trajectory.getXs());
+            TrajectoryCache.writeArray(buffer, trajectory.getYs());
+            TrajectoryCache.writeArray(buffer, trajectory.getHeadings());
+            TrajectoryCache.writeArray(buffer, trajectory.getVelocities());
+            TrajectoryCache.writeArray(buffer, trajectory.getCurvatures());
+            TrajectoryCache.writeProfile(buffer, trajectory.getLeftProfile(), trajectory.getSampleCount());
+            TrajectoryCache.writeProfile(buffer, trajectory.getRightProfile(), trajectory.getSampleCount());
+        }
+
+        buffer.flip();
+
+        Path path = Paths.get(this.fileName);
+        Path temporaryPath = Paths.get(this.fileName + ".tmp");
+        try (FileChannel channel = FileChannel.open(
+            temporaryPath,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE))
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read an array of samples
+     * @param samples to read from
+     * @param sampleCount number of samples to read
+     * @return the samples
+     */
+    private static double[] readArray(DoubleBuffer samples, int sampleCount)
+    {
+        double[] values = new double[sampleCount];
+        samples.get(values);
+        return values;
+    }
+
+    /**
+     * Write an array of samples
+     * @param buffer to write to
+     * @param values to write
+     */
+    private static void writeArray(ByteBuffer buffer, double[] values)
+    {
+        for (double value : values)
+        {
+            buffer.putDouble(value);
+        }
+    }
+
+    /**
+     * Write the samples of a motion profile
+     * @param buffer to write to
+     * @param profile to write
+     * @param sampleCount number of samples in the profile
+     */
+    private static void writeProfile(ByteBuffer buffer, MotionProfile profile, int sampleCount)
+    {
+        for (int i = 0; i < sampleCount; i++)
+        {
+            buffer.putDouble(profile.getSamplePosition(i));
+        }
+
+        for (int i = 0; i < sampleCount; i++)
+        {
+            buffer.putDouble(profile.getSampleVelocity(i));
+        }
+
+        for (int i = 0; i < sampleCount; i++)
+        {
+            buffer.putDouble(profile.getSampleAcceleration(i));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.usfirst.frc.team1318.robot.paths;
+
+/**
+ * A point that a path passes through, and the direction that the robot should be facing there.
+ *
+ * Waypoints use the same convention as the odometry in the PositionManager: positions are in inches relative to where
+ * the robot starts, with x forward and y to the right (of the robot's starting orientation), and headings are in
+ * degrees, clockwise positive.
+ *
+ */
+public class Waypoint
+{
+    private final double x;
+    private final double y;
+    private final double heading;
+
+    /**
+     * Initializes a new Waypoint
+     * @param x position, in inches
+     * @param y position, in inches
+     * @param heading to face, in degrees (clockwise positive)
+     */
+    public Waypoint(double x, double y, double heading)
+    {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+    }
+
+    /**
+     * Gets the x position
+     * @return the x position, in inches
+     */
+    public double getX()
+    {
+        return this.x;
+    }
+
+    /**
+     * Gets the y position
+     * @return the y position, in inches
+     */
+    public double getY()
+    {
+        return this.y;
+    }
+
+    /**
+     * Gets the heading to face
+     * @return the heading, in degrees (clockwise positive)
+     */
+    public double getHeading()
+    {
+        return this.heading;
+    }
+
+    /**
+     * Gets the mirror image of this waypoint (for the same path on the other side of the field)
+     * @return the mirrored waypoint
+     */
+    public Waypoint mirror()
+    {
+        return new Waypoint(this.x, -this.y, -this.heading);
+    }
+}
@@ -0,0 +1,612 @@
+package org.usfirst.frc.team1318.robot.replay;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+import org.usfirst.frc.team1318.robot.driver.Operation;
+import org.usfirst.frc.team1318.robot.driver.common.Driver;
+import org.usfirst.frc.team1318.robot.driver.common.IButtonMap;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.OperationDescription;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.OperationType;
+
+/**
+ * Recorder of everything that the mechanisms read during a match, so that the match can be replayed later.
+ *
+ * Every value is recorded into a named channel: sensor values are recorded as they are read by the
+ * RecordingWpilibProvider's devices, and the state of each operation (as the mechanisms see it) and the time are
+ * recorded at the end of each control loop iteration, when the frame is completed.  Only the channels whose values
+ * changed during the iteration are written to the frame, so frames are usually small.  Completed frames are encoded
+ * into a preallocated buffer, which is handed off to a background writer thread about once a second so that the
+ * control loop never touches the disk.  If the writer falls behind, the changes are carried over into the next frame
+ * instead of being lost.
+ *
+ * The recorder is stopped whenever the robot is disabled (so that everything recorded so far is forced to disk and
+ * the file is closed, in case the robot is turned off), and resumed when it is enabled again, appending to the same
+ * file.  If writing fails, the error is logged and the recorder stops recording frames until it is stopped, at
+ * which point the buffers are released (and reallocated if it is resumed).  The buffers aren't allocated until the
+ * recorder is started, so they don't take up any memory when recording is disabled.
+ *
+ * File format (big-endian):
+ *     int magic, int version,
+ *     then frames of: short new channel count, new channel count x (byte type, short length, UTF-8 name),
+ *         double time, short changed count, changed count x (short channel, double value or short length + UTF-8 text)
+ *
+ * Use MatchRecording to read the file, and MatchReplayer to replay it.
+ *
+ */
+public class MatchRecorder
+{
+    public static final int Magic = 0x4D415443; // "MATC"
+    public static final int Version = 1;
+
+    public static final byte NumberChannel = 0;
+    public static final byte TextChannel = 1;
+
+    public static final String ModeChannel = "mode";
+    public static final String OperationChannelPrefix = "op.";
+
+    private static final int MaxChannels = 1024;
+    private static final int MaxFrameSize = 32 * 1024;
+    private static final int BufferSize = 256 * 1024;
+    private static final int FramesPerWrite = 50; // hand off frames to the writer about once a second
+    private static final long IdleWaitNanos = 10000000L; // 10ms
+
+    private static final String LogName = "rec";
+
+    private final ITimer timer;
+    private final IDashboardLogger logger;
+
+    // channels (written by registration, read by the control loop)
+    private final String[] channelNames;
+    private final byte[] channelTypes;
+    private volatile int channelCount;
+
+    // operations, and the channels they are recorded into
+    private final Operation[] operations;
+    private final boolean[] isDigitalOperation;
+    private final int[] operationChannels;
+    private final int modeChannel;
+
+    // current values of each channel, and which channels have changed since the last frame that was written
+    private final double[] numberValues;
+    private final String[] textValues;
+    private final boolean[] isChanged;
+    private final int[] changedChannels;
+    private int changedCount;
+    private int writtenChannelCount;
+
+    // frame encoding and hand-off to the writer thread (the writer owns pendingBuffer until it sets it back to null)
+    private ByteBuffer frameBuffer;
+    private ByteBuffer activeBuffer;
+    private ByteBuffer spareBuffer;
+    private volatile ByteBuffer pendingBuffer;
+    private int framesSinceWrite;
+    private long frameCount;
+    private long delayedFrames;
+
+    private String fileName;
+    private RandomAccessFile file;
+    private FileChannel fileChannel;
+    private Thread writerThread;
+    private volatile boolean isRunning;
+    private volatile boolean hasWriteFailed;
+
+    /**
+     * Initializes a new MatchRecorder, which doesn't record anything until it is started
+     * @param buttonMap describing the operations to record
+     * @param timer to record the time from
+     * @param logger to report errors writing the recording to
+     */
+    public MatchRecorder(IButtonMap buttonMap, ITimer timer, IDashboardLogger logger)
+    {
+        this.timer = timer;
+        this.logger = logger;
+
+        this.channelNames = new String[MatchRecorder.MaxChannels];
+        this.channelTypes = new byte[MatchRecorder.MaxChannels];
+        this.channelCount = 0;
+
+        this.numberValues = new double[MatchRecorder.MaxChannels];
+        this.textValues = new String[MatchRecorder.MaxChannels];
+        this.isChanged = new boolean[MatchRecorder.MaxChannels];
+        this.changedChannels = new int[MatchRecorder.MaxChannels];
+        this.changedCount = 0;
+        this.writtenChannelCount = 0;
+
+        EnumMap<Operation, OperationDescription> sortedSchema = new EnumMap<Operation, OperationDescription>(Operation.class);
+        sortedSchema.putAll(buttonMap.getOperationSchema());
+
+        this.operations = new Operation[sortedSchema.size()];
+        this.isDigitalOperation = new boolean[sortedSchema.size()];
+        this.operationChannels = new int[sortedSchema.size()];
+
+        int i = 0;
+        for (Map.Entry<Operation, OperationDescription> entry : sortedSchema.entrySet())
+        {
+            this.operations[i] = entry.getKey();
+            this.isDigitalOperation[i] = entry.getValue().getType() == OperationType.Digital;
+            this.operationChannels[i] = this.registerNumberChannel(MatchRecorder.OperationChannelPrefix + entry.getKey().name());
+            i++;
+        }
+
+        this.modeChannel = this.registerTextChannel(MatchRecorder.ModeChannel);
+
+        this.frameBuffer = null;
+        this.activeBuffer = null;
+        this.spareBuffer = null;
+        this.pendingBuffer = null;
+        this.framesSinceWrite = 0;
+        this.frameCount = 0;
+        this.delayedFrames = 0;
+
+        this.fileName = null;
+        this.writerThread = null;
+        this.isRunning = false;
+        this.hasWriteFailed = false;
+    }
+
+    /**
+     * Start recording into the provided file (replacing anything that is already in it)
+     * @param fileName to write the recording to
+     * @throws IOException
+     */
+    public synchronized void start(String fileName) throws IOException
+    {
+        if (this.writerThread != null)
+        {
+            return;
+        }
+
+        this.file = new RandomAccessFile(fileName, "rw");
+        this.file.setLength(0);
+        this.fileName = fileName;
+
+        this.allocateBuffers();
+        this.activeBuffer.putInt(MatchRecorder.Magic);
+        this.activeBuffer.putInt(MatchRecorder.Version);
+
+        this.startWriter();
+    }
+
+    /**
+     * Resume recording after the recorder was stopped, appending to the end of the same file.
+     * This does nothing if the recorder was never started.
+     * @throws IOException
+     */
+    public synchronized void resume() throws IOException
+    {
+        if (this.writerThread != null || this.fileName == null)
+        {
+            return;
+        }
+
+        this.file = new RandomAccessFile(this.fileName, "rw");
+        this.file.seek(this.file.length());
+
+        this.allocateBuffers();
+        this.startWriter();
+    }
+
+    /**
+     * Stop recording, writing out any frames that are waiting, forcing them to disk, and closing the file.
+     * This should only be called while the control loop isn't running.
+     */
+    public synchronized void stop()
+    {
+        if (this.writerThread == null)
+        {
+            return;
+        }
+
+        this.isRunning = false;
+        LockSupport.unpark(this.writerThread);
+
+        boolean interrupted = false;
+        while (this.writerThread.isAlive())
+        {
+            try
+            {
+                this.writerThread.join();
+            }
+            catch (InterruptedException e)
+            {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        this.writerThread = null;
+        if (this.hasWriteFailed)
+        {
+            // drop whatever couldn't be written, rather than writing part of it twice when we resume
+            this.frameBuffer = null;
+            this.activeBuffer = null;
+            this.spareBuffer = null;
+            this.pendingBuffer = null;
+            this.hasWriteFailed = false;
+        }
+    }
+
+    /**
+     * Gets a value indicating whether the recorder has been started (and writing hasn't failed since)
+     * @return true if frames are being recorded
+     */
+    public boolean isRecording()
+    {
+        return this.isRunning;
+    }
+
+    /**
+     * Register a channel for recording numbers, or retrieve the existing channel with the same name
+     * @param name of the channel
+     * @return the channel to pass to recordNumber, or -1 if there are too many channels
+     */
+    public int registerNumberChannel(String name)
+    {
+        return this.registerChannel(name, MatchRecorder.NumberChannel);
+    }
+
+    /**
+     * Register a channel for recording text, or retrieve the existing channel with the same name
+     * @param name of the channel
+     * @return the channel to pass to recordText, or -1 if there are too many channels
+     */
+    public int registerTextChannel(String name)
+    {
+        return this.registerChannel(name, MatchRecorder.TextChannel);
+    }
+
+    /**
+     * Record the current value of a number channel
+     * @param channel to record
+     * @param value to record
+     */
+    public void recordNumber(int channel, double value)
+    {
+        if (channel >= 0 && Double.doubleToRawLongBits(value) != Double.doubleToRawLongBits(this.numberValues[channel]))
+        {
+            this.numberValues[channel] = value;
+            this.markChanged(channel);
+        }
+    }
+
+    /**
+     * Record the current value of a text channel
+     * @param channel to record
+     * @param value to record
+     */
+    public void recordText(int channel, String value)
+    {
+        if (channel >= 0 && !MatchRecorder.areEqual(value, this.textValues[channel]))
+        {
+            this.textValues[channel] = value;
+            this.markChanged(channel);
+        }
+    }
+
+    /**
+     * Record the mode that the robot is in (e.g. "Autonomous" or "Teleop")
+     * @param mode that the robot is starting
+     */
+    public void recordMode(String mode)
+    {
+        this.recordText(this.modeChannel, mode);
+    }
+
+    /**
+     * Complete the current frame, recording the time and the state of each operation
+     * @param driver that the mechanisms are being run with
+     */
+    public void endFrame(Driver driver)
+    {
+        if (!this.isRunning)
+        {
+            return;
+        }
+
+        for (int i = 0; i < this.operations.length; i++)
+        {
+            double value;
+            if (this.isDigitalOperation[i])
+            {
+                value = driver.getDigital(this.operations[i]) ? 1.0 : 0.0;
+            }
+            else
+            {
+                value = driver.getAnalog(this.operations[i]);
+            }
+
+            this.recordNumber(this.operationChannels[i], value);
+        }
+
+        this.encodeFrame(this.timer.get());
+
+        this.frameCount++;
+        this.framesSinceWrite++;
+        if (this.framesSinceWrite >= MatchRecorder.FramesPerWrite)
+        {
+            this.handOff();
+        }
+    }
+
+    /**
+     * Retrieve the number of frames that have been recorded
+     * @return the number of frames
+     */
+    public long getFrameCount()
+    {
+        return this.frameCount;
+    }
+
+    /**
+     * Retrieve the number of frames that were merged into the following frame because the writer thread couldn't keep up
+     * @return the number of delayed frames
+     */
+    public long getDelayedFrames()
+    {
+        return this.delayedFrames;
+    }
+
+    /**
+     * Register a channel, or retrieve the existing channel with the same name
+     * @param name of the channel
+     * @param type of the channel
+     * @return the channel, or -1 if there are too many channels
+     */
+    private synchronized int registerChannel(String name, byte type)
+    {
+        int count = this.channelCount;
+        for (int i = 0; i < count; i++)
+        {
+            if (this.channelNames[i].equals(name))
+            {
+                return i;
+            }
+        }
+
+        if (count >= MatchRecorder.MaxChannels)
+        {
+            return -1;
+        }
+
+        this.channelNames[count] = name;
+        this.channelTypes[count] = type;
+        this.numberValues[count] = Double.NaN;
+        this.textValues[count] = null;
+        this.channelCount = count + 1;
+        return count;
+    }
+
+    /**
+     * Mark a channel as changed, so that it is written in the next frame
+     * @param channel that changed
+     */
+    private void markChanged(int channel)
+    {
+        if (!this.isChanged[channel])
+        {
+            this.isChanged[channel] = true;
+            this.changedChannels[this.changedCount++] = channel;
+        }
+    }
+
+    /**
+     * Encode the current frame into the active buffer, if there is room for it
+     * @param time of the frame
+     */
+    private void encodeFrame(double time)
+    {
+        ByteBuffer frame = this.frameBuffer;
+        frame.clear();
+
+        int count = this.channelCount;
+        frame.putShort((short)(count - this.writtenChannelCount));
+        for (int i = this.writtenChannelCount; i < count; i++)
+        {
+            frame.put(this.channelTypes[i]);
+            MatchRecorder.putText(frame, this.channelNames[i]);
+        }
+
+        frame.putDouble(time);
+        frame.putShort((short)this.changedCount);
+        for (int i = 0; i < this.changedCount; i++)
+        {
+            int channel = this.changedChannels[i];
+            frame.putShort((short)channel);
+            if (this.channelTypes[channel] == MatchRecorder.TextChannel)
+            {
+                MatchRecorder.putText(frame, this.textValues[channel]);
+            }
+            else
+            {
+                frame.putDouble(this.numberValues[channel]);
+            }
+        }
+
+        frame.flip();
+        if (frame.remaining() > this.activeBuffer.remaining())
+        {
+            this.handOff();
+            if (frame.remaining() > this.activeBuffer.remaining())
+            {
+                // the writer is still busy with the previous buffer, so keep the changes for the next frame
+                this.delayedFrames++;
+                return;
+            }
+        }
+
+        this.activeBuffer.put(frame);
+        this.writtenChannelCount = count;
+        for (int i = 0; i < this.changedCount; i++)
+        {
+            this.isChanged[this.changedChannels[i]] = false;
+        }
+
+        this.changedCount = 0;
+    }
+
+    /**
+     * Allocate the buffers used to encode frames and hand them off to the writer thread, if they haven't been already
+     */
+    private void allocateBuffers()
+    {
+        if (this.activeBuffer == null)
+        {
+            this.frameBuffer = ByteBuffer.allocate(MatchRecorder.MaxFrameSize);
+            this.activeBuffer = ByteBuffer.allocateDirect(MatchRecorder.BufferSize);
+            this.spareBuffer = ByteBuffer.allocateDirect(MatchRecorder.BufferSize);
+            this.pendingBuffer = null;
+            this.framesSinceWrite = 0;
+        }
+    }
+
+    /**
+     * Start the writer thread, writing to the file that has been opened
+     */
+    private void startWriter()
+    {
+        this.fileChannel = this.file.getChannel();
+
+        this.isRunning = true;
+        this.writerThread = new Thread(() -> this.runWriter(), "MatchRecorder");
+        this.writerThread.setDaemon(true);
+        this.writerThread.setPriority(Thread.MIN_PRIORITY);
+        this.writerThread.start();
+    }
+
+    /**
+     * Hand off the active buffer to the writer thread, unless it is still writing the previous one
+     */
+    private void handOff()
+    {
+        if (this.pendingBuffer == null && this.activeBuffer.position() > 0)
+        {
+            ByteBuffer buffer = this.activeBuffer;
+            this.activeBuffer = this.spareBuffer;
+            this.spareBuffer = buffer;
+            this.pendingBuffer = buffer;
+            this.framesSinceWrite = 0;
+            LockSupport.unpark(this.writerThread);
+        }
+    }
+
+    /**
+     * Write buffers that are handed off to the file until the recorder is stopped, then force them to disk and close
+     * the file.  This is run on the writer thread.  If writing fails, the error is logged and the recorder stops
+     * recording frames, rather than treating every frame after that as delayed.
+     */
+    private void runWriter()
+    {
+        try
+        {
+            while (this.isRunning)
+            {
+                if (!this.writePendingBuffer())
+                {
+                    LockSupport.parkNanos(MatchRecorder.IdleWaitNanos);
+                }
+            }
+
+            // write out whatever is left (the control loop has stopped by now)
+            this.writePendingBuffer();
+            this.handOff();
+            this.writePendingBuffer();
+
+            this.fileChannel.force(true);
+        }
+        catch (IOException e)
+        {
+            this.onWriteFailed(e);
+        }
+        finally
+        {
+            try
+            {
+                this.file.close();
+            }
+            catch (IOException e)
+            {
+                this.onWriteFailed(e);
+            }
+        }
+    }
+
+    /**
+     * Stop recording frames after writing has failed, logging the first error.  This is run on the writer thread.
+     * @param e that writing failed with
+     */
+    private void onWriteFailed(IOException e)
+    {
+        this.isRunning = false;
+        if (!this.hasWriteFailed)
+        {
+            this.hasWriteFailed = true;
+            this.logger.logString(MatchRecorder.LogName, "error", e.toString());
+        }
+    }
+
+    /**
+     * Write the buffer that has been handed off to the writer thread (if any) to the file
+     * @return true if there was a buffer to write
+     * @throws IOException
+     */
+    private boolean writePendingBuffer() throws IOException
+    {
+        ByteBuffer buffer = this.pendingBuffer;
+        if (buffer == null)
+        {
+            return false;
+        }
+
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            this.fileChannel.write(buffer);
+        }
+
+        buffer.clear();
+        this.pendingBuffer = null;
+        return true;
+    }
+
+    /**
+     * Write text as a length-prefixed UTF-8 string (or a length of -1 for null)
+     * @param buffer to write to
+     * @param value to write
+     */
+    private static void putText(ByteBuffer buffer, String value)
+    {
+        if (value == null)
+        {
+            buffer.putShort((short)-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short)bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Check whether two strings are equal, allowing for nulls
+     * @param first string
+     * @param second string
+     * @return true if they are equal
+     */
+    private static boolean areEqual(String first, String second)
+    {
+        return first == null ? second == null : first.equals(second);
+    }
+}
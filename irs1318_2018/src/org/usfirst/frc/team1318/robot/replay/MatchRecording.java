@@ -0,0 +1,223 @@
+package org.usfirst.frc.team1318.robot.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reader for a match recorded by the MatchRecorder.
+ *
+ * Frames are read one at a time with readFrame(), after which each channel holds the value that it had during that
+ * frame (channels that weren't written in the frame keep their value from earlier frames, and channels that haven't
+ * been written yet are NaN or null).
+ *
+ */
+public class MatchRecording
+{
+    private final ByteBuffer buffer;
+
+    private final List<String> channelNames;
+    private final List<Byte> channelTypes;
+    private final Map<String, Integer> channelIndexes;
+
+    private double[] numberValues;
+    private String[] textValues;
+
+    private double time;
+    private int frameNumber;
+
+    /**
+     * Initializes a new MatchRecording
+     * @param fileName of the recording to read
+     * @throws IOException
+     */
+    public MatchRecording(String fileName) throws IOException
+    {
+        this(ByteBuffer.wrap(Files.readAllBytes(Paths.get(fileName))));
+    }
+
+    /**
+     * Initializes a new MatchRecording
+     * @param buffer containing the recording
+     * @throws IOException
+     */
+    public MatchRecording(ByteBuffer buffer) throws IOException
+    {
+        this.buffer = buffer;
+        if (this.buffer.remaining() < 2 * Integer.BYTES
+            || this.buffer.getInt() != MatchRecorder.Magic
+            || this.buffer.getInt() != MatchRecorder.Version)
+        {
+            throw new IOException("not a match recording");
+        }
+
+        this.channelNames = new ArrayList<String>();
+        this.channelTypes = new ArrayList<Byte>();
+        this.channelIndexes = new HashMap<String, Integer>();
+
+        this.numberValues = new double[0];
+        this.textValues = new String[0];
+
+        this.time = 0.0;
+        this.frameNumber = 0;
+    }
+
+    /**
+     * Read the next frame of the recording
+     * @return true if a frame was read, or false at the end of the recording
+     * @throws IOException
+     */
+    public boolean readFrame() throws IOException
+    {
+        if (!this.buffer.hasRemaining())
+        {
+            return false;
+        }
+
+        try
+        {
+            int newChannelCount = this.buffer.getShort();
+            for (int i = 0; i < newChannelCount; i++)
+            {
+                byte type = this.buffer.get();
+                String name = MatchRecording.getText(this.buffer);
+                this.channelIndexes.put(name, this.channelNames.size());
+                this.channelNames.add(name);
+                this.channelTypes.add(type);
+            }
+
+            if (newChannelCount > 0)
+            {
+                this.growValues();
+            }
+
+            this.time = this.buffer.getDouble();
+            int changedCount = this.buffer.getShort();
+            for (int i = 0; i < changedCount; i++)
+            {
+                int channel = this.buffer.getShort();
+                if (this.channelTypes.get(channel) == MatchRecorder.TextChannel)
+                {
+                    this.textValues[channel] = MatchRecording.getText(this.buffer);
+                }
+                else
+                {
+                    this.numberValues[channel] = this.buffer.getDouble();
+                }
+            }
+        }
+        catch (RuntimeException ex)
+        {
+            // a recording that was cut off (e.g. by losing power) ends with a partial frame
+            this.buffer.position(this.buffer.limit());
+            return false;
+        }
+
+        this.frameNumber++;
+        return true;
+    }
+
+    /**
+     * Retrieve the time recorded for the current frame
+     * @return the time
+     */
+    public double getTime()
+    {
+        return this.time;
+    }
+
+    /**
+     * Retrieve the number of the current frame
+     * @return the frame number (starting at 1 after the first frame is read)
+     */
+    public int getFrameNumber()
+    {
+        return this.frameNumber;
+    }
+
+    /**
+     * Retrieve the names of the channels that have been defined so far
+     * @return the names of the channels
+     */
+    public List<String> getChannelNames()
+    {
+        return this.channelNames;
+    }
+
+    /**
+     * Retrieve the channel with the provided name
+     * @param name of the channel
+     * @return the channel, or -1 if it hasn't been defined (yet)
+     */
+    public int getChannel(String name)
+    {
+        Integer index = this.channelIndexes.get(name);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Retrieve the current value of a number channel
+     * @param channel to retrieve
+     * @return the value of the channel, or NaN if it isn't defined or hasn't been written
+     */
+    public double getNumber(int channel)
+    {
+        return channel >= 0 ? this.numberValues[channel] : Double.NaN;
+    }
+
+    /**
+     * Retrieve the current value of a text channel
+     * @param channel to retrieve
+     * @return the value of the channel, or null if it isn't defined or hasn't been written
+     */
+    public String getText(int channel)
+    {
+        return channel >= 0 ? this.textValues[channel] : null;
+    }
+
+    /**
+     * Make room for the values of newly defined channels
+     */
+    private void growValues()
+    {
+        int oldCount = this.numberValues.length;
+        int newCount = this.channelNames.size();
+
+        double[] newNumberValues = new double[newCount];
+        System.arraycopy(this.numberValues, 0, newNumberValues, 0, oldCount);
+        for (int i = oldCount; i < newCount; i++)
+        {
+            newNumberValues[i] = Double.NaN;
+        }
+
+        String[] newTextValues = new String[newCount];
+        System.arraycopy(this.textValues, 0, newTextValues, 0, oldCount);
+
+        this.numberValues = newNumberValues;
+        this.textValues = newTextValues;
+    }
+
+    /**
+     * Read length-prefixed UTF-8 text (or null for a length of -1)
+     * @param buffer to read from
+     * @return the text
+     */
+    private static String getText(ByteBuffer buffer)
+    {
+        int length = buffer.getShort();
+        if (length < 0)
+        {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,317 @@
+package org.usfirst.frc.team1318.robot.replay;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.usfirst.frc.team1318.robot.common.MechanismManager;
+import org.usfirst.frc.team1318.robot.driver.common.IButtonMap;
+import org.usfirst.frc.team1318.robot.simulation.SimulationLogger;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * Replays recorded matches through the mechanisms, faster than real time.
+ *
+ * For each recording, the mechanisms are built against a ReplayWpilibProvider, and then each frame is run the same way
+ * as on the robot (read sensors, update the driver, update the mechanisms), with the ReplayDriver supplying the
+ * recorded operation states.  The value of every actuator output after each frame is written as CSV, so that replays
+ * of the same matches with different versions of the code can be compared to find where their behavior diverges.
+ *
+ * The recording can be a single file, or a directory of .match files (which are replayed in parallel).  When a baseline
+ * directory is provided, the outputs of each recording are compared with the CSV of the same name in that directory.
+ *
+ * Usage: MatchReplayer recording [outputDirectory [baselineDirectory [tolerance]]]
+ *
+ */
+public class MatchReplayer
+{
+    private static final String RecordingExtension = ".match";
+    private static final double DefaultTolerance = 1e-6;
+
+    /**
+     * Replay recorded matches
+     * @param args the recording(s), and optionally where to write the outputs, outputs to compare with, and the tolerance
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException
+    {
+        if (args.length < 1 || args.length > 4)
+        {
+            System.err.println("Usage: MatchReplayer recording [outputDirectory [baselineDirectory [tolerance]]]");
+            return;
+        }
+
+        List<File> recordings = new ArrayList<File>();
+        File recordingFile = new File(args[0]);
+        if (recordingFile.isDirectory())
+        {
+            File[] files = recordingFile.listFiles((directory, name) -> name.endsWith(MatchReplayer.RecordingExtension));
+            Arrays.sort(files);
+            recordings.addAll(Arrays.asList(files));
+        }
+        else
+        {
+            recordings.add(recordingFile);
+        }
+
+        File outputDirectory = new File(args.length > 1 ? args[1] : ".");
+        outputDirectory.mkdirs();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try
+        {
+            long startTime = System.nanoTime();
+
+            List<Future<Double>> futures = new ArrayList<Future<Double>>();
+            for (File recording : recordings)
+            {
+                String outputFileName = MatchReplayer.getOutputFile(outputDirectory, recording).getPath();
+                futures.add(executor.submit(() -> MatchReplayer.replay(recording.getPath(), outputFileName)));
+            }
+
+            double matchTime = 0.0;
+            for (Future<Double> future : futures)
+            {
+                matchTime += future.get();
+            }
+
+            double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+            System.out.println(
+                String.format(
+                    "Replayed %d recordings (%.1fs of matches) in %.2fs (%.0fx real time)",
+                    recordings.size(),
+                    matchTime,
+                    elapsedSeconds,
+                    matchTime / elapsedSeconds));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        if (args.length > 2)
+        {
+            File baselineDirectory = new File(args[2]);
+            double tolerance = args.length > 3 ? Double.parseDouble(args[3]) : MatchReplayer.DefaultTolerance;
+
+            int divergedCount = 0;
+            for (File recording : recordings)
+            {
+                File outputFile = MatchReplayer.getOutputFile(outputDirectory, recording);
+                File baselineFile = MatchReplayer.getOutputFile(baselineDirectory, recording);
+                if (!baselineFile.exists())
+                {
+                    System.out.println(recording.getName() + ": no baseline");
+                    continue;
+                }
+
+                if (MatchReplayer.compareOutputs(outputFile.getPath(), baselineFile.getPath(), tolerance, System.out) > 0)
+                {
+                    divergedCount++;
+                }
+            }
+
+            System.out.println(String.format("%d of %d recordings diverged from %s", divergedCount, recordings.size(), args[2]));
+        }
+    }
+
+    /**
+     * Replay a recorded match, writing the actuator outputs after each frame
+     * @param recordingFileName of the recording to replay
+     * @param outputFileName to write the outputs to, as CSV
+     * @return the length of the recording (in seconds)
+     * @throws IOException
+     */
+    public static double replay(String recordingFileName, String outputFileName) throws IOException
+    {
+        MatchRecording recording = new MatchRecording(recordingFileName);
+        ReplayWpilibProvider provider = new ReplayWpilibProvider(recording);
+
+        Injector injector = Guice.createInjector(new ReplayModule(provider, new ReplayTimer(recording), new SimulationLogger()));
+        MechanismManager mechanisms = injector.getInstance(MechanismManager.class);
+        ReplayDriver driver = new ReplayDriver(injector, injector.getInstance(IButtonMap.class), recording);
+        mechanisms.setDriver(driver);
+
+        double matchTime = 0.0;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputFileName)))
+        {
+            List<String> outputNames = provider.getOutputNames();
+            StringBuilder line = new StringBuilder("frame,time");
+            for (String outputName : outputNames)
+            {
+                line.append(',').append(outputName);
+            }
+
+            writer.append(line);
+            writer.newLine();
+
+            int modeChannel = -1;
+            String mode = null;
+            double previousTime = Double.NaN;
+            while (recording.readFrame())
+            {
+                if (modeChannel < 0)
+                {
+                    modeChannel = recording.getChannel(MatchRecorder.ModeChannel);
+                }
+
+                // the robot is disabled (stopping the mechanisms) between modes
+                String newMode = recording.getText(modeChannel);
+                if (mode != null && !mode.equals(newMode))
+                {
+                    mechanisms.stop();
+                    mechanisms.setDriver(driver);
+                }
+
+                mode = newMode;
+
+                mechanisms.readSensors();
+                driver.update();
+                mechanisms.update();
+
+                // the timer is reset between modes, so add up the time from each frame
+                double time = recording.getTime();
+                if (!Double.isNaN(previousTime) && time > previousTime)
+                {
+                    matchTime += time - previousTime;
+                }
+
+                previousTime = time;
+
+                line.setLength(0);
+                line.append(recording.getFrameNumber()).append(',').append(time);
+                for (int i = 0; i < outputNames.size(); i++)
+                {
+                    line.append(',').append(provider.getOutputValue(i));
+                }
+
+                writer.append(line);
+                writer.newLine();
+            }
+        }
+
+        mechanisms.stop();
+        return matchTime;
+    }
+
+    /**
+     * Compare the outputs from replaying a match against the outputs from an earlier replay of the same match,
+     * printing the first frame where they differ
+     * @param outputFileName containing the outputs
+     * @param baselineFileName containing the earlier outputs
+     * @param tolerance how much an output can differ before it counts as a difference
+     * @param out to print the differences to
+     * @return the number of frames where the outputs differ
+     * @throws IOException
+     */
+    public static int compareOutputs(String outputFileName, String baselineFileName, double tolerance, PrintStream out)
+        throws IOException
+    {
+        int differentFrames = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(outputFileName));
+            BufferedReader baselineReader = new BufferedReader(new FileReader(baselineFileName)))
+        {
+            String[] columns = reader.readLine().split(",");
+            String[] baselineColumns = baselineReader.readLine().split(",");
+
+            // match up the outputs by name, in case actuators were added or removed
+            Map<String, Integer> baselineIndexes = new HashMap<String, Integer>();
+            for (int i = 0; i < baselineColumns.length; i++)
+            {
+                baselineIndexes.put(baselineColumns[i], i);
+            }
+
+            String line;
+            String baselineLine;
+            while ((line = reader.readLine()) != null && (baselineLine = baselineReader.readLine()) != null)
+            {
+                String[] values = line.split(",");
+                String[] baselineValues = baselineLine.split(",");
+
+                String firstDifference = null;
+                for (int i = 2; i < columns.length && firstDifference == null; i++)
+                {
+                    Integer baselineIndex = baselineIndexes.get(columns[i]);
+                    if (baselineIndex == null)
+                    {
+                        continue;
+                    }
+
+                    double value = Double.parseDouble(values[i]);
+                    double baselineValue = Double.parseDouble(baselineValues[baselineIndex]);
+                    boolean isDifferent;
+                    if (Double.isNaN(value) || Double.isNaN(baselineValue))
+                    {
+                        isDifferent = Double.isNaN(value) != Double.isNaN(baselineValue);
+                    }
+                    else
+                    {
+                        isDifferent = Math.abs(value - baselineValue) > tolerance;
+                    }
+
+                    if (isDifferent)
+                    {
+                        firstDifference = String.format("%s is %s instead of %s", columns[i], values[i], baselineValues[baselineIndex]);
+                    }
+                }
+
+                if (firstDifference != null)
+                {
+                    if (differentFrames == 0)
+                    {
+                        out.println(
+                            String.format(
+                                "%s: first differs at frame %s (time %s): %s",
+                                outputFileName,
+                                values[0],
+                                values[1],
+                                firstDifference));
+                    }
+
+                    differentFrames++;
+                }
+            }
+        }
+
+        if (differentFrames > 0)
+        {
+            out.println(String.format("%s: %d frames differ", outputFileName, differentFrames));
+        }
+
+        return differentFrames;
+    }
+
+    /**
+     * Get the file to write the outputs of a recording to
+     * @param directory to write the outputs in
+     * @param recording that is replayed
+     * @return the file for the outputs
+     */
+    private static File getOutputFile(File directory, File recording)
+    {
+        String name = recording.getName();
+        if (name.endsWith(MatchReplayer.RecordingExtension))
+        {
+            name = name.substring(0, name.length() - MatchReplayer.RecordingExtension.length());
+        }
+
+        return new File(directory, name + ".csv");
+    }
+}
@@ -0,0 +1,565 @@
+package org.usfirst.frc.team1318.robot.replay;
+
+import org.usfirst.frc.team1318.robot.common.wpilib.IAnalogInput;
+import org.usfirst.frc.team1318.robot.common.wpilib.ICompressor;
+import org.usfirst.frc.team1318.robot.common.wpilib.IDigitalInput;
+import org.usfirst.frc.team1318.robot.common.wpilib.IDoubleSolenoid;
+import org.usfirst.frc.team1318.robot.common.wpilib.IDriverStation;
+import org.usfirst.frc.team1318.robot.common.wpilib.IEncoder;
+import org.usfirst.frc.team1318.robot.common.wpilib.IJoystick;
+import org.usfirst.frc.team1318.robot.common.wpilib.IMotor;
+import org.usfirst.frc.team1318.robot.common.wpilib.INavx;
+import org.usfirst.frc.team1318.robot.common.wpilib.IPowerDistributionPanel;
+import org.usfirst.frc.team1318.robot.common.wpilib.IRelay;
+import org.usfirst.frc.team1318.robot.common.wpilib.IServo;
+import org.usfirst.frc.team1318.robot.common.wpilib.ISolenoid;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITalonSRX;
+import org.usfirst.frc.team1318.robot.common.wpilib.IVictorSPX;
+import org.usfirst.frc.team1318.robot.common.wpilib.IWpilibProvider;
+import org.usfirst.frc.team1318.robot.common.wpilib.RelayDirection;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXControlMode;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXFeedbackDevice;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXLimitSwitchStatus;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXNeutralMode;
+
+/**
+ * Provider that wraps the sensors from another provider so that every value read from them is recorded by the
+ * MatchRecorder.  Actuators are passed through unchanged, as are the joysticks (the operation states that they
+ * produce are recorded by the MatchRecorder instead).
+ *
+ * Channels are named after the device and the value that was read, using the same names as the ReplayWpilibProvider
+ * (e.g. "talon.3.position", "digital.4", "navx.angle").
+ *
+ */
+public class RecordingWpilibProvider implements IWpilibProvider
+{
+    private static final int PdpChannelCount = 16;
+
+    private final IWpilibProvider provider;
+    private final MatchRecorder recorder;
+
+    /**
+     * Initializes a new RecordingWpilibProvider
+     * @param provider to get the devices from
+     * @param recorder to record the sensor values into
+     */
+    public RecordingWpilibProvider(IWpilibProvider provider, MatchRecorder recorder)
+    {
+        this.provider = provider;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public IAnalogInput getAnalogInput(int channel)
+    {
+        return new RecordingAnalogInput(this.provider.getAnalogInput(channel), this.recorder, "analog." + channel);
+    }
+
+    @Override
+    public ITalonSRX getTalonSRX(int deviceNumber)
+    {
+        return new RecordingTalonSRX(this.provider.getTalonSRX(deviceNumber), this.recorder, "talon." + deviceNumber);
+    }
+
+    @Override
+    public IVictorSPX getVictorSPX(int deviceNumber)
+    {
+        return this.provider.getVictorSPX(deviceNumber);
+    }
+
+    @Override
+    public ICompressor getCompressor()
+    {
+        return this.provider.getCompressor();
+    }
+
+    @Override
+    public ICompressor getCompressor(int module)
+    {
+        return this.provider.getCompressor(module);
+    }
+
+    @Override
+    public IDigitalInput getDigitalInput(int channel)
+    {
+        return new RecordingDigitalInput(this.provider.getDigitalInput(channel), this.recorder, "digital." + channel);
+    }
+
+    @Override
+    public IDoubleSolenoid getDoubleSolenoid(int forwardChannel, int reverseChannel)
+    {
+        return this.provider.getDoubleSolenoid(forwardChannel, reverseChannel);
+    }
+
+    @Override
+    public IDoubleSolenoid getDoubleSolenoid(int module, int forwardChannel, int reverseChannel)
+    {
+        return this.provider.getDoubleSolenoid(module, forwardChannel, reverseChannel);
+    }
+
+    @Override
+    public IEncoder getEncoder(int channelA, int channelB)
+    {
+        return new RecordingEncoder(
+            this.provider.getEncoder(channelA, channelB),
+            this.recorder,
+            "encoder." + channelA + "." + channelB);
+    }
+
+    @Override
+    public IJoystick getJoystick(int port)
+    {
+        return this.provider.getJoystick(port);
+    }
+
+    @Override
+    public IMotor getTalon(int channel)
+    {
+        return this.provider.getTalon(channel);
+    }
+
+    @Override
+    public IMotor getVictor(int channel)
+    {
+        return this.provider.getVictor(channel);
+    }
+
+    @Override
+    public IServo getServo(int channel)
+    {
+        return this.provider.getServo(channel);
+    }
+
+    @Override
+    public IPowerDistributionPanel getPDP()
+    {
+        return new RecordingPowerDistributionPanel(this.provider.getPDP(), this.recorder, "pdp");
+    }
+
+    @Override
+    public IPowerDistributionPanel getPDP(int module)
+    {
+        return new RecordingPowerDistributionPanel(this.provider.getPDP(module), this.recorder, "pdp." + module);
+    }
+
+    @Override
+    public IRelay getRelay(int channel)
+    {
+        return this.provider.getRelay(channel);
+    }
+
+    @Override
+    public IRelay getRelay(int channel, RelayDirection direction)
+    {
+        return this.provider.getRelay(channel, direction);
+    }
+
+    @Override
+    public ISolenoid getSolenoid(int channel)
+    {
+        return this.provider.getSolenoid(channel);
+    }
+
+    @Override
+    public ISolenoid getSolenoid(int module, int channel)
+    {
+        return this.provider.getSolenoid(module, channel);
+    }
+
+    @Override
+    public INavx getNavx()
+    {
+        return new RecordingNavx(this.provider.getNavx(), this.recorder, "navx");
+    }
+
+    @Override
+    public IDriverStation getDriverStation()
+    {
+        return new RecordingDriverStation(this.provider.getDriverStation(), this.recorder, "ds");
+    }
+
+    private static class RecordingAnalogInput implements IAnalogInput
+    {
+        private final IAnalogInput analogInput;
+        private final MatchRecorder recorder;
+        private final int voltageChannel;
+
+        RecordingAnalogInput(IAnalogInput analogInput, MatchRecorder recorder, String name)
+        {
+            this.analogInput = analogInput;
+            this.recorder = recorder;
+            this.voltageChannel = recorder.registerNumberChannel(name + ".voltage");
+        }
+
+        @Override
+        public double getVoltage()
+        {
+            double voltage = this.analogInput.getVoltage();
+            this.recorder.recordNumber(this.voltageChannel, voltage);
+            return voltage;
+        }
+    }
+
+    private static class RecordingDigitalInput implements IDigitalInput
+    {
+        private final IDigitalInput digitalInput;
+        private final MatchRecorder recorder;
+        private final int valueChannel;
+
+        RecordingDigitalInput(IDigitalInput digitalInput, MatchRecorder recorder, String name)
+        {
+            this.digitalInput = digitalInput;
+            this.recorder = recorder;
+            this.valueChannel = recorder.registerNumberChannel(name);
+        }
+
+        @Override
+        public boolean get()
+        {
+            boolean value = this.digitalInput.get();
+            this.recorder.recordNumber(this.valueChannel, value ? 1.0 : 0.0);
+            return value;
+        }
+    }
+
+    private static class RecordingEncoder implements IEncoder
+    {
+        private final IEncoder encoder;
+        private final MatchRecorder recorder;
+        private final int rateChannel;
+        private final int distanceChannel;
+        private final int countChannel;
+
+        RecordingEncoder(IEncoder encoder, MatchRecorder recorder, String name)
+        {
+            this.encoder = encoder;
+            this.recorder = recorder;
+            this.rateChannel = recorder.registerNumberChannel(name + ".rate");
+            this.distanceChannel = recorder.registerNumberChannel(name + ".distance");
+            this.countChannel = recorder.registerNumberChannel(name + ".count");
+        }
+
+        @Override
+        public double getRate()
+        {
+            double rate = this.encoder.getRate();
+            this.recorder.recordNumber(this.rateChannel, rate);
+            return rate;
+        }
+
+        @Override
+        public double getDistance()
+        {
+            double distance = this.encoder.getDistance();
+            this.recorder.recordNumber(this.distanceChannel, distance);
+            return distance;
+        }
+
+        @Override
+        public int get()
+        {
+            int count = this.encoder.get();
+            this.recorder.recordNumber(this.countChannel, count);
+            return count;
+        }
+
+        @Override
+        public void setDistancePerPulse(double distancePerPulse)
+        {
+            this.encoder.setDistancePerPulse(distancePerPulse);
+        }
+
+        @Override
+        public void reset()
+        {
+            this.encoder.reset();
+        }
+    }
+
+    private static class RecordingPowerDistributionPanel implements IPowerDistributionPanel
+    {
+        private final IPowerDistributionPanel pdp;
+        private final MatchRecorder recorder;
+        private final int batteryVoltageChannel;
+        private final int[] currentChannels;
+
+        RecordingPowerDistributionPanel(IPowerDistributionPanel pdp, MatchRecorder recorder, String name)
+        {
+            this.pdp = pdp;
+            this.recorder = recorder;
+            this.batteryVoltageChannel = recorder.registerNumberChannel(name + ".voltage");
+            this.currentChannels = new int[RecordingWpilibProvider.PdpChannelCount];
+            for (int i = 0; i < this.currentChannels.length; i++)
+            {
+                this.currentChannels[i] = recorder.registerNumberChannel(name + ".current." + i);
+            }
+        }
+
+        @Override
+        public double getBatteryVoltage()
+        {
+            double voltage = this.pdp.getBatteryVoltage();
+            this.recorder.recordNumber(this.batteryVoltageChannel, voltage);
+            return voltage;
+        }
+
+        @Override
+        public double getCurrent(int pdpChannel)
+        {
+            double current = this.pdp.getCurrent(pdpChannel);
+            if (pdpChannel >= 0 && pdpChannel < this.currentChannels.length)
+            {
+                this.recorder.recordNumber(this.currentChannels[pdpChannel], current);
+            }
+
+            return current;
+        }
+    }
+
+    private static class RecordingNavx implements INavx
+    {
+        private final INavx navx;
+        private final MatchRecorder recorder;
+        private final int connectedChannel;
+        private final int angleChannel;
+        private final int displacementXChannel;
+        private final int displacementYChannel;
+        private final int displacementZChannel;
+
+        RecordingNavx(INavx navx, MatchRecorder recorder, String name)
+        {
+            this.navx = navx;
+            this.recorder = recorder;
+            this.connectedChannel = recorder.registerNumberChannel(name + ".connected");
+            this.angleChannel = recorder.registerNumberChannel(name + ".angle");
+            this.displacementXChannel = recorder.registerNumberChannel(name + ".x");
+            this.displacementYChannel = recorder.registerNumberChannel(name + ".y");
+            this.displacementZChannel = recorder.registerNumberChannel(name + ".z");
+        }
+
+        @Override
+        public boolean isConnected()
+        {
+            boolean isConnected = this.navx.isConnected();
+            this.recorder.recordNumber(this.connectedChannel, isConnected ? 1.0 : 0.0);
+            return isConnected;
+        }
+
+        @Override
+        public double getAngle()
+        {
+            double angle = this.navx.getAngle();
+            this.recorder.recordNumber(this.angleChannel, angle);
+            return angle;
+        }
+
+        @Override
+        public double getDisplacementX()
+        {
+            double displacement = this.navx.getDisplacementX();
+            this.recorder.recordNumber(this.displacementXChannel, displacement);
+            return displacement;
+        }
+
+        @Override
+        public double getDisplacementY()
+        {
+            double displacement = this.navx.getDisplacementY();
+            this.recorder.recordNumber(this.displacementYChannel, displacement);
+            return displacement;
+        }
+
+        @Override
+        public double getDisplacementZ()
+        {
+            double displacement = this.navx.getDisplacementZ();
+            this.recorder.recordNumber(this.displacementZChannel, displacement);
+            return displacement;
+        }
+
+        @Override
+        public void reset()
+        {
+            this.navx.reset();
+        }
+
+        @Override
+        public void resetDisplacement()
+        {
+            this.navx.resetDisplacement();
+        }
+    }
+
+    private static class RecordingDriverStation implements IDriverStation
+    {
+        private final IDriverStation driverStation;
+        private final MatchRecorder recorder;
+        private final int gameDataChannel;
+
+        RecordingDriverStation(IDriverStation driverStation, MatchRecorder recorder, String name)
+        {
+            this.driverStation = driverStation;
+            this.recorder = recorder;
+            this.gameDataChannel = recorder.registerTextChannel(name + ".gameData");
+        }
+
+        @Override
+        public String getGameSpecificMessage()
+        {
+            String gameData = this.driverStation.getGameSpecificMessage();
+            this.recorder.recordText(this.gameDataChannel, gameData);
+            return gameData;
+        }
+    }
+
+    private static class RecordingTalonSRX implements ITalonSRX
+    {
+        private final ITalonSRX talon;
+        private final MatchRecorder recorder;
+        private final int positionChannel;
+        private final int velocityChannel;
+        private final int errorChannel;
+        private final int forwardLimitSwitchChannel;
+        private final int reverseLimitSwitchChannel;
+
+        RecordingTalonSRX(ITalonSRX talon, MatchRecorder recorder, String name)
+        {
+            this.talon = talon;
+            this.recorder = recorder;
+            this.positionChannel = recorder.registerNumberChannel(name + ".position");
+            this.velocityChannel = recorder.registerNumberChannel(name + ".velocity");
+            this.errorChannel = recorder.registerNumberChannel(name + ".error");
+            this.forwardLimitSwitchChannel = recorder.registerNumberChannel(name + ".forwardLimit");
+            this.reverseLimitSwitchChannel = recorder.registerNumberChannel(name + ".reverseLimit");
+        }
+
+        @Override
+        public void set(double value)
+        {
+            this.talon.set(value);
+        }
+
+        @Override
+        public void setControlMode(TalonSRXControlMode mode)
+        {
+            this.talon.setControlMode(mode);
+        }
+
+        @Override
+        public void setSensorType(TalonSRXFeedbackDevice feedbackDevice)
+        {
+            this.talon.setSensorType(feedbackDevice);
+        }
+
+        @Override
+        public void setSelectedSlot(int slotId)
+        {
+            this.talon.setSelectedSlot(slotId);
+        }
+
+        @Override
+        public void setPIDF(double p, double i, double d, double f, int slotId)
+        {
+            this.talon.setPIDF(p, i, d, f, slotId);
+        }
+
+        @Override
+        public void setMotionMagicPIDF(double p, double i, double d, double f, int velocity, int acceleration, int slotId)
+        {
+            this.talon.setMotionMagicPIDF(p, i, d, f, velocity, acceleration, slotId);
+        }
+
+        @Override
+        public void setPIDF(double p, double i, double d, double f, int izone, double closeLoopRampRate, int slotId)
+        {
+            this.talon.setPIDF(p, i, d, f, izone, closeLoopRampRate, slotId);
+        }
+
+        @Override
+        public void setForwardLimitSwitch(boolean enabled, boolean normallyOpen)
+        {
+            this.talon.setForwardLimitSwitch(enabled, normallyOpen);
+        }
+
+        @Override
+        public void setReverseLimitSwitch(boolean enabled, boolean normallyOpen)
+        {
+            this.talon.setReverseLimitSwitch(enabled, normallyOpen);
+        }
+
+        @Override
+        public void setInvertOutput(boolean flip)
+        {
+            this.talon.setInvertOutput(flip);
+        }
+
+        @Override
+        public void setInvertSensor(boolean flip)
+        {
+            this.talon.setInvertSensor(flip);
+        }
+
+        @Override
+        public void setNeutralMode(TalonSRXNeutralMode neutralMode)
+        {
+            this.talon.setNeutralMode(neutralMode);
+        }
+
+        @Override
+        public void setVoltageCompensation(boolean enabled, double maxVoltage)
+        {
+            this.talon.setVoltageCompensation(enabled, maxVoltage);
+        }
+
+        @Override
+        public void stop()
+        {
+            this.talon.stop();
+        }
+
+        @Override
+        public void setPosition(int position)
+        {
+            this.talon.setPosition(position);
+        }
+
+        @Override
+        public void reset()
+        {
+            this.talon.reset();
+        }
+
+        @Override
+        public int getPosition()
+        {
+            int position = this.talon.getPosition();
+            this.recorder.recordNumber(this.positionChannel, position);
+            return position;
+        }
+
+        @Override
+        public double getVelocity()
+        {
+            double velocity = this.talon.getVelocity();
+            this.recorder.recordNumber(this.velocityChannel, velocity);
+            return velocity;
+        }
+
+        @Override
+        public double getError()
+        {
+            double error = this.talon.getError();
+            this.recorder.recordNumber(this.errorChannel, error);
+            return error;
+        }
+
+        @Override
+        public TalonSRXLimitSwitchStatus getLimitSwitchStatus()
+        {
+            TalonSRXLimitSwitchStatus status = this.talon.getLimitSwitchStatus();
+            this.recorder.recordNumber(this.forwardLimitSwitchChannel, status.isForwardClosed ? 1.0 : 0.0);
+            this.recorder.recordNumber(this.reverseLimitSwitchChannel, status.isReverseClosed ? 1.0 : 0.0);
+            return status;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.usfirst.frc.team1318.robot.replay;
+
+import org.usfirst.frc.team1318.robot.driver.Operation;
+import org.usfirst.frc.team1318.robot.driver.common.Driver;
+import org.usfirst.frc.team1318.robot.driver.common.IButtonMap;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.OperationType;
+
+import com.google.inject.Injector;
+
+/**
+ * Driver for replaying a match.  Replay driver sets the state of each operation to the state that was recorded for
+ * the current frame of a MatchRecording, regardless of whether the match was in autonomous or teleop mode.
+ *
+ */
+public class ReplayDriver extends Driver
+{
+    private final MatchRecording recording;
+
+    private final Operation[] operations;
+    private final boolean[] isDigitalOperation;
+    private final String[] channelNames;
+    private final int[] channels;
+
+    /**
+     * Initializes a new ReplayDriver
+     * @param injector to use
+     * @param buttonMap describing the operations
+     * @param recording to take the operation states from
+     */
+    public ReplayDriver(Injector injector, IButtonMap buttonMap, MatchRecording recording)
+    {
+        super(injector, buttonMap);
+
+        this.recording = recording;
+
+        this.operations = this.operationStateStore.getOperations();
+        this.isDigitalOperation = new boolean[this.operations.length];
+        this.channelNames = new String[this.operations.length];
+        this.channels = new int[this.operations.length];
+        for (int i = 0; i < this.operations.length; i++)
+        {
+            Operation operation = this.operations[i];
+            this.isDigitalOperation[i] = buttonMap.getOperationSchema().get(operation).getType() == OperationType.Digital;
+            this.channelNames[i] = MatchRecorder.OperationChannelPrefix + operation.name();
+            this.channels[i] = -1;
+
+            this.operationStateStore.setIsInterrupted(operation, true);
+        }
+    }
+
+    /**
+     * Tell the driver that some time has passed
+     */
+    @Override
+    public void update()
+    {
+        for (int i = 0; i < this.operations.length; i++)
+        {
+            if (this.channels[i] < 0)
+            {
+                this.channels[i] = this.recording.getChannel(this.channelNames[i]);
+            }
+
+            // operations that weren't recorded (e.g. added since the match) stay in their default state
+            double value = this.recording.getNumber(this.channels[i]);
+            if (Double.isNaN(value))
+            {
+                continue;
+            }
+
+            if (this.isDigitalOperation[i])
+            {
+                this.operationStateStore.setDigitalInterruptState(this.operations[i], value == 1.0);
+            }
+            else
+            {
+                this.operationStateStore.setAnalogInterruptState(this.operations[i], value);
+            }
+        }
+    }
+
+    /**
+     * Tell the driver that operation is stopping
+     */
+    @Override
+    public void stop()
+    {
+    }
+}
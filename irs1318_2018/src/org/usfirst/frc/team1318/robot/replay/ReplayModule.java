@@ -0,0 +1,80 @@
+package org.usfirst.frc.team1318.robot.replay;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Singleton;
+
+import org.usfirst.frc.team1318.robot.TuningConstants;
+import org.usfirst.frc.team1318.robot.climber.ClimberMechanism;
+import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
+import org.usfirst.frc.team1318.robot.common.IMechanism;
+import org.usfirst.frc.team1318.robot.common.MechanismManager;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+import org.usfirst.frc.team1318.robot.common.wpilib.IWpilibProvider;
+import org.usfirst.frc.team1318.robot.compressor.CompressorMechanism;
+import org.usfirst.frc.team1318.robot.driver.ButtonMap;
+import org.usfirst.frc.team1318.robot.driver.common.IButtonMap;
+import org.usfirst.frc.team1318.robot.drivetrain.DriveTrainMechanism;
+import org.usfirst.frc.team1318.robot.elevator.ElevatorMechanism;
+import org.usfirst.frc.team1318.robot.general.PositionManager;
+import org.usfirst.frc.team1318.robot.paths.PathManager;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
+import com.google.inject.Provides;
+
+/**
+ * Module for replaying a match, wired the same way as the RobotModule except that the electronics and timer play
+ * back a MatchRecording.
+ *
+ */
+public class ReplayModule extends AbstractModule
+{
+    private final ReplayWpilibProvider provider;
+    private final ReplayTimer timer;
+    private final IDashboardLogger logger;
+
+    /**
+     * Initializes a new ReplayModule
+     * @param provider of the replayed electronics
+     * @param timer returning the recorded time
+     * @param logger to use
+     */
+    public ReplayModule(ReplayWpilibProvider provider, ReplayTimer timer, IDashboardLogger logger)
+    {
+        this.provider = provider;
+        this.timer = timer;
+        this.logger = logger;
+    }
+
+    @Override
+    protected void configure()
+    {
+        this.bind(IWpilibProvider.class).toInstance(this.provider);
+        this.bind(ITimer.class).toInstance(this.timer);
+        this.bind(IButtonMap.class).to(ButtonMap.class);
+        this.bind(IDashboardLogger.class).toInstance(this.logger);
+    }
+
+    @Singleton
+    @Provides
+    public MechanismManager getMechanismManager(Injector injector)
+    {
+        List<IMechanism> mechanismList = new ArrayList<>();
+        mechanismList.add(injector.getInstance(DriveTrainMechanism.class));
+        mechanismList.add(injector.getInstance(PositionManager.class));
+        mechanismList.add(injector.getInstance(CompressorMechanism.class));
+        mechanismList.add(injector.getInstance(ElevatorMechanism.class));
+        mechanismList.add(injector.getInstance(ClimberMechanism.class));
+        return new MechanismManager(mechanismList);
+    }
+
+    @Singleton
+    @Provides
+    public PathManager getPathManager()
+    {
+        // never use the robot's trajectory cache file, as replays may run in parallel (and not on the robot)
+        return new PathManager(TuningConstants.DRIVETRAIN_USE_PATHS, null, this.logger);
+    }
+}
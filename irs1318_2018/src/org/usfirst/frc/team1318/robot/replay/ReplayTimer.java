@@ -0,0 +1,43 @@
+package org.usfirst.frc.team1318.robot.replay;
+
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+
+/**
+ * Timer that returns the time recorded for the current frame of a MatchRecording, so that everything that uses the
+ * timer during a replay sees the same time as it did during the match.
+ *
+ */
+public class ReplayTimer implements ITimer
+{
+    private final MatchRecording recording;
+
+    /**
+     * Initializes a new ReplayTimer
+     * @param recording to take the time from
+     */
+    public ReplayTimer(MatchRecording recording)
+    {
+        this.recording = recording;
+    }
+
+    @Override
+    public void start()
+    {
+    }
+
+    @Override
+    public void stop()
+    {
+    }
+
+    @Override
+    public double get()
+    {
+        return this.recording.getTime();
+    }
+
+    @Override
+    public void reset()
+    {
+    }
+}
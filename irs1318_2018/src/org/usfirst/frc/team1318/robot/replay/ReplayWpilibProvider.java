@@ -0,0 +1,633 @@
+package org.usfirst.frc.team1318.robot.replay;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.usfirst.frc.team1318.robot.common.wpilib.IAnalogInput;
+import org.usfirst.frc.team1318.robot.common.wpilib.ICompressor;
+import org.usfirst.frc.team1318.robot.common.wpilib.IDigitalInput;
+import org.usfirst.frc.team1318.robot.common.wpilib.IDoubleSolenoid;
+import org.usfirst.frc.team1318.robot.common.wpilib.IDriverStation;
+import org.usfirst.frc.team1318.robot.common.wpilib.IEncoder;
+import org.usfirst.frc.team1318.robot.common.wpilib.IJoystick;
+import org.usfirst.frc.team1318.robot.common.wpilib.IMotor;
+import org.usfirst.frc.team1318.robot.common.wpilib.INavx;
+import org.usfirst.frc.team1318.robot.common.wpilib.IPowerDistributionPanel;
+import org.usfirst.frc.team1318.robot.common.wpilib.IRelay;
+import org.usfirst.frc.team1318.robot.common.wpilib.IServo;
+import org.usfirst.frc.team1318.robot.common.wpilib.ISolenoid;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITalonSRX;
+import org.usfirst.frc.team1318.robot.common.wpilib.IVictorSPX;
+import org.usfirst.frc.team1318.robot.common.wpilib.IWpilibProvider;
+import org.usfirst.frc.team1318.robot.common.wpilib.RelayDirection;
+import org.usfirst.frc.team1318.robot.common.wpilib.RelayValue;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXControlMode;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXFeedbackDevice;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXLimitSwitchStatus;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXNeutralMode;
+
+import edu.wpi.first.wpilibj.Joystick.AxisType;
+
+/**
+ * Provider of devices that play back the sensor values from a MatchRecording (using the same channel names as the
+ * RecordingWpilibProvider), and that keep track of the values set on each actuator so that the outputs of a replay
+ * can be compared with the outputs of another replay (e.g. before and after a change to the mechanisms).
+ *
+ * Configuration of the devices (PIDF gains, limit switches, inversion, etc.) is ignored.
+ *
+ */
+public class ReplayWpilibProvider implements IWpilibProvider
+{
+    private static final TalonSRXLimitSwitchStatus NeitherClosed = new TalonSRXLimitSwitchStatus(false, false);
+    private static final TalonSRXLimitSwitchStatus ForwardClosed = new TalonSRXLimitSwitchStatus(true, false);
+    private static final TalonSRXLimitSwitchStatus ReverseClosed = new TalonSRXLimitSwitchStatus(false, true);
+    private static final TalonSRXLimitSwitchStatus BothClosed = new TalonSRXLimitSwitchStatus(true, true);
+
+    private final MatchRecording recording;
+
+    private final List<String> outputNames;
+    private double[] outputValues;
+
+    /**
+     * Initializes a new ReplayWpilibProvider
+     * @param recording to play back sensor values from
+     */
+    public ReplayWpilibProvider(MatchRecording recording)
+    {
+        this.recording = recording;
+
+        this.outputNames = new ArrayList<String>();
+        this.outputValues = new double[0];
+    }
+
+    /**
+     * Retrieve the names of the outputs of the actuators that have been created, in the order they were created
+     * @return the names of the outputs
+     */
+    public List<String> getOutputNames()
+    {
+        return this.outputNames;
+    }
+
+    /**
+     * Retrieve the current value of an output
+     * @param output to retrieve (index into getOutputNames())
+     * @return the last value set for the output, or NaN if nothing has been set
+     */
+    public double getOutputValue(int output)
+    {
+        return this.outputValues[output];
+    }
+
+    @Override
+    public IAnalogInput getAnalogInput(int channel)
+    {
+        ReplayChannel voltage = new ReplayChannel("analog." + channel + ".voltage");
+        return () -> voltage.getNumber();
+    }
+
+    @Override
+    public ITalonSRX getTalonSRX(int deviceNumber)
+    {
+        return new ReplayTalonSRX("talon." + deviceNumber);
+    }
+
+    @Override
+    public IVictorSPX getVictorSPX(int deviceNumber)
+    {
+        return new ReplayVictorSPX("victorspx." + deviceNumber);
+    }
+
+    @Override
+    public ICompressor getCompressor()
+    {
+        return new ReplayCompressor();
+    }
+
+    @Override
+    public ICompressor getCompressor(int module)
+    {
+        return new ReplayCompressor();
+    }
+
+    @Override
+    public IDigitalInput getDigitalInput(int channel)
+    {
+        ReplayChannel value = new ReplayChannel("digital." + channel);
+        return () -> value.getBoolean();
+    }
+
+    @Override
+    public IDoubleSolenoid getDoubleSolenoid(int forwardChannel, int reverseChannel)
+    {
+        int output = this.registerOutput("doubleSolenoid." + forwardChannel + "." + reverseChannel);
+        return value -> this.setOutput(output, value.ordinal());
+    }
+
+    @Override
+    public IDoubleSolenoid getDoubleSolenoid(int module, int forwardChannel, int reverseChannel)
+    {
+        int output = this.registerOutput("doubleSolenoid." + module + "." + forwardChannel + "." + reverseChannel);
+        return value -> this.setOutput(output, value.ordinal());
+    }
+
+    @Override
+    public IEncoder getEncoder(int channelA, int channelB)
+    {
+        return new ReplayEncoder("encoder." + channelA + "." + channelB);
+    }
+
+    @Override
+    public IJoystick getJoystick(int port)
+    {
+        return new ReplayJoystick();
+    }
+
+    @Override
+    public IMotor getTalon(int channel)
+    {
+        int output = this.registerOutput("pwm." + channel);
+        return power -> this.setOutput(output, power);
+    }
+
+    @Override
+    public IMotor getVictor(int channel)
+    {
+        int output = this.registerOutput("pwm." + channel);
+        return power -> this.setOutput(output, power);
+    }
+
+    @Override
+    public IServo getServo(int channel)
+    {
+        int output = this.registerOutput("servo." + channel);
+        return value -> this.setOutput(output, value);
+    }
+
+    @Override
+    public IPowerDistributionPanel getPDP()
+    {
+        return new ReplayPowerDistributionPanel("pdp");
+    }
+
+    @Override
+    public IPowerDistributionPanel getPDP(int module)
+    {
+        return new ReplayPowerDistributionPanel("pdp." + module);
+    }
+
+    @Override
+    public IRelay getRelay(int channel)
+    {
+        return new ReplayRelay("relay." + channel);
+    }
+
+    @Override
+    public IRelay getRelay(int channel, RelayDirection direction)
+    {
+        return new ReplayRelay("relay." + channel);
+    }
+
+    @Override
+    public ISolenoid getSolenoid(int channel)
+    {
+        int output = this.registerOutput("solenoid." + channel);
+        return on -> this.setOutput(output, on ? 1.0 : 0.0);
+    }
+
+    @Override
+    public ISolenoid getSolenoid(int module, int channel)
+    {
+        int output = this.registerOutput("solenoid." + module + "." + channel);
+        return on -> this.setOutput(output, on ? 1.0 : 0.0);
+    }
+
+    @Override
+    public INavx getNavx()
+    {
+        return new ReplayNavx("navx");
+    }
+
+    @Override
+    public IDriverStation getDriverStation()
+    {
+        ReplayChannel gameData = new ReplayChannel("ds.gameData");
+        return () -> gameData.getText();
+    }
+
+    /**
+     * Register an actuator output to keep track of
+     * @param name of the output
+     * @return the index of the output
+     */
+    private int registerOutput(String name)
+    {
+        int output = this.outputNames.size();
+        this.outputNames.add(name);
+
+        double[] newOutputValues = new double[output + 1];
+        System.arraycopy(this.outputValues, 0, newOutputValues, 0, output);
+        newOutputValues[output] = Double.NaN;
+        this.outputValues = newOutputValues;
+
+        return output;
+    }
+
+    /**
+     * Set the value of an actuator output
+     * @param output to set
+     * @param value to set
+     */
+    private void setOutput(int output, double value)
+    {
+        this.outputValues[output] = value;
+    }
+
+    /**
+     * Channel of the recording, looked up by name the first time it is available
+     */
+    private class ReplayChannel
+    {
+        private final String name;
+        private int channel;
+
+        ReplayChannel(String name)
+        {
+            this.name = name;
+            this.channel = -1;
+        }
+
+        double getNumber()
+        {
+            return ReplayWpilibProvider.this.recording.getNumber(this.getChannel());
+        }
+
+        boolean getBoolean()
+        {
+            return this.getNumber() == 1.0;
+        }
+
+        String getText()
+        {
+            return ReplayWpilibProvider.this.recording.getText(this.getChannel());
+        }
+
+        private int getChannel()
+        {
+            if (this.channel < 0)
+            {
+                this.channel = ReplayWpilibProvider.this.recording.getChannel(this.name);
+            }
+
+            return this.channel;
+        }
+    }
+
+    private class ReplayTalonSRX implements ITalonSRX
+    {
+        private final ReplayChannel position;
+        private final ReplayChannel velocity;
+        private final ReplayChannel error;
+        private final ReplayChannel forwardLimitSwitch;
+        private final ReplayChannel reverseLimitSwitch;
+        private final int valueOutput;
+        private final int modeOutput;
+
+        ReplayTalonSRX(String name)
+        {
+            this.position = new ReplayChannel(name + ".position");
+            this.velocity = new ReplayChannel(name + ".velocity");
+            this.error = new ReplayChannel(name + ".error");
+            this.forwardLimitSwitch = new ReplayChannel(name + ".forwardLimit");
+            this.reverseLimitSwitch = new ReplayChannel(name + ".reverseLimit");
+            this.valueOutput = ReplayWpilibProvider.this.registerOutput(name);
+            this.modeOutput = ReplayWpilibProvider.this.registerOutput(name + ".mode");
+        }
+
+        @Override
+        public void set(double value)
+        {
+            ReplayWpilibProvider.this.setOutput(this.valueOutput, value);
+        }
+
+        @Override
+        public void setControlMode(TalonSRXControlMode mode)
+        {
+            ReplayWpilibProvider.this.setOutput(this.modeOutput, mode.ordinal());
+        }
+
+        @Override
+        public void setSensorType(TalonSRXFeedbackDevice feedbackDevice)
+        {
+        }
+
+        @Override
+        public void setSelectedSlot(int slotId)
+        {
+        }
+
+        @Override
+        public void setPIDF(double p, double i, double d, double f, int slotId)
+        {
+        }
+
+        @Override
+        public void setMotionMagicPIDF(double p, double i, double d, double f, int velocity, int acceleration, int slotId)
+        {
+        }
+
+        @Override
+        public void setPIDF(double p, double i, double d, double f, int izone, double closeLoopRampRate, int slotId)
+        {
+        }
+
+        @Override
+        public void setForwardLimitSwitch(boolean enabled, boolean normallyOpen)
+        {
+        }
+
+        @Override
+        public void setReverseLimitSwitch(boolean enabled, boolean normallyOpen)
+        {
+        }
+
+        @Override
+        public void setInvertOutput(boolean flip)
+        {
+        }
+
+        @Override
+        public void setInvertSensor(boolean flip)
+        {
+        }
+
+        @Override
+        public void setNeutralMode(TalonSRXNeutralMode neutralMode)
+        {
+        }
+
+        @Override
+        public void setVoltageCompensation(boolean enabled, double maxVoltage)
+        {
+        }
+
+        @Override
+        public void stop()
+        {
+            ReplayWpilibProvider.this.setOutput(this.valueOutput, 0.0);
+        }
+
+        @Override
+        public void setPosition(int position)
+        {
+        }
+
+        @Override
+        public void reset()
+        {
+        }
+
+        @Override
+        public int getPosition()
+        {
+            return (int)this.position.getNumber();
+        }
+
+        @Override
+        public double getVelocity()
+        {
+            return this.velocity.getNumber();
+        }
+
+        @Override
+        public double getError()
+        {
+            return this.error.getNumber();
+        }
+
+        @Override
+        public TalonSRXLimitSwitchStatus getLimitSwitchStatus()
+        {
+            if (this.forwardLimitSwitch.getBoolean())
+            {
+                return this.reverseLimitSwitch.getBoolean() ? ReplayWpilibProvider.BothClosed : ReplayWpilibProvider.ForwardClosed;
+            }
+
+            return this.reverseLimitSwitch.getBoolean() ? ReplayWpilibProvider.ReverseClosed : ReplayWpilibProvider.NeitherClosed;
+        }
+    }
+
+    private class ReplayVictorSPX implements IVictorSPX
+    {
+        private final int valueOutput;
+        private final int modeOutput;
+
+        ReplayVictorSPX(String name)
+        {
+            this.valueOutput = ReplayWpilibProvider.this.registerOutput(name);
+            this.modeOutput = ReplayWpilibProvider.this.registerOutput(name + ".mode");
+        }
+
+        @Override
+        public void set(double power)
+        {
+            ReplayWpilibProvider.this.setOutput(this.valueOutput, power);
+        }
+
+        @Override
+        public void setInvertOutput(boolean flip)
+        {
+        }
+
+        @Override
+        public void setInvertSensor(boolean flip)
+        {
+        }
+
+        @Override
+        public void setControlMode(TalonSRXControlMode mode)
+        {
+            ReplayWpilibProvider.this.setOutput(this.modeOutput, mode.ordinal());
+        }
+    }
+
+    private class ReplayEncoder implements IEncoder
+    {
+        private final ReplayChannel rate;
+        private final ReplayChannel distance;
+        private final ReplayChannel count;
+
+        ReplayEncoder(String name)
+        {
+            this.rate = new ReplayChannel(name + ".rate");
+            this.distance = new ReplayChannel(name + ".distance");
+            this.count = new ReplayChannel(name + ".count");
+        }
+
+        @Override
+        public double getRate()
+        {
+            return this.rate.getNumber();
+        }
+
+        @Override
+        public double getDistance()
+        {
+            return this.distance.getNumber();
+        }
+
+        @Override
+        public int get()
+        {
+            return (int)this.count.getNumber();
+        }
+
+        @Override
+        public void setDistancePerPulse(double distancePerPulse)
+        {
+        }
+
+        @Override
+        public void reset()
+        {
+        }
+    }
+
+    private class ReplayPowerDistributionPanel implements IPowerDistributionPanel
+    {
+        private final String name;
+        private final ReplayChannel batteryVoltage;
+
+        ReplayPowerDistributionPanel(String name)
+        {
+            this.name = name;
+            this.batteryVoltage = new ReplayChannel(name + ".voltage");
+        }
+
+        @Override
+        public double getBatteryVoltage()
+        {
+            return this.batteryVoltage.getNumber();
+        }
+
+        @Override
+        public double getCurrent(int pdpChannel)
+        {
+            MatchRecording recording = ReplayWpilibProvider.this.recording;
+            return recording.getNumber(recording.getChannel(this.name + ".current." + pdpChannel));
+        }
+    }
+
+    private class ReplayNavx implements INavx
+    {
+        private final ReplayChannel connected;
+        private final ReplayChannel angle;
+        private final ReplayChannel displacementX;
+        private final ReplayChannel displacementY;
+        private final ReplayChannel displacementZ;
+
+        ReplayNavx(String name)
+        {
+            this.connected = new ReplayChannel(name + ".connected");
+            this.angle = new ReplayChannel(name + ".angle");
+            this.displacementX = new ReplayChannel(name + ".x");
+            this.displacementY = new ReplayChannel(name + ".y");
+            this.displacementZ = new ReplayChannel(name + ".z");
+        }
+
+        @Override
+        public boolean isConnected()
+        {
+            return this.connected.getBoolean();
+        }
+
+        @Override
+        public double getAngle()
+        {
+            return this.angle.getNumber();
+        }
+
+        @Override
+        public double getDisplacementX()
+        {
+            return this.displacementX.getNumber();
+        }
+
+        @Override
+        public double getDisplacementY()
+        {
+            return this.displacementY.getNumber();
+        }
+
+        @Override
+        public double getDisplacementZ()
+        {
+            return this.displacementZ.getNumber();
+        }
+
+        @Override
+        public void reset()
+        {
+        }
+
+        @Override
+        public void resetDisplacement()
+        {
+        }
+    }
+
+    private class ReplayRelay implements IRelay
+    {
+        private final int output;
+
+        ReplayRelay(String name)
+        {
+            this.output = ReplayWpilibProvider.this.registerOutput(name);
+        }
+
+        @Override
+        public void set(RelayValue value)
+        {
+            ReplayWpilibProvider.this.setOutput(this.output, value.ordinal());
+        }
+
+        @Override
+        public void setDirection(RelayDirection direction)
+        {
+        }
+    }
+
+    private static class ReplayCompressor implements ICompressor
+    {
+        @Override
+        public void start()
+        {
+        }
+
+        @Override
+        public void stop()
+        {
+        }
+    }
+
+    private static class ReplayJoystick implements IJoystick
+    {
+        @Override
+        public double getAxis(AxisType relevantAxis)
+        {
+            return 0.0;
+        }
+
+        @Override
+        public int getPOV()
+        {
+            return -1;
+        }
+
+        @Override
+        public boolean getRawButton(int value)
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates the autonomous routines chosen by the AutonomousRoutineSelector for every combination of dip switches
+ * (which include the starting position) and game data, by running each one in the RobotSimulator.  The runs are
+ * independent, so they are spread across all of the computer's cores.
+ *
+ * For each combination, the report includes whether the routine completed within autonomous mode, how long it took,
+ * the final pose of the robot, the number of cubes placed, and how long each task within the routine took.  Results
+ * can be saved as CSV and compared against an earlier run, listing the combinations that got slower (by more than a
+ * tolerance), stopped completing, or placed fewer cubes.
+ *
+ * Usage: AutonomousRoutineEvaluator [results.csv [baseline.csv [tolerance]]]
+ *
+ */
+public class AutonomousRoutineEvaluator
+{
+    private static final String[] GameData = new String[] { "LLL", "LLR", "LRL", "LRR", "RLL", "RLR", "RRL", "RRR" };
+    private static final String[] PositionNames = new String[] { "Center", "Left", "Right", "Special" };
+    private static final double DefaultTolerance = 0.1; // in seconds
+
+    private final RobotSimulator simulator;
+    private final int threadCount;
+
+    /**
+     * Initializes a new AutonomousRoutineEvaluator
+     * @param simulator to run the routines with
+     * @param threadCount the number of routines to run at once
+     */
+    public AutonomousRoutineEvaluator(RobotSimulator simulator, int threadCount)
+    {
+        this.simulator = simulator;
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Evaluate all of the autonomous routines
+     * @param args optionally where to save the results, results to compare with, and the time tolerance for comparing
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException
+    {
+        if (args.length > 3)
+        {
+            System.err.println("Usage: AutonomousRoutineEvaluator [results.csv [baseline.csv [tolerance]]]");
+            return;
+        }
+
+        AutonomousRoutineEvaluator evaluator = new AutonomousRoutineEvaluator(
+            new RobotSimulator(),
+            Runtime.getRuntime().availableProcessors());
+
+        long startTime = System.nanoTime();
+        List<SimulationResult> results = evaluator.evaluateAll();
+        double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+
+        AutonomousRoutineEvaluator.printReport(results, System.out);
+        System.out.println(
+            String.format(
+                "%d routines in %.2fs on %d threads (%.0f routines per minute)",
+                results.size(),
+                elapsedSeconds,
+                evaluator.threadCount,
+                results.size() * 60.0 / elapsedSeconds));
+
+        if (args.length > 0)
+        {
+            AutonomousRoutineEvaluator.writeResults(results, args[0]);
+            System.out.println("Wrote results to " + args[0]);
+        }
+
+        if (args.length > 1)
+        {
+            double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : AutonomousRoutineEvaluator.DefaultTolerance;
+            int regressions = AutonomousRoutineEvaluator.compareResults(results, args[1], tolerance, System.out);
+            System.out.println(String.format("%d routines regressed compared to %s", regressions, args[1]));
+        }
+    }
+
+    /**
+     * Run the routine for every combination of dip switches and game data
+     * @return the results, ordered by dip switches and then game data
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    public List<SimulationResult> evaluateAll() throws InterruptedException, ExecutionException
+    {
+        List<Integer> dipSwitches = new ArrayList<Integer>();
+        for (int i = 0; i < (1 << RobotSimulator.DipSwitchCount); i++)
+        {
+            dipSwitches.add(i);
+        }
+
+        List<String> gameData = new ArrayList<String>();
+        for (String data : AutonomousRoutineEvaluator.GameData)
+        {
+            gameData.add(data);
+        }
+
+        return this.evaluate(dipSwitches, gameData);
+    }
+
+    /**
+     * Run the routine for every combination of the provided dip switches and game data
+     * @param dipSwitches settings to run (bit 0 set if switch A is flipped, bit 1 for B, etc.)
+     * @param gameData to run (e.g. "LRL")
+     * @return the results, ordered by dip switches and then game data
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    public List<SimulationResult> evaluate(List<Integer> dipSwitches, List<String> gameData)
+        throws InterruptedException, ExecutionException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(this.threadCount);
+        try
+        {
+            List<Future<SimulationResult>> futures = new ArrayList<Future<SimulationResult>>();
+            for (int switches : dipSwitches)
+            {
+                for (String data : gameData)
+                {
+                    futures.add(executor.submit(() -> this.simulator.runAutonomous(data, switches)));
+                }
+            }
+
+            List<SimulationResult> results = new ArrayList<SimulationResult>(futures.size());
+            for (Future<SimulationResult> future : futures)
+            {
+                results.add(future.get());
+            }
+
+            return results;
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Print a table of routine results, followed by the task breakdown of the slowest routine that completed
+     * @param results to print
+     * @param out to print to
+     */
+    public static void printReport(List<SimulationResult> results, PrintStream out)
+    {
+        out.println(
+            String.format(
+                "%-8s %-5s %-8s %-9s %7s %8s %8s %8s %6s",
+                "position", "game", "switches", "status", "time", "x", "y", "heading", "cubes"));
+
+        SimulationResult slowest = null;
+        int completedCount = 0;
+        for (SimulationResult result : results)
+        {
+            out.println(
+                String.format(
+                    "%-8s %-5s %-8s %-9s %7.2f %8.1f %8.1f %8.1f %6d",
+                    AutonomousRoutineEvaluator.getPositionName(result.getDipSwitches()),
+                    result.getGameData(),
+                    RobotSimulator.formatDipSwitches(result.getDipSwitches()),
+                    result.getCompleted() ? "completed" : "timed out",
+                    result.getTime(),
+                    result.getX(),
+                    result.getY(),
+                    result.getHeading(),
+                    result.getCubesPlaced()));
+
+            if (result.getCompleted())
+            {
+                completedCount++;
+                if (slowest == null || result.getTime() > slowest.getTime())
+                {
+                    slowest = result;
+                }
+            }
+        }
+
+        out.println(String.format("%d of %d routines completed within autonomous mode", completedCount, results.size()));
+        if (slowest != null)
+        {
+            out.println("Slowest completed routine: " + slowest);
+            AutonomousRoutineEvaluator.printTaskTimings(slowest, out);
+        }
+    }
+
+    /**
+     * Print how long each task within a routine took, indented by how deeply the task is nested
+     * @param result of the routine
+     * @param out to print to
+     */
+    public static void printTaskTimings(SimulationResult result, PrintStream out)
+    {
+        for (TaskTiming timing : result.getTaskTimings())
+        {
+            StringBuilder indent = new StringBuilder();
+            for (int i = 0; i < timing.getDepth(); i++)
+            {
+                indent.append("  ");
+            }
+
+            out.println(
+                String.format(
+                    "%7.2f %7.2fs %s%s",
+                    timing.getBeginTime(),
+                    timing.getDuration(),
+                    indent,
+                    timing.getName()));
+        }
+    }
+
+    /**
+     * Save routine results as CSV
+     * @param results to save
+     * @param fileName to write to
+     * @throws IOException
+     */
+    public static void writeResults(List<SimulationResult> results, String fileName) throws IOException
+    {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName)))
+        {
+            writer.append("game_data,dip_switches,completed,time,x,y,heading,distance,cubes_placed,task_durations");
+            writer.newLine();
+            for (SimulationResult result : results)
+            {
+                // task durations are written as name=duration, separated by semicolons, with nested tasks prefixed by '>'
+                StringBuilder tasks = new StringBuilder();
+                for (TaskTiming timing : result.getTaskTimings())
+                {
+                    if (tasks.length() > 0)
+                    {
+                        tasks.append(';');
+                    }
+
+                    for (int i = 1; i < timing.getDepth(); i++)
+                    {
+                        tasks.append('>');
+                    }
+
+                    tasks.append(timing.getName()).append('=').append(String.format("%.3f", timing.getDuration()));
+                }
+
+                writer.append(
+                    String.format(
+                        "%s,%s,%b,%f,%f,%f,%f,%f,%d,%s",
+                        result.getGameData(),
+                        RobotSimulator.formatDipSwitches(result.getDipSwitches()),
+                        result.getCompleted(),
+                        result.getTime(),
+                        result.getX(),
+                        result.getY(),
+                        result.getHeading(),
+                        result.getDistanceTraveled(),
+                        result.getCubesPlaced(),
+                        tasks));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Compare routine results against results saved from an earlier run, printing the routines that regressed
+     * @param results to compare
+     * @param baselineFileName containing the earlier results
+     * @param tolerance how much slower a routine can get before it counts as a regression (in seconds)
+     * @param out to print the regressions to
+     * @return the number of routines that regressed
+     * @throws IOException
+     */
+    public static int compareResults(List<SimulationResult> results, String baselineFileName, double tolerance, PrintStream out)
+        throws IOException
+    {
+        Map<String, String[]> baseline = new HashMap<String, String[]>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(baselineFileName)))
+        {
+            // skip the header
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null)
+            {
+                String[] values = line.split(",");
+                if (values.length >= 9)
+                {
+                    baseline.put(values[0] + "," + values[1], values);
+                }
+            }
+        }
+
+        int regressions = 0;
+        for (SimulationResult result : results)
+        {
+            String switches = RobotSimulator.formatDipSwitches(result.getDipSwitches());
+            String[] values = baseline.get(result.getGameData() + "," + switches);
+            if (values == null)
+            {
+                continue;
+            }
+
+            boolean baselineCompleted = Boolean.parseBoolean(values[2]);
+            double baselineTime = Double.parseDouble(values[3]);
+            int baselineCubesPlaced = Integer.parseInt(values[8]);
+
+            String reason = null;
+            if (baselineCompleted && !result.getCompleted())
+            {
+                reason = "no longer completes";
+            }
+            else if (result.getCubesPlaced() < baselineCubesPlaced)
+            {
+                reason = String.format("places %d cubes instead of %d", result.getCubesPlaced(), baselineCubesPlaced);
+            }
+            else if (result.getCompleted() && result.getTime() > baselineTime + tolerance)
+            {
+                reason = String.format("takes %.2fs instead of %.2fs", result.getTime(), baselineTime);
+            }
+
+            if (reason != null)
+            {
+                regressions++;
+                out.println(
+                    String.format(
+                        "%-8s %-5s %-8s %s",
+                        AutonomousRoutineEvaluator.getPositionName(result.getDipSwitches()),
+                        result.getGameData(),
+                        switches,
+                        reason));
+            }
+        }
+
+        return regressions;
+    }
+
+    /**
+     * Get the name of the starting position selected by the dip switches (in the same way as the AutonomousRoutineSelector)
+     * @param dipSwitches with bit 0 set if switch A is flipped, bit 1 for B, etc.
+     * @return the name of the position
+     */
+    private static String getPositionName(int dipSwitches)
+    {
+        return AutonomousRoutineEvaluator.PositionNames[dipSwitches & 3];
+    }
+}
@@ -0,0 +1,116 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import org.usfirst.frc.team1318.robot.HardwareConstants;
+
+/**
+ * Physics model of the differential drivetrain.
+ * 
+ * Each side's wheel speed responds to the motor output as a first-order system (free speed scaled by output, reached
+ * with a time constant), the encoders count the distance each side travels, and the robot's pose is integrated from
+ * the two wheel speeds.  The heading follows the same convention as the NavX and the odometry in the PositionManager
+ * (clockwise positive, from the difference between the left and right wheels).
+ * 
+ */
+public class DriveTrainModel
+{
+    private final SimulatedTalonSRX leftMotor;
+    private final SimulatedTalonSRX rightMotor;
+    private final SimulatedNavx navx;
+
+    private double leftVelocity;
+    private double rightVelocity;
+
+    private double x;
+    private double y;
+    private double heading;
+    private double distance;
+
+    /**
+     * Initializes a new DriveTrainModel
+     * @param leftMotor the talon that drives (and reads the encoder for) the left side
+     * @param rightMotor the talon that drives (and reads the encoder for) the right side
+     * @param navx to update with the robot's heading and displacement
+     */
+    public DriveTrainModel(SimulatedTalonSRX leftMotor, SimulatedTalonSRX rightMotor, SimulatedNavx navx)
+    {
+        this.leftMotor = leftMotor;
+        this.rightMotor = rightMotor;
+        this.navx = navx;
+
+        this.leftVelocity = 0.0;
+        this.rightVelocity = 0.0;
+
+        this.x = 0.0;
+        this.y = 0.0;
+        this.heading = 0.0;
+        this.distance = 0.0;
+    }
+
+    /**
+     * Advance the model
+     * @param dt the amount of time to advance by (in seconds)
+     */
+    public void step(double dt)
+    {
+        double response = 1.0 - Math.exp(-dt / SimulationConstants.DRIVETRAIN_TIME_CONSTANT);
+        this.leftVelocity += (this.leftMotor.getOutput() * SimulationConstants.DRIVETRAIN_FREE_SPEED - this.leftVelocity) * response;
+        this.rightVelocity += (this.rightMotor.getOutput() * SimulationConstants.DRIVETRAIN_FREE_SPEED - this.rightVelocity) * response;
+
+        double leftDistance = this.leftVelocity * dt;
+        double rightDistance = this.rightVelocity * dt;
+
+        this.leftMotor.moveSensor(
+            leftDistance / HardwareConstants.DRIVETRAIN_LEFT_PULSE_DISTANCE,
+            this.leftVelocity / HardwareConstants.DRIVETRAIN_LEFT_PULSE_DISTANCE / 10.0);
+        this.rightMotor.moveSensor(
+            rightDistance / HardwareConstants.DRIVETRAIN_RIGHT_PULSE_DISTANCE,
+            this.rightVelocity / HardwareConstants.DRIVETRAIN_RIGHT_PULSE_DISTANCE / 10.0);
+
+        // integrate along the arc using the heading at the middle of the step
+        double headingChange = (leftDistance - rightDistance) / HardwareConstants.DRIVETRAIN_WHEEL_SEPARATION_DISTANCE;
+        double averageDistance = (leftDistance + rightDistance) / 2.0;
+        double midHeading = this.heading + headingChange / 2.0;
+        this.x += averageDistance * Math.cos(midHeading);
+        this.y += averageDistance * Math.sin(midHeading);
+        this.heading += headingChange;
+        this.distance += Math.abs(averageDistance);
+
+        this.navx.setPose(Math.toDegrees(this.heading), this.x, this.y);
+    }
+
+    /**
+     * Retrieve the robot's x position relative to where it started
+     * @return the x position (in inches)
+     */
+    public double getX()
+    {
+        return this.x;
+    }
+
+    /**
+     * Retrieve the robot's y position relative to where it started
+     * @return the y position (in inches)
+     */
+    public double getY()
+    {
+        return this.y;
+    }
+
+    /**
+     * Retrieve the robot's heading relative to how it started
+     * @return the heading (in degrees, clockwise positive)
+     */
+    public double getHeading()
+    {
+        return Math.toDegrees(this.heading);
+    }
+
+    /**
+     * Retrieve the total distance that the center of the robot has traveled
+     * @return the distance traveled (in inches)
+     */
+    public double getDistanceTraveled()
+    {
+        return this.distance;
+    }
+}
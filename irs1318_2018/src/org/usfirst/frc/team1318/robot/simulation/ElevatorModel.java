@@ -0,0 +1,132 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import org.usfirst.frc.team1318.robot.HardwareConstants;
+import org.usfirst.frc.team1318.robot.TuningConstants;
+
+/**
+ * Physics model of the two-stage elevator.
+ * 
+ * Each stage is driven by its own talon and responds to the motor output as a first-order system, less the output
+ * needed to hold the stage up against gravity.  The motors are in brake mode, so a stage holds still when its motor
+ * isn't driven.  Each stage is stopped at the bottom and at its maximum height, where it closes its reverse or
+ * forward limit switch.
+ * 
+ */
+public class ElevatorModel
+{
+    private final Stage innerStage;
+    private final Stage outerStage;
+
+    /**
+     * Initializes a new ElevatorModel, with the stages starting at the carry position
+     * @param innerMotor the talon that drives (and reads the encoder for) the inner stage
+     * @param outerMotor the talon that drives (and reads the encoder for) the outer stage (carriage)
+     */
+    public ElevatorModel(SimulatedTalonSRX innerMotor, SimulatedTalonSRX outerMotor)
+    {
+        this.innerStage = new Stage(
+            innerMotor,
+            HardwareConstants.ELEVATOR_INNER_MAX_HEIGHT,
+            HardwareConstants.ELEVATOR_INNER_PULSE_DISTANCE,
+            SimulationConstants.ELEVATOR_INNER_FREE_SPEED,
+            SimulationConstants.ELEVATOR_INNER_GRAVITY_POWER,
+            TuningConstants.ELEVATOR_INNER_CARRY_POSITION);
+        this.outerStage = new Stage(
+            outerMotor,
+            HardwareConstants.ELEVATOR_OUTER_MAX_HEIGHT,
+            HardwareConstants.ELEVATOR_OUTER_PULSE_DISTANCE,
+            SimulationConstants.ELEVATOR_OUTER_FREE_SPEED,
+            SimulationConstants.ELEVATOR_OUTER_GRAVITY_POWER,
+            TuningConstants.ELEVATOR_OUTER_CARRY_POSITION);
+    }
+
+    /**
+     * Advance the model
+     * @param dt the amount of time to advance by (in seconds)
+     */
+    public void step(double dt)
+    {
+        this.innerStage.step(dt);
+        this.outerStage.step(dt);
+    }
+
+    /**
+     * Retrieve the height of the inner stage
+     * @return the height (in inches)
+     */
+    public double getInnerHeight()
+    {
+        return this.innerStage.height;
+    }
+
+    /**
+     * Retrieve the height of the outer stage (carriage)
+     * @return the height (in inches)
+     */
+    public double getOuterHeight()
+    {
+        return this.outerStage.height;
+    }
+
+    private static class Stage
+    {
+        private final SimulatedTalonSRX motor;
+        private final double maxHeight;
+        private final double pulseDistance;
+        private final double freeSpeed;
+        private final double gravityPower;
+
+        private double height;
+        private double velocity;
+
+        private Stage(
+            SimulatedTalonSRX motor,
+            double maxHeight,
+            double pulseDistance,
+            double freeSpeed,
+            double gravityPower,
+            double initialHeight)
+        {
+            this.motor = motor;
+            this.maxHeight = maxHeight;
+            this.pulseDistance = pulseDistance;
+            this.freeSpeed = freeSpeed;
+            this.gravityPower = gravityPower;
+
+            this.height = initialHeight;
+            this.velocity = 0.0;
+            this.motor.setLimitSwitches(this.height >= this.maxHeight, this.height <= 0.0);
+        }
+
+        private void step(double dt)
+        {
+            double output = this.motor.getOutput();
+            double response = 1.0 - Math.exp(-dt / SimulationConstants.ELEVATOR_TIME_CONSTANT);
+
+            double targetVelocity = 0.0;
+            if (output != 0.0)
+            {
+                // when not driven, the brake holds the stage in place
+                targetVelocity = (output - this.gravityPower) * this.freeSpeed;
+            }
+
+            this.velocity += (targetVelocity - this.velocity) * response;
+
+            double newHeight = this.height + this.velocity * dt;
+            if (newHeight >= this.maxHeight)
+            {
+                newHeight = this.maxHeight;
+                this.velocity = Math.min(this.velocity, 0.0);
+            }
+            else if (newHeight <= 0.0)
+            {
+                newHeight = 0.0;
+                this.velocity = Math.max(this.velocity, 0.0);
+            }
+
+            this.motor.moveSensor((newHeight - this.height) / this.pulseDistance, this.velocity / this.pulseDistance / 10.0);
+            this.motor.setLimitSwitches(newHeight >= this.maxHeight, newHeight <= 0.0);
+            this.height = newHeight;
+        }
+    }
+}
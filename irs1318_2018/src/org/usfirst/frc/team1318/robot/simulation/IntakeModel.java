@@ -0,0 +1,125 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+/**
+ * Model of the cube intake and its through-beam sensor.
+ * 
+ * The robot may start with a preloaded cube.  Running the carriage intake outwards for long enough ejects the cube,
+ * and running it inwards for long enough collects one (the model assumes that a cube is always within reach, so it
+ * shows how long routines take when collection goes well rather than whether the robot drove to the right place).
+ * The through-beam sensor is blocked while the robot holds a cube.
+ * 
+ */
+public class IntakeModel
+{
+    private final SimulatedTalonSRX topCarriageIntakeMotor;
+    private final SimulatedTalonSRX bottomCarriageIntakeMotor;
+    private final SimulatedAnalogInput throughBeamSensor;
+
+    private boolean hasCube;
+    private double intakeTime;
+    private double outtakeTime;
+    private int cubesCollected;
+    private int cubesEjected;
+
+    /**
+     * Initializes a new IntakeModel
+     * @param topCarriageIntakeMotor the talon for the top carriage intake
+     * @param bottomCarriageIntakeMotor the talon for the bottom carriage intake
+     * @param throughBeamSensor to update based on whether a cube is held
+     */
+    public IntakeModel(
+        SimulatedTalonSRX topCarriageIntakeMotor,
+        SimulatedTalonSRX bottomCarriageIntakeMotor,
+        SimulatedAnalogInput throughBeamSensor)
+    {
+        this.topCarriageIntakeMotor = topCarriageIntakeMotor;
+        this.bottomCarriageIntakeMotor = bottomCarriageIntakeMotor;
+        this.throughBeamSensor = throughBeamSensor;
+
+        this.hasCube = SimulationConstants.INTAKE_START_WITH_CUBE;
+        this.intakeTime = 0.0;
+        this.outtakeTime = 0.0;
+        this.cubesCollected = 0;
+        this.cubesEjected = 0;
+
+        this.updateSensor();
+    }
+
+    /**
+     * Advance the model
+     * @param dt the amount of time to advance by (in seconds)
+     */
+    public void step(double dt)
+    {
+        double power = (this.topCarriageIntakeMotor.getOutput() + this.bottomCarriageIntakeMotor.getOutput()) / 2.0;
+        if (this.hasCube)
+        {
+            this.intakeTime = 0.0;
+            if (power < -SimulationConstants.INTAKE_MIN_POWER)
+            {
+                this.outtakeTime += dt;
+                if (this.outtakeTime >= SimulationConstants.INTAKE_EJECT_DURATION)
+                {
+                    this.hasCube = false;
+                    this.cubesEjected++;
+                }
+            }
+            else
+            {
+                this.outtakeTime = 0.0;
+            }
+        }
+        else
+        {
+            this.outtakeTime = 0.0;
+            if (power > SimulationConstants.INTAKE_MIN_POWER)
+            {
+                this.intakeTime += dt;
+                if (this.intakeTime >= SimulationConstants.INTAKE_COLLECT_DURATION)
+                {
+                    this.hasCube = true;
+                    this.cubesCollected++;
+                }
+            }
+            else
+            {
+                this.intakeTime = 0.0;
+            }
+        }
+
+        this.updateSensor();
+    }
+
+    /**
+     * Retrieve whether the robot is holding a cube
+     * @return true if a cube is held
+     */
+    public boolean hasCube()
+    {
+        return this.hasCube;
+    }
+
+    /**
+     * Retrieve the number of cubes that have been collected
+     * @return the number of cubes collected
+     */
+    public int getCubesCollected()
+    {
+        return this.cubesCollected;
+    }
+
+    /**
+     * Retrieve the number of cubes that have been ejected (i.e. placed)
+     * @return the number of cubes ejected
+     */
+    public int getCubesEjected()
+    {
+        return this.cubesEjected;
+    }
+
+    private void updateSensor()
+    {
+        this.throughBeamSensor.setVoltage(
+            this.hasCube ? SimulationConstants.THROUGH_BEAM_BLOCKED_VOLTAGE : SimulationConstants.THROUGH_BEAM_UNBLOCKED_VOLTAGE);
+    }
+}
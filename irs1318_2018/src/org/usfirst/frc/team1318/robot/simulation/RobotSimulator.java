@@ -0,0 +1,181 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import org.usfirst.frc.team1318.robot.ElectronicsConstants;
+import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
+import org.usfirst.frc.team1318.robot.common.MechanismManager;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+import org.usfirst.frc.team1318.robot.driver.common.autonomous.AutonomousDriver;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * Runs autonomous routines against the simulated robot, faster than real time.
+ *
+ * Each run builds a fresh robot (injector, mechanisms and physics models), sets the dip switches and game data that
+ * the AutonomousRoutineSelector reads, and then runs the same loop as the Robot (read sensors, update the driver,
+ * update the mechanisms, flush the logger) until the routine ends or autonomous mode is over.
+ *
+ * Dip switches are given as a string of 0s and 1s, with the first character for switch A, and a 1 meaning flipped.
+ *
+ * Usage: RobotSimulator [gameData [dipSwitches [runs]]]
+ *
+ */
+public class RobotSimulator
+{
+    private static final int[] DipSwitchChannels = new int[]
+        {
+            ElectronicsConstants.AUTO_DIP_SWITCH_A_DIGITAL_CHANNEL,
+            ElectronicsConstants.AUTO_DIP_SWITCH_B_DIGITAL_CHANNEL,
+            ElectronicsConstants.AUTO_DIP_SWITCH_C_DIGITAL_CHANNEL,
+            ElectronicsConstants.AUTO_DIP_SWITCH_D_DIGITAL_CHANNEL,
+            ElectronicsConstants.AUTO_DIP_SWITCH_E_DIGITAL_CHANNEL,
+            ElectronicsConstants.AUTO_DIP_SWITCH_F_DIGITAL_CHANNEL,
+        };
+
+    /**
+     * The number of dip switches used to select the autonomous routine
+     */
+    public static final int DipSwitchCount = RobotSimulator.DipSwitchChannels.length;
+
+    private final IDashboardLogger logger;
+    private final double duration;
+
+    /**
+     * Initializes a new RobotSimulator that discards all logging and runs for the length of autonomous mode
+     */
+    public RobotSimulator()
+    {
+        this(new SimulationLogger(), SimulationConstants.AUTONOMOUS_DURATION);
+    }
+
+    /**
+     * Initializes a new RobotSimulator
+     * @param logger to use for each run
+     * @param duration the longest time to let a routine run (in seconds)
+     */
+    public RobotSimulator(IDashboardLogger logger, double duration)
+    {
+        this.logger = logger;
+        this.duration = duration;
+    }
+
+    /**
+     * Simulate autonomous routines
+     * @param args the game data, the dip switches, and the number of times to run
+     */
+    public static void main(String[] args)
+    {
+        if (args.length > 3)
+        {
+            System.err.println("Usage: RobotSimulator [gameData [dipSwitches [runs]]]");
+            return;
+        }
+
+        String gameData = args.length > 0 ? args[0] : "LRL";
+        int dipSwitches = args.length > 1 ? RobotSimulator.parseDipSwitches(args[1]) : 0;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        RobotSimulator simulator = new RobotSimulator();
+        SimulationResult result = null;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < runs; i++)
+        {
+            result = simulator.runAutonomous(gameData, dipSwitches);
+        }
+
+        double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.println(result);
+        System.out.println(String.format("%d runs in %.2fs (%.0f runs per minute)", runs, elapsedSeconds, runs * 60.0 / elapsedSeconds));
+    }
+
+    /**
+     * Simulate the autonomous routine that would be selected for the provided settings
+     * @param gameData that the field sends (e.g. "LRL")
+     * @param dipSwitches that are flipped (bit 0 set if switch A is flipped, bit 1 for B, etc.)
+     * @return the outcome of the routine
+     */
+    public SimulationResult runAutonomous(String gameData, int dipSwitches)
+    {
+        SimulationWpilibProvider provider = new SimulationWpilibProvider();
+        provider.getDriverStation().setGameSpecificMessage(gameData);
+        for (int i = 0; i < RobotSimulator.DipSwitchCount; i++)
+        {
+            // dip switches read false when flipped
+            provider.getDigitalInput(RobotSimulator.DipSwitchChannels[i]).set((dipSwitches & (1 << i)) == 0);
+        }
+
+        TaskTimeline timeline = new TaskTimeline(provider.getTimer());
+        Injector injector = Guice.createInjector(new SimulationModule(provider, this.logger, timeline));
+        MechanismManager mechanisms = injector.getInstance(MechanismManager.class);
+        ITimer timer = injector.getInstance(ITimer.class);
+
+        AutonomousDriver driver = injector.getInstance(AutonomousDriver.class);
+        mechanisms.setDriver(driver);
+        timer.start();
+
+        while (!driver.hasEnded() && timer.get() < this.duration)
+        {
+            mechanisms.readSensors();
+            driver.update();
+            mechanisms.update();
+            this.logger.flush();
+
+            provider.step();
+        }
+
+        boolean completed = driver.hasEnded();
+        double time = timer.get();
+
+        driver.stop();
+        mechanisms.stop();
+
+        DriveTrainModel driveTrain = provider.getDriveTrain();
+        return new SimulationResult(
+            gameData,
+            dipSwitches,
+            completed,
+            time,
+            driveTrain.getX(),
+            driveTrain.getY(),
+            driveTrain.getHeading(),
+            driveTrain.getDistanceTraveled(),
+            provider.getIntake().getCubesEjected(),
+            timeline.getTimings());
+    }
+
+    /**
+     * Parse dip switches from a string of 0s and 1s (e.g. "101000" for switches A and C flipped)
+     * @param value to parse
+     * @return the dip switches, with bit 0 set if switch A is flipped, bit 1 for B, etc.
+     */
+    public static int parseDipSwitches(String value)
+    {
+        int dipSwitches = 0;
+        for (int i = 0; i < value.length() && i < RobotSimulator.DipSwitchCount; i++)
+        {
+            if (value.charAt(i) == '1')
+            {
+                dipSwitches |= 1 << i;
+            }
+        }
+
+        return dipSwitches;
+    }
+
+    /**
+     * Format dip switches as a string of 0s and 1s (e.g. "101000" for switches A and C flipped)
+     * @param dipSwitches with bit 0 set if switch A is flipped, bit 1 for B, etc.
+     * @return the formatted dip switches
+     */
+    public static String formatDipSwitches(int dipSwitches)
+    {
+        StringBuilder builder = new StringBuilder(RobotSimulator.DipSwitchCount);
+        for (int i = 0; i < RobotSimulator.DipSwitchCount; i++)
+        {
+            builder.append((dipSwitches & (1 << i)) != 0 ? '1' : '0');
+        }
+
+        return builder.toString();
+    }
+}
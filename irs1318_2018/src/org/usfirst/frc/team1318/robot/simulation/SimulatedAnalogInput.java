@@ -0,0 +1,35 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import org.usfirst.frc.team1318.robot.common.wpilib.IAnalogInput;
+
+/**
+ * Analog input that reports whatever voltage it was last given
+ * 
+ */
+public class SimulatedAnalogInput implements IAnalogInput
+{
+    private double voltage;
+
+    /**
+     * Initializes a new SimulatedAnalogInput
+     */
+    public SimulatedAnalogInput()
+    {
+        this.voltage = 0.0;
+    }
+
+    @Override
+    public double getVoltage()
+    {
+        return this.voltage;
+    }
+
+    /**
+     * Set the voltage that the input reports
+     * @param voltage to report
+     */
+    public void setVoltage(double voltage)
+    {
+        this.voltage = voltage;
+    }
+}
@@ -0,0 +1,37 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import org.usfirst.frc.team1318.robot.common.wpilib.IDigitalInput;
+
+/**
+ * Digital input that reports whatever value it was last given.
+ * 
+ * Defaults to true, which is what an open switch (e.g. an unflipped dip switch) reads when pulled up.
+ * 
+ */
+public class SimulatedDigitalInput implements IDigitalInput
+{
+    private boolean value;
+
+    /**
+     * Initializes a new SimulatedDigitalInput
+     */
+    public SimulatedDigitalInput()
+    {
+        this.value = true;
+    }
+
+    @Override
+    public boolean get()
+    {
+        return this.value;
+    }
+
+    /**
+     * Set the value that the input reports
+     * @param value to report
+     */
+    public void set(boolean value)
+    {
+        this.value = value;
+    }
+}
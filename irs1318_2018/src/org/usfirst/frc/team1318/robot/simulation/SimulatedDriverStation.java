@@ -0,0 +1,35 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import org.usfirst.frc.team1318.robot.common.wpilib.IDriverStation;
+
+/**
+ * Driver station that reports whatever game data it was last given
+ * 
+ */
+public class SimulatedDriverStation implements IDriverStation
+{
+    private String gameSpecificMessage;
+
+    /**
+     * Initializes a new SimulatedDriverStation
+     */
+    public SimulatedDriverStation()
+    {
+        this.gameSpecificMessage = "";
+    }
+
+    @Override
+    public String getGameSpecificMessage()
+    {
+        return this.gameSpecificMessage;
+    }
+
+    /**
+     * Set the game data that the field sends (e.g. "LRL")
+     * @param gameSpecificMessage to report
+     */
+    public void setGameSpecificMessage(String gameSpecificMessage)
+    {
+        this.gameSpecificMessage = gameSpecificMessage;
+    }
+}
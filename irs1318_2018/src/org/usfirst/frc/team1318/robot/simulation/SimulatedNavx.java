@@ -0,0 +1,93 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import org.usfirst.frc.team1318.robot.common.wpilib.INavx;
+
+/**
+ * NavX that reports the heading and displacement of the simulated robot.
+ * 
+ * Like the real NavX, the angle is in degrees (clockwise positive, continuous past 360) and the displacement is in
+ * meters, both relative to where the NavX was last reset.
+ * 
+ */
+public class SimulatedNavx implements INavx
+{
+    private static final double MetersPerInch = 0.0254;
+
+    private double angle;
+    private double x;
+    private double y;
+
+    private double angleOffset;
+    private double xOffset;
+    private double yOffset;
+
+    /**
+     * Initializes a new SimulatedNavx
+     */
+    public SimulatedNavx()
+    {
+        this.angle = 0.0;
+        this.x = 0.0;
+        this.y = 0.0;
+
+        this.angleOffset = 0.0;
+        this.xOffset = 0.0;
+        this.yOffset = 0.0;
+    }
+
+    @Override
+    public boolean isConnected()
+    {
+        return true;
+    }
+
+    @Override
+    public double getAngle()
+    {
+        return this.angle - this.angleOffset;
+    }
+
+    @Override
+    public double getDisplacementX()
+    {
+        return (this.x - this.xOffset) * SimulatedNavx.MetersPerInch;
+    }
+
+    @Override
+    public double getDisplacementY()
+    {
+        return (this.y - this.yOffset) * SimulatedNavx.MetersPerInch;
+    }
+
+    @Override
+    public double getDisplacementZ()
+    {
+        return 0.0;
+    }
+
+    @Override
+    public void reset()
+    {
+        this.angleOffset = this.angle;
+    }
+
+    @Override
+    public void resetDisplacement()
+    {
+        this.xOffset = this.x;
+        this.yOffset = this.y;
+    }
+
+    /**
+     * Update the pose that the NavX measures
+     * @param angle of the robot (in degrees, clockwise positive)
+     * @param x position of the robot (in inches)
+     * @param y position of the robot (in inches)
+     */
+    public void setPose(double angle, double x, double y)
+    {
+        this.angle = angle;
+        this.x = x;
+        this.y = y;
+    }
+}
@@ -0,0 +1,412 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import org.usfirst.frc.team1318.robot.common.wpilib.ITalonSRX;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXControlMode;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXFeedbackDevice;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXLimitSwitchStatus;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXNeutralMode;
+
+/**
+ * Talon SRX that runs the Talon's closed loops against a simulated sensor.
+ *
+ * The closed loops work the same way as on the Talon: gains are in units of 1/1023 of full output per sensor tick
+ * (so the same TuningConstants apply), velocity is in ticks per 100ms, and motion magic follows a trapezoidal profile
+ * limited by the configured cruise velocity and acceleration.  The physics models read the output and feed back the
+ * sensor position/velocity and limit switch state.
+ *
+ * Output and sensor inversion are ignored, as the simulation assumes that the motors and sensors are correctly
+ * phased.  Only a single PIDF slot is kept, since the robot only ever uses one.
+ *
+ */
+public class SimulatedTalonSRX implements ITalonSRX
+{
+    private static final double TalonLoopPeriod = 0.001; // the Talon runs its closed loop every 1ms
+    private static final double MaxOutput = 1023.0;
+    private static final double VelocityPeriodsPerSecond = 10.0; // velocity is measured in ticks per 100ms
+
+    private static final TalonSRXLimitSwitchStatus NeitherClosed = new TalonSRXLimitSwitchStatus(false, false);
+    private static final TalonSRXLimitSwitchStatus ForwardClosed = new TalonSRXLimitSwitchStatus(true, false);
+    private static final TalonSRXLimitSwitchStatus ReverseClosed = new TalonSRXLimitSwitchStatus(false, true);
+    private static final TalonSRXLimitSwitchStatus BothClosed = new TalonSRXLimitSwitchStatus(true, true);
+
+    private TalonSRXControlMode controlMode;
+    private double setpoint;
+    private boolean isStopped;
+
+    private double kp;
+    private double ki;
+    private double kd;
+    private double kf;
+    private double cruiseVelocity;
+    private double acceleration;
+
+    private boolean forwardLimitSwitchEnabled;
+    private boolean reverseLimitSwitchEnabled;
+    private boolean isForwardLimitSwitchClosed;
+    private boolean isReverseLimitSwitchClosed;
+
+    private double position;
+    private double velocity;
+    private double error;
+    private double previousError;
+    private double integral;
+
+    private boolean isProfileActive;
+    private double profilePosition;
+    private double profileVelocity;
+
+    private double output;
+
+    /**
+     * Initializes a new SimulatedTalonSRX
+     */
+    public SimulatedTalonSRX()
+    {
+        this.controlMode = TalonSRXControlMode.PercentOutput;
+        this.setpoint = 0.0;
+        this.isStopped = false;
+
+        this.position = 0.0;
+        this.velocity = 0.0;
+        this.output = 0.0;
+    }
+
+    @Override
+    public void set(double value)
+    {
+        this.setpoint = value;
+        this.isStopped = false;
+    }
+
+    @Override
+    public void setControlMode(TalonSRXControlMode mode)
+    {
+        if (mode != this.controlMode)
+        {
+            this.controlMode = mode;
+            this.resetClosedLoop();
+        }
+    }
+
+    @Override
+    public void setSensorType(TalonSRXFeedbackDevice feedbackDevice)
+    {
+    }
+
+    @Override
+    public void setSelectedSlot(int slotId)
+    {
+    }
+
+    @Override
+    public void setPIDF(double p, double i, double d, double f, int slotId)
+    {
+        this.kp = p;
+        this.ki = i;
+        this.kd = d;
+        this.kf = f;
+    }
+
+    @Override
+    public void setMotionMagicPIDF(double p, double i, double d, double f, int velocity, int acceleration, int slotId)
+    {
+        this.setPIDF(p, i, d, f, slotId);
+        this.cruiseVelocity = velocity;
+        this.acceleration = acceleration;
+    }
+
+    @Override
+    public void setPIDF(double p, double i, double d, double f, int izone, double closeLoopRampRate, int slotId)
+    {
+        this.setPIDF(p, i, d, f, slotId);
+    }
+
+    @Override
+    public void setForwardLimitSwitch(boolean enabled, boolean normallyOpen)
+    {
+        this.forwardLimitSwitchEnabled = enabled;
+    }
+
+    @Override
+    public void setReverseLimitSwitch(boolean enabled, boolean normallyOpen)
+    {
+        this.reverseLimitSwitchEnabled = enabled;
+    }
+
+    @Override
+    public void setInvertOutput(boolean flip)
+    {
+    }
+
+    @Override
+    public void setInvertSensor(boolean flip)
+    {
+    }
+
+    @Override
+    public void setNeutralMode(TalonSRXNeutralMode neutralMode)
+    {
+    }
+
+    @Override
+    public void setVoltageCompensation(boolean enabled, double maxVoltage)
+    {
+    }
+
+    @Override
+    public void stop()
+    {
+        this.isStopped = true;
+        this.output = 0.0;
+        this.resetClosedLoop();
+    }
+
+    @Override
+    public void setPosition(int position)
+    {
+        this.position = position;
+        this.resetClosedLoop();
+    }
+
+    @Override
+    public void reset()
+    {
+        this.setPosition(0);
+    }
+
+    @Override
+    public int getPosition()
+    {
+        return (int)this.position;
+    }
+
+    @Override
+    public double getVelocity()
+    {
+        return this.velocity;
+    }
+
+    @Override
+    public double getError()
+    {
+        return this.error;
+    }
+
+    @Override
+    public TalonSRXLimitSwitchStatus getLimitSwitchStatus()
+    {
+        if (this.isForwardLimitSwitchClosed)
+        {
+            return this.isReverseLimitSwitchClosed ? SimulatedTalonSRX.BothClosed : SimulatedTalonSRX.ForwardClosed;
+        }
+
+        return this.isReverseLimitSwitchClosed ? SimulatedTalonSRX.ReverseClosed : SimulatedTalonSRX.NeitherClosed;
+    }
+
+    /**
+     * Retrieve the control mode that the talon is in
+     * @return the control mode
+     */
+    public TalonSRXControlMode getControlMode()
+    {
+        return this.controlMode;
+    }
+
+    /**
+     * Retrieve the value last given to set() (power, setpoint, or the device being followed, depending on the mode)
+     * @return the last value set
+     */
+    public double getSetpoint()
+    {
+        return this.setpoint;
+    }
+
+    /**
+     * Retrieve the output that the talon is currently applying
+     * @return the output between -1.0 and 1.0
+     */
+    public double getOutput()
+    {
+        return this.output;
+    }
+
+    /**
+     * Update the sensor readings (called by the physics models)
+     * @param position of the sensor (in ticks)
+     * @param velocity of the sensor (in ticks per 100ms)
+     */
+    public void setSensor(double position, double velocity)
+    {
+        this.position = position;
+        this.velocity = velocity;
+    }
+
+    /**
+     * Move the sensor by a distance (called by the physics models)
+     * @param positionChange in ticks
+     * @param velocity of the sensor (in ticks per 100ms)
+     */
+    public void moveSensor(double positionChange, double velocity)
+    {
+        this.position += positionChange;
+        this.velocity = velocity;
+    }
+
+    /**
+     * Update the state of the limit switches (called by the physics models)
+     * @param isForwardClosed whether the forward limit switch is closed
+     * @param isReverseClosed whether the reverse limit switch is closed
+     */
+    public void setLimitSwitches(boolean isForwardClosed, boolean isReverseClosed)
+    {
+        this.isForwardLimitSwitchClosed = isForwardClosed;
+        this.isReverseLimitSwitchClosed = isReverseClosed;
+    }
+
+    /**
+     * Set the output to match the talon that this talon is following
+     * @param leader that is being followed
+     */
+    public void follow(SimulatedTalonSRX leader)
+    {
+        this.output = this.isStopped ? 0.0 : leader.getOutput();
+    }
+
+    /**
+     * Run the talon's control loop, calculating the output to apply for the next period
+     * @param dt the length of the period (in seconds)
+     */
+    public void update(double dt)
+    {
+        double newOutput;
+        if (this.isStopped)
+        {
+            newOutput = 0.0;
+        }
+        else
+        {
+            switch (this.controlMode)
+            {
+                case PercentOutput:
+                    newOutput = this.setpoint;
+                    break;
+
+                case Velocity:
+                    newOutput = this.calculateClosedLoop(this.setpoint, this.velocity, this.setpoint, dt);
+                    break;
+
+                case Position:
+                    newOutput = this.calculateClosedLoop(this.setpoint, this.position, 0.0, dt);
+                    break;
+
+                case MotionMagicPosition:
+                    this.updateProfile(dt);
+                    newOutput = this.calculateClosedLoop(this.profilePosition, this.position, this.profileVelocity, dt);
+                    break;
+
+                case Follower:
+                    // updated from the leader by follow()
+                    return;
+
+                case Disabled:
+                default:
+                    newOutput = 0.0;
+                    break;
+            }
+        }
+
+        if (newOutput > 1.0)
+        {
+            newOutput = 1.0;
+        }
+        else if (newOutput < -1.0)
+        {
+            newOutput = -1.0;
+        }
+
+        if ((newOutput > 0.0 && this.forwardLimitSwitchEnabled && this.isForwardLimitSwitchClosed)
+            || (newOutput < 0.0 && this.reverseLimitSwitchEnabled && this.isReverseLimitSwitchClosed))
+        {
+            newOutput = 0.0;
+        }
+
+        this.output = newOutput;
+    }
+
+    /**
+     * Calculate the output for a closed loop in the Talon's units
+     * @param target value of the closed loop
+     * @param measured value of the closed loop
+     * @param feedForwardTarget value to multiply by the feed-forward gain
+     * @param dt the length of the period (in seconds)
+     * @return the output between -1.0 and 1.0 (before clamping)
+     */
+    private double calculateClosedLoop(double target, double measured, double feedForwardTarget, double dt)
+    {
+        double loops = dt / SimulatedTalonSRX.TalonLoopPeriod;
+
+        this.error = target - measured;
+        this.integral += this.error * loops;
+        double derivative = (this.error - this.previousError) / loops;
+        this.previousError = this.error;
+
+        return (this.kp * this.error + this.ki * this.integral + this.kd * derivative + this.kf * feedForwardTarget)
+            / SimulatedTalonSRX.MaxOutput;
+    }
+
+    /**
+     * Advance the motion magic profile towards the setpoint, respecting the cruise velocity and acceleration
+     * @param dt the length of the period (in seconds)
+     */
+    private void updateProfile(double dt)
+    {
+        if (!this.isProfileActive)
+        {
+            this.profilePosition = this.position;
+            this.profileVelocity = this.velocity;
+            this.isProfileActive = true;
+        }
+
+        // velocity is in ticks per 100ms, acceleration is in ticks per 100ms per second
+        double remaining = this.setpoint - this.profilePosition;
+        double direction = Math.signum(remaining);
+        double maxVelocityChange = this.acceleration * dt;
+
+        // the fastest we can go and still stop at the setpoint: v^2 = 2 * a * d (d in ticks, converted to per-100ms units)
+        double stoppingVelocity = Math.sqrt(2.0 * this.acceleration * Math.abs(remaining) / SimulatedTalonSRX.VelocityPeriodsPerSecond);
+        double desiredVelocity = direction * Math.min(this.cruiseVelocity, stoppingVelocity);
+
+        if (desiredVelocity > this.profileVelocity + maxVelocityChange)
+        {
+            desiredVelocity = this.profileVelocity + maxVelocityChange;
+        }
+        else if (desiredVelocity < this.profileVelocity - maxVelocityChange)
+        {
+            desiredVelocity = this.profileVelocity - maxVelocityChange;
+        }
+
+        double step = desiredVelocity * SimulatedTalonSRX.VelocityPeriodsPerSecond * dt;
+        if (Math.abs(step) >= Math.abs(remaining) || this.cruiseVelocity <= 0.0 || this.acceleration <= 0.0)
+        {
+            // arrived (or motion magic wasn't configured, in which case go straight to the setpoint)
+            this.profilePosition = this.setpoint;
+            this.profileVelocity = 0.0;
+        }
+        else
+        {
+            this.profilePosition += step;
+            this.profileVelocity = desiredVelocity;
+        }
+    }
+
+    /**
+     * Reset the closed loop state (e.g. when changing modes)
+     */
+    private void resetClosedLoop()
+    {
+        this.error = 0.0;
+        this.previousError = 0.0;
+        this.integral = 0.0;
+        this.isProfileActive = false;
+    }
+}
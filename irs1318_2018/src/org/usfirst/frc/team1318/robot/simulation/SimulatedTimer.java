@@ -0,0 +1,79 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+
+/**
+ * Timer driven by a simulated clock rather than the system clock.
+ * 
+ * The timer behaves like the WPILib Timer (start/stop accumulate, reset clears), but the clock only moves forward
+ * when it is advanced, so the simulation can run as fast as the computer allows.
+ * 
+ */
+public class SimulatedTimer implements ITimer
+{
+    private double now;
+    private double startTime;
+    private double accumulatedTime;
+    private boolean running;
+
+    /**
+     * Initializes a new SimulatedTimer
+     */
+    public SimulatedTimer()
+    {
+        this.now = 0.0;
+        this.startTime = 0.0;
+        this.accumulatedTime = 0.0;
+        this.running = false;
+    }
+
+    @Override
+    public void start()
+    {
+        this.startTime = this.now;
+        this.running = true;
+    }
+
+    @Override
+    public void stop()
+    {
+        this.accumulatedTime = this.get();
+        this.running = false;
+    }
+
+    @Override
+    public double get()
+    {
+        if (this.running)
+        {
+            return this.accumulatedTime + (this.now - this.startTime);
+        }
+
+        return this.accumulatedTime;
+    }
+
+    @Override
+    public void reset()
+    {
+        this.accumulatedTime = 0.0;
+        this.startTime = this.now;
+    }
+
+    /**
+     * Advance the simulated clock
+     * @param dt the amount of time to advance by (in seconds)
+     */
+    public void advance(double dt)
+    {
+        this.now += dt;
+    }
+
+    /**
+     * Retrieve the simulated clock's time, regardless of whether the timer is running
+     * @return the time since the simulation started (in seconds)
+     */
+    public double getSimulationTime()
+    {
+        return this.now;
+    }
+}
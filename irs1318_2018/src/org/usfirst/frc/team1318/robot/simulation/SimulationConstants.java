@@ -0,0 +1,41 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+/**
+ * All constants describing the physics models used when simulating the robot.
+ * 
+ * These are rough approximations of the real robot, chosen so that the simulated robot responds to the same
+ * closed-loop settings (in TuningConstants) in about the same way that the real robot does.
+ * 
+ */
+public class SimulationConstants
+{
+    //================================================== General ==============================================================
+
+    public static final double LOOP_PERIOD = 0.02; // the period of the robot's control loop (in seconds)
+    public static final double PHYSICS_STEP = 0.005; // the period at which the physics models are stepped (in seconds)
+    public static final double AUTONOMOUS_DURATION = 15.0; // how long autonomous mode lasts (in seconds)
+
+    //================================================== DriveTrain ==============================================================
+
+    // with the Talon velocity KF of 0.15, full output corresponds to 1023 / 0.15 ~= 6820 ticks/100ms ~= 261 in/s
+    public static final double DRIVETRAIN_FREE_SPEED = 261.0; // wheel speed at full output (in inches per second)
+    public static final double DRIVETRAIN_TIME_CONSTANT = 0.15; // time for the wheels to reach 63% of a new speed (in seconds)
+
+    //================================================== Elevator ==============================================================
+
+    // with the Talon motion magic KF of 0.276/0.378, full output corresponds to ~3700/~2700 ticks/100ms
+    public static final double ELEVATOR_INNER_FREE_SPEED = 36.0; // inner stage speed at full output (in inches per second)
+    public static final double ELEVATOR_OUTER_FREE_SPEED = 28.0; // outer stage speed at full output (in inches per second)
+    public static final double ELEVATOR_TIME_CONSTANT = 0.08; // time for a stage to reach 63% of a new speed (in seconds)
+    public static final double ELEVATOR_INNER_GRAVITY_POWER = 0.05; // output needed to hold the inner stage against gravity
+    public static final double ELEVATOR_OUTER_GRAVITY_POWER = 0.08; // output needed to hold the outer stage against gravity
+
+    //================================================== Intake ==============================================================
+
+    public static final boolean INTAKE_START_WITH_CUBE = true; // whether the robot is preloaded with a cube
+    public static final double INTAKE_MIN_POWER = 0.1; // minimum carriage intake output that moves a cube
+    public static final double INTAKE_COLLECT_DURATION = 0.75; // time spent intaking before a cube is collected (in seconds)
+    public static final double INTAKE_EJECT_DURATION = 0.25; // time spent outtaking before a cube is ejected (in seconds)
+    public static final double THROUGH_BEAM_BLOCKED_VOLTAGE = 0.5;
+    public static final double THROUGH_BEAM_UNBLOCKED_VOLTAGE = 4.5;
+}
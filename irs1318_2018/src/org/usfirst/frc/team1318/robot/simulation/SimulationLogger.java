@@ -0,0 +1,76 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import org.opencv.core.Point;
+import org.usfirst.frc.team1318.robot.common.IBooleanLogChannel;
+import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
+import org.usfirst.frc.team1318.robot.common.INumberLogChannel;
+import org.usfirst.frc.team1318.robot.common.IStringLogChannel;
+
+/**
+ * Logger that discards everything, so that logging doesn't slow down simulation runs.
+ * 
+ */
+public class SimulationLogger implements IDashboardLogger
+{
+    private static final IBooleanLogChannel NullBooleanChannel = value -> {};
+    private static final INumberLogChannel NullNumberChannel = value -> {};
+    private static final IStringLogChannel NullStringChannel = value -> {};
+
+    @Override
+    public void logBoolean(String component, String key, boolean value)
+    {
+    }
+
+    @Override
+    public void logNumber(String component, String key, double value)
+    {
+    }
+
+    @Override
+    public void logNumber(String component, String key, Double value)
+    {
+    }
+
+    @Override
+    public void logInteger(String component, String key, int value)
+    {
+    }
+
+    @Override
+    public void logInteger(String component, String key, int value, String formatString)
+    {
+    }
+
+    @Override
+    public void logPoint(String component, String key, Point value)
+    {
+    }
+
+    @Override
+    public void logString(String component, String key, String value)
+    {
+    }
+
+    @Override
+    public IBooleanLogChannel registerBooleanChannel(String component, String key)
+    {
+        return SimulationLogger.NullBooleanChannel;
+    }
+
+    @Override
+    public INumberLogChannel registerNumberChannel(String component, String key)
+    {
+        return SimulationLogger.NullNumberChannel;
+    }
+
+    @Override
+    public IStringLogChannel registerStringChannel(String component, String key)
+    {
+        return SimulationLogger.NullStringChannel;
+    }
+
+    @Override
+    public void flush()
+    {
+    }
+}
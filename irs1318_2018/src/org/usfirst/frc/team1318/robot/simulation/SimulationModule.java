@@ -0,0 +1,95 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Singleton;
+
+import org.usfirst.frc.team1318.robot.TuningConstants;
+import org.usfirst.frc.team1318.robot.climber.ClimberMechanism;
+import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
+import org.usfirst.frc.team1318.robot.common.IMechanism;
+import org.usfirst.frc.team1318.robot.common.MechanismManager;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+import org.usfirst.frc.team1318.robot.common.wpilib.IWpilibProvider;
+import org.usfirst.frc.team1318.robot.compressor.CompressorMechanism;
+import org.usfirst.frc.team1318.robot.driver.ButtonMap;
+import org.usfirst.frc.team1318.robot.driver.common.IButtonMap;
+import org.usfirst.frc.team1318.robot.driver.common.IControlTaskListener;
+import org.usfirst.frc.team1318.robot.drivetrain.DriveTrainMechanism;
+import org.usfirst.frc.team1318.robot.elevator.ElevatorMechanism;
+import org.usfirst.frc.team1318.robot.general.PositionManager;
+import org.usfirst.frc.team1318.robot.paths.PathManager;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
+import com.google.inject.Provides;
+
+/**
+ * Module for running the robot against a SimulationWpilibProvider, wired the same way as the RobotModule except that
+ * the electronics, timer and logger come from the simulation.
+ * 
+ */
+public class SimulationModule extends AbstractModule
+{
+    private final SimulationWpilibProvider provider;
+    private final IDashboardLogger logger;
+    private final IControlTaskListener taskListener;
+
+    /**
+     * Initializes a new SimulationModule
+     * @param provider of the simulated electronics (and timer)
+     * @param logger to use
+     */
+    public SimulationModule(SimulationWpilibProvider provider, IDashboardLogger logger)
+    {
+        this(provider, logger, null);
+    }
+
+    /**
+     * Initializes a new SimulationModule
+     * @param provider of the simulated electronics (and timer)
+     * @param logger to use
+     * @param taskListener to tell when the tasks within autonomous routines begin and end, or null for none
+     */
+    public SimulationModule(SimulationWpilibProvider provider, IDashboardLogger logger, IControlTaskListener taskListener)
+    {
+        this.provider = provider;
+        this.logger = logger;
+        this.taskListener = taskListener;
+    }
+
+    @Override
+    protected void configure()
+    {
+        this.bind(IWpilibProvider.class).toInstance(this.provider);
+        this.bind(ITimer.class).toInstance(this.provider.getTimer());
+        this.bind(IButtonMap.class).to(ButtonMap.class);
+        this.bind(IDashboardLogger.class).toInstance(this.logger);
+        if (this.taskListener != null)
+        {
+            this.bind(IControlTaskListener.class).toInstance(this.taskListener);
+        }
+    }
+
+    @Singleton
+    @Provides
+    public MechanismManager getMechanismManager(Injector injector)
+    {
+        List<IMechanism> mechanismList = new ArrayList<>();
+        mechanismList.add(injector.getInstance(DriveTrainMechanism.class));
+        mechanismList.add(injector.getInstance(PositionManager.class));
+        mechanismList.add(injector.getInstance(CompressorMechanism.class));
+        mechanismList.add(injector.getInstance(ElevatorMechanism.class));
+        mechanismList.add(injector.getInstance(ClimberMechanism.class));
+        return new MechanismManager(mechanismList);
+    }
+
+    @Singleton
+    @Provides
+    public PathManager getPathManager()
+    {
+        // never use the robot's trajectory cache file, as simulations may run in parallel (and not on the robot)
+        return new PathManager(TuningConstants.DRIVETRAIN_USE_PATHS, null, this.logger);
+    }
+}
@@ -0,0 +1,124 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import java.util.List;
+
+/**
+ * The outcome of simulating one autonomous routine
+ * 
+ */
+public class SimulationResult
+{
+    private final String gameData;
+    private final int dipSwitches;
+    private final boolean completed;
+    private final double time;
+    private final double x;
+    private final double y;
+    private final double heading;
+    private final double distanceTraveled;
+    private final int cubesPlaced;
+    private final List<TaskTiming> taskTimings;
+
+    /**
+     * Initializes a new SimulationResult
+     * @param gameData that the routine was selected with
+     * @param dipSwitches that the routine was selected with (bit 0 set if switch A is flipped, bit 1 for B, etc.)
+     * @param completed whether the routine finished before the end of autonomous mode
+     * @param time when the routine finished, or the end of autonomous mode if it didn't (in seconds)
+     * @param x position of the robot at the end (in inches)
+     * @param y position of the robot at the end (in inches)
+     * @param heading of the robot at the end (in degrees, clockwise positive)
+     * @param distanceTraveled by the robot (in inches)
+     * @param cubesPlaced the number of cubes that the robot ejected
+     * @param taskTimings when each task within the routine began and ended
+     */
+    public SimulationResult(
+        String gameData,
+        int dipSwitches,
+        boolean completed,
+        double time,
+        double x,
+        double y,
+        double heading,
+        double distanceTraveled,
+        int cubesPlaced,
+        List<TaskTiming> taskTimings)
+    {
+        this.gameData = gameData;
+        this.dipSwitches = dipSwitches;
+        this.completed = completed;
+        this.time = time;
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.distanceTraveled = distanceTraveled;
+        this.cubesPlaced = cubesPlaced;
+        this.taskTimings = taskTimings;
+    }
+
+    public String getGameData()
+    {
+        return this.gameData;
+    }
+
+    public int getDipSwitches()
+    {
+        return this.dipSwitches;
+    }
+
+    public boolean getCompleted()
+    {
+        return this.completed;
+    }
+
+    public double getTime()
+    {
+        return this.time;
+    }
+
+    public double getX()
+    {
+        return this.x;
+    }
+
+    public double getY()
+    {
+        return this.y;
+    }
+
+    public double getHeading()
+    {
+        return this.heading;
+    }
+
+    public double getDistanceTraveled()
+    {
+        return this.distanceTraveled;
+    }
+
+    public int getCubesPlaced()
+    {
+        return this.cubesPlaced;
+    }
+
+    public List<TaskTiming> getTaskTimings()
+    {
+        return this.taskTimings;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "%s switches=%s %s at %.2fs, pose=(%.1f, %.1f, %.1f deg), traveled=%.1fin, cubes placed=%d",
+            this.gameData,
+            RobotSimulator.formatDipSwitches(this.dipSwitches),
+            this.completed ? "completed" : "timed out",
+            this.time,
+            this.x,
+            this.y,
+            this.heading,
+            this.distanceTraveled,
+            this.cubesPlaced);
+    }
+}
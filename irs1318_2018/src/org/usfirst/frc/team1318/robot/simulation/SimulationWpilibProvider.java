@@ -0,0 +1,450 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.usfirst.frc.team1318.robot.ElectronicsConstants;
+import org.usfirst.frc.team1318.robot.common.wpilib.DoubleSolenoidValue;
+import org.usfirst.frc.team1318.robot.common.wpilib.ICompressor;
+import org.usfirst.frc.team1318.robot.common.wpilib.IDoubleSolenoid;
+import org.usfirst.frc.team1318.robot.common.wpilib.IEncoder;
+import org.usfirst.frc.team1318.robot.common.wpilib.IJoystick;
+import org.usfirst.frc.team1318.robot.common.wpilib.IMotor;
+import org.usfirst.frc.team1318.robot.common.wpilib.IPowerDistributionPanel;
+import org.usfirst.frc.team1318.robot.common.wpilib.IRelay;
+import org.usfirst.frc.team1318.robot.common.wpilib.IServo;
+import org.usfirst.frc.team1318.robot.common.wpilib.ISolenoid;
+import org.usfirst.frc.team1318.robot.common.wpilib.IVictorSPX;
+import org.usfirst.frc.team1318.robot.common.wpilib.IWpilibProvider;
+import org.usfirst.frc.team1318.robot.common.wpilib.RelayDirection;
+import org.usfirst.frc.team1318.robot.common.wpilib.RelayValue;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXControlMode;
+
+import edu.wpi.first.wpilibj.Joystick.AxisType;
+
+/**
+ * Provider of simulated electronics, for running the robot's code on a computer without any hardware.
+ * 
+ * The drivetrain, elevator, intake and NavX are driven by physics models, and everything is timed by a simulated
+ * timer.  Each call to step() runs the talons' closed loops and the physics models forward by one robot loop period
+ * and advances the timer, so the simulation runs as fast as the computer allows rather than in real time.  Devices
+ * that aren't modeled (solenoids, compressor, climber, etc.) accept outputs and do nothing.
+ * 
+ * One provider simulates one robot, so a new provider (and injector) should be used for each run.
+ * 
+ */
+public class SimulationWpilibProvider implements IWpilibProvider
+{
+    private final SimulatedTimer timer;
+    private final SimulatedNavx navx;
+    private final SimulatedDriverStation driverStation;
+
+    private final HashMap<Integer, SimulatedAnalogInput> analogInputMap;
+    private final HashMap<Integer, SimulatedDigitalInput> digitalInputMap;
+    private final HashMap<Integer, SimulatedTalonSRX> talonMap;
+    private final List<SimulatedTalonSRX> talons;
+
+    private final DriveTrainModel driveTrain;
+    private final ElevatorModel elevator;
+    private final IntakeModel intake;
+
+    /**
+     * Initializes a new SimulationWpilibProvider
+     */
+    public SimulationWpilibProvider()
+    {
+        this.timer = new SimulatedTimer();
+        this.navx = new SimulatedNavx();
+        this.driverStation = new SimulatedDriverStation();
+
+        this.analogInputMap = new HashMap<Integer, SimulatedAnalogInput>();
+        this.digitalInputMap = new HashMap<Integer, SimulatedDigitalInput>();
+        this.talonMap = new HashMap<Integer, SimulatedTalonSRX>();
+        this.talons = new ArrayList<SimulatedTalonSRX>();
+
+        this.driveTrain = new DriveTrainModel(
+            this.getTalonSRX(ElectronicsConstants.DRIVETRAIN_LEFT_MOTOR_CAN_ID),
+            this.getTalonSRX(ElectronicsConstants.DRIVETRAIN_RIGHT_MOTOR_CAN_ID),
+            this.navx);
+        this.elevator = new ElevatorModel(
+            this.getTalonSRX(ElectronicsConstants.ELEVATOR_INNER_MOTOR_CAN_ID),
+            this.getTalonSRX(ElectronicsConstants.ELEVATOR_OUTER_MOTOR_CAN_ID));
+        this.intake = new IntakeModel(
+            this.getTalonSRX(ElectronicsConstants.ELEVATOR_TOP_CARRIAGE_INTAKE_MOTOR_CAN_ID),
+            this.getTalonSRX(ElectronicsConstants.ELEVATOR_BOTTOM_CARRIAGE_INTAKE_MOTOR_CAN_ID),
+            this.getAnalogInput(ElectronicsConstants.ELEVATOR_THROUGH_BEAM_SENSOR_ANALOG_CHANNEL));
+    }
+
+    /**
+     * Advance the simulation by one robot loop period
+     */
+    public void step()
+    {
+        this.step(SimulationConstants.LOOP_PERIOD);
+    }
+
+    /**
+     * Advance the simulation, running the talons and physics models in small steps
+     * @param duration the amount of time to advance by (in seconds)
+     */
+    public void step(double duration)
+    {
+        double remaining = duration;
+        while (remaining > 1e-9)
+        {
+            double dt = Math.min(remaining, SimulationConstants.PHYSICS_STEP);
+            for (int i = 0; i < this.talons.size(); i++)
+            {
+                this.talons.get(i).update(dt);
+            }
+
+            for (int i = 0; i < this.talons.size(); i++)
+            {
+                SimulatedTalonSRX talon = this.talons.get(i);
+                if (talon.getControlMode() == TalonSRXControlMode.Follower)
+                {
+                    SimulatedTalonSRX leader = this.talonMap.get((int)talon.getSetpoint());
+                    if (leader != null)
+                    {
+                        talon.follow(leader);
+                    }
+                }
+            }
+
+            this.driveTrain.step(dt);
+            this.elevator.step(dt);
+            this.intake.step(dt);
+
+            this.timer.advance(dt);
+            remaining -= dt;
+        }
+    }
+
+    /**
+     * Retrieve the simulated timer that should be used as the robot's timer
+     * @return the timer
+     */
+    public SimulatedTimer getTimer()
+    {
+        return this.timer;
+    }
+
+    /**
+     * Retrieve the drivetrain model
+     * @return the drivetrain model
+     */
+    public DriveTrainModel getDriveTrain()
+    {
+        return this.driveTrain;
+    }
+
+    /**
+     * Retrieve the elevator model
+     * @return the elevator model
+     */
+    public ElevatorModel getElevator()
+    {
+        return this.elevator;
+    }
+
+    /**
+     * Retrieve the intake model
+     * @return the intake model
+     */
+    public IntakeModel getIntake()
+    {
+        return this.intake;
+    }
+
+    @Override
+    public SimulatedAnalogInput getAnalogInput(int channel)
+    {
+        if (!this.analogInputMap.containsKey(channel))
+        {
+            this.analogInputMap.put(channel, new SimulatedAnalogInput());
+        }
+
+        return this.analogInputMap.get(channel);
+    }
+
+    @Override
+    public SimulatedTalonSRX getTalonSRX(int deviceNumber)
+    {
+        if (!this.talonMap.containsKey(deviceNumber))
+        {
+            SimulatedTalonSRX talon = new SimulatedTalonSRX();
+            this.talonMap.put(deviceNumber, talon);
+            this.talons.add(talon);
+        }
+
+        return this.talonMap.get(deviceNumber);
+    }
+
+    @Override
+    public IVictorSPX getVictorSPX(int deviceNumber)
+    {
+        return new NullVictorSPX();
+    }
+
+    @Override
+    public ICompressor getCompressor()
+    {
+        return this.getCompressor(0);
+    }
+
+    @Override
+    public ICompressor getCompressor(int module)
+    {
+        return new NullCompressor();
+    }
+
+    @Override
+    public SimulatedDigitalInput getDigitalInput(int channel)
+    {
+        if (!this.digitalInputMap.containsKey(channel))
+        {
+            this.digitalInputMap.put(channel, new SimulatedDigitalInput());
+        }
+
+        return this.digitalInputMap.get(channel);
+    }
+
+    @Override
+    public IDoubleSolenoid getDoubleSolenoid(int forwardChannel, int reverseChannel)
+    {
+        return this.getDoubleSolenoid(0, forwardChannel, reverseChannel);
+    }
+
+    @Override
+    public IDoubleSolenoid getDoubleSolenoid(int module, int forwardChannel, int reverseChannel)
+    {
+        return new NullDoubleSolenoid();
+    }
+
+    @Override
+    public IEncoder getEncoder(int channelA, int channelB)
+    {
+        return new NullEncoder();
+    }
+
+    @Override
+    public IJoystick getJoystick(int port)
+    {
+        return new NullJoystick();
+    }
+
+    @Override
+    public IMotor getTalon(int channel)
+    {
+        return this.getVictor(channel);
+    }
+
+    @Override
+    public IMotor getVictor(int channel)
+    {
+        return new NullMotor();
+    }
+
+    @Override
+    public IServo getServo(int channel)
+    {
+        return new NullServo();
+    }
+
+    @Override
+    public IPowerDistributionPanel getPDP()
+    {
+        return this.getPDP(0);
+    }
+
+    @Override
+    public IPowerDistributionPanel getPDP(int module)
+    {
+        return new NullPowerDistributionPanel();
+    }
+
+    @Override
+    public IRelay getRelay(int channel)
+    {
+        return new NullRelay();
+    }
+
+    @Override
+    public IRelay getRelay(int channel, RelayDirection direction)
+    {
+        return this.getRelay(channel);
+    }
+
+    @Override
+    public ISolenoid getSolenoid(int channel)
+    {
+        return this.getSolenoid(0, channel);
+    }
+
+    @Override
+    public ISolenoid getSolenoid(int module, int channel)
+    {
+        return new NullSolenoid();
+    }
+
+    @Override
+    public SimulatedNavx getNavx()
+    {
+        return this.navx;
+    }
+
+    @Override
+    public SimulatedDriverStation getDriverStation()
+    {
+        return this.driverStation;
+    }
+
+    private static class NullVictorSPX implements IVictorSPX
+    {
+        @Override
+        public void set(double power)
+        {
+        }
+
+        @Override
+        public void setInvertOutput(boolean flip)
+        {
+        }
+
+        @Override
+        public void setInvertSensor(boolean flip)
+        {
+        }
+
+        @Override
+        public void setControlMode(TalonSRXControlMode mode)
+        {
+        }
+    }
+
+    private static class NullCompressor implements ICompressor
+    {
+        @Override
+        public void start()
+        {
+        }
+
+        @Override
+        public void stop()
+        {
+        }
+    }
+
+    private static class NullDoubleSolenoid implements IDoubleSolenoid
+    {
+        @Override
+        public void set(DoubleSolenoidValue value)
+        {
+        }
+    }
+
+    private static class NullEncoder implements IEncoder
+    {
+        @Override
+        public double getRate()
+        {
+            return 0.0;
+        }
+
+        @Override
+        public double getDistance()
+        {
+            return 0.0;
+        }
+
+        @Override
+        public int get()
+        {
+            return 0;
+        }
+
+        @Override
+        public void setDistancePerPulse(double distancePerPulse)
+        {
+        }
+
+        @Override
+        public void reset()
+        {
+        }
+    }
+
+    private static class NullJoystick implements IJoystick
+    {
+        @Override
+        public double getAxis(AxisType relevantAxis)
+        {
+            return 0.0;
+        }
+
+        @Override
+        public int getPOV()
+        {
+            return -1;
+        }
+
+        @Override
+        public boolean getRawButton(int value)
+        {
+            return false;
+        }
+    }
+
+    private static class NullMotor implements IMotor
+    {
+        @Override
+        public void set(double power)
+        {
+        }
+    }
+
+    private static class NullServo implements IServo
+    {
+        @Override
+        public void set(double value)
+        {
+        }
+    }
+
+    private static class NullPowerDistributionPanel implements IPowerDistributionPanel
+    {
+        @Override
+        public double getBatteryVoltage()
+        {
+            return 12.0;
+        }
+
+        @Override
+        public double getCurrent(int pdpChannel)
+        {
+            return 0.0;
+        }
+    }
+
+    private static class NullRelay implements IRelay
+    {
+        @Override
+        public void set(RelayValue value)
+        {
+        }
+
+        @Override
+        public void setDirection(RelayDirection direction)
+        {
+        }
+    }
+
+    private static class NullSolenoid implements ISolenoid
+    {
+        @Override
+        public void set(boolean on)
+        {
+        }
+    }
+}
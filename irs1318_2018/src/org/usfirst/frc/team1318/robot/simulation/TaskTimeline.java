@@ -0,0 +1,89 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+import org.usfirst.frc.team1318.robot.driver.common.IControlTask;
+import org.usfirst.frc.team1318.robot.driver.common.IControlTaskListener;
+
+/**
+ * Task listener that records when each task within an autonomous routine begins and ends.
+ * 
+ */
+public class TaskTimeline implements IControlTaskListener
+{
+    private final ITimer timer;
+
+    private final IdentityHashMap<IControlTask, Entry> runningTasks;
+    private final IdentityHashMap<IControlTask, Integer> depths;
+    private final List<Entry> entries;
+
+    /**
+     * Initializes a new TaskTimeline
+     * @param timer to use to stamp when tasks begin and end
+     */
+    public TaskTimeline(ITimer timer)
+    {
+        this.timer = timer;
+
+        this.runningTasks = new IdentityHashMap<IControlTask, Entry>();
+        this.depths = new IdentityHashMap<IControlTask, Integer>();
+        this.entries = new ArrayList<Entry>();
+    }
+
+    @Override
+    public void taskBegun(IControlTask parent, IControlTask task)
+    {
+        Integer parentDepth = this.depths.get(parent);
+        int depth = parentDepth != null ? parentDepth + 1 : 1;
+        this.depths.put(task, depth);
+
+        Entry entry = new Entry(task.getClass().getSimpleName(), depth, this.timer.get());
+        this.runningTasks.put(task, entry);
+        this.entries.add(entry);
+    }
+
+    @Override
+    public void taskEnded(IControlTask parent, IControlTask task)
+    {
+        // tasks can be told to end/stop more than once (e.g. stopped after the routine has ended), only the first counts
+        Entry entry = this.runningTasks.remove(task);
+        if (entry != null)
+        {
+            entry.endTime = this.timer.get();
+        }
+    }
+
+    /**
+     * Retrieve the timings of the tasks, in the order that they began
+     * @return the task timings
+     */
+    public List<TaskTiming> getTimings()
+    {
+        List<TaskTiming> timings = new ArrayList<TaskTiming>(this.entries.size());
+        for (Entry entry : this.entries)
+        {
+            timings.add(new TaskTiming(entry.name, entry.depth, entry.beginTime, entry.endTime));
+        }
+
+        return timings;
+    }
+
+    private static class Entry
+    {
+        private final String name;
+        private final int depth;
+        private final double beginTime;
+        private double endTime;
+
+        private Entry(String name, int depth, double beginTime)
+        {
+            this.name = name;
+            this.depth = depth;
+            this.beginTime = beginTime;
+            this.endTime = Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+/**
+ * When one task within an autonomous routine began and ended
+ * 
+ */
+public class TaskTiming
+{
+    private final String name;
+    private final int depth;
+    private final double beginTime;
+    private final double endTime;
+
+    /**
+     * Initializes a new TaskTiming
+     * @param name of the task (its class name)
+     * @param depth of the task within the routine (1 for the tasks directly within the routine's task)
+     * @param beginTime when the task began (in seconds)
+     * @param endTime when the task ended, or NaN if it never ended (in seconds)
+     */
+    public TaskTiming(String name, int depth, double beginTime, double endTime)
+    {
+        this.name = name;
+        this.depth = depth;
+        this.beginTime = beginTime;
+        this.endTime = endTime;
+    }
+
+    public String getName()
+    {
+        return this.name;
+    }
+
+    public int getDepth()
+    {
+        return this.depth;
+    }
+
+    public double getBeginTime()
+    {
+        return this.beginTime;
+    }
+
+    public double getEndTime()
+    {
+        return this.endTime;
+    }
+
+    /**
+     * Retrieve how long the task ran for
+     * @return the duration (in seconds), or NaN if the task never ended
+     */
+    public double getDuration()
+    {
+        return this.endTime - this.beginTime;
+    }
+}
@@ -46,6 +46,10 @@ public class VisionConstants
     public static final int LIFECAM_CAMERA_VISION_BRIGHTNESS = 1;
     public static final int LIFECAM_CAMERA_OPERATOR_BRIGHTNESS = 35;
     public static final int LIFECAM_CAMERA_FPS = 20; // Max supported value is 30
+    public static final double LIFECAM_CAMERA_LATENCY = 0.06; // seconds from when the image is exposed until grabFrame returns it (exposure, USB transfer and decoding), estimated - measure on the robot
+
+    // Pipeline threading (capture, preprocessing and analysis on separate threads, rather than all on one VisionThread)
+    public static final boolean USE_STAGED_PIPELINE = true;
 
     // Undistort constants
     public static final boolean SHOULD_UNDISTORT = false;
@@ -58,4 +62,9 @@ public class VisionConstants
 
     // Contour filtering constants
     public static final double CONTOUR_MIN_AREA = 25.0;
+
+    // Region-of-interest tracking constants (once a target is found, only search near where it was last seen)
+    public static final boolean ROI_TRACKING_ENABLED = true;
+    public static final int ROI_TRACKING_PADDING = 24; // number of pixels to add on each side of the target's last bounding box
+    public static final int ROI_TRACKING_MAX_MISSES = 3; // number of frames without the target before going back to searching the whole frame
 }
@@ -1,15 +1,20 @@
 package org.usfirst.frc.team1318.robot.vision;
 
 import org.opencv.core.Point;
+import org.opencv.core.Size;
 import org.usfirst.frc.team1318.robot.ElectronicsConstants;
 import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
 import org.usfirst.frc.team1318.robot.common.IMechanism;
+import org.usfirst.frc.team1318.robot.common.INumberLogChannel;
 import org.usfirst.frc.team1318.robot.common.wpilib.ISolenoid;
 import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
 import org.usfirst.frc.team1318.robot.common.wpilib.IWpilibProvider;
 import org.usfirst.frc.team1318.robot.driver.Operation;
 import org.usfirst.frc.team1318.robot.driver.common.Driver;
+import org.usfirst.frc.team1318.robot.vision.common.StagedVisionRunner;
 import org.usfirst.frc.team1318.robot.vision.common.VisionProcessingState;
+import org.usfirst.frc.team1318.robot.vision.common.VisionResult;
+import org.usfirst.frc.team1318.robot.vision.common.VisionStageStatistics;
 import org.usfirst.frc.team1318.robot.vision.pipelines.HSVCenterPipeline;
 import org.usfirst.frc.team1318.robot.vision.pipelines.ICentroidVisionPipeline;
 
@@ -35,22 +40,27 @@ public class VisionManager implements IMechanism, VisionRunner.Listener<ICentroi
     private final ITimer timer;
     private final ISolenoid ringLight;
 
-    private final Object visionLock;
-
     private final UsbCamera camera;
     private final VisionThread visionThread;
+    private final StagedVisionRunner stagedRunner;
     private final HSVCenterPipeline visionPipeline;
 
-    private Driver driver;
-    private VisionProcessingState currentState;
+    // per-stage statistics for the staged pipeline
+    private final VisionStageStatistics[] stageStatistics;
+    private final INumberLogChannel[] stageLatencyLogs;
+    private final INumberLogChannel[] stageFpsLogs;
+    private final INumberLogChannel[] stageDroppedLogs;
 
-    private Point center;
+    // region-of-interest tracking statistics
+    private final INumberLogChannel regionHitRateLog;
+    private final INumberLogChannel regionProcessingTimeLog;
+    private final INumberLogChannel fullFrameProcessingTimeLog;
 
-    private Double desiredAngleX;
-    private Double measuredAngleX;
-    private Double distanceFromRobot;
+    private Driver driver;
+    private VisionProcessingState currentState;
 
-    private double lastMeasuredFps;
+    // latest result from the pipeline (replaced as a whole by the vision thread, so no locking is needed)
+    private volatile VisionResult result;
 
     /**
      * Initializes a new VisionManager
@@ -68,8 +78,6 @@ public class VisionManager implements IMechanism, VisionRunner.Listener<ICentroi
         this.timer = timer;
         this.ringLight = provider.getSolenoid(ElectronicsConstants.PCM_A_MODULE, ElectronicsConstants.VISION_RING_LIGHT_PCM_CHANNEL);
 
-        this.visionLock = new Object();
-
         this.camera = new UsbCamera("usb0", 0);
         this.camera.setResolution(VisionConstants.LIFECAM_CAMERA_RESOLUTION_X, VisionConstants.LIFECAM_CAMERA_RESOLUTION_Y);
 
@@ -77,59 +85,110 @@ public class VisionManager implements IMechanism, VisionRunner.Listener<ICentroi
         this.camera.setBrightness(VisionConstants.LIFECAM_CAMERA_OPERATOR_BRIGHTNESS);
         this.camera.setFPS(VisionConstants.LIFECAM_CAMERA_FPS);
 
-        this.visionPipeline = new HSVCenterPipeline(this.timer, VisionConstants.SHOULD_UNDISTORT);
-        this.visionThread = new VisionThread(this.camera, this.visionPipeline, this);
-        this.visionThread.start();
-
         this.driver = null;
         this.currentState = VisionProcessingState.None;
 
-        this.center = null;
-        this.desiredAngleX = null;
-        this.measuredAngleX = null;
-        this.distanceFromRobot = null;
+        this.result = null;
+
+        this.visionPipeline = new HSVCenterPipeline(this.timer, VisionConstants.SHOULD_UNDISTORT);
+        if (VisionConstants.USE_STAGED_PIPELINE)
+        {
+            this.visionThread = null;
+            this.stagedRunner = new StagedVisionRunner(
+                this.timer,
+                VisionConstants.LIFECAM_CAMERA_LATENCY,
+                this.camera,
+                this.visionPipeline,
+                result -> this.setResult(result),
+                new Size(VisionConstants.LIFECAM_CAMERA_RESOLUTION_X, VisionConstants.LIFECAM_CAMERA_RESOLUTION_Y));
+            this.stagedRunner.start();
+
+            this.stageStatistics = new VisionStageStatistics[]
+            {
+                this.stagedRunner.getCaptureStatistics(),
+                this.stagedRunner.getPreprocessStatistics(),
+                this.stagedRunner.getAnalysisStatistics(),
+                this.stagedRunner.getPipelineStatistics(),
+            };
+        }
+        else
+        {
+            this.stagedRunner = null;
+            this.visionThread = new VisionThread(this.camera, this.visionPipeline, this);
+            this.visionThread.start();
+
+            this.stageStatistics = new VisionStageStatistics[0];
+        }
 
-        this.lastMeasuredFps = 0.0;
+        this.stageLatencyLogs = new INumberLogChannel[this.stageStatistics.length];
+        this.stageFpsLogs = new INumberLogChannel[this.stageStatistics.length];
+        this.stageDroppedLogs = new INumberLogChannel[this.stageStatistics.length];
+        for (int i = 0; i < this.stageStatistics.length; i++)
+        {
+            String stageName = this.stageStatistics[i].getName();
+            this.stageLatencyLogs[i] = logger.registerNumberChannel(VisionManager.LogName, stageName + "_latency");
+            this.stageFpsLogs[i] = logger.registerNumberChannel(VisionManager.LogName, stageName + "_fps");
+            this.stageDroppedLogs[i] = logger.registerNumberChannel(VisionManager.LogName, stageName + "_dropped");
+        }
+
+        this.regionHitRateLog = logger.registerNumberChannel(VisionManager.LogName, "roi_hit_rate");
+        this.regionProcessingTimeLog = logger.registerNumberChannel(VisionManager.LogName, "roi_time");
+        this.fullFrameProcessingTimeLog = logger.registerNumberChannel(VisionManager.LogName, "full_frame_time");
     }
 
     public Point getCenter()
     {
-        synchronized (this.visionLock)
-        {
-            return this.center;
-        }
+        VisionResult result = this.result;
+        return result != null ? result.getCenter() : null;
     }
 
     public Double getMeasuredAngle()
     {
-        synchronized (this.visionLock)
-        {
-            return this.measuredAngleX;
-        }
+        VisionResult result = this.result;
+        return result != null ? result.getMeasuredAngleX() : null;
     }
 
     public Double getDesiredAngle()
     {
-        synchronized (this.visionLock)
-        {
-            return this.desiredAngleX;
-        }
+        VisionResult result = this.result;
+        return result != null ? result.getDesiredAngleX() : null;
     }
 
     public Double getMeasuredDistance()
     {
-        synchronized (this.visionLock)
-        {
-            return this.distanceFromRobot;
-        }
+        VisionResult result = this.result;
+        return result != null ? result.getRobotDistance() : null;
+    }
+
+    /**
+     * Gets the time (from the robot's timer) that the frame behind the current measurements was captured, so that
+     * the measurements can be compensated for the latency of the vision pipeline
+     * @return the capture time, or null if there is no current measurement
+     */
+    public Double getCaptureTime()
+    {
+        VisionResult result = this.result;
+        return result != null ? result.getCaptureTime() : null;
+    }
+
+    /**
+     * Gets the latest result from the vision pipeline, so that a consumer can read the measurements and the capture
+     * time from the same frame
+     * @return the latest result, or null if there is no current measurement
+     */
+    public VisionResult getLatestResult()
+    {
+        return this.result;
     }
 
     public double getLastMeasuredFps()
     {
-        synchronized (this.visionLock)
+        if (this.stagedRunner != null)
         {
-            return this.lastMeasuredFps;
+            return this.stagedRunner.getPipelineStatistics().getFps();
         }
+
+        return this.visionPipeline.getFps();
     }
 
     /**
@@ -149,6 +208,20 @@ public class VisionManager implements IMechanism, VisionRunner.Listener<ICentroi
         this.logger.logNumber(VisionManager.LogName, "dist", dist);
         this.logger.logNumber(VisionManager.LogName, "dAngle", dAngle);
         this.logger.logNumber(VisionManager.LogName, "mAngle", mAngle);
+
+        Double captureTime = this.getCaptureTime();
+        this.logger.logNumber(VisionManager.LogName, "latency", captureTime != null ? this.timer.get() - captureTime : null);
+
+        for (int i = 0; i < this.stageStatistics.length; i++)
+        {
+            this.stageLatencyLogs[i].publish(this.stageStatistics[i].getAverageLatency());
+            this.stageFpsLogs[i].publish(this.stageStatistics[i].getFps());
+            this.stageDroppedLogs[i].publish(this.stageStatistics[i].getDroppedFrames());
+        }
+
+        this.regionHitRateLog.publish(this.visionPipeline.getRegionHitRate());
+        this.regionProcessingTimeLog.publish(this.visionPipeline.getAverageRegionProcessingTime());
+        this.fullFrameProcessingTimeLog.publish(this.visionPipeline.getAverageFullFrameProcessingTime());
     }
 
     @Override
@@ -188,13 +261,7 @@ public class VisionManager implements IMechanism, VisionRunner.Listener<ICentroi
         this.ringLight.set(false);
         this.visionPipeline.setActivation(false);
 
-        this.center = null;
-
-        this.desiredAngleX = null;
-        this.measuredAngleX = null;
-        this.distanceFromRobot = null;
-
-        this.lastMeasuredFps = 0.0;
+        this.result = null;
     }
 
     @Override
@@ -206,18 +273,15 @@ public class VisionManager implements IMechanism, VisionRunner.Listener<ICentroi
     @Override
     public void copyPipelineOutputs(ICentroidVisionPipeline pipeline)
     {
-        synchronized (this.visionLock)
-        {
-            if (pipeline.isActive())
-            {
-                this.center = pipeline.getCenter();
-
-                this.desiredAngleX = pipeline.getDesiredAngleX();
-                this.measuredAngleX = pipeline.getMeasuredAngleX();
-                this.distanceFromRobot = pipeline.getRobotDistance();
+        this.setResult(pipeline.getLatestResult());
+    }
 
-                this.lastMeasuredFps = pipeline.getFps();
-            }
+    private void setResult(VisionResult result)
+    {
+        // ignore any frames that finished processing after vision was disabled
+        if (this.visionPipeline.isActive())
+        {
+            this.result = result;
         }
     }
 }
@@ -0,0 +1,385 @@
+package org.usfirst.frc.team1318.robot.vision;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.usfirst.frc.team1318.robot.common.TimingHistogram;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+import org.usfirst.frc.team1318.robot.vision.common.VisionFrame;
+import org.usfirst.frc.team1318.robot.vision.common.VisionResult;
+import org.usfirst.frc.team1318.robot.vision.pipelines.HSVCenterPipeline;
+import org.usfirst.frc.team1318.robot.vision.pipelines.ICentroidVisionPipeline;
+
+/**
+ * Replays frames saved by a vision pipeline (see VisionConstants.DEBUG_SAVE_FRAMES) through a pipeline on the desktop,
+ * reporting the throughput, the latency percentiles of the preprocessing and analysis stages, and the center found in
+ * each frame.  The centers can be saved and later compared against (within a tolerance), so that a change to a
+ * pipeline can be shown to be faster while still finding the same targets.
+ *
+ * Requires the OpenCV native library for the desktop to be on the java.library.path.
+ *
+ * Usage: VisionReplayHarness frameFolder [iterations] [expected.csv [tolerance]]
+ *
+ */
+public class VisionReplayHarness
+{
+    private static final String InputFrameSuffix = "-1.jpg";
+
+    private final ICentroidVisionPipeline pipeline;
+    private final List<String> frameNames;
+    private final List<Mat> frames;
+
+    private final TimingHistogram preprocessTimes;
+    private final TimingHistogram analysisTimes;
+    private final TimingHistogram totalTimes;
+
+    private final double[] centerXs;
+    private final double[] centerYs;
+    private double elapsedTime;
+    private int processedFrames;
+
+    /**
+     * Initializes a new VisionReplayHarness, loading the frames that were saved in the provided folder
+     * @param pipeline to replay the frames through
+     * @param frameFolder containing the saved frames
+     * @param iterations the number of times the frames will be replayed
+     */
+    public VisionReplayHarness(ICentroidVisionPipeline pipeline, String frameFolder, int iterations)
+    {
+        this.pipeline = pipeline;
+        this.frameNames = VisionReplayHarness.findFrames(frameFolder);
+        this.frames = new ArrayList<Mat>(this.frameNames.size());
+        for (String frameName : this.frameNames)
+        {
+            this.frames.add(Imgcodecs.imread(new File(frameFolder, frameName).getPath()));
+        }
+
+        int sampleCount = Math.max(1, this.frames.size() * iterations);
+        this.preprocessTimes = new TimingHistogram(sampleCount);
+        this.analysisTimes = new TimingHistogram(sampleCount);
+        this.totalTimes = new TimingHistogram(sampleCount);
+
+        this.centerXs = new double[this.frames.size()];
+        this.centerYs = new double[this.frames.size()];
+        this.elapsedTime = 0.0;
+        this.processedFrames = 0;
+    }
+
+    /**
+     * Replay frames saved by a vision pipeline
+     * @param args the folder with the frames, the number of iterations, and optionally the expected centers and tolerance
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Usage: VisionReplayHarness frameFolder [iterations] [expected.csv [tolerance]]");
+            return;
+        }
+
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+
+        String frameFolder = args[0];
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        ICentroidVisionPipeline pipeline = new HSVCenterPipeline(new NanoTimer(), VisionConstants.SHOULD_UNDISTORT, false);
+        VisionReplayHarness harness = new VisionReplayHarness(pipeline, frameFolder, iterations);
+        harness.replay(iterations);
+        harness.printReport(System.out);
+
+        if (args.length > 2)
+        {
+            double tolerance = args.length > 3 ? Double.parseDouble(args[3]) : 1.0;
+            int mismatches = harness.compareCenters(args[2], tolerance, System.out);
+            System.out.println(String.format("%d frames differ from %s by more than %f pixels", mismatches, args[2], tolerance));
+        }
+        else
+        {
+            String resultFileName = new File(frameFolder, "centers.csv").getPath();
+            harness.writeCenters(resultFileName);
+            System.out.println("Wrote centers to " + resultFileName);
+        }
+    }
+
+    /**
+     * Find the input frames that were saved in the provided folder, in the order they were captured
+     * @param frameFolder containing the saved frames
+     * @return the names of the frames
+     */
+    public static List<String> findFrames(String frameFolder)
+    {
+        String[] fileNames = new File(frameFolder).list((directory, name) -> name.endsWith(VisionReplayHarness.InputFrameSuffix));
+        if (fileNames == null)
+        {
+            return new ArrayList<String>();
+        }
+
+        // frames are saved as image<number>-1.jpg, so sort by number rather than by name
+        Arrays.sort(fileNames, (first, second) -> Long.compare(VisionReplayHarness.getFrameNumber(first), VisionReplayHarness.getFrameNumber(second)));
+        return Arrays.asList(fileNames);
+    }
+
+    /**
+     * Replay all of the frames through the pipeline the provided number of times, recording the centers from the
+     * last iteration
+     * @param iterations the number of times to replay the frames
+     */
+    public void replay(int iterations)
+    {
+        Size frameSize = new Size(VisionConstants.LIFECAM_CAMERA_RESOLUTION_X, VisionConstants.LIFECAM_CAMERA_RESOLUTION_Y);
+        VisionFrame frame = new VisionFrame(frameSize);
+
+        long startTime = System.nanoTime();
+        for (int iteration = 0; iteration < iterations; iteration++)
+        {
+            // deactivate and reactivate so that each iteration starts from scratch (e.g. without a tracking region)
+            this.pipeline.setActivation(false);
+            this.pipeline.setActivation(true);
+
+            for (int i = 0; i < this.frames.size(); i++)
+            {
+                this.frames.get(i).copyTo(frame.getImage());
+                frame.setCaptureTime(i);
+
+                long preprocessStart = System.nanoTime();
+                this.pipeline.preprocess(frame);
+                long analysisStart = System.nanoTime();
+                VisionResult result = this.pipeline.analyze(frame);
+                long analysisEnd = System.nanoTime();
+
+                this.preprocessTimes.record(analysisStart - preprocessStart);
+                this.analysisTimes.record(analysisEnd - analysisStart);
+                this.totalTimes.record(analysisEnd - preprocessStart);
+                this.processedFrames++;
+
+                Point center = result.getCenter();
+                this.centerXs[i] = center != null ? center.x : Double.NaN;
+                this.centerYs[i] = center != null ? center.y : Double.NaN;
+            }
+        }
+
+        this.elapsedTime += (System.nanoTime() - startTime) / 1000000000.0;
+    }
+
+    /**
+     * Print the throughput, stage latencies and detection results
+     * @param output to print to
+     */
+    public void printReport(PrintStream output)
+    {
+        int detections = 0;
+        for (int i = 0; i < this.centerXs.length; i++)
+        {
+            if (!Double.isNaN(this.centerXs[i]))
+            {
+                detections++;
+            }
+        }
+
+        output.println(String.format("frames: %d, processed: %d, elapsed: %.3fs", this.frames.size(), this.processedFrames, this.elapsedTime));
+        output.println(String.format("throughput: %.1f fps", this.elapsedTime > 0.0 ? this.processedFrames / this.elapsedTime : 0.0));
+        output.println(String.format("detections: %d of %d frames", detections, this.centerXs.length));
+        VisionReplayHarness.printTimes(output, "preprocess", this.preprocessTimes);
+        VisionReplayHarness.printTimes(output, "analysis", this.analysisTimes);
+        VisionReplayHarness.printTimes(output, "total", this.totalTimes);
+    }
+
+    /**
+     * Write the center found in each frame to a CSV file (frame name, x, y - x and y are empty if nothing was found)
+     * @param fileName to write to
+     * @throws IOException
+     */
+    public void writeCenters(String fileName) throws IOException
+    {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName)))
+        {
+            for (int i = 0; i < this.centerXs.length; i++)
+            {
+                writer.write(this.frameNames.get(i));
+                writer.write(',');
+                if (!Double.isNaN(this.centerXs[i]))
+                {
+                    writer.write(Double.toString(this.centerXs[i]));
+                    writer.write(',');
+                    writer.write(Double.toString(this.centerYs[i]));
+                }
+                else
+                {
+                    writer.write(',');
+                }
+
+                writer.write("\r\n");
+            }
+        }
+    }
+
+    /**
+     * Compare the center found in each frame with the centers in a CSV file previously written by writeCenters
+     * @param fileName to read the expected centers from
+     * @param tolerance the distance (in pixels) that a center may differ by
+     * @param output to print any differences to
+     * @return the number of frames where the center differs (including frames that are missing from the file)
+     * @throws IOException
+     */
+    public int compareCenters(String fileName, double tolerance, PrintStream output) throws IOException
+    {
+        List<String> expectedNames = new ArrayList<String>();
+        List<double[]> expectedCenters = new ArrayList<double[]>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                String[] values = line.split(",", -1);
+                if (values.length < 3)
+                {
+                    continue;
+                }
+
+                expectedNames.add(values[0]);
+                if (values[1].isEmpty())
+                {
+                    expectedCenters.add(null);
+                }
+                else
+                {
+                    expectedCenters.add(new double[] { Double.parseDouble(values[1]), Double.parseDouble(values[2]) });
+                }
+            }
+        }
+
+        int mismatches = 0;
+        for (int i = 0; i < this.centerXs.length; i++)
+        {
+            int expectedIndex = expectedNames.indexOf(this.frameNames.get(i));
+            if (expectedIndex < 0)
+            {
+                output.println(this.frameNames.get(i) + ": no expected center");
+                mismatches++;
+                continue;
+            }
+
+            double[] expectedCenter = expectedCenters.get(expectedIndex);
+            boolean found = !Double.isNaN(this.centerXs[i]);
+            if (expectedCenter == null || !found)
+            {
+                if (expectedCenter != null || found)
+                {
+                    output.println(String.format("%s: expected %s, found %s", this.frameNames.get(i), expectedCenter != null ? "a center" : "none", found ? "a center" : "none"));
+                    mismatches++;
+                }
+
+                continue;
+            }
+
+            double distance = Math.hypot(this.centerXs[i] - expectedCenter[0], this.centerYs[i] - expectedCenter[1]);
+            if (distance > tolerance)
+            {
+                output.println(String.format(
+                    "%s: expected (%f, %f), found (%f, %f)",
+                    this.frameNames.get(i),
+                    expectedCenter[0],
+                    expectedCenter[1],
+                    this.centerXs[i],
+                    this.centerYs[i]));
+                mismatches++;
+            }
+        }
+
+        return mismatches;
+    }
+
+    /**
+     * Gets the number of frames that were loaded
+     * @return the number of frames
+     */
+    public int getFrameCount()
+    {
+        return this.frames.size();
+    }
+
+    /**
+     * Gets the throughput of the last replay
+     * @return frames per second
+     */
+    public double getFps()
+    {
+        return this.elapsedTime > 0.0 ? this.processedFrames / this.elapsedTime : 0.0;
+    }
+
+    private static void printTimes(PrintStream output, String name, TimingHistogram times)
+    {
+        times.computeSummary();
+        output.println(String.format(
+            "%s: mean %.3fms, p50 %.3fms, p90 %.3fms, p99 %.3fms, max %.3fms",
+            name,
+            times.getMean() / 1000000.0,
+            times.getP50() / 1000000.0,
+            times.getP90() / 1000000.0,
+            times.getP99() / 1000000.0,
+            times.getMax() / 1000000.0));
+    }
+
+    private static long getFrameNumber(String frameName)
+    {
+        long number = 0;
+        for (int i = 0; i < frameName.length(); i++)
+        {
+            char character = frameName.charAt(i);
+            if (character >= '0' && character <= '9')
+            {
+                number = number * 10 + (character - '0');
+            }
+            else if (character == '-')
+            {
+                break;
+            }
+        }
+
+        return number;
+    }
+
+    /**
+     * Timer based on the system's nanosecond clock, for running pipelines off of the robot (always running)
+     */
+    private static class NanoTimer implements ITimer
+    {
+        private long startTime = System.nanoTime();
+
+        @Override
+        public void start()
+        {
+        }
+
+        @Override
+        public void stop()
+        {
+        }
+
+        @Override
+        public double get()
+        {
+            return (System.nanoTime() - this.startTime) / 1000000000.0;
+        }
+
+        @Override
+        public void reset()
+        {
+            this.startTime = System.nanoTime();
+        }
+    }
+}
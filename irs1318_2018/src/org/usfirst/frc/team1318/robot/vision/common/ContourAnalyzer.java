@@ -0,0 +1,396 @@
+package org.usfirst.frc.team1318.robot.vision.common;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.imgproc.Moments;
+
+/**
+ * Contour analyzer.
+ *
+ * Finds the contours in a frame once, and then answers queries about them (largest, top-K, ratio-filtered, sorted)
+ * from primitive arrays caching each contour's area, bounding box and center of mass, so that nothing is recomputed
+ * from the contour itself no matter how many queries are made.  Areas are computed for every contour when the frame is
+ * analyzed, bounding boxes and centers of mass the first time they are needed.
+ *
+ * The analyzer owns the contours it finds, and releases them when the next frame is analyzed (or when cleared), so the
+ * native memory used for contours stays flat from frame to frame.  An analyzer is meant to be reused by a single
+ * thread.
+ *
+ */
+public class ContourAnalyzer
+{
+    private static final int InitialCapacity = 16;
+
+    private final List<MatOfPoint> contours;
+    private final Mat hierarchy;
+
+    private int count;
+    private double[] areas;
+
+    private boolean[] hasBounds;
+    private int[] boundsX;
+    private int[] boundsY;
+    private int[] boundsWidth;
+    private int[] boundsHeight;
+
+    private boolean[] hasCenter;
+    private double[] centerX;
+    private double[] centerY;
+
+    /**
+     * Initializes a new ContourAnalyzer
+     */
+    public ContourAnalyzer()
+    {
+        this.contours = new ArrayList<MatOfPoint>(ContourAnalyzer.InitialCapacity);
+        this.hierarchy = new Mat();
+
+        this.count = 0;
+        this.allocate(ContourAnalyzer.InitialCapacity);
+    }
+
+    /**
+     * Find the contours in the frame, releasing the contours from the previous frame
+     * @param frame in which to look for contours (note: OpenCV may modify it)
+     * @return the number of contours found
+     */
+    public int analyze(Mat frame)
+    {
+        return this.analyze(frame, null);
+    }
+
+    /**
+     * Find the contours in a region of a frame, releasing the contours from the previous frame
+     * @param frameRegion in which to look for contours (note: OpenCV may modify it)
+     * @param offset of the region within the whole frame (added to the contours' points), or null for no offset
+     * @return the number of contours found
+     */
+    public int analyze(Mat frameRegion, Point offset)
+    {
+        this.clear();
+
+        if (offset == null)
+        {
+            Imgproc.findContours(frameRegion, this.contours, this.hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_TC89_KCOS);
+        }
+        else
+        {
+            Imgproc.findContours(frameRegion, this.contours, this.hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_TC89_KCOS, offset);
+        }
+
+        this.count = this.contours.size();
+        if (this.count > this.areas.length)
+        {
+            this.allocate(Math.max(this.count, this.areas.length * 2));
+        }
+
+        for (int i = 0; i < this.count; i++)
+        {
+            this.areas[i] = Imgproc.contourArea(this.contours.get(i));
+            this.hasBounds[i] = false;
+            this.hasCenter[i] = false;
+        }
+
+        return this.count;
+    }
+
+    /**
+     * Release the contours from the last frame analyzed
+     */
+    public void clear()
+    {
+        for (int i = 0; i < this.contours.size(); i++)
+        {
+            MatOfPoint contour = this.contours.get(i);
+            if (contour != null)
+            {
+                contour.release();
+            }
+        }
+
+        this.contours.clear();
+        this.count = 0;
+    }
+
+    /**
+     * Release all native memory held by the analyzer
+     */
+    public void release()
+    {
+        this.clear();
+        this.hierarchy.release();
+    }
+
+    /**
+     * Gets the number of contours found in the last frame analyzed
+     * @return the number of contours
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * Gets a contour (owned by the analyzer, so only valid until the next frame is analyzed)
+     * @param index of the contour
+     * @return the contour
+     */
+    public MatOfPoint getContour(int index)
+    {
+        return this.contours.get(index);
+    }
+
+    /**
+     * Take ownership of a contour, so that it isn't released when the next frame is analyzed
+     * @param index of the contour
+     * @return the contour, which the caller must release
+     */
+    public MatOfPoint takeContour(int index)
+    {
+        return this.contours.set(index, null);
+    }
+
+    /**
+     * Gets the area of a contour
+     * @param index of the contour
+     * @return the area of the contour
+     */
+    public double getArea(int index)
+    {
+        return this.areas[index];
+    }
+
+    /**
+     * Gets the bounding box of a contour
+     * @param index of the contour
+     * @return the bounding box of the contour
+     */
+    public Rect getBoundingRect(int index)
+    {
+        this.computeBounds(index);
+        return new Rect(this.boundsX[index], this.boundsY[index], this.boundsWidth[index], this.boundsHeight[index]);
+    }
+
+    /**
+     * Gets the bounding box of a contour, without allocating
+     * @param index of the contour
+     * @param rect to fill in with the bounding box of the contour
+     */
+    public void getBoundingRect(int index, Rect rect)
+    {
+        this.computeBounds(index);
+        rect.x = this.boundsX[index];
+        rect.y = this.boundsY[index];
+        rect.width = this.boundsWidth[index];
+        rect.height = this.boundsHeight[index];
+    }
+
+    /**
+     * Gets the height-to-width ratio of the bounding box of a contour
+     * @param index of the contour
+     * @return the height-to-width ratio
+     */
+    public double getHeightToWidthRatio(int index)
+    {
+        this.computeBounds(index);
+        return (double)this.boundsHeight[index] / (double)this.boundsWidth[index];
+    }
+
+    /**
+     * Find the center of mass for a contour using Moments.
+     * http://docs.opencv.org/3.1.0/d8/d23/classcv_1_1Moments.html
+     * @param index of the contour
+     * @return point representing the center of the contour, or null if the contour has no area
+     */
+    public Point getCenterOfMass(int index)
+    {
+        this.computeCenter(index);
+        if (Double.isNaN(this.centerX[index]))
+        {
+            return null;
+        }
+
+        return new Point(this.centerX[index], this.centerY[index]);
+    }
+
+    /**
+     * Find the largest contour
+     * @param minContourArea is the minimum contour area allowable
+     * @return the index of the largest contour, or -1 if there are no contours at least as large as the minimum
+     */
+    public int findLargest(double minContourArea)
+    {
+        int largestIndex = -1;
+        double largestArea = 0.0;
+        for (int i = 0; i < this.count; i++)
+        {
+            double area = this.areas[i];
+            if (area >= minContourArea && area > largestArea)
+            {
+                largestIndex = i;
+                largestArea = area;
+            }
+        }
+
+        return largestIndex;
+    }
+
+    /**
+     * Find the largest contours, largest first
+     * @param minContourArea is the minimum contour area allowable
+     * @param indices to fill with the indices of the largest contours (as many as will fit)
+     * @return the number of indices filled in
+     */
+    public int findLargest(double minContourArea, int[] indices)
+    {
+        return this.findLargest(minContourArea, -1.0, 0.0, -1.0, indices);
+    }
+
+    /**
+     * Find the largest contours that match the provided shape, largest first
+     * @param minContourArea is the minimum contour area allowable
+     * @param desiredContourHxWRatio is the desired height-to-width ratio for the contours (below 0.0 means ignore this)
+     * @param allowableContourHxWRatioRange is the allowable range for the height-to-width ratio for the contours
+     * @param allowableContourAreaRatio indicates the min allowable ratio between the area of each contour and the largest (below 0.0 means ignore this)
+     * @param indices to fill with the indices of the largest contours (as many as will fit)
+     * @return the number of indices filled in
+     */
+    public int findLargest(double minContourArea, double desiredContourHxWRatio, double allowableContourHxWRatioRange, double allowableContourAreaRatio, int[] indices)
+    {
+        int found = 0;
+        for (int i = 0; i < this.count; i++)
+        {
+            double area = this.areas[i];
+            if (area < minContourArea || area <= 0.0)
+            {
+                continue;
+            }
+
+            if (desiredContourHxWRatio >= 0.0 &&
+                Math.abs(this.getHeightToWidthRatio(i) - desiredContourHxWRatio) >= allowableContourHxWRatioRange)
+            {
+                continue;
+            }
+
+            // insert into the (descending) list of the largest contours found so far
+            int position = found;
+            while (position > 0 && this.areas[indices[position - 1]] < area)
+            {
+                position--;
+            }
+
+            if (position >= indices.length)
+            {
+                continue;
+            }
+
+            int last = Math.min(found, indices.length - 1);
+            for (int j = last; j > position; j--)
+            {
+                indices[j] = indices[j - 1];
+            }
+
+            indices[position] = i;
+            if (found < indices.length)
+            {
+                found++;
+            }
+        }
+
+        if (allowableContourAreaRatio >= 0.0 && found > 1)
+        {
+            double largestArea = this.areas[indices[0]];
+            while (found > 1 && this.areas[indices[found - 1]] / largestArea < allowableContourAreaRatio)
+            {
+                found--;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Find the contours, sorted from smallest to largest
+     * @param minContourArea is the minimum contour area allowable
+     * @param indices to fill with the indices of the contours (should have room for getCount() indices)
+     * @return the number of indices filled in
+     */
+    public int findSorted(double minContourArea, int[] indices)
+    {
+        int found = 0;
+        for (int i = 0; i < this.count && found < indices.length; i++)
+        {
+            double area = this.areas[i];
+            if (area < minContourArea)
+            {
+                continue;
+            }
+
+            int position = found;
+            while (position > 0 && this.areas[indices[position - 1]] > area)
+            {
+                indices[position] = indices[position - 1];
+                position--;
+            }
+
+            indices[position] = i;
+            found++;
+        }
+
+        return found;
+    }
+
+    private void computeBounds(int index)
+    {
+        if (!this.hasBounds[index])
+        {
+            Rect boundingRect = Imgproc.boundingRect(this.contours.get(index));
+            this.boundsX[index] = boundingRect.x;
+            this.boundsY[index] = boundingRect.y;
+            this.boundsWidth[index] = boundingRect.width;
+            this.boundsHeight[index] = boundingRect.height;
+            this.hasBounds[index] = true;
+        }
+    }
+
+    private void computeCenter(int index)
+    {
+        if (!this.hasCenter[index])
+        {
+            Moments moments = Imgproc.moments(this.contours.get(index));
+            if (moments.m00 == 0.0)
+            {
+                this.centerX[index] = Double.NaN;
+                this.centerY[index] = Double.NaN;
+            }
+            else
+            {
+                this.centerX[index] = moments.m10 / moments.m00;
+                this.centerY[index] = moments.m01 / moments.m00;
+            }
+
+            this.hasCenter[index] = true;
+        }
+    }
+
+    private void allocate(int capacity)
+    {
+        this.areas = new double[capacity];
+
+        this.hasBounds = new boolean[capacity];
+        this.boundsX = new int[capacity];
+        this.boundsY = new int[capacity];
+        this.boundsWidth = new int[capacity];
+        this.boundsHeight = new int[capacity];
+
+        this.hasCenter = new boolean[capacity];
+        this.centerX = new double[capacity];
+        this.centerY = new double[capacity];
+    }
+}
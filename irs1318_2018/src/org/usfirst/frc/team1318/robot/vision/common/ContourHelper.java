@@ -1,16 +1,16 @@
 package org.usfirst.frc.team1318.robot.vision.common;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-
 import org.opencv.core.Mat;
 import org.opencv.core.MatOfPoint;
 import org.opencv.core.Point;
-import org.opencv.core.Rect;
 import org.opencv.imgproc.Imgproc;
 import org.opencv.imgproc.Moments;
 
+/**
+ * Helpers for one-off contour queries.  Each of these finds the contours in the frame from scratch - for queries
+ * made every frame, use a ContourAnalyzer so that the contours and the cached values are reused.
+ * The returned contours belong to the caller, and any contours that aren't returned are released.
+ */
 public class ContourHelper
 {
     /**
@@ -31,34 +31,13 @@ public class ContourHelper
      */
     public static MatOfPoint findLargestContour(Mat frame, double minContourArea)
     {
-        // find the contours using OpenCV API...
-        Mat unused = new Mat();
-        List<MatOfPoint> contours = new ArrayList<MatOfPoint>();
-        Imgproc.findContours(frame, contours, unused, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_TC89_KCOS);
-        unused.release();
-
-        // find the largest contour...
-        double largestContourArea = 0.0;
-        MatOfPoint largestContour = null;
-        for (MatOfPoint contour : contours)
-        {
-            double area = Imgproc.contourArea(contour);
-            if (area >= minContourArea && area > largestContourArea)
-            {
-                if (largestContour != null)
-                {
-                    largestContour.release();
-                }
+        ContourAnalyzer analyzer = new ContourAnalyzer();
+        analyzer.analyze(frame);
 
-                largestContour = contour;
-                largestContourArea = area;
-            }
-            else
-            {
-                contour.release();
-            }
-        }
+        int largestIndex = analyzer.findLargest(minContourArea);
+        MatOfPoint largestContour = largestIndex >= 0 ? analyzer.takeContour(largestIndex) : null;
 
+        analyzer.release();
         return largestContour;
     }
 
@@ -80,142 +59,34 @@ public class ContourHelper
      */
     public static MatOfPoint[] findTwoLargestContours(Mat frame, double minContourArea)
     {
-        // find the contours using OpenCV API...
-        Mat unused = new Mat();
-        List<MatOfPoint> contours = new ArrayList<MatOfPoint>();
-        Imgproc.findContours(frame, contours, unused, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_TC89_KCOS);
-        unused.release();
-
-        double largestContourArea = 0.0;
-        MatOfPoint largestContour = null;
-
-        double secondLargestContourArea = 0.0;
-        MatOfPoint secondLargestContour = null;
-
-        // find the two largest contours...
-        for (MatOfPoint contour : contours)
-        {
-            double area = Imgproc.contourArea(contour);
-            if (area >= minContourArea && area > largestContourArea)
-            {
-                if (largestContour != null)
-                {
-                    if (secondLargestContour != null)
-                    {
-                        secondLargestContour.release();
-                    }
-
-                    secondLargestContour = largestContour;
-                    secondLargestContourArea = largestContourArea;
-                }
-
-                largestContour = contour;
-                largestContourArea = area;
-            }
-            else if (area >= minContourArea && area > secondLargestContourArea)
-            {
-                if (secondLargestContour != null)
-                {
-                    secondLargestContour.release();
-                }
-
-                secondLargestContour = contour;
-                secondLargestContourArea = area;
-            }
-            else
-            {
-                contour.release();
-            }
-        }
-
-        return new MatOfPoint[] { largestContour, secondLargestContour };
+        return ContourHelper.findTwoLargestContours(frame, minContourArea, -1.0, 0.0, -1.0);
     }
 
     /**
      * Find the two largest contours in the frame
      * @param frame in which to look for contours
      * @param minContourArea is the minimum contour area allowable
-     * @param desiredContourHxWRatio is the desired height-to-width ratio for the contours (0.0 or below means ignore this)
+     * @param desiredContourHxWRatio is the desired height-to-width ratio for the contours (below 0.0 means ignore this)
      * @param allowableContourHxWRatioRange is the allowable range for the height-to-width ratio for the contours
-     * @param allowableContourAreaRatio indicates the max allowable ratio between the area of the contours (0.0 or below means ignore this)
+     * @param allowableContourAreaRatio indicates the max allowable ratio between the area of the contours (below 0.0 means ignore this)
      * @return two largest contours, largest then second largest
      */
     public static MatOfPoint[] findTwoLargestContours(Mat frame, double minContourArea, double desiredContourHxWRatio, double allowableContourHxWRatioRange, double allowableContourAreaRatio)
     {
-        // find the contours using OpenCV API...
-        Mat unused = new Mat();
-        List<MatOfPoint> contours = new ArrayList<MatOfPoint>();
-        Imgproc.findContours(frame, contours, unused, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_TC89_KCOS);
-        unused.release();
-
-        double largestContourArea = 0.0;
-        MatOfPoint largestContour = null;
-
-        double secondLargestContourArea = 0.0;
-        MatOfPoint secondLargestContour = null;
-
-        // find the two largest contours...
-        for (MatOfPoint contour : contours)
-        {
-            boolean release = true;
-            double area = Imgproc.contourArea(contour);
-            if (area >= minContourArea)
-            {
-                Rect boundingRect = null;
-                if (desiredContourHxWRatio >= 0.0)
-                {
-                    boundingRect = Imgproc.boundingRect(contour);
-                }
-
-                if (boundingRect == null || Math.abs(((double)boundingRect.height / (double)boundingRect.width) - desiredContourHxWRatio) < allowableContourHxWRatioRange)
-                {
-                    if (area > largestContourArea)
-                    {
-                        if (largestContour != null)
-                        {
-                            if (secondLargestContour != null)
-                            {
-                                secondLargestContour.release();
-                            }
+        ContourAnalyzer analyzer = new ContourAnalyzer();
+        analyzer.analyze(frame);
 
-                            secondLargestContour = largestContour;
-                            secondLargestContourArea = largestContourArea;
-                        }
+        int[] indices = new int[2];
+        int found = analyzer.findLargest(minContourArea, desiredContourHxWRatio, allowableContourHxWRatioRange, allowableContourAreaRatio, indices);
 
-                        largestContour = contour;
-                        largestContourArea = area;
-                        release = false;
-                    }
-                    else if (area >= minContourArea && area > secondLargestContourArea)
-                    {
-                        if (secondLargestContour != null)
-                        {
-                            secondLargestContour.release();
-                        }
-
-                        secondLargestContour = contour;
-                        secondLargestContourArea = area;
-                        release = false;
-                    }
-                }
-            }
-
-            if (release)
-            {
-                contour.release();
-            }
-        }
-
-        if (allowableContourAreaRatio >= 0.0 &&
-            largestContourArea > 0.0 &&
-            secondLargestContourArea > 0.0 &&
-            secondLargestContourArea / largestContourArea < allowableContourAreaRatio)
+        MatOfPoint[] largestContours = new MatOfPoint[2];
+        for (int i = 0; i < found; i++)
         {
-            secondLargestContour = null;
-            secondLargestContourArea = 0.0;
+            largestContours[i] = analyzer.takeContour(indices[i]);
         }
 
-        return new MatOfPoint[] { largestContour, secondLargestContour };
+        analyzer.release();
+        return largestContours;
     }
 
     /**
@@ -236,35 +107,20 @@ public class ContourHelper
      */
     public static MatOfPoint[] findSortedLargestContours(Mat frame, double minContourArea)
     {
-        // find the contours using OpenCV API...
-        Mat unused = new Mat();
-        List<MatOfPoint> contours = new ArrayList<MatOfPoint>();
-        Imgproc.findContours(frame, contours, unused, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_TC89_KCOS);
-        unused.release();
+        ContourAnalyzer analyzer = new ContourAnalyzer();
+        int count = analyzer.analyze(frame);
+
+        int[] indices = new int[count];
+        int found = analyzer.findSorted(minContourArea, indices);
 
-        contours.sort(new Comparator<MatOfPoint>()
+        MatOfPoint[] sortedContours = new MatOfPoint[found];
+        for (int i = 0; i < found; i++)
         {
-            @Override
-            public int compare(MatOfPoint o1, MatOfPoint o2)
-            {
-                double area1 = Imgproc.contourArea(o1);
-                double area2 = Imgproc.contourArea(o2);
-                if (area1 > area2)
-                {
-                    return 1;
-                }
-                else if (area1 < area2)
-                {
-                    return -1;
-                }
-                else
-                {
-                    return 0;
-                }
-            }
-        });
+            sortedContours[i] = analyzer.takeContour(indices[i]);
+        }
 
-        return (MatOfPoint[])contours.toArray();
+        analyzer.release();
+        return sortedContours;
     }
 
     /**
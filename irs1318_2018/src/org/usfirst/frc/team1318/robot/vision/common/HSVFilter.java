@@ -1,8 +1,10 @@
 package org.usfirst.frc.team1318.robot.vision.common;
 
 import org.opencv.core.Core;
+import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.opencv.core.Scalar;
+import org.opencv.core.Size;
 import org.opencv.imgproc.Imgproc;
 
 public class HSVFilter
@@ -10,32 +12,59 @@ public class HSVFilter
     private final Scalar lowerBound;
     private final Scalar upperBound;
 
+    // HSV version of the frame being filtered, reused from frame to frame
+    private final Mat hsvBuffer;
+
     /**
-     * Initializes a new instance of the HSVFilter class.
+     * Initializes a new instance of the HSVFilter class, with its buffers preallocated for frames of the provided size.
      * @param lowerBound of HSV to filter
      * @param upperBound of HSV to filter
+     * @param frameSize of the frames that will be filtered
      */
-    public HSVFilter(Scalar lowerBound, Scalar upperBound)
+    public HSVFilter(Scalar lowerBound, Scalar upperBound, Size frameSize)
     {
         this.lowerBound = lowerBound;
         this.upperBound = upperBound;
+
+        this.hsvBuffer = new Mat(frameSize, CvType.CV_8UC3);
     }
 
     /**
      * Filter the provided frame for HSVs within the provider bounds.
-     * @param frame to filter
-     * @return a matrix of 1s and 0s based on whether the pixel is within the provided HSV range or not, respectively.
+     * @param frame to filter (BGR)
+     * @param destination to write the filtered matrix into (reused from frame to frame, so no allocation is needed once it has the right size)
+     * @return destination, a matrix of 1s and 0s based on whether the pixel is within the provided HSV range or not, respectively.
      */
-    public Mat filterHSV(Mat frame)
+    public Mat filterHSV(Mat frame, Mat destination)
     {
-        Mat sourceBGR = frame.clone();
-        Imgproc.cvtColor(sourceBGR, frame, Imgproc.COLOR_BGR2HSV);
-        sourceBGR.release();
+        // when filtering a region of a frame, use the corresponding part of the buffer so that it isn't reallocated
+        Mat hsv = this.hsvBuffer;
+        boolean isRegion = frame.rows() != hsv.rows() || frame.cols() != hsv.cols();
+        if (isRegion && frame.rows() <= hsv.rows() && frame.cols() <= hsv.cols())
+        {
+            hsv = this.hsvBuffer.submat(0, frame.rows(), 0, frame.cols());
+        }
+        else
+        {
+            isRegion = false;
+        }
+
+        Imgproc.cvtColor(frame, hsv, Imgproc.COLOR_BGR2HSV);
+        Core.inRange(hsv, this.lowerBound, this.upperBound, destination);
+
+        if (isRegion)
+        {
+            hsv.release();
+        }
 
-        Mat sourceHSV = frame.clone();
-        Core.inRange(sourceHSV, this.lowerBound, this.upperBound, frame);
-        sourceHSV.release();
+        return destination;
+    }
 
-        return frame;
+    /**
+     * Release the native memory held by the filter's buffers
+     */
+    public void release()
+    {
+        this.hsvBuffer.release();
     }
 }
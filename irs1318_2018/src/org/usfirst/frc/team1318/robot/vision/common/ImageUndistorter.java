@@ -8,6 +8,8 @@ import org.opencv.imgproc.Imgproc;
 
 public class ImageUndistorter
 {
+    private static final Scalar BorderValue = new Scalar(0);
+
     private Mat mapX;
     private Mat mapY;
 
@@ -47,16 +49,22 @@ public class ImageUndistorter
     /**
      * Undistort the frame so that straight lines appear straight in the image
      * @param frame to undirsort
-     * @return an non-distorted version of the provided frame
+     * @param destination to write the non-distorted frame into (reused from frame to frame, so no allocation is needed once it has the right size)
+     * @return destination, a non-distorted version of the provided frame
      */
-    public Mat undistortFrame(Mat frame)
+    public Mat undistortFrame(Mat frame, Mat destination)
     {
-        Mat source = frame.clone();
-
-        Imgproc.remap(source, frame, this.mapX, this.mapY, Imgproc.INTER_LINEAR, Imgproc.WARP_FILL_OUTLIERS, new Scalar(0));
-        source.release();
+        Imgproc.remap(frame, destination, this.mapX, this.mapY, Imgproc.INTER_LINEAR, Imgproc.WARP_FILL_OUTLIERS, ImageUndistorter.BorderValue);
+        return destination;
+    }
 
-        return frame;
+    /**
+     * Release the native memory held by the undistortion maps
+     */
+    public void release()
+    {
+        this.mapX.release();
+        this.mapY.release();
     }
 
     /**
@@ -0,0 +1,63 @@
+package org.usfirst.frc.team1318.robot.vision.common;
+
+/**
+ * Single-slot queue between two stages of the vision pipeline.
+ *
+ * The slot holds at most one item, and offering a new item replaces (and returns) any item that the consumer hasn't
+ * taken yet, so the consumer always works on the freshest frame and a slow stage never causes frames to back up.
+ *
+ * @param <T> the type of item passed between the stages
+ */
+public class LatestFrameSlot<T>
+{
+    private T item;
+
+    /**
+     * Initializes a new, empty LatestFrameSlot
+     */
+    public LatestFrameSlot()
+    {
+        this.item = null;
+    }
+
+    /**
+     * Put an item into the slot, replacing any item that hasn't been taken yet
+     * @param item to put into the slot
+     * @return the item that was replaced (dropped), or null if the slot was empty
+     */
+    public synchronized T offer(T item)
+    {
+        T replaced = this.item;
+        this.item = item;
+        this.notify();
+        return replaced;
+    }
+
+    /**
+     * Take the item from the slot, waiting until one is available
+     * @return the freshest item
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public synchronized T take() throws InterruptedException
+    {
+        while (this.item == null)
+        {
+            this.wait();
+        }
+
+        T item = this.item;
+        this.item = null;
+        return item;
+    }
+
+    /**
+     * Take the item from the slot, if there is one
+     * @return the freshest item, or null if the slot was empty
+     */
+    public synchronized T poll()
+    {
+        T item = this.item;
+        this.item = null;
+        return item;
+    }
+}
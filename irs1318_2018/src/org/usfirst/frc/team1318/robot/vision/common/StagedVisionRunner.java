@@ -0,0 +1,346 @@
+package org.usfirst.frc.team1318.robot.vision.common;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+
+import org.opencv.core.Size;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+import org.usfirst.frc.team1318.robot.vision.VisionConstants;
+import org.usfirst.frc.team1318.robot.vision.pipelines.ICentroidVisionPipeline;
+
+import edu.wpi.cscore.CvSink;
+import edu.wpi.cscore.VideoSource;
+
+/**
+ * Staged vision runner.
+ *
+ * Runs a vision pipeline as three stages, each on its own thread: capture (grab a frame from the camera and record
+ * when it was captured), preprocessing (undistort and HSV filter) and analysis (find the contours and compute the
+ * result).  The stages are connected by single-slot queues that always keep the freshest frame, so while one frame is
+ * being analyzed the next can already be preprocessed and the one after that captured, and if a stage falls behind the
+ * stale frames waiting for it are dropped rather than queued up.
+ *
+ * Frames are taken from a fixed pool and returned to it once analyzed or dropped, so the image buffers are reused
+ * rather than allocated for every frame.  A frame that a stage fails to process (e.g. an OpenCV exception) is also
+ * returned to the pool and counted as dropped, so that one bad frame doesn't stop vision for the rest of the match.
+ *
+ */
+public class StagedVisionRunner
+{
+    // one frame being worked on by each of the three stages, plus one waiting in each of the two slots
+    private static final int FramePoolSize = 5;
+
+    private final ITimer timer;
+    private final double cameraLatency;
+    private final CvSink sink;
+    private final ICentroidVisionPipeline pipeline;
+    private final Consumer<VisionResult> listener;
+
+    private final ArrayBlockingQueue<VisionFrame> freeFrames;
+    private final LatestFrameSlot<VisionFrame> capturedFrames;
+    private final LatestFrameSlot<VisionFrame> preprocessedFrames;
+
+    private final VisionStageStatistics captureStatistics;
+    private final VisionStageStatistics preprocessStatistics;
+    private final VisionStageStatistics analysisStatistics;
+    private final VisionStageStatistics pipelineStatistics;
+
+    private volatile boolean isRunning;
+    private Thread[] threads;
+
+    /**
+     * Initializes a new StagedVisionRunner
+     * @param timer to use to timestamp frames and measure latency
+     * @param cameraLatency between the camera exposing an image and the frame being grabbed, in seconds
+     * @param camera to capture frames from
+     * @param pipeline to run in stages
+     * @param listener to call with the result of each analyzed frame (called from the analysis thread)
+     * @param frameSize of the frames that the camera will provide
+     */
+    public StagedVisionRunner(
+        ITimer timer,
+        double cameraLatency,
+        VideoSource camera,
+        ICentroidVisionPipeline pipeline,
+        Consumer<VisionResult> listener,
+        Size frameSize)
+    {
+        this.timer = timer;
+        this.cameraLatency = cameraLatency;
+        this.pipeline = pipeline;
+        this.listener = listener;
+
+        this.sink = new CvSink("StagedVisionRunner CvSink");
+        this.sink.setSource(camera);
+
+        this.freeFrames = new ArrayBlockingQueue<VisionFrame>(StagedVisionRunner.FramePoolSize);
+        for (int i = 0; i < StagedVisionRunner.FramePoolSize; i++)
+        {
+            this.freeFrames.add(new VisionFrame(frameSize));
+        }
+
+        this.capturedFrames = new LatestFrameSlot<VisionFrame>();
+        this.preprocessedFrames = new LatestFrameSlot<VisionFrame>();
+
+        this.captureStatistics = new VisionStageStatistics("capture");
+        this.preprocessStatistics = new VisionStageStatistics("preprocess");
+        this.analysisStatistics = new VisionStageStatistics("analysis");
+        this.pipelineStatistics = new VisionStageStatistics("pipeline");
+
+        this.isRunning = false;
+        this.threads = null;
+    }
+
+    /**
+     * Start the capture, preprocessing and analysis threads
+     */
+    public synchronized void start()
+    {
+        if (this.isRunning)
+        {
+            return;
+        }
+
+        this.isRunning = true;
+        this.threads = new Thread[]
+        {
+            new Thread(() -> this.runCapture(), "VisionCapture"),
+            new Thread(() -> this.runPreprocess(), "VisionPreprocess"),
+            new Thread(() -> this.runAnalysis(), "VisionAnalysis"),
+        };
+
+        for (Thread thread : this.threads)
+        {
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stop the capture, preprocessing and analysis threads, waiting for them to exit
+     */
+    public synchronized void stop()
+    {
+        if (!this.isRunning)
+        {
+            return;
+        }
+
+        this.isRunning = false;
+        for (Thread thread : this.threads)
+        {
+            thread.interrupt();
+        }
+
+        boolean interrupted = false;
+        for (Thread thread : this.threads)
+        {
+            while (thread.isAlive())
+            {
+                try
+                {
+                    thread.join();
+                }
+                catch (InterruptedException ex)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        this.threads = null;
+    }
+
+    /**
+     * Statistics for the capture stage (latency is the time spent waiting for the camera to provide a frame)
+     * @return capture statistics
+     */
+    public VisionStageStatistics getCaptureStatistics()
+    {
+        return this.captureStatistics;
+    }
+
+    /**
+     * Statistics for the preprocessing stage
+     * @return preprocessing statistics
+     */
+    public VisionStageStatistics getPreprocessStatistics()
+    {
+        return this.preprocessStatistics;
+    }
+
+    /**
+     * Statistics for the analysis stage
+     * @return analysis statistics
+     */
+    public VisionStageStatistics getAnalysisStatistics()
+    {
+        return this.analysisStatistics;
+    }
+
+    /**
+     * Statistics for the whole pipeline (latency is from capture until the result is available, FPS is the rate at
+     * which results are produced)
+     * @return pipeline statistics
+     */
+    public VisionStageStatistics getPipelineStatistics()
+    {
+        return this.pipelineStatistics;
+    }
+
+    private void runCapture()
+    {
+        try
+        {
+            while (this.isRunning)
+            {
+                VisionFrame frame = this.freeFrames.take();
+
+                double startTime = this.timer.get();
+                long frameTime;
+                try
+                {
+                    frameTime = this.sink.grabFrame(frame.getImage());
+                }
+                catch (RuntimeException ex)
+                {
+                    this.reportFailure("capture", ex);
+                    frameTime = 0;
+                }
+
+                if (frameTime == 0)
+                {
+                    if (VisionConstants.DEBUG &&
+                        VisionConstants.DEBUG_PRINT_OUTPUT)
+                    {
+                        System.out.println("could not grab frame: " + this.sink.getError());
+                    }
+
+                    this.freeFrames.add(frame);
+                    continue;
+                }
+
+                // grabFrame's frame time is from the camera server's clock rather than the robot's timer, so the
+                // time the image was captured is estimated from when it arrived, less the camera's latency
+                double arrivalTime = this.timer.get();
+                frame.setCaptureTime(arrivalTime - this.cameraLatency);
+                this.captureStatistics.recordFrame(startTime, arrivalTime);
+
+                VisionFrame droppedFrame = this.capturedFrames.offer(frame);
+                if (droppedFrame != null)
+                {
+                    this.preprocessStatistics.recordDrop();
+                    this.freeFrames.add(droppedFrame);
+                }
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            // stopping
+        }
+    }
+
+    private void runPreprocess()
+    {
+        try
+        {
+            while (this.isRunning)
+            {
+                VisionFrame frame = this.capturedFrames.take();
+
+                double startTime = this.timer.get();
+                boolean preprocessed;
+                try
+                {
+                    preprocessed = this.pipeline.preprocess(frame);
+                }
+                catch (RuntimeException ex)
+                {
+                    this.reportFailure("preprocess", ex);
+                    this.preprocessStatistics.recordDrop();
+                    this.freeFrames.add(frame);
+                    continue;
+                }
+
+                if (!preprocessed)
+                {
+                    // pipeline isn't active, so there is nothing to analyze
+                    this.freeFrames.add(frame);
+                    continue;
+                }
+
+                this.preprocessStatistics.recordFrame(startTime, this.timer.get());
+
+                VisionFrame droppedFrame = this.preprocessedFrames.offer(frame);
+                if (droppedFrame != null)
+                {
+                    this.analysisStatistics.recordDrop();
+                    this.freeFrames.add(droppedFrame);
+                }
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            // stopping
+        }
+    }
+
+    private void runAnalysis()
+    {
+        try
+        {
+            while (this.isRunning)
+            {
+                VisionFrame frame = this.preprocessedFrames.take();
+
+                double startTime = this.timer.get();
+                VisionResult result;
+                try
+                {
+                    result = this.pipeline.analyze(frame);
+                }
+                catch (RuntimeException ex)
+                {
+                    this.reportFailure("analysis", ex);
+                    this.analysisStatistics.recordDrop();
+                    this.freeFrames.add(frame);
+                    continue;
+                }
+
+                double endTime = this.timer.get();
+
+                this.analysisStatistics.recordFrame(startTime, endTime);
+                this.pipelineStatistics.recordFrame(frame.getCaptureTime(), endTime);
+                this.freeFrames.add(frame);
+
+                try
+                {
+                    this.listener.accept(result);
+                }
+                catch (RuntimeException ex)
+                {
+                    this.reportFailure("result listener", ex);
+                }
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            // stopping
+        }
+    }
+
+    /**
+     * Report that a stage failed to process a frame
+     * @param stage that failed
+     * @param ex that the stage failed with
+     */
+    private void reportFailure(String stage, RuntimeException ex)
+    {
+        System.err.println("StagedVisionRunner: " + stage + " failed: " + ex);
+    }
+}
@@ -0,0 +1,121 @@
+package org.usfirst.frc.team1318.robot.vision.common;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+
+/**
+ * A frame travelling through the stages of the vision pipeline.
+ *
+ * Frames (and their image buffers) are reused from one capture to the next, so a stage must hand the frame on to
+ * the next stage or return it to the pool when it is done with it.  The buffers are allocated once, at the camera's
+ * resolution, so that capturing and filtering into them doesn't need any native allocation.
+ *
+ */
+public class VisionFrame
+{
+    private final Mat image;
+    private final Mat mask;
+    private double captureTime;
+    private final Rect searchRegion;
+    private boolean hasSearchRegion;
+    private double processingTime;
+
+    /**
+     * Initializes a new VisionFrame
+     * @param frameSize of the images that will be captured
+     */
+    public VisionFrame(Size frameSize)
+    {
+        this.image = new Mat(frameSize, CvType.CV_8UC3);
+        this.mask = new Mat(frameSize, CvType.CV_8UC1);
+        this.captureTime = 0.0;
+        this.searchRegion = new Rect();
+        this.hasSearchRegion = false;
+        this.processingTime = 0.0;
+    }
+
+    /**
+     * Initializes a new VisionFrame around existing buffers
+     * @param image that was captured
+     * @param mask to preprocess the image into
+     */
+    public VisionFrame(Mat image, Mat mask)
+    {
+        this.image = image;
+        this.mask = mask;
+        this.captureTime = 0.0;
+        this.searchRegion = new Rect();
+        this.hasSearchRegion = false;
+        this.processingTime = 0.0;
+    }
+
+    /**
+     * Gets the image that was captured
+     * @return the captured (BGR) image
+     */
+    public Mat getImage()
+    {
+        return this.image;
+    }
+
+    /**
+     * Gets the mask that the image was preprocessed into
+     * @return the preprocessed (filtered) mask
+     */
+    public Mat getMask()
+    {
+        return this.mask;
+    }
+
+    public double getCaptureTime()
+    {
+        return this.captureTime;
+    }
+
+    public void setCaptureTime(double captureTime)
+    {
+        this.captureTime = captureTime;
+    }
+
+    /**
+     * Gets the region of the image that was searched for the target
+     * @return the region that was searched, or null if the whole image was searched
+     */
+    public Rect getSearchRegion()
+    {
+        return this.hasSearchRegion ? this.searchRegion : null;
+    }
+
+    /**
+     * Sets the region of the image that was searched for the target (copied into the frame's own region, as the frame
+     * is handed on to another stage)
+     * @param searchRegion that was searched, or null if the whole image was searched
+     */
+    public void setSearchRegion(Rect searchRegion)
+    {
+        this.hasSearchRegion = searchRegion != null;
+        if (searchRegion != null)
+        {
+            this.searchRegion.x = searchRegion.x;
+            this.searchRegion.y = searchRegion.y;
+            this.searchRegion.width = searchRegion.width;
+            this.searchRegion.height = searchRegion.height;
+        }
+    }
+
+    /**
+     * Gets the time that the pipeline has spent processing the frame so far (in seconds)
+     * @return the processing time
+     */
+    public double getProcessingTime()
+    {
+        return this.processingTime;
+    }
+
+    public void setProcessingTime(double processingTime)
+    {
+        this.processingTime = processingTime;
+    }
+}
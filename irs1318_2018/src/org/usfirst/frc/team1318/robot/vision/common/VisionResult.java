@@ -0,0 +1,67 @@
+package org.usfirst.frc.team1318.robot.vision.common;
+
+import org.opencv.core.Point;
+
+/**
+ * The result of analyzing a single frame, along with the time that the frame was captured.
+ *
+ * Results are immutable so that they can be handed from the vision threads to the control loop without locking.
+ * The capture time is in the same time base as the robot's timer, so consumers can compare it with the current time
+ * to find out how old the measurement is.
+ *
+ */
+public class VisionResult
+{
+    private final double captureTime;
+    private final Point center;
+    private final Double desiredAngleX;
+    private final Double measuredAngleX;
+    private final Double robotDistance;
+
+    /**
+     * Initializes a new VisionResult
+     * @param captureTime the time (from the robot's timer) that the frame was captured
+     * @param center of the target, or null if no target was found
+     * @param desiredAngleX the angle we would like the target to be at
+     * @param measuredAngleX the angle the target was measured at, or null if no target was found
+     * @param robotDistance the distance from the robot to the target, or null if unknown
+     */
+    public VisionResult(
+        double captureTime,
+        Point center,
+        Double desiredAngleX,
+        Double measuredAngleX,
+        Double robotDistance)
+    {
+        this.captureTime = captureTime;
+        this.center = center;
+        this.desiredAngleX = desiredAngleX;
+        this.measuredAngleX = measuredAngleX;
+        this.robotDistance = robotDistance;
+    }
+
+    public double getCaptureTime()
+    {
+        return this.captureTime;
+    }
+
+    public Point getCenter()
+    {
+        return this.center;
+    }
+
+    public Double getDesiredAngleX()
+    {
+        return this.desiredAngleX;
+    }
+
+    public Double getMeasuredAngleX()
+    {
+        return this.measuredAngleX;
+    }
+
+    public Double getRobotDistance()
+    {
+        return this.robotDistance;
+    }
+}
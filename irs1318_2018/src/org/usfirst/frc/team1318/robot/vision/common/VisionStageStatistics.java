@@ -0,0 +1,118 @@
+package org.usfirst.frc.team1318.robot.vision.common;
+
+import org.usfirst.frc.team1318.robot.vision.VisionConstants;
+
+/**
+ * Latency and throughput statistics for one stage of the vision pipeline.
+ *
+ * Written only by the stage's own thread, and read by the control loop (values are published through volatile fields
+ * so that the reader sees reasonably fresh values without locking).
+ *
+ */
+public class VisionStageStatistics
+{
+    private final String name;
+
+    // only touched by the stage's thread
+    private double fpsIntervalStartTime;
+    private int fpsIntervalFrames;
+
+    private volatile long processedFrames;
+    private volatile long droppedFrames;
+    private volatile double lastLatency;
+    private volatile double averageLatency;
+    private volatile double fps;
+
+    /**
+     * Initializes a new VisionStageStatistics
+     * @param name of the stage
+     */
+    public VisionStageStatistics(String name)
+    {
+        this.name = name;
+
+        this.fpsIntervalStartTime = -1.0;
+        this.fpsIntervalFrames = 0;
+
+        this.processedFrames = 0;
+        this.droppedFrames = 0;
+        this.lastLatency = 0.0;
+        this.averageLatency = 0.0;
+        this.fps = 0.0;
+    }
+
+    /**
+     * Record that the stage finished processing a frame
+     * @param startTime when the stage started processing the frame
+     * @param endTime when the stage finished processing the frame
+     */
+    public void recordFrame(double startTime, double endTime)
+    {
+        double latency = endTime - startTime;
+        this.lastLatency = latency;
+        if (this.processedFrames == 0)
+        {
+            this.averageLatency = latency;
+        }
+        else
+        {
+            this.averageLatency = this.averageLatency * 0.9 + latency * 0.1;
+        }
+
+        this.processedFrames++;
+
+        if (this.fpsIntervalStartTime < 0.0)
+        {
+            this.fpsIntervalStartTime = endTime;
+        }
+        else if (++this.fpsIntervalFrames >= VisionConstants.DEBUG_FPS_AVERAGING_INTERVAL)
+        {
+            double elapsedTime = endTime - this.fpsIntervalStartTime;
+            if (elapsedTime > 0.0)
+            {
+                this.fps = ((double)this.fpsIntervalFrames) / elapsedTime;
+            }
+
+            this.fpsIntervalStartTime = endTime;
+            this.fpsIntervalFrames = 0;
+        }
+    }
+
+    /**
+     * Record that a frame was dropped because a fresher frame replaced it before it was processed
+     */
+    public void recordDrop()
+    {
+        this.droppedFrames++;
+    }
+
+    public String getName()
+    {
+        return this.name;
+    }
+
+    public long getProcessedFrames()
+    {
+        return this.processedFrames;
+    }
+
+    public long getDroppedFrames()
+    {
+        return this.droppedFrames;
+    }
+
+    public double getLastLatency()
+    {
+        return this.lastLatency;
+    }
+
+    public double getAverageLatency()
+    {
+        return this.averageLatency;
+    }
+
+    public double getFps()
+    {
+        return this.fps;
+    }
+}
@@ -1,31 +1,64 @@
 package org.usfirst.frc.team1318.robot.vision.pipelines;
 
+import org.opencv.core.CvType;
 import org.opencv.core.Mat;
-import org.opencv.core.MatOfPoint;
 import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
 import org.opencv.imgcodecs.Imgcodecs;
 import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
 import org.usfirst.frc.team1318.robot.vision.VisionConstants;
-import org.usfirst.frc.team1318.robot.vision.common.ContourHelper;
+import org.usfirst.frc.team1318.robot.vision.common.ContourAnalyzer;
 import org.usfirst.frc.team1318.robot.vision.common.HSVFilter;
 import org.usfirst.frc.team1318.robot.vision.common.ImageUndistorter;
+import org.usfirst.frc.team1318.robot.vision.common.VisionFrame;
+import org.usfirst.frc.team1318.robot.vision.common.VisionResult;
 
 import edu.wpi.cscore.CvSource;
 import edu.wpi.first.wpilibj.CameraServer;
 
 public class HSVCenterPipeline implements ICentroidVisionPipeline
 {
+    private static final Scalar Zero = new Scalar(0);
+
     private final ITimer timer;
     private final boolean shouldUndistort;
     private final ImageUndistorter undistorter;
     private final HSVFilter hsvFilter;
+    private final ContourAnalyzer contourAnalyzer;
+
+    // buffers reused from frame to frame, allocated once at the camera's resolution
+    private final Mat undistortedImage;
+    private final Mat processMask;
+    private VisionFrame processFrame;
 
     private final CvSource frameInput;
     private final CvSource hsvOutput;
 
     // measured values
-    private Point largestCenter;
-    private Double measuredAngleX;
+    private volatile VisionResult latestResult;
+
+    // region-of-interest tracking: the analysis stage reports where it found the target (under the tracking lock), and
+    // the tracking region is only ever used by the preprocessing stage
+    private final Object trackingLock;
+    private final Rect reportedTarget;
+    private boolean hasReportedTarget;
+    private int reportedMisses;
+    private boolean trackingResetRequested;
+
+    // owned by the preprocessing stage
+    private final Rect trackingRegion;
+    private boolean isTracking;
+
+    // owned by the analysis stage
+    private final Rect targetBounds;
+    private final Point contourOffset;
+
+    private volatile long regionFrameCount;
+    private volatile long regionHitCount;
+    private volatile double averageRegionProcessingTime;
+    private volatile double averageFullFrameProcessingTime;
 
     // FPS Measurement
     private long analyzedFrameCount;
@@ -43,14 +76,47 @@ public class HSVCenterPipeline implements ICentroidVisionPipeline
     public HSVCenterPipeline(
         ITimer timer,
         boolean shouldUndistort)
+    {
+        this(timer, shouldUndistort, VisionConstants.DEBUG && VisionConstants.DEBUG_OUTPUT_FRAMES);
+    }
+
+    /**
+     * Initializes a new instance of the HSVCenterPipeline class.
+     * @param timer to use for any timing purposes
+     * @param shouldUndistort whether to undistort the image or not
+     * @param shouldOutputFrames whether to output the input and HSV-filtered frames to the camera server or not
+     */
+    public HSVCenterPipeline(
+        ITimer timer,
+        boolean shouldUndistort,
+        boolean shouldOutputFrames)
     {
         this.shouldUndistort = shouldUndistort;
 
+        Size frameSize = new Size(VisionConstants.LIFECAM_CAMERA_RESOLUTION_X, VisionConstants.LIFECAM_CAMERA_RESOLUTION_Y);
         this.undistorter = new ImageUndistorter();
-        this.hsvFilter = new HSVFilter(VisionConstants.LIFECAM_HSV_FILTER_LOW, VisionConstants.LIFECAM_HSV_FILTER_HIGH);
-
-        this.largestCenter = null;
-        this.measuredAngleX = null;
+        this.hsvFilter = new HSVFilter(VisionConstants.LIFECAM_HSV_FILTER_LOW, VisionConstants.LIFECAM_HSV_FILTER_HIGH, frameSize);
+        this.contourAnalyzer = new ContourAnalyzer();
+
+        this.undistortedImage = new Mat(frameSize, CvType.CV_8UC3);
+        this.processMask = new Mat(frameSize, CvType.CV_8UC1);
+        this.processFrame = null;
+
+        this.latestResult = null;
+
+        this.trackingLock = new Object();
+        this.reportedTarget = new Rect();
+        this.hasReportedTarget = false;
+        this.reportedMisses = 0;
+        this.trackingResetRequested = false;
+        this.trackingRegion = new Rect();
+        this.isTracking = false;
+        this.targetBounds = new Rect();
+        this.contourOffset = new Point();
+        this.regionFrameCount = 0;
+        this.regionHitCount = 0;
+        this.averageRegionProcessingTime = 0.0;
+        this.averageFullFrameProcessingTime = 0.0;
 
         this.analyzedFrameCount = 0;
         this.timer = timer;
@@ -58,8 +124,7 @@ public class HSVCenterPipeline implements ICentroidVisionPipeline
 
         this.isActive = true;
 
-        if (VisionConstants.DEBUG &&
-            VisionConstants.DEBUG_OUTPUT_FRAMES)
+        if (shouldOutputFrames)
         {
             this.frameInput = CameraServer.getInstance().putVideo("center.input", VisionConstants.LIFECAM_CAMERA_RESOLUTION_X, VisionConstants.LIFECAM_CAMERA_RESOLUTION_Y);
             this.hsvOutput = CameraServer.getInstance().putVideo("center.hsv", VisionConstants.LIFECAM_CAMERA_RESOLUTION_X, VisionConstants.LIFECAM_CAMERA_RESOLUTION_Y);
@@ -78,6 +143,33 @@ public class HSVCenterPipeline implements ICentroidVisionPipeline
     @Override
     public void process(Mat image)
     {
+        if (this.processFrame == null || this.processFrame.getImage() != image)
+        {
+            this.processFrame = new VisionFrame(image, this.processMask);
+        }
+
+        // the frame was grabbed just before it is processed, so estimate when it was captured from the camera's latency
+        this.processFrame.setCaptureTime(this.timer.get() - VisionConstants.LIFECAM_CAMERA_LATENCY);
+        if (this.preprocess(this.processFrame))
+        {
+            this.latestResult = this.analyze(this.processFrame);
+        }
+    }
+
+    /**
+     * Preprocess a single image frame (undistort and filter HSV).  Only the preprocessing thread should call this, as
+     * it reuses the pipeline's buffers.
+     * When tracking a target, only the region around where the target was last seen is filtered (and only that region
+     * is analyzed, so the rest of the mask is left as it is).
+     * @param frame to preprocess
+     * @return true if the frame should be analyzed, false if the pipeline isn't active
+     */
+    @Override
+    public boolean preprocess(VisionFrame frame)
+    {
+        Mat image = frame.getImage();
+        Mat mask = frame.getMask();
+
         if (VisionConstants.DEBUG)
         {
             if (VisionConstants.DEBUG_SAVE_FRAMES &&
@@ -88,7 +180,7 @@ public class HSVCenterPipeline implements ICentroidVisionPipeline
                     image);
             }
 
-            if (VisionConstants.DEBUG_OUTPUT_FRAMES)
+            if (this.frameInput != null)
             {
                 this.frameInput.putFrame(image);
             }
@@ -96,7 +188,7 @@ public class HSVCenterPipeline implements ICentroidVisionPipeline
 
         if (!this.isActive)
         {
-            return;
+            return false;
         }
 
         this.analyzedFrameCount++;
@@ -111,25 +203,37 @@ public class HSVCenterPipeline implements ICentroidVisionPipeline
             this.lastMeasuredTime = this.timer.get();
         }
 
+        double startTime = this.timer.get();
+
         // first, undistort the image.
-        Mat undistortedImage;
         if (this.shouldUndistort)
         {
-            image = this.undistorter.undistortFrame(image);
+            image = this.undistorter.undistortFrame(image, this.undistortedImage);
         }
 
-        // save the undistorted image for possible output later...
-        if (this.shouldUndistort)
+        // second, filter HSV (only within the tracking region, if we are tracking the target)
+        this.updateTrackingRegion(mask);
+        if (!this.isTracking)
         {
-            undistortedImage = image.clone();
+            frame.setSearchRegion(null);
+            this.hsvFilter.filterHSV(image, mask);
         }
         else
         {
-            undistortedImage = image;
+            frame.setSearchRegion(this.trackingRegion);
+            if (VisionConstants.DEBUG)
+            {
+                // clear the rest of the mask, so that the debug output only shows what was searched
+                mask.setTo(HSVCenterPipeline.Zero);
+            }
+
+            Mat imageRegion = image.submat(this.trackingRegion);
+            Mat maskRegion = mask.submat(this.trackingRegion);
+            this.hsvFilter.filterHSV(imageRegion, maskRegion);
+            imageRegion.release();
+            maskRegion.release();
         }
 
-        // second, filter HSV
-        image = this.hsvFilter.filterHSV(image);
         if (VisionConstants.DEBUG)
         {
             if (VisionConstants.DEBUG_SAVE_FRAMES &&
@@ -137,19 +241,47 @@ public class HSVCenterPipeline implements ICentroidVisionPipeline
             {
                 Imgcodecs.imwrite(
                     String.format("%simage%d-2.hsvfiltered.jpg", VisionConstants.DEBUG_OUTPUT_FOLDER, this.analyzedFrameCount),
-                    image);
+                    mask);
             }
 
-            if (VisionConstants.DEBUG_OUTPUT_FRAMES)
+            if (this.hsvOutput != null)
             {
-                this.hsvOutput.putFrame(image);
+                this.hsvOutput.putFrame(mask);
             }
         }
 
-        // third, find the largest contour.
-        MatOfPoint largestContour = ContourHelper.findLargestContour(image, VisionConstants.CONTOUR_MIN_AREA);
+        frame.setProcessingTime(this.timer.get() - startTime);
+        return true;
+    }
 
-        if (largestContour == null)
+    /**
+     * Analyze a single preprocessed image frame (find the largest contour and its center)
+     * @param frame that has been preprocessed
+     * @return the result of analyzing the frame
+     */
+    @Override
+    public VisionResult analyze(VisionFrame frame)
+    {
+        double startTime = this.timer.get();
+
+        // third, find the largest contour (only within the region that was searched, if there was one)
+        Rect searchRegion = frame.getSearchRegion();
+        if (searchRegion == null)
+        {
+            this.contourAnalyzer.analyze(frame.getMask());
+        }
+        else
+        {
+            Mat maskRegion = frame.getMask().submat(searchRegion);
+            this.contourOffset.x = searchRegion.x;
+            this.contourOffset.y = searchRegion.y;
+            this.contourAnalyzer.analyze(maskRegion, this.contourOffset);
+            maskRegion.release();
+        }
+
+        int largestContour = this.contourAnalyzer.findLargest(VisionConstants.CONTOUR_MIN_AREA);
+
+        if (largestContour < 0)
         {
             if (VisionConstants.DEBUG &&
                 VisionConstants.DEBUG_PRINT_OUTPUT &&
@@ -159,14 +291,17 @@ public class HSVCenterPipeline implements ICentroidVisionPipeline
             }
         }
 
-        // fourth, find the center of mass for the largest two contours
+        // fourth, find the center of mass (and bounding box) of the largest contour
         Point largestCenterOfMass = null;
-        if (largestContour != null)
+        if (largestContour >= 0)
         {
-            largestCenterOfMass = ContourHelper.findCenterOfMass(largestContour);
-            largestContour.release();
+            largestCenterOfMass = this.contourAnalyzer.getCenterOfMass(largestContour);
+            this.contourAnalyzer.getBoundingRect(largestContour, this.targetBounds);
         }
 
+        // release the contours now that we are done with them
+        this.contourAnalyzer.clear();
+
         if (VisionConstants.DEBUG)
         {
             if (VisionConstants.DEBUG_PRINT_OUTPUT &&
@@ -184,24 +319,29 @@ public class HSVCenterPipeline implements ICentroidVisionPipeline
         }
 
         // finally, record the centers of mass
-        this.largestCenter = largestCenterOfMass;
-
-        undistortedImage.release();
-
-        if (this.largestCenter != null)
+        Double measuredAngleX = null;
+        if (largestCenterOfMass != null)
         {
-            double xOffsetMeasured = this.largestCenter.x - VisionConstants.LIFECAM_CAMERA_CENTER_WIDTH;
-            this.measuredAngleX = Math.atan(xOffsetMeasured / VisionConstants.LIFECAM_CAMERA_FOCAL_LENGTH_X) * VisionConstants.RADIANS_TO_ANGLE;
-        }
-        else
-        {
-            this.measuredAngleX = null;
+            double xOffsetMeasured = largestCenterOfMass.x - VisionConstants.LIFECAM_CAMERA_CENTER_WIDTH;
+            measuredAngleX = Math.atan(xOffsetMeasured / VisionConstants.LIFECAM_CAMERA_FOCAL_LENGTH_X) * VisionConstants.RADIANS_TO_ANGLE;
         }
+
+        this.reportTarget(frame, largestCenterOfMass != null, this.timer.get() - startTime);
+
+        return new VisionResult(frame.getCaptureTime(), largestCenterOfMass, 0.0, measuredAngleX, null);
     }
 
     public void setActivation(boolean isActive)
     {
         this.isActive = isActive;
+        if (!isActive)
+        {
+            // start with a full-frame search the next time we are activated
+            synchronized (this.trackingLock)
+            {
+                this.trackingResetRequested = true;
+            }
+        }
     }
 
     public boolean isActive()
@@ -211,7 +351,8 @@ public class HSVCenterPipeline implements ICentroidVisionPipeline
 
     public Point getCenter()
     {
-        return this.largestCenter;
+        VisionResult result = this.latestResult;
+        return result != null ? result.getCenter() : null;
     }
 
     public Double getDesiredAngleX()
@@ -221,7 +362,8 @@ public class HSVCenterPipeline implements ICentroidVisionPipeline
 
     public Double getMeasuredAngleX()
     {
-        return this.measuredAngleX;
+        VisionResult result = this.latestResult;
+        return result != null ? result.getMeasuredAngleX() : null;
     }
 
     public Double getRobotDistance()
@@ -233,4 +375,129 @@ public class HSVCenterPipeline implements ICentroidVisionPipeline
     {
         return this.lastFpsMeasurement;
     }
+
+    public VisionResult getLatestResult()
+    {
+        return this.latestResult;
+    }
+
+    /**
+     * Gets the fraction of the frames searched within a tracking region where the target was found
+     * @return the region-of-interest hit rate (between 0.0 and 1.0)
+     */
+    public double getRegionHitRate()
+    {
+        long regionFrameCount = this.regionFrameCount;
+        if (regionFrameCount == 0)
+        {
+            return 0.0;
+        }
+
+        return ((double)this.regionHitCount) / ((double)regionFrameCount);
+    }
+
+    /**
+     * Gets the average time spent processing (preprocessing and analyzing) a frame when searching a tracking region
+     * @return the average processing time, in seconds
+     */
+    public double getAverageRegionProcessingTime()
+    {
+        return this.averageRegionProcessingTime;
+    }
+
+    /**
+     * Gets the average time spent processing (preprocessing and analyzing) a frame when searching the whole frame
+     * @return the average processing time, in seconds
+     */
+    public double getAverageFullFrameProcessingTime()
+    {
+        return this.averageFullFrameProcessingTime;
+    }
+
+    /**
+     * Report where the target was found in the frame (for the preprocessing stage to update the tracking region from),
+     * and record processing statistics.  This is called from the analysis stage.
+     * @param frame that was analyzed
+     * @param targetFound whether the target was found (within the target bounds)
+     * @param analysisTime the time spent analyzing the frame
+     */
+    private void reportTarget(VisionFrame frame, boolean targetFound, double analysisTime)
+    {
+        double processingTime = frame.getProcessingTime() + analysisTime;
+        if (frame.getSearchRegion() != null)
+        {
+            this.averageRegionProcessingTime = this.averageRegionProcessingTime * 0.9 + processingTime * 0.1;
+            this.regionFrameCount++;
+            if (targetFound)
+            {
+                this.regionHitCount++;
+            }
+        }
+        else
+        {
+            this.averageFullFrameProcessingTime = this.averageFullFrameProcessingTime * 0.9 + processingTime * 0.1;
+        }
+
+        synchronized (this.trackingLock)
+        {
+            if (targetFound)
+            {
+                this.reportedTarget.x = this.targetBounds.x;
+                this.reportedTarget.y = this.targetBounds.y;
+                this.reportedTarget.width = this.targetBounds.width;
+                this.reportedTarget.height = this.targetBounds.height;
+                this.hasReportedTarget = true;
+                this.reportedMisses = 0;
+            }
+            else
+            {
+                this.reportedMisses++;
+            }
+        }
+    }
+
+    /**
+     * Update the tracking region based on where the analysis stage most recently found the target.  This is called
+     * from the preprocessing stage.
+     * @param mask that will be filtered (used for the size of the frame)
+     */
+    private void updateTrackingRegion(Mat mask)
+    {
+        synchronized (this.trackingLock)
+        {
+            if (this.trackingResetRequested)
+            {
+                this.trackingResetRequested = false;
+                this.hasReportedTarget = false;
+                this.reportedMisses = 0;
+                this.isTracking = false;
+            }
+
+            if (this.hasReportedTarget)
+            {
+                // search around the target's bounding box (padded, and clamped to the frame) for the next frame
+                int left = Math.max(0, this.reportedTarget.x - VisionConstants.ROI_TRACKING_PADDING);
+                int top = Math.max(0, this.reportedTarget.y - VisionConstants.ROI_TRACKING_PADDING);
+                int right = Math.min(mask.cols(), this.reportedTarget.x + this.reportedTarget.width + VisionConstants.ROI_TRACKING_PADDING);
+                int bottom = Math.min(mask.rows(), this.reportedTarget.y + this.reportedTarget.height + VisionConstants.ROI_TRACKING_PADDING);
+
+                this.trackingRegion.x = left;
+                this.trackingRegion.y = top;
+                this.trackingRegion.width = right - left;
+                this.trackingRegion.height = bottom - top;
+                this.isTracking = true;
+                this.hasReportedTarget = false;
+            }
+            else if (this.isTracking && this.reportedMisses >= VisionConstants.ROI_TRACKING_MAX_MISSES)
+            {
+                // lost the target, go back to searching the whole frame
+                this.isTracking = false;
+            }
+        }
+
+        if (!VisionConstants.ROI_TRACKING_ENABLED || !this.isActive)
+        {
+            this.isTracking = false;
+        }
+    }
 }
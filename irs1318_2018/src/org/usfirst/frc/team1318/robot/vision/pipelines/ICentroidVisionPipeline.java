@@ -1,6 +1,8 @@
 package org.usfirst.frc.team1318.robot.vision.pipelines;
 
 import org.opencv.core.Point;
+import org.usfirst.frc.team1318.robot.vision.common.VisionFrame;
+import org.usfirst.frc.team1318.robot.vision.common.VisionResult;
 
 import edu.wpi.first.wpilibj.vision.VisionPipeline;
 
@@ -13,4 +15,24 @@ public interface ICentroidVisionPipeline extends VisionPipeline
     Double getMeasuredAngleX();
     Double getRobotDistance();
     double getFps();
+
+    /**
+     * Preprocess a single frame's image into its mask (the first stage of process)
+     * @param frame to preprocess
+     * @return true if the frame should be analyzed, false if the pipeline isn't active
+     */
+    boolean preprocess(VisionFrame frame);
+
+    /**
+     * Analyze a single preprocessed frame (the second stage of process)
+     * @param frame that has been preprocessed (its mask may be modified)
+     * @return the result of analyzing the frame
+     */
+    VisionResult analyze(VisionFrame frame);
+
+    /**
+     * Gets the result of the most recent frame analyzed by process
+     * @return the latest result, or null if no frames have been analyzed
+     */
+    VisionResult getLatestResult();
 }
@@ -8,9 +8,11 @@ import org.usfirst.frc.team1318.robot.common.wpilib.IAnalogInput;
 import org.usfirst.frc.team1318.robot.common.wpilib.ICompressor;
 import org.usfirst.frc.team1318.robot.common.wpilib.IDigitalInput;
 import org.usfirst.frc.team1318.robot.common.wpilib.IDoubleSolenoid;
+import org.usfirst.frc.team1318.robot.common.wpilib.IDriverStation;
 import org.usfirst.frc.team1318.robot.common.wpilib.IEncoder;
 import org.usfirst.frc.team1318.robot.common.wpilib.IJoystick;
 import org.usfirst.frc.team1318.robot.common.wpilib.IMotor;
+import org.usfirst.frc.team1318.robot.common.wpilib.INavx;
 import org.usfirst.frc.team1318.robot.common.wpilib.IPowerDistributionPanel;
 import org.usfirst.frc.team1318.robot.common.wpilib.IRelay;
 import org.usfirst.frc.team1318.robot.common.wpilib.IServo;
@@ -35,6 +37,8 @@ public class TestWpilibProvider implements IWpilibProvider
     private HashMap<Integer, IPowerDistributionPanel> pdpMap = new HashMap<Integer, IPowerDistributionPanel>();
     private HashMap<Integer, IRelay> relayMap = new HashMap<Integer, IRelay>();
     private HashMap<Integer, HashMap<Integer, ISolenoid>> solenoidModuleMap = new HashMap<Integer, HashMap<Integer, ISolenoid>>();
+    private INavx navx;
+    private IDriverStation driverStation;
 
     @Override
     public IAnalogInput getAnalogInput(int channel)
@@ -226,4 +230,26 @@ public class TestWpilibProvider implements IWpilibProvider
 
         return solenoidMap.get(channel);
     }
+
+    @Override
+    public INavx getNavx()
+    {
+        if (this.navx == null)
+        {
+            this.navx = mock(INavx.class);
+        }
+
+        return this.navx;
+    }
+
+    @Override
+    public IDriverStation getDriverStation()
+    {
+        if (this.driverStation == null)
+        {
+            this.driverStation = mock(IDriverStation.class);
+        }
+
+        return this.driverStation;
+    }
 }
@@ -0,0 +1,79 @@
+package org.usfirst.frc.team1318.robot.benchmark;
+
+/**
+ * The measurements from benchmarking one operation
+ *
+ */
+public class BenchmarkResult
+{
+    private final String name;
+    private final double averageNanosPerOperation;
+    private final double minNanosPerOperation;
+    private final double maxNanosPerOperation;
+    private final double bytesPerOperation;
+    private final long gcCount;
+    private final long gcTime;
+
+    /**
+     * Initializes a new BenchmarkResult
+     * @param name of the benchmark
+     * @param averageNanosPerOperation the average time per operation across all of the measurement iterations
+     * @param minNanosPerOperation the time per operation in the fastest measurement iteration
+     * @param maxNanosPerOperation the time per operation in the slowest measurement iteration
+     * @param bytesPerOperation the number of bytes allocated per operation, or NaN if it couldn't be measured
+     * @param gcCount the number of garbage collections during the measurement iterations
+     * @param gcTime the time spent in garbage collection during the measurement iterations, in milliseconds
+     */
+    public BenchmarkResult(
+        String name,
+        double averageNanosPerOperation,
+        double minNanosPerOperation,
+        double maxNanosPerOperation,
+        double bytesPerOperation,
+        long gcCount,
+        long gcTime)
+    {
+        this.name = name;
+        this.averageNanosPerOperation = averageNanosPerOperation;
+        this.minNanosPerOperation = minNanosPerOperation;
+        this.maxNanosPerOperation = maxNanosPerOperation;
+        this.bytesPerOperation = bytesPerOperation;
+        this.gcCount = gcCount;
+        this.gcTime = gcTime;
+    }
+
+    public String getName()
+    {
+        return this.name;
+    }
+
+    public double getAverageNanosPerOperation()
+    {
+        return this.averageNanosPerOperation;
+    }
+
+    public double getMinNanosPerOperation()
+    {
+        return this.minNanosPerOperation;
+    }
+
+    public double getMaxNanosPerOperation()
+    {
+        return this.maxNanosPerOperation;
+    }
+
+    public double getBytesPerOperation()
+    {
+        return this.bytesPerOperation;
+    }
+
+    public long getGcCount()
+    {
+        return this.gcCount;
+    }
+
+    public long getGcTime()
+    {
+        return this.gcTime;
+    }
+}
@@ -0,0 +1,183 @@
+package org.usfirst.frc.team1318.robot.benchmark;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * Runs benchmark operations, measuring the time and allocation of each.
+ *
+ * Each operation is first run for a number of warm-up iterations (so that the JIT has compiled it), and then for a
+ * number of measurement iterations, each running the operation many times in a tight loop.  Time is measured per
+ * iteration so that the spread between iterations is visible, allocation is measured using the current thread's
+ * allocated bytes counter (the same counter used by JMH's GC profiler), and garbage collections are counted from the
+ * garbage collector MXBeans.
+ *
+ */
+public class BenchmarkRunner
+{
+    // the values returned by the operations are accumulated here so the JIT can't optimize the operations away
+    private static volatile double sink;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final int operationsPerIteration;
+
+    private final com.sun.management.ThreadMXBean allocationMXBean;
+    private final List<GarbageCollectorMXBean> gcMXBeans;
+    private final long allocationOverhead;
+
+    /**
+     * Initializes a new BenchmarkRunner
+     * @param warmupIterations the number of iterations to run before measuring
+     * @param measurementIterations the number of iterations to measure
+     * @param operationsPerIteration the number of times to run the operation in each iteration
+     */
+    public BenchmarkRunner(int warmupIterations, int measurementIterations, int operationsPerIteration)
+    {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.operationsPerIteration = operationsPerIteration;
+
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean &&
+            ((com.sun.management.ThreadMXBean)threadMXBean).isThreadAllocatedMemorySupported())
+        {
+            this.allocationMXBean = (com.sun.management.ThreadMXBean)threadMXBean;
+            this.allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        else
+        {
+            this.allocationMXBean = null;
+        }
+
+        this.gcMXBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+        // reading the allocation counter allocates a little itself, so measure that so it can be subtracted
+        long overhead = 0;
+        if (this.allocationMXBean != null)
+        {
+            long threadId = Thread.currentThread().getId();
+            overhead = Long.MAX_VALUE;
+            for (int i = 0; i < 10; i++)
+            {
+                long before = this.allocationMXBean.getThreadAllocatedBytes(threadId);
+                long after = this.allocationMXBean.getThreadAllocatedBytes(threadId);
+                overhead = Math.min(overhead, after - before);
+            }
+        }
+
+        this.allocationOverhead = overhead;
+    }
+
+    /**
+     * Benchmark an operation
+     * @param name of the benchmark
+     * @param operation to benchmark
+     * @return the measurements for the operation
+     */
+    public BenchmarkResult run(String name, IBenchmarkOperation operation)
+    {
+        for (int i = 0; i < this.warmupIterations; i++)
+        {
+            this.runIteration(operation);
+        }
+
+        long threadId = Thread.currentThread().getId();
+
+        double totalNanos = 0.0;
+        double minNanos = Double.MAX_VALUE;
+        double maxNanos = 0.0;
+        long allocatedBytes = 0;
+        long gcCount = 0;
+        long gcTime = 0;
+        for (int i = 0; i < this.measurementIterations; i++)
+        {
+            long gcCountBefore = this.getGcCount();
+            long gcTimeBefore = this.getGcTime();
+            long allocatedBefore = this.allocationMXBean != null ? this.allocationMXBean.getThreadAllocatedBytes(threadId) : 0;
+
+            long elapsedNanos = this.runIteration(operation);
+
+            long allocatedAfter = this.allocationMXBean != null ? this.allocationMXBean.getThreadAllocatedBytes(threadId) : 0;
+            allocatedBytes += Math.max(0, allocatedAfter - allocatedBefore - this.allocationOverhead);
+            gcCount += this.getGcCount() - gcCountBefore;
+            gcTime += this.getGcTime() - gcTimeBefore;
+
+            totalNanos += elapsedNanos;
+            minNanos = Math.min(minNanos, elapsedNanos);
+            maxNanos = Math.max(maxNanos, elapsedNanos);
+        }
+
+        double operations = (double)this.measurementIterations * this.operationsPerIteration;
+        return new BenchmarkResult(
+            name,
+            totalNanos / operations,
+            minNanos / this.operationsPerIteration,
+            maxNanos / this.operationsPerIteration,
+            this.allocationMXBean != null ? allocatedBytes / operations : Double.NaN,
+            gcCount,
+            gcTime);
+    }
+
+    /**
+     * Print a table of benchmark results
+     * @param results to print
+     * @param out to print to
+     */
+    public static void printReport(List<BenchmarkResult> results, PrintStream out)
+    {
+        out.println(String.format("%-36s %12s %12s %12s %12s %8s %10s", "benchmark", "ns/op", "min ns/op", "max ns/op", "B/op", "gc count", "gc time ms"));
+        for (BenchmarkResult result : results)
+        {
+            out.println(
+                String.format(
+                    "%-36s %12.1f %12.1f %12.1f %12.1f %8d %10d",
+                    result.getName(),
+                    result.getAverageNanosPerOperation(),
+                    result.getMinNanosPerOperation(),
+                    result.getMaxNanosPerOperation(),
+                    result.getBytesPerOperation(),
+                    result.getGcCount(),
+                    result.getGcTime()));
+        }
+    }
+
+    private long runIteration(IBenchmarkOperation operation)
+    {
+        double total = 0.0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < this.operationsPerIteration; i++)
+        {
+            total += operation.run();
+        }
+
+        long endTime = System.nanoTime();
+        BenchmarkRunner.sink += total;
+        return endTime - startTime;
+    }
+
+    private long getGcCount()
+    {
+        long count = 0;
+        for (int i = 0; i < this.gcMXBeans.size(); i++)
+        {
+            count += Math.max(0, this.gcMXBeans.get(i).getCollectionCount());
+        }
+
+        return count;
+    }
+
+    private long getGcTime()
+    {
+        long time = 0;
+        for (int i = 0; i < this.gcMXBeans.size(); i++)
+        {
+            time += Math.max(0, this.gcMXBeans.get(i).getCollectionTime());
+        }
+
+        return time;
+    }
+}
@@ -0,0 +1,44 @@
+package org.usfirst.frc.team1318.robot.benchmark;
+
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+
+/**
+ * Timer for benchmarks, which only moves forward when told to, so that each benchmarked operation can be made to look
+ * like it is running one control loop after another regardless of how fast the operation actually runs.
+ *
+ */
+public class BenchmarkTimer implements ITimer
+{
+    private double time;
+
+    /**
+     * Move the timer forward
+     * @param elapsedTime to move forward by, in seconds
+     */
+    public void advance(double elapsedTime)
+    {
+        this.time += elapsedTime;
+    }
+
+    @Override
+    public void start()
+    {
+    }
+
+    @Override
+    public void stop()
+    {
+    }
+
+    @Override
+    public double get()
+    {
+        return this.time;
+    }
+
+    @Override
+    public void reset()
+    {
+        this.time = 0.0;
+    }
+}
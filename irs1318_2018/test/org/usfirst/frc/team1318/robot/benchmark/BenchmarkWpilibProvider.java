@@ -0,0 +1,557 @@
+package org.usfirst.frc.team1318.robot.benchmark;
+
+import java.util.HashMap;
+
+import org.usfirst.frc.team1318.robot.common.wpilib.DoubleSolenoidValue;
+import org.usfirst.frc.team1318.robot.common.wpilib.IAnalogInput;
+import org.usfirst.frc.team1318.robot.common.wpilib.ICompressor;
+import org.usfirst.frc.team1318.robot.common.wpilib.IDigitalInput;
+import org.usfirst.frc.team1318.robot.common.wpilib.IDoubleSolenoid;
+import org.usfirst.frc.team1318.robot.common.wpilib.IDriverStation;
+import org.usfirst.frc.team1318.robot.common.wpilib.IEncoder;
+import org.usfirst.frc.team1318.robot.common.wpilib.IJoystick;
+import org.usfirst.frc.team1318.robot.common.wpilib.IMotor;
+import org.usfirst.frc.team1318.robot.common.wpilib.INavx;
+import org.usfirst.frc.team1318.robot.common.wpilib.IPowerDistributionPanel;
+import org.usfirst.frc.team1318.robot.common.wpilib.IRelay;
+import org.usfirst.frc.team1318.robot.common.wpilib.IServo;
+import org.usfirst.frc.team1318.robot.common.wpilib.ISolenoid;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITalonSRX;
+import org.usfirst.frc.team1318.robot.common.wpilib.IVictorSPX;
+import org.usfirst.frc.team1318.robot.common.wpilib.IWpilibProvider;
+import org.usfirst.frc.team1318.robot.common.wpilib.RelayDirection;
+import org.usfirst.frc.team1318.robot.common.wpilib.RelayValue;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXControlMode;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXFeedbackDevice;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXLimitSwitchStatus;
+import org.usfirst.frc.team1318.robot.common.wpilib.TalonSRXNeutralMode;
+
+import edu.wpi.first.wpilibj.Joystick.AxisType;
+
+/**
+ * Provider of hardware fakes for benchmarks.  Works like the TestWpilibProvider, except that the fakes are simple
+ * classes that do nothing rather than Mockito mocks, because mocks record every call made to them and so would swamp
+ * the timing and allocation of the code being measured.
+ *
+ */
+public class BenchmarkWpilibProvider implements IWpilibProvider
+{
+    private static final TalonSRXLimitSwitchStatus LimitSwitchesOpen = new TalonSRXLimitSwitchStatus(false, false);
+
+    private HashMap<Integer, FakeAnalogInput> analogInputMap = new HashMap<Integer, FakeAnalogInput>();
+    private HashMap<Integer, FakeTalonSRX> canTalonMap = new HashMap<Integer, FakeTalonSRX>();
+    private HashMap<Integer, FakeJoystick> joystickMap = new HashMap<Integer, FakeJoystick>();
+
+    @Override
+    public FakeAnalogInput getAnalogInput(int channel)
+    {
+        if (!this.analogInputMap.containsKey(channel))
+        {
+            this.analogInputMap.put(channel, new FakeAnalogInput());
+        }
+
+        return this.analogInputMap.get(channel);
+    }
+
+    @Override
+    public FakeTalonSRX getTalonSRX(int deviceNumber)
+    {
+        if (!this.canTalonMap.containsKey(deviceNumber))
+        {
+            this.canTalonMap.put(deviceNumber, new FakeTalonSRX());
+        }
+
+        return this.canTalonMap.get(deviceNumber);
+    }
+
+    @Override
+    public IVictorSPX getVictorSPX(int deviceNumber)
+    {
+        return new FakeVictorSPX();
+    }
+
+    @Override
+    public ICompressor getCompressor()
+    {
+        return this.getCompressor(0);
+    }
+
+    @Override
+    public ICompressor getCompressor(int module)
+    {
+        return new FakeCompressor();
+    }
+
+    @Override
+    public IDigitalInput getDigitalInput(int channel)
+    {
+        return () -> false;
+    }
+
+    @Override
+    public IDoubleSolenoid getDoubleSolenoid(int forwardChannel, int reverseChannel)
+    {
+        return this.getDoubleSolenoid(0, forwardChannel, reverseChannel);
+    }
+
+    @Override
+    public IDoubleSolenoid getDoubleSolenoid(int module, int forwardChannel, int reverseChannel)
+    {
+        return new FakeDoubleSolenoid();
+    }
+
+    @Override
+    public IEncoder getEncoder(int channelA, int channelB)
+    {
+        return new FakeEncoder();
+    }
+
+    @Override
+    public FakeJoystick getJoystick(int port)
+    {
+        if (!this.joystickMap.containsKey(port))
+        {
+            this.joystickMap.put(port, new FakeJoystick());
+        }
+
+        return this.joystickMap.get(port);
+    }
+
+    @Override
+    public IMotor getTalon(int channel)
+    {
+        return this.getVictor(channel);
+    }
+
+    @Override
+    public IMotor getVictor(int channel)
+    {
+        return new FakeMotor();
+    }
+
+    @Override
+    public IServo getServo(int channel)
+    {
+        return new FakeServo();
+    }
+
+    @Override
+    public IPowerDistributionPanel getPDP()
+    {
+        return this.getPDP(0);
+    }
+
+    @Override
+    public IPowerDistributionPanel getPDP(int module)
+    {
+        return new FakePowerDistributionPanel();
+    }
+
+    @Override
+    public IRelay getRelay(int channel)
+    {
+        return new FakeRelay();
+    }
+
+    @Override
+    public IRelay getRelay(int channel, RelayDirection direction)
+    {
+        return this.getRelay(channel);
+    }
+
+    @Override
+    public ISolenoid getSolenoid(int channel)
+    {
+        return this.getSolenoid(0, channel);
+    }
+
+    @Override
+    public ISolenoid getSolenoid(int module, int channel)
+    {
+        return new FakeSolenoid();
+    }
+
+    @Override
+    public INavx getNavx()
+    {
+        return new FakeNavx();
+    }
+
+    @Override
+    public IDriverStation getDriverStation()
+    {
+        return new FakeDriverStation();
+    }
+
+    /**
+     * Analog input that reports whatever voltage it was last given
+     */
+    public static class FakeAnalogInput implements IAnalogInput
+    {
+        private double voltage;
+
+        public void setVoltage(double voltage)
+        {
+            this.voltage = voltage;
+        }
+
+        @Override
+        public double getVoltage()
+        {
+            return this.voltage;
+        }
+    }
+
+    /**
+     * Talon SRX that remembers the last output it was set to, and reports whatever sensor values it was last given
+     */
+    public static class FakeTalonSRX implements ITalonSRX
+    {
+        private double output;
+        private int position;
+        private double velocity;
+        private double error;
+
+        public double getOutput()
+        {
+            return this.output;
+        }
+
+        public void setSensorValues(int position, double velocity, double error)
+        {
+            this.position = position;
+            this.velocity = velocity;
+            this.error = error;
+        }
+
+        @Override
+        public void set(double power)
+        {
+            this.output = power;
+        }
+
+        @Override
+        public void setControlMode(TalonSRXControlMode mode)
+        {
+        }
+
+        @Override
+        public void setSensorType(TalonSRXFeedbackDevice feedbackDevice)
+        {
+        }
+
+        @Override
+        public void setSelectedSlot(int slotId)
+        {
+        }
+
+        @Override
+        public void setPIDF(double p, double i, double d, double f, int slotId)
+        {
+        }
+
+        @Override
+        public void setMotionMagicPIDF(double p, double i, double d, double f, int velocity, int acceleration, int slotId)
+        {
+        }
+
+        @Override
+        public void setPIDF(double p, double i, double d, double f, int izone, double closeLoopRampRate, int slotId)
+        {
+        }
+
+        @Override
+        public void setForwardLimitSwitch(boolean enabled, boolean normallyOpen)
+        {
+        }
+
+        @Override
+        public void setReverseLimitSwitch(boolean enabled, boolean normallyOpen)
+        {
+        }
+
+        @Override
+        public void setInvertOutput(boolean flip)
+        {
+        }
+
+        @Override
+        public void setInvertSensor(boolean flip)
+        {
+        }
+
+        @Override
+        public void setNeutralMode(TalonSRXNeutralMode neutralMode)
+        {
+        }
+
+        @Override
+        public void setVoltageCompensation(boolean enabled, double maxVoltage)
+        {
+        }
+
+        @Override
+        public void stop()
+        {
+            this.output = 0.0;
+        }
+
+        @Override
+        public void setPosition(int position)
+        {
+            this.position = position;
+        }
+
+        @Override
+        public void reset()
+        {
+            this.position = 0;
+        }
+
+        @Override
+        public int getPosition()
+        {
+            return this.position;
+        }
+
+        @Override
+        public double getVelocity()
+        {
+            return this.velocity;
+        }
+
+        @Override
+        public double getError()
+        {
+            return this.error;
+        }
+
+        @Override
+        public TalonSRXLimitSwitchStatus getLimitSwitchStatus()
+        {
+            return BenchmarkWpilibProvider.LimitSwitchesOpen;
+        }
+    }
+
+    /**
+     * Joystick that reports whatever axis values, POV and buttons it was last given
+     */
+    public static class FakeJoystick implements IJoystick
+    {
+        private final double[] axes = new double[AxisType.values().length];
+        private final boolean[] buttons = new boolean[32];
+        private int pov = -1;
+
+        public void setAxis(AxisType axis, double value)
+        {
+            this.axes[axis.ordinal()] = value;
+        }
+
+        public void setButton(int button, boolean pressed)
+        {
+            this.buttons[button] = pressed;
+        }
+
+        public void setPOV(int pov)
+        {
+            this.pov = pov;
+        }
+
+        @Override
+        public double getAxis(AxisType relevantAxis)
+        {
+            return this.axes[relevantAxis.ordinal()];
+        }
+
+        @Override
+        public int getPOV()
+        {
+            return this.pov;
+        }
+
+        @Override
+        public boolean getRawButton(int value)
+        {
+            return value >= 0 && value < this.buttons.length && this.buttons[value];
+        }
+    }
+
+    private static class FakeVictorSPX implements IVictorSPX
+    {
+        @Override
+        public void set(double power)
+        {
+        }
+
+        @Override
+        public void setInvertOutput(boolean flip)
+        {
+        }
+
+        @Override
+        public void setInvertSensor(boolean flip)
+        {
+        }
+
+        @Override
+        public void setControlMode(TalonSRXControlMode mode)
+        {
+        }
+    }
+
+    private static class FakeCompressor implements ICompressor
+    {
+        @Override
+        public void start()
+        {
+        }
+
+        @Override
+        public void stop()
+        {
+        }
+    }
+
+    private static class FakeDoubleSolenoid implements IDoubleSolenoid
+    {
+        @Override
+        public void set(DoubleSolenoidValue value)
+        {
+        }
+    }
+
+    private static class FakeEncoder implements IEncoder
+    {
+        @Override
+        public double getRate()
+        {
+            return 0.0;
+        }
+
+        @Override
+        public double getDistance()
+        {
+            return 0.0;
+        }
+
+        @Override
+        public int get()
+        {
+            return 0;
+        }
+
+        @Override
+        public void setDistancePerPulse(double distancePerPulse)
+        {
+        }
+
+        @Override
+        public void reset()
+        {
+        }
+    }
+
+    private static class FakeMotor implements IMotor
+    {
+        @Override
+        public void set(double power)
+        {
+        }
+    }
+
+    private static class FakeServo implements IServo
+    {
+        @Override
+        public void set(double value)
+        {
+        }
+    }
+
+    private static class FakePowerDistributionPanel implements IPowerDistributionPanel
+    {
+        @Override
+        public double getBatteryVoltage()
+        {
+            return 12.0;
+        }
+
+        @Override
+        public double getCurrent(int pdpChannel)
+        {
+            return 0.0;
+        }
+    }
+
+    private static class FakeRelay implements IRelay
+    {
+        @Override
+        public void set(RelayValue value)
+        {
+        }
+
+        @Override
+        public void setDirection(RelayDirection direction)
+        {
+        }
+    }
+
+    private static class FakeSolenoid implements ISolenoid
+    {
+        @Override
+        public void set(boolean on)
+        {
+        }
+    }
+
+    private static class FakeNavx implements INavx
+    {
+        @Override
+        public boolean isConnected()
+        {
+            return true;
+        }
+
+        @Override
+        public double getAngle()
+        {
+            return 0.0;
+        }
+
+        @Override
+        public double getDisplacementX()
+        {
+            return 0.0;
+        }
+
+        @Override
+        public double getDisplacementY()
+        {
+            return 0.0;
+        }
+
+        @Override
+        public double getDisplacementZ()
+        {
+            return 0.0;
+        }
+
+        @Override
+        public void reset()
+        {
+        }
+
+        @Override
+        public void resetDisplacement()
+        {
+        }
+    }
+
+    private static class FakeDriverStation implements IDriverStation
+    {
+        @Override
+        public String getGameSpecificMessage()
+        {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package org.usfirst.frc.team1318.robot.benchmark;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.usfirst.frc.team1318.robot.ElectronicsConstants;
+import org.usfirst.frc.team1318.robot.TuningConstants;
+import org.usfirst.frc.team1318.robot.benchmark.BenchmarkWpilibProvider.FakeJoystick;
+import org.usfirst.frc.team1318.robot.benchmark.BenchmarkWpilibProvider.FakeTalonSRX;
+import org.usfirst.frc.team1318.robot.common.BinaryTelemetryLogger;
+import org.usfirst.frc.team1318.robot.common.CSVLogger;
+import org.usfirst.frc.team1318.robot.common.ComplementaryFilter;
+import org.usfirst.frc.team1318.robot.common.IBooleanLogChannel;
+import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
+import org.usfirst.frc.team1318.robot.common.INumberLogChannel;
+import org.usfirst.frc.team1318.robot.common.LogPublishPolicy;
+import org.usfirst.frc.team1318.robot.common.MultiLogger;
+import org.usfirst.frc.team1318.robot.common.PIDHandler;
+import org.usfirst.frc.team1318.robot.common.SmartDashboardLogger;
+import org.usfirst.frc.team1318.robot.common.StringLogger;
+import org.usfirst.frc.team1318.robot.common.ThrottledLogger;
+import org.usfirst.frc.team1318.robot.driver.ButtonMap;
+import org.usfirst.frc.team1318.robot.driver.Operation;
+import org.usfirst.frc.team1318.robot.driver.common.user.UserDriver;
+import org.usfirst.frc.team1318.robot.drivetrain.DriveTrainMechanism;
+import org.usfirst.frc.team1318.robot.elevator.ElevatorMechanism;
+
+import com.google.inject.Guice;
+
+import edu.wpi.first.wpilibj.Joystick.AxisType;
+
+/**
+ * Benchmarks for the code that runs in every control loop (PID handling, filtering, reading the driver's input,
+ * updating mechanisms and logging), so that changes to their cost per loop in time and in allocation can be tracked
+ * on the desktop before the code goes on the robot.  Hardware is replaced by the fakes in BenchmarkWpilibProvider,
+ * and time by a BenchmarkTimer that moves forward by one loop period per operation.
+ *
+ * Results can be saved as CSV and compared against an earlier run to spot regressions.  Allocation is reported in
+ * bytes per operation, and should be 0 for anything that runs in every loop.
+ *
+ * Usage: ControlLoopBenchmarks [filter] [results.csv [baseline.csv]]
+ *
+ */
+public class ControlLoopBenchmarks
+{
+    private static final double LoopPeriod = 0.02; // 50Hz, in seconds
+    private static final int InputCount = 1024; // must be a power of two
+    private static final String LogComponent = "bench";
+
+    private static final int WarmupIterations = 10;
+    private static final int MeasurementIterations = 10;
+    private static final int OperationsPerIteration = 100000;
+
+    private final BenchmarkRunner runner;
+    private final String filter;
+    private final List<BenchmarkResult> results;
+
+    // smoothly varying inputs between -1.0 and 1.0, so operations don't see the same value in every loop
+    private final double[] inputs;
+    private int step;
+
+    /**
+     * Initializes a new ControlLoopBenchmarks
+     * @param runner to run the benchmarks with
+     * @param filter only benchmarks with names containing this will be run (or null to run all benchmarks)
+     */
+    public ControlLoopBenchmarks(BenchmarkRunner runner, String filter)
+    {
+        this.runner = runner;
+        this.filter = filter;
+        this.results = new ArrayList<BenchmarkResult>();
+
+        this.inputs = new double[ControlLoopBenchmarks.InputCount];
+        for (int i = 0; i < ControlLoopBenchmarks.InputCount; i++)
+        {
+            this.inputs[i] = Math.sin(2.0 * Math.PI * i / ControlLoopBenchmarks.InputCount);
+        }
+
+        this.step = 0;
+    }
+
+    /**
+     * Run the control loop benchmarks
+     * @param args optionally a filter for the benchmark names, where to save the results, and results to compare with
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException
+    {
+        String filter = args.length > 0 && !args[0].isEmpty() ? args[0] : null;
+
+        ControlLoopBenchmarks benchmarks = new ControlLoopBenchmarks(
+            new BenchmarkRunner(
+                ControlLoopBenchmarks.WarmupIterations,
+                ControlLoopBenchmarks.MeasurementIterations,
+                ControlLoopBenchmarks.OperationsPerIteration),
+            filter);
+
+        List<BenchmarkResult> results = benchmarks.runAll();
+        BenchmarkRunner.printReport(results, System.out);
+
+        if (args.length > 1)
+        {
+            ControlLoopBenchmarks.writeResults(results, args[1]);
+            System.out.println("Wrote results to " + args[1]);
+        }
+
+        if (args.length > 2)
+        {
+            ControlLoopBenchmarks.compareResults(results, args[2], System.out);
+        }
+    }
+
+    /**
+     * Run all of the benchmarks that match the filter
+     * @return the results of the benchmarks that were run
+     * @throws IOException
+     */
+    public List<BenchmarkResult> runAll() throws IOException
+    {
+        this.results.clear();
+
+        this.benchmarkPIDHandler();
+        this.benchmarkComplementaryFilter();
+        this.benchmarkUserDriver();
+        this.benchmarkDriveTrainMechanism();
+        this.benchmarkElevatorMechanism();
+        this.benchmarkLoggers();
+
+        return this.results;
+    }
+
+    /**
+     * Save benchmark results as CSV
+     * @param results to save
+     * @param fileName to write to
+     * @throws IOException
+     */
+    public static void writeResults(List<BenchmarkResult> results, String fileName) throws IOException
+    {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName)))
+        {
+            writer.append("benchmark,ns_per_op,min_ns_per_op,max_ns_per_op,bytes_per_op,gc_count,gc_time_ms");
+            writer.newLine();
+            for (BenchmarkResult result : results)
+            {
+                writer.append(
+                    String.format(
+                        "%s,%f,%f,%f,%f,%d,%d",
+                        result.getName(),
+                        result.getAverageNanosPerOperation(),
+                        result.getMinNanosPerOperation(),
+                        result.getMaxNanosPerOperation(),
+                        result.getBytesPerOperation(),
+                        result.getGcCount(),
+                        result.getGcTime()));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Compare benchmark results against results saved from an earlier run, printing the change in time and allocation
+     * @param results to compare
+     * @param baselineFileName containing the earlier results
+     * @param out to print the comparison to
+     * @throws IOException
+     */
+    public static void compareResults(List<BenchmarkResult> results, String baselineFileName, PrintStream out) throws IOException
+    {
+        Map<String, String[]> baseline = new HashMap<String, String[]>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(baselineFileName)))
+        {
+            // skip the header
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null)
+            {
+                String[] values = line.split(",");
+                if (values.length >= 5)
+                {
+                    baseline.put(values[0], values);
+                }
+            }
+        }
+
+        out.println(String.format("%-36s %12s %12s %10s %12s %12s", "benchmark", "base ns/op", "ns/op", "change", "base B/op", "B/op"));
+        for (BenchmarkResult result : results)
+        {
+            String[] values = baseline.get(result.getName());
+            if (values == null)
+            {
+                out.println(String.format("%-36s (not in baseline)", result.getName()));
+                continue;
+            }
+
+            double baselineNanos = Double.parseDouble(values[1]);
+            double baselineBytes = Double.parseDouble(values[4]);
+            out.println(
+                String.format(
+                    "%-36s %12.1f %12.1f %9.1f%% %12.1f %12.1f",
+                    result.getName(),
+                    baselineNanos,
+                    result.getAverageNanosPerOperation(),
+                    100.0 * (result.getAverageNanosPerOperation() - baselineNanos) / baselineNanos,
+                    baselineBytes,
+                    result.getBytesPerOperation()));
+        }
+    }
+
+    private void benchmarkPIDHandler()
+    {
+        if (this.shouldRun("pid.calculatePosition"))
+        {
+            BenchmarkTimer timer = new BenchmarkTimer();
+            PIDHandler pidHandler = new PIDHandler(0.1, 0.01, 0.05, 0.0, 1.0, -1.0, 1.0, timer);
+            this.run(
+                "pid.calculatePosition",
+                () ->
+                {
+                    timer.advance(ControlLoopBenchmarks.LoopPeriod);
+                    return pidHandler.calculatePosition(0.5, this.nextInput());
+                });
+        }
+
+        if (this.shouldRun("pid.calculateVelocity"))
+        {
+            BenchmarkTimer timer = new BenchmarkTimer();
+            PIDHandler pidHandler = new PIDHandler(0.1, 0.01, 0.05, 0.5, 1.0, -1.0, 1.0, timer);
+            this.run(
+                "pid.calculateVelocity",
+                () ->
+                {
+                    timer.advance(ControlLoopBenchmarks.LoopPeriod);
+                    return pidHandler.calculateVelocity(0.5, this.nextInput());
+                });
+        }
+    }
+
+    private void benchmarkComplementaryFilter()
+    {
+        if (this.shouldRun("filter.update"))
+        {
+            ComplementaryFilter filter = new ComplementaryFilter(0.8, 0.2);
+            this.run(
+                "filter.update",
+                () ->
+                {
+                    filter.update(this.nextInput());
+                    return filter.getValue();
+                });
+        }
+    }
+
+    private void benchmarkUserDriver()
+    {
+        if (this.shouldRun("driver.update"))
+        {
+            BenchmarkWpilibProvider provider = new BenchmarkWpilibProvider();
+            FakeJoystick joystick = provider.getJoystick(ElectronicsConstants.JOYSTICK_DRIVER_PORT);
+            UserDriver driver = new UserDriver(Guice.createInjector(), new ButtonMap(), provider);
+            this.run(
+                "driver.update",
+                () ->
+                {
+                    double input = this.nextInput();
+                    joystick.setAxis(AxisType.kX, input);
+                    joystick.setAxis(AxisType.kY, -input);
+                    driver.update();
+                    return driver.getAnalog(Operation.DriveTrainMoveForward);
+                });
+        }
+    }
+
+    private void benchmarkDriveTrainMechanism()
+    {
+        if (this.shouldRun("drivetrain.update"))
+        {
+            BenchmarkWpilibProvider provider = new BenchmarkWpilibProvider();
+            BenchmarkTimer timer = new BenchmarkTimer();
+            FakeJoystick joystick = provider.getJoystick(ElectronicsConstants.JOYSTICK_DRIVER_PORT);
+            FakeTalonSRX leftMotor = provider.getTalonSRX(ElectronicsConstants.DRIVETRAIN_LEFT_MOTOR_CAN_ID);
+            FakeTalonSRX rightMotor = provider.getTalonSRX(ElectronicsConstants.DRIVETRAIN_RIGHT_MOTOR_CAN_ID);
+
+            UserDriver driver = new UserDriver(Guice.createInjector(), new ButtonMap(), provider);
+            joystick.setAxis(AxisType.kY, -0.5);
+            joystick.setAxis(AxisType.kX, 0.25);
+            driver.update();
+
+            DriveTrainMechanism driveTrain = new DriveTrainMechanism(new NullLogger(), provider, timer);
+            driveTrain.setDriver(driver);
+            this.run(
+                "drivetrain.update",
+                () ->
+                {
+                    double input = this.nextInput();
+                    timer.advance(ControlLoopBenchmarks.LoopPeriod);
+                    leftMotor.setSensorValues((int)(input * 1000.0), input * 100.0, input);
+                    rightMotor.setSensorValues((int)(input * 1000.0), input * 100.0, input);
+                    driveTrain.readSensors();
+                    driveTrain.update();
+                    return leftMotor.getOutput();
+                });
+        }
+    }
+
+    private void benchmarkElevatorMechanism()
+    {
+        if (this.shouldRun("elevator.update"))
+        {
+            BenchmarkWpilibProvider provider = new BenchmarkWpilibProvider();
+            BenchmarkTimer timer = new BenchmarkTimer();
+            FakeTalonSRX innerMotor = provider.getTalonSRX(ElectronicsConstants.ELEVATOR_INNER_MOTOR_CAN_ID);
+            FakeTalonSRX outerMotor = provider.getTalonSRX(ElectronicsConstants.ELEVATOR_OUTER_MOTOR_CAN_ID);
+
+            UserDriver driver = new UserDriver(Guice.createInjector(), new ButtonMap(), provider);
+            driver.update();
+
+            ElevatorMechanism elevator = new ElevatorMechanism(new NullLogger(), provider, timer);
+            elevator.setDriver(driver);
+            this.run(
+                "elevator.update",
+                () ->
+                {
+                    double input = this.nextInput();
+                    timer.advance(ControlLoopBenchmarks.LoopPeriod);
+                    innerMotor.setSensorValues((int)(input * 1000.0), input * 100.0, input);
+                    outerMotor.setSensorValues((int)(input * 1000.0), input * 100.0, input);
+                    elevator.readSensors();
+                    elevator.update();
+                    return innerMotor.getOutput();
+                });
+        }
+    }
+
+    private void benchmarkLoggers() throws IOException
+    {
+        String[] schema = new String[] { "bench.number0", "bench.number1", "bench.number2", "bench.number3", "bench.boolean" };
+
+        if (this.shouldRun("logger.string"))
+        {
+            this.benchmarkLogger("logger.string", new NullLogger(), null);
+        }
+
+        if (this.shouldRun("logger.throttled"))
+        {
+            BenchmarkTimer timer = new BenchmarkTimer();
+            this.benchmarkLogger(
+                "logger.throttled",
+                new ThrottledLogger(
+                    new NullLogger(),
+                    timer,
+                    new LogPublishPolicy(
+                        TuningConstants.LOG_THROTTLING_MIN_PERIOD,
+                        TuningConstants.LOG_THROTTLING_DEADBAND,
+                        TuningConstants.LOG_THROTTLING_REFRESH_PERIOD)),
+                timer);
+        }
+
+        if (this.shouldRun("logger.csv"))
+        {
+            this.benchmarkLogger("logger.csv", new CSVLogger(ControlLoopBenchmarks.createTempFile(".csv"), schema), null);
+        }
+
+        if (this.shouldRun("logger.binary"))
+        {
+            BinaryTelemetryLogger binaryLogger = new BinaryTelemetryLogger(
+                ControlLoopBenchmarks.createTempFile(".bin"),
+                schema,
+                TuningConstants.TELEMETRY_QUEUE_CAPACITY,
+                TuningConstants.TELEMETRY_USE_MEMORY_MAPPED_FILE,
+                new NullLogger());
+            this.benchmarkLogger("logger.binary", binaryLogger, null);
+            binaryLogger.close();
+        }
+
+        if (this.shouldRun("logger.multi"))
+        {
+            this.benchmarkLogger("logger.multi", new MultiLogger(new NullLogger(), new NullLogger()), null);
+        }
+
+        if (this.shouldRun("logger.smartdashboard"))
+        {
+            IDashboardLogger smartDashboardLogger;
+            try
+            {
+                smartDashboardLogger = new SmartDashboardLogger();
+            }
+            catch (LinkageError error)
+            {
+                // NetworkTables needs its native library, which may not be available on the desktop
+                System.err.println("skipping logger.smartdashboard: " + error);
+                return;
+            }
+
+            this.benchmarkLogger("logger.smartdashboard", smartDashboardLogger, null);
+        }
+    }
+
+    /**
+     * Benchmark a logger with a loop's worth of logging, both through the log methods and through registered channels
+     * @param name of the benchmark
+     * @param logger to benchmark
+     */
+    private void benchmarkLogger(String name, IDashboardLogger logger, BenchmarkTimer timer)
+    {
+        this.run(
+            name + ".log",
+            () ->
+            {
+                double input = this.nextInput();
+                if (timer != null)
+                {
+                    timer.advance(ControlLoopBenchmarks.LoopPeriod);
+                }
+
+                logger.logNumber(ControlLoopBenchmarks.LogComponent, "number0", input);
+                logger.logNumber(ControlLoopBenchmarks.LogComponent, "number1", input * 2.0);
+                logger.logNumber(ControlLoopBenchmarks.LogComponent, "number2", input * 3.0);
+                logger.logNumber(ControlLoopBenchmarks.LogComponent, "number3", input * 4.0);
+                logger.logBoolean(ControlLoopBenchmarks.LogComponent, "boolean", input > 0.0);
+                logger.flush();
+                return input;
+            });
+
+        INumberLogChannel number0 = logger.registerNumberChannel(ControlLoopBenchmarks.LogComponent, "number0");
+        INumberLogChannel number1 = logger.registerNumberChannel(ControlLoopBenchmarks.LogComponent, "number1");
+        INumberLogChannel number2 = logger.registerNumberChannel(ControlLoopBenchmarks.LogComponent, "number2");
+        INumberLogChannel number3 = logger.registerNumberChannel(ControlLoopBenchmarks.LogComponent, "number3");
+        IBooleanLogChannel booleanChannel = logger.registerBooleanChannel(ControlLoopBenchmarks.LogComponent, "boolean");
+        this.run(
+            name + ".channel",
+            () ->
+            {
+                double input = this.nextInput();
+                if (timer != null)
+                {
+                    timer.advance(ControlLoopBenchmarks.LoopPeriod);
+                }
+
+                number0.publish(input);
+                number1.publish(input * 2.0);
+                number2.publish(input * 3.0);
+                number3.publish(input * 4.0);
+                booleanChannel.publish(input > 0.0);
+                logger.flush();
+                return input;
+            });
+    }
+
+    private boolean shouldRun(String name)
+    {
+        return this.filter == null || name.contains(this.filter);
+    }
+
+    private void run(String name, IBenchmarkOperation operation)
+    {
+        BenchmarkResult result = this.runner.run(name, operation);
+        this.results.add(result);
+    }
+
+    private double nextInput()
+    {
+        return this.inputs[(this.step++) & (ControlLoopBenchmarks.InputCount - 1)];
+    }
+
+    private static String createTempFile(String suffix) throws IOException
+    {
+        File file = File.createTempFile("benchmark", suffix);
+        file.deleteOnExit();
+        return file.getPath();
+    }
+
+    /**
+     * Logger that formats values like the string-based loggers do, but then discards them
+     */
+    private static class NullLogger extends StringLogger
+    {
+        @Override
+        public void logString(String component, String key, String value)
+        {
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.usfirst.frc.team1318.robot.benchmark;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ControlLoopBenchmarksTest
+{
+    @Test
+    public void testRunAll_ProducesResults() throws IOException
+    {
+        // just make sure the benchmarks still run, with too few operations to be worth measuring
+        ControlLoopBenchmarks benchmarks = new ControlLoopBenchmarks(new BenchmarkRunner(0, 1, 10), null);
+        List<BenchmarkResult> results = benchmarks.runAll();
+
+        assertFalse(results.isEmpty());
+        for (BenchmarkResult result : results)
+        {
+            assertTrue(result.getName(), result.getAverageNanosPerOperation() >= 0.0);
+        }
+    }
+}
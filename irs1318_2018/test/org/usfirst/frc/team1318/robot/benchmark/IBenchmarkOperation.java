@@ -0,0 +1,15 @@
+package org.usfirst.frc.team1318.robot.benchmark;
+
+/**
+ * An operation to be benchmarked, run many times by the BenchmarkRunner
+ *
+ */
+@FunctionalInterface
+public interface IBenchmarkOperation
+{
+    /**
+     * Run the operation once
+     * @return a value computed by the operation, consumed by the runner so that the JIT can't optimize the work away
+     */
+    double run();
+}
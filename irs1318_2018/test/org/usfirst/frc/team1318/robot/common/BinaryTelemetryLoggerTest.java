@@ -0,0 +1,79 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BinaryTelemetryLoggerTest
+{
+    @Test
+    public void testWriteAndConvert() throws IOException
+    {
+        this.writeAndConvert(false);
+    }
+
+    @Test
+    public void testWriteAndConvert_MemoryMapped() throws IOException
+    {
+        this.writeAndConvert(true);
+    }
+
+    private void writeAndConvert(boolean useMemoryMappedFile) throws IOException
+    {
+        File binaryFile = File.createTempFile("telemetry", ".bin");
+        binaryFile.deleteOnExit();
+        File csvFile = File.createTempFile("telemetry", ".csv");
+        csvFile.deleteOnExit();
+
+        IDashboardLogger errorLogger = mock(IDashboardLogger.class);
+        BinaryTelemetryLogger logger = new BinaryTelemetryLogger(
+            binaryFile.getPath(),
+            new String[] { "r.time", "dt.leftVelocity", "dt.isBraking" },
+            4,
+            useMemoryMappedFile,
+            errorLogger);
+
+        INumberLogChannel velocityChannel = logger.registerNumberChannel("dt", "leftVelocity");
+
+        // first frame: every value is logged, along with values that aren't in the schema
+        logger.logNumber("r", "time", 0.02);
+        velocityChannel.publish(12.5);
+        logger.logBoolean("dt", "isBraking", true);
+        logger.logNumber("dt", "rightVelocity", 3.0);
+        logger.logString("r", "state", "Autonomous");
+        logger.flush();
+
+        // second frame: a value isn't logged
+        logger.logNumber("r", "time", 0.04);
+        logger.logInteger("dt", "isBraking", 0);
+        logger.flush();
+
+        // third frame: a null value
+        logger.logNumber("r", "time", 0.06);
+        logger.logNumber("dt", "leftVelocity", (Double)null);
+        logger.flush();
+
+        logger.close();
+        verify(errorLogger, never()).logString(anyString(), anyString(), anyString());
+
+        long frames = BinaryTelemetryConverter.convert(binaryFile.getPath(), csvFile.getPath());
+        assertEquals(3, frames);
+
+        List<String> lines = Files.readAllLines(csvFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(4, lines.size());
+        assertEquals("r.time,dt.leftVelocity,dt.isBraking", lines.get(0));
+        assertEquals("0.02,12.5,1", lines.get(1));
+        assertEquals("0.04,,0", lines.get(2));
+        assertEquals("0.06,,", lines.get(3));
+    }
+}
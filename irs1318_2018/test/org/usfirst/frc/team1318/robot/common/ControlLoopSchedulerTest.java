@@ -0,0 +1,137 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+
+public class ControlLoopSchedulerTest
+{
+    private static final double Period = 0.01;
+
+    @Test
+    public void testRecordIteration_OnTime()
+    {
+        ControlLoopScheduler scheduler = ControlLoopSchedulerTest.createScheduler(ControlLoopOverrunPolicy.Skip, 3);
+
+        double nextDeadline = scheduler.recordIteration(1.0, 1.0, 1.001, 1.004);
+        assertEquals(1.01, nextDeadline, 1e-9);
+
+        nextDeadline = scheduler.recordIteration(nextDeadline, 1.001, 1.0105, 1.014);
+        assertEquals(1.02, nextDeadline, 1e-9);
+
+        assertEquals(2, scheduler.getIterationCount());
+        assertEquals(0, scheduler.getOverrunCount());
+        assertEquals(0, scheduler.getSkippedCount());
+        assertEquals(0.0035, scheduler.getLastDuration(), 1e-9);
+        assertEquals(0.0035, scheduler.getMaxDuration(), 1e-9);
+        assertEquals(0.0095, scheduler.getLastPeriod(), 1e-9);
+        assertEquals(0.0005, scheduler.getLastLateness(), 1e-9);
+        assertEquals(0.001, scheduler.getMaxLateness(), 1e-9);
+    }
+
+    @Test
+    public void testRecordIteration_SingleOverrun_CatchUp()
+    {
+        ControlLoopScheduler scheduler = ControlLoopSchedulerTest.createScheduler(ControlLoopOverrunPolicy.CatchUp, 3);
+
+        // ran past the next deadline by less than a period - run the next iteration immediately
+        double nextDeadline = scheduler.recordIteration(1.0, 1.0, 1.0, 1.015);
+        assertEquals(1.01, nextDeadline, 1e-9);
+
+        assertEquals(1, scheduler.getOverrunCount());
+        assertEquals(0, scheduler.getSkippedCount());
+        assertEquals(0.015, scheduler.getLastDuration(), 1e-9);
+    }
+
+    @Test
+    public void testRecordIteration_SingleOverrun_Skip()
+    {
+        ControlLoopScheduler scheduler = ControlLoopSchedulerTest.createScheduler(ControlLoopOverrunPolicy.Skip, 3);
+
+        // ran past the next deadline, so that deadline is dropped and we wait for the one after it
+        double nextDeadline = scheduler.recordIteration(1.0, 1.0, 1.0, 1.015);
+        assertEquals(1.02, nextDeadline, 1e-9);
+
+        assertEquals(1, scheduler.getOverrunCount());
+        assertEquals(1, scheduler.getSkippedCount());
+    }
+
+    @Test
+    public void testRecordIteration_MultipleMissed_Skip()
+    {
+        ControlLoopScheduler scheduler = ControlLoopSchedulerTest.createScheduler(ControlLoopOverrunPolicy.Skip, 3);
+
+        // ran through the deadlines at 1.01, 1.02 and 1.03, so the first one still in the future is 1.04
+        double nextDeadline = scheduler.recordIteration(1.0, 1.0, 1.0, 1.035);
+        assertEquals(1.04, nextDeadline, 1e-9);
+
+        assertEquals(1, scheduler.getOverrunCount());
+        assertEquals(3, scheduler.getSkippedCount());
+    }
+
+    @Test
+    public void testRecordIteration_MultipleMissed_CatchUp()
+    {
+        ControlLoopScheduler scheduler = ControlLoopSchedulerTest.createScheduler(ControlLoopOverrunPolicy.CatchUp, 3);
+
+        // behind by two whole periods, which is within the catch-up limit - keep the original schedule
+        double nextDeadline = scheduler.recordIteration(1.0, 1.0, 1.0, 1.035);
+        assertEquals(1.01, nextDeadline, 1e-9);
+
+        assertEquals(1, scheduler.getOverrunCount());
+        assertEquals(0, scheduler.getSkippedCount());
+    }
+
+    @Test
+    public void testRecordIteration_CatchUpResync()
+    {
+        ControlLoopScheduler scheduler = ControlLoopSchedulerTest.createScheduler(ControlLoopOverrunPolicy.CatchUp, 3);
+
+        // behind by four whole periods, which is past the catch-up limit - resynchronize starting at the end time
+        double nextDeadline = scheduler.recordIteration(1.0, 1.0, 1.0, 1.055);
+        assertEquals(1.055, nextDeadline, 1e-9);
+
+        assertEquals(1, scheduler.getOverrunCount());
+        assertEquals(4, scheduler.getSkippedCount());
+
+        // the following iteration is on time relative to the new schedule
+        nextDeadline = scheduler.recordIteration(nextDeadline, 1.0, 1.055, 1.058);
+        assertEquals(1.065, nextDeadline, 1e-9);
+
+        assertEquals(1, scheduler.getOverrunCount());
+        assertEquals(0.0, scheduler.getLastLateness(), 1e-9);
+    }
+
+    @Test
+    public void testDescribe()
+    {
+        String description = ControlLoopScheduler.describe(new IllegalStateException("failed"));
+        assertTrue(description.startsWith("java.lang.IllegalStateException: failed at "));
+        assertTrue(description.contains("ControlLoopSchedulerTest.testDescribe"));
+    }
+
+    private static ControlLoopScheduler createScheduler(ControlLoopOverrunPolicy overrunPolicy, int maxCatchUpIterations)
+    {
+        IDashboardLogger logger = mock(IDashboardLogger.class);
+        INumberLogChannel channel = value ->
+        {
+        };
+
+        doReturn(channel).when(logger).registerNumberChannel(anyString(), anyString());
+
+        return new ControlLoopScheduler(
+            null,
+            logger,
+            mock(ITimer.class),
+            null,
+            null,
+            ControlLoopSchedulerTest.Period,
+            overrunPolicy,
+            maxCatchUpIterations);
+    }
+}
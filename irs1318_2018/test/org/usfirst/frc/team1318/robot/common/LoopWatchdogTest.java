@@ -0,0 +1,77 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LoopWatchdogTest
+{
+    @Test
+    public void testEndCycle_WithinBudget()
+    {
+        LoopWatchdog watchdog = new LoopWatchdog(null, LoopWatchdogTest.createLogger(), 10.0, 4);
+
+        watchdog.startCycle();
+        watchdog.endPhase(LoopWatchdog.ReadSensorsPhase);
+        assertFalse(watchdog.endCycle(0.02));
+
+        assertEquals(1, watchdog.getCycleCount());
+        assertEquals(0, watchdog.getOverrunCount());
+    }
+
+    @Test
+    public void testEndCycle_Overrun()
+    {
+        IDashboardLogger logger = LoopWatchdogTest.createLogger();
+        List<IMechanism> mechanismList = new ArrayList<IMechanism>();
+        mechanismList.add(mock(IMechanism.class));
+        MechanismProfiler profiler = new MechanismProfiler(mechanismList, logger, 10, 10);
+
+        // with no budget, every iteration is an overrun
+        LoopWatchdog watchdog = new LoopWatchdog(profiler, logger, 0.0, 4);
+        for (int i = 0; i < 6; i++)
+        {
+            watchdog.startCycle();
+            watchdog.endPhase(LoopWatchdog.ReadSensorsPhase);
+            watchdog.endPhase(LoopWatchdog.DriverUpdatePhase);
+            profiler.record(0, MechanismProfiler.UpdatePhase, 5000000L);
+            watchdog.endPhase(LoopWatchdog.MechanismsUpdatePhase);
+            watchdog.endPhase(LoopWatchdog.LoggerFlushPhase);
+            assertTrue(watchdog.endCycle(i * 0.02));
+        }
+
+        assertEquals(6, watchdog.getOverrunCount());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        watchdog.dump(new PrintStream(bytes));
+        String[] lines = bytes.toString().trim().split("\n");
+
+        // summary, header, and only the 4 most recent traces (oldest first)
+        assertEquals(6, lines.length);
+        assertTrue(lines[0].startsWith("6 of 6 iterations"));
+        assertTrue(lines[2].trim().startsWith("3 "));
+        assertTrue(lines[5].trim().startsWith("6 "));
+        assertTrue(lines[5].contains(mechanismList.get(0).getClass().getSimpleName() + ".update"));
+    }
+
+    private static IDashboardLogger createLogger()
+    {
+        IDashboardLogger logger = mock(IDashboardLogger.class);
+        INumberLogChannel channel = value ->
+        {
+        };
+
+        doReturn(channel).when(logger).registerNumberChannel(anyString(), anyString());
+        return logger;
+    }
+}
@@ -0,0 +1,81 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class MotionProfileGeneratorTest
+{
+    @Test
+    public void testTrapezoidal_ReachesMaxVelocity()
+    {
+        // 0.5s to accelerate to 50 (12.5 distance), 1.5s at 50 (75 distance), 0.5s to decelerate (12.5 distance)
+        MotionProfile profile = MotionProfileGenerator.GenerateTrapezoidal(100.0, 50.0, 100.0);
+
+        assertEquals(2.5, profile.getDuration(), 0.01);
+        assertEquals(0.0, profile.getPosition(0.0), 0.0001);
+        assertEquals(12.5, profile.getPosition(0.5), 0.0001);
+        assertEquals(50.0, profile.getVelocity(1.0), 0.0001);
+        assertEquals(100.0, profile.getAcceleration(0.25), 0.0001);
+        assertEquals(-100.0, profile.getAcceleration(2.25), 0.0001);
+        assertEquals(100.0, profile.getPosition(profile.getDuration()), 0.0001);
+        assertEquals(100.0, profile.getPosition(10.0), 0.0001);
+        assertEquals(0.0, profile.getVelocity(10.0), 0.0001);
+    }
+
+    @Test
+    public void testTrapezoidal_ShortDistanceTriangular()
+    {
+        // can only accelerate for 0.5s (to 50) before needing to decelerate
+        MotionProfile profile = MotionProfileGenerator.GenerateTrapezoidal(25.0, 200.0, 100.0);
+
+        assertEquals(1.0, profile.getDuration(), 0.01);
+        assertEquals(50.0, profile.getVelocity(0.5), 0.0001);
+        assertEquals(25.0, profile.getEndPosition(), 0.0001);
+    }
+
+    @Test
+    public void testTrapezoidal_Backwards()
+    {
+        MotionProfile profile = MotionProfileGenerator.GenerateTrapezoidal(-100.0, 50.0, 100.0);
+
+        assertEquals(-12.5, profile.getPosition(0.5), 0.0001);
+        assertEquals(-50.0, profile.getVelocity(1.0), 0.0001);
+        assertEquals(-100.0, profile.getEndPosition(), 0.0001);
+    }
+
+    @Test
+    public void testSCurve_WithinLimits()
+    {
+        double maxVelocity = 50.0;
+        double maxAcceleration = 100.0;
+        double maxJerk = 500.0;
+        MotionProfile profile = MotionProfileGenerator.GenerateSCurve(100.0, maxVelocity, maxAcceleration, maxJerk);
+
+        // takes maxAcceleration / maxJerk longer than the trapezoidal profile
+        assertEquals(2.5 + maxAcceleration / maxJerk, profile.getDuration(), 0.02);
+        assertEquals(100.0, profile.getEndPosition(), 0.0001);
+
+        double timeStep = profile.getTimeStep();
+        double previousPosition = 0.0;
+        double previousAcceleration = 0.0;
+        for (int i = 0; i < profile.getSampleCount(); i++)
+        {
+            double time = i * timeStep;
+            double position = profile.getPosition(time);
+            double velocity = profile.getVelocity(time);
+            double acceleration = profile.getAcceleration(time);
+
+            assertTrue(position >= previousPosition - 0.0001);
+            assertTrue(velocity <= maxVelocity + 0.0001);
+            assertTrue(Math.abs(acceleration) <= maxAcceleration + 0.0001);
+            assertTrue(Math.abs(acceleration - previousAcceleration) <= maxJerk * timeStep + 0.0001);
+
+            previousPosition = position;
+            previousAcceleration = acceleration;
+        }
+
+        assertEquals(0.0, profile.getVelocity(profile.getDuration()), 0.0001);
+    }
+}
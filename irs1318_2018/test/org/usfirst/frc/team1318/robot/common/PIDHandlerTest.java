@@ -0,0 +1,45 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+
+public class PIDHandlerTest
+{
+    @Test
+    public void testSeed_FirstOutputMatchesSeededOutput()
+    {
+        double kp = 0.5;
+        double ki = 0.001;
+        double kf = 0.002;
+        ITimer timer = mock(ITimer.class);
+        PIDHandler handler = new PIDHandler(kp, ki, 0.0, kf, 1.0, -1.0, 1.0, timer);
+
+        // take over with a nonzero error (the proportional term alone would be 0.5 * 2.0 = 1.0)
+        doReturn(1.0).when(timer).get();
+        handler.seed(100.0, 98.0, 0.3);
+
+        doReturn(1.02).when(timer).get();
+        double output = handler.calculatePosition(100.0, 98.0);
+
+        // the only change is the integral's own step for this update (ki * error)
+        assertEquals(0.3 + ki * 2.0, output, 1e-9);
+    }
+
+    @Test
+    public void testSeed_NoIntegral()
+    {
+        ITimer timer = mock(ITimer.class);
+        PIDHandler handler = new PIDHandler(0.5, 0.0, 0.0, 0.0, 1.0, -1.0, 1.0, timer);
+
+        doReturn(1.0).when(timer).get();
+        handler.seed(100.0, 99.0, 0.3);
+
+        // without an integral term, the output can only be what the proportional term gives
+        doReturn(1.02).when(timer).get();
+        assertEquals(0.5, handler.calculatePosition(100.0, 99.0), 1e-9);
+    }
+}
@@ -0,0 +1,93 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PoseHistoryTest
+{
+    @Test
+    public void testEmpty_NaN()
+    {
+        PoseHistory history = new PoseHistory(5);
+        assertTrue(Double.isNaN(history.getNavxAngle(1.0)));
+    }
+
+    @Test
+    public void testBetweenPoses_Interpolated()
+    {
+        PoseHistory history = new PoseHistory(5);
+        history.add(1.0, 10.0, 0.0, 0.0, 0.0);
+        history.add(2.0, 20.0, 0.0, 4.0, -2.0);
+
+        assertEquals(15.0, history.getNavxAngle(1.5), 0.0001);
+        assertEquals(1.0, history.getOdometryX(1.25), 0.0001);
+        assertEquals(-1.5, history.getOdometryY(1.75), 0.0001);
+    }
+
+    @Test
+    public void testOutsideHistory_Clamped()
+    {
+        PoseHistory history = new PoseHistory(5);
+        history.add(1.0, 10.0, 0.0, 0.0, 0.0);
+        history.add(2.0, 20.0, 0.0, 0.0, 0.0);
+
+        assertEquals(10.0, history.getNavxAngle(0.5), 0.0001);
+        assertEquals(20.0, history.getNavxAngle(3.0), 0.0001);
+    }
+
+    @Test
+    public void testFull_OldestForgotten()
+    {
+        PoseHistory history = new PoseHistory(3);
+        for (int i = 0; i < 7; i++)
+        {
+            history.add(i, i * 10.0, 0.0, 0.0, 0.0);
+        }
+
+        assertEquals(3, history.getCount());
+        assertEquals(40.0, history.getNavxAngle(1.0), 0.0001);
+        assertEquals(45.0, history.getNavxAngle(4.5), 0.0001);
+        assertEquals(55.0, history.getNavxAngle(5.5), 0.0001);
+    }
+
+    @Test
+    public void testOdometryAngleWrap_InterpolatedAcrossSmallerDifference()
+    {
+        PoseHistory history = new PoseHistory(5);
+        history.add(1.0, 0.0, 350.0, 0.0, 0.0);
+        history.add(2.0, 0.0, 10.0, 0.0, 0.0);
+
+        assertEquals(355.0, history.getOdometryAngle(1.25), 0.0001);
+    }
+
+    @Test
+    public void testOdometryAngleWrap_InterpolatedPastWrapIsNormalized()
+    {
+        PoseHistory history = new PoseHistory(5);
+        history.add(1.0, 0.0, 350.0, 0.0, 0.0);
+        history.add(2.0, 0.0, 10.0, 0.0, 0.0);
+        history.add(3.0, 0.0, -350.0, 0.0, 0.0);
+        history.add(4.0, 0.0, -10.0, 0.0, 0.0);
+
+        assertEquals(5.0, history.getOdometryAngle(1.75), 0.0001);
+        assertEquals(-5.0, history.getOdometryAngle(3.75), 0.0001);
+    }
+
+    @Test
+    public void testTimeRestarted_HistoryCleared()
+    {
+        PoseHistory history = new PoseHistory(5);
+        history.add(10.0, 100.0, 0.0, 0.0, 0.0);
+        history.add(11.0, 110.0, 0.0, 0.0, 0.0);
+
+        // the timer was restarted, so the earlier poses no longer line up with the time
+        history.add(0.0, 0.0, 0.0, 0.0, 0.0);
+        history.add(1.0, 10.0, 0.0, 0.0, 0.0);
+
+        assertEquals(2, history.getCount());
+        assertEquals(5.0, history.getNavxAngle(0.5), 0.0001);
+        assertEquals(10.0, history.getNavxAngle(10.5), 0.0001);
+    }
+}
@@ -0,0 +1,149 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+
+public class ThrottledLoggerTest
+{
+    private static final LogPublishPolicy Policy = new LogPublishPolicy(0.1, 0.01, 1.0);
+
+    @Test
+    public void testUnchangedValue_OnlyRefreshed()
+    {
+        IDashboardLogger innerLogger = mock(IDashboardLogger.class);
+        ITimer timer = mock(ITimer.class);
+        ThrottledLogger logger = new ThrottledLogger(innerLogger, timer, ThrottledLoggerTest.Policy);
+
+        doReturn(0.0).when(timer).get();
+        logger.logNumber("c", "k", 5.0);
+
+        // unchanged (or only changed within the deadband), so not published until the refresh period has passed
+        doReturn(0.5).when(timer).get();
+        logger.logNumber("c", "k", 5.005);
+        logger.flush();
+        doReturn(1.0).when(timer).get();
+        logger.logNumber("c", "k", 5.0);
+
+        verify(innerLogger, times(2)).logNumber("c", "k", 5.0);
+        verify(innerLogger, never()).logNumber("c", "k", 5.005);
+    }
+
+    @Test
+    public void testChangeWithinMinPeriod_PublishedOnFlush()
+    {
+        IDashboardLogger innerLogger = mock(IDashboardLogger.class);
+        ITimer timer = mock(ITimer.class);
+        ThrottledLogger logger = new ThrottledLogger(innerLogger, timer, ThrottledLoggerTest.Policy);
+
+        doReturn(0.0).when(timer).get();
+        logger.logString("r", "state", "Init");
+
+        // a change that comes too soon is held back, even if the key is never logged again
+        doReturn(0.01).when(timer).get();
+        logger.logString("r", "state", "Disabled");
+        logger.flush();
+        verify(innerLogger, never()).logString("r", "state", "Disabled");
+
+        doReturn(0.1).when(timer).get();
+        logger.flush();
+        logger.flush();
+
+        InOrder inOrder = inOrder(innerLogger);
+        inOrder.verify(innerLogger).logString("r", "state", "Init");
+        inOrder.verify(innerLogger).logString("r", "state", "Disabled");
+        verify(innerLogger, times(1)).logString("r", "state", "Disabled");
+    }
+
+    @Test
+    public void testChangeRevertedWithinMinPeriod_NotPublished()
+    {
+        IDashboardLogger innerLogger = mock(IDashboardLogger.class);
+        ITimer timer = mock(ITimer.class);
+        ThrottledLogger logger = new ThrottledLogger(innerLogger, timer, ThrottledLoggerTest.Policy);
+
+        doReturn(0.0).when(timer).get();
+        logger.logBoolean("c", "k", true);
+
+        doReturn(0.02).when(timer).get();
+        logger.logBoolean("c", "k", false);
+        doReturn(0.04).when(timer).get();
+        logger.logBoolean("c", "k", true);
+
+        doReturn(0.2).when(timer).get();
+        logger.flush();
+
+        verify(innerLogger, times(1)).logBoolean("c", "k", true);
+        verify(innerLogger, never()).logBoolean("c", "k", false);
+    }
+
+    @Test
+    public void testChannel_LatestHeldBackValuePublishedOnFlush()
+    {
+        IDashboardLogger innerLogger = mock(IDashboardLogger.class);
+        INumberLogChannel innerChannel = mock(INumberLogChannel.class);
+        doReturn(innerChannel).when(innerLogger).registerNumberChannel(anyString(), anyString());
+        ITimer timer = mock(ITimer.class);
+        ThrottledLogger logger = new ThrottledLogger(innerLogger, timer, ThrottledLoggerTest.Policy);
+
+        INumberLogChannel channel = logger.registerNumberChannel("c", "k");
+        doReturn(0.0).when(timer).get();
+        channel.publish(1.0);
+        doReturn(0.02).when(timer).get();
+        channel.publish(2.0);
+        doReturn(0.04).when(timer).get();
+        channel.publish(3.0);
+
+        doReturn(0.1).when(timer).get();
+        logger.flush();
+
+        InOrder inOrder = inOrder(innerChannel);
+        inOrder.verify(innerChannel).publish(1.0);
+        inOrder.verify(innerChannel).publish(3.0);
+        verify(innerChannel, never()).publish(2.0);
+        verify(innerLogger, never()).logNumber(anyString(), anyString(), eq(3.0));
+    }
+
+    @Test
+    public void testTimerReset_PublishedImmediately()
+    {
+        IDashboardLogger innerLogger = mock(IDashboardLogger.class);
+        ITimer timer = mock(ITimer.class);
+        ThrottledLogger logger = new ThrottledLogger(innerLogger, timer, ThrottledLoggerTest.Policy);
+
+        doReturn(10.0).when(timer).get();
+        logger.logInteger("c", "k", 1);
+        doReturn(0.0).when(timer).get();
+        logger.logInteger("c", "k", 2);
+
+        verify(innerLogger).logInteger("c", "k", 1);
+        verify(innerLogger).logInteger("c", "k", 2);
+    }
+
+    @Test
+    public void testKeyPolicy_Always()
+    {
+        IDashboardLogger innerLogger = mock(IDashboardLogger.class);
+        ITimer timer = mock(ITimer.class);
+        ThrottledLogger logger = new ThrottledLogger(innerLogger, timer, ThrottledLoggerTest.Policy);
+        logger.setPolicy("c", "always", LogPublishPolicy.Always);
+
+        doReturn(0.0).when(timer).get();
+        logger.logNumber("c", "always", 1.0);
+        logger.logNumber("c", "always", 1.0);
+        logger.logNumber("c", "other", 1.0);
+        logger.logNumber("c", "other", 1.0);
+
+        verify(innerLogger, times(2)).logNumber("c", "always", 1.0);
+        verify(innerLogger, times(1)).logNumber("c", "other", 1.0);
+    }
+}
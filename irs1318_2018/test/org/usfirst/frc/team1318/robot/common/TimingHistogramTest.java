@@ -0,0 +1,133 @@
+package org.usfirst.frc.team1318.robot.common;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TimingHistogramTest
+{
+    @Test
+    public void testComputeSummary_Empty()
+    {
+        TimingHistogram histogram = new TimingHistogram(10);
+        histogram.computeSummary();
+
+        assertEquals(0, histogram.getSampleCount());
+        assertEquals(0, histogram.getTotalSampleCount());
+        assertEquals(0, histogram.getLast());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0.0, histogram.getMean(), 0.0);
+        assertEquals(0, histogram.getP50());
+        assertEquals(0, histogram.getP90());
+        assertEquals(0, histogram.getP99());
+    }
+
+    @Test
+    public void testComputeSummary_SingleSample()
+    {
+        TimingHistogram histogram = new TimingHistogram(10);
+        histogram.record(1500);
+        histogram.computeSummary();
+
+        assertEquals(1, histogram.getSampleCount());
+        assertEquals(1500, histogram.getLast());
+        assertEquals(1500, histogram.getMin());
+        assertEquals(1500, histogram.getMax());
+        assertEquals(1500.0, histogram.getMean(), 0.0);
+        assertEquals(1500, histogram.getP50());
+        assertEquals(1500, histogram.getP90());
+        assertEquals(1500, histogram.getP99());
+    }
+
+    @Test
+    public void testComputeSummary_PercentileBoundaries()
+    {
+        // 100 samples (recorded out of order), so that each percentile falls exactly on a sample
+        TimingHistogram histogram = new TimingHistogram(100);
+        for (int i = 0; i < 100; i++)
+        {
+            histogram.record(((i * 37) % 100) + 1);
+        }
+
+        histogram.computeSummary();
+
+        assertEquals(1, histogram.getMin());
+        assertEquals(100, histogram.getMax());
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+        assertEquals(50, histogram.getP50());
+        assertEquals(90, histogram.getP90());
+        assertEquals(99, histogram.getP99());
+    }
+
+    @Test
+    public void testComputeSummary_PercentileRoundsUp()
+    {
+        // with 10 samples, the nearest rank for p99 is the largest sample, and p50 is the 5th
+        TimingHistogram histogram = new TimingHistogram(10);
+        for (int i = 10; i >= 1; i--)
+        {
+            histogram.record(i * 100);
+        }
+
+        histogram.computeSummary();
+
+        assertEquals(500, histogram.getP50());
+        assertEquals(900, histogram.getP90());
+        assertEquals(1000, histogram.getP99());
+    }
+
+    @Test
+    public void testComputeSummary_BufferOverflow()
+    {
+        // only the most recent 10 samples (6 through 15) are kept
+        TimingHistogram histogram = new TimingHistogram(10);
+        for (int i = 1; i <= 15; i++)
+        {
+            histogram.record(i);
+        }
+
+        histogram.computeSummary();
+
+        assertEquals(10, histogram.getSampleCount());
+        assertEquals(15, histogram.getTotalSampleCount());
+        assertEquals(15, histogram.getLast());
+        assertEquals(6, histogram.getMin());
+        assertEquals(15, histogram.getMax());
+        assertEquals(10.5, histogram.getMean(), 1e-9);
+        assertEquals(10, histogram.getP50());
+        assertEquals(14, histogram.getP90());
+        assertEquals(15, histogram.getP99());
+
+        // a huge outlier replaces the oldest sample, and only moves the top percentiles
+        histogram.record(1000000000L);
+        histogram.computeSummary();
+
+        assertEquals(7, histogram.getMin());
+        assertEquals(1000000000L, histogram.getMax());
+        assertEquals(11, histogram.getP50());
+        assertEquals(15, histogram.getP90());
+        assertEquals(1000000000L, histogram.getP99());
+    }
+
+    @Test
+    public void testReset()
+    {
+        TimingHistogram histogram = new TimingHistogram(10);
+        histogram.record(100);
+        histogram.record(200);
+        histogram.computeSummary();
+
+        histogram.reset();
+        assertEquals(0, histogram.getSampleCount());
+        assertEquals(0, histogram.getTotalSampleCount());
+        assertEquals(0, histogram.getMax());
+
+        // samples from before the reset are not included
+        histogram.record(50);
+        histogram.computeSummary();
+        assertEquals(1, histogram.getSampleCount());
+        assertEquals(50, histogram.getMin());
+        assertEquals(50, histogram.getMax());
+    }
+}
@@ -0,0 +1,110 @@
+package org.usfirst.frc.team1318.robot.common.wpilib;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
+import org.usfirst.frc.team1318.robot.common.INumberLogChannel;
+
+public class BufferedTalonSRXTest
+{
+    @Test
+    public void testWriteOutputs_UnchangedSetpointSuppressed()
+    {
+        ITalonSRX talon = mock(ITalonSRX.class);
+        CANIOCoordinator coordinator = new CANIOCoordinator(BufferedTalonSRXTest.createLogger());
+        ITalonSRX bufferedTalon = coordinator.register(talon);
+
+        // nothing is sent until the write phase
+        bufferedTalon.setControlMode(TalonSRXControlMode.Position);
+        bufferedTalon.set(100.0);
+        verifyNoMoreInteractions(talon);
+
+        coordinator.writeOutputs();
+        InOrder inOrder = inOrder(talon);
+        inOrder.verify(talon).setControlMode(TalonSRXControlMode.Position);
+        inOrder.verify(talon).set(100.0);
+
+        // the same setpoint again is suppressed
+        bufferedTalon.setControlMode(TalonSRXControlMode.Position);
+        bufferedTalon.set(100.0);
+        coordinator.writeOutputs();
+        verifyNoMoreInteractions(talon);
+
+        assertEquals(1, coordinator.getTotalWrites());
+        assertEquals(1, coordinator.getTotalSuppressedWrites());
+
+        // a new setpoint is sent
+        bufferedTalon.set(150.0);
+        coordinator.writeOutputs();
+        inOrder.verify(talon).setControlMode(TalonSRXControlMode.Position);
+        inOrder.verify(talon).set(150.0);
+        assertEquals(2, coordinator.getTotalWrites());
+    }
+
+    @Test
+    public void testWriteOutputs_ModeOnlyChangeSent()
+    {
+        ITalonSRX talon = mock(ITalonSRX.class);
+        CANIOCoordinator coordinator = new CANIOCoordinator(BufferedTalonSRXTest.createLogger());
+        ITalonSRX bufferedTalon = coordinator.register(talon);
+
+        bufferedTalon.setControlMode(TalonSRXControlMode.PercentOutput);
+        bufferedTalon.set(0.0);
+        coordinator.writeOutputs();
+
+        // change the mode without setting the setpoint again
+        bufferedTalon.setControlMode(TalonSRXControlMode.Velocity);
+        coordinator.writeOutputs();
+
+        InOrder inOrder = inOrder(talon);
+        inOrder.verify(talon).setControlMode(TalonSRXControlMode.PercentOutput);
+        inOrder.verify(talon).set(0.0);
+        inOrder.verify(talon).setControlMode(TalonSRXControlMode.Velocity);
+        inOrder.verify(talon).set(0.0);
+        verifyNoMoreInteractions(talon);
+    }
+
+    @Test
+    public void testGetPosition_AfterResetAndSetPosition()
+    {
+        ITalonSRX talon = mock(ITalonSRX.class);
+        CANIOCoordinator coordinator = new CANIOCoordinator(BufferedTalonSRXTest.createLogger());
+        ITalonSRX bufferedTalon = coordinator.register(talon);
+
+        doReturn(500).when(talon).getPosition();
+        assertEquals(500, bufferedTalon.getPosition());
+
+        // the reset is seen straight away, not only after the next read phase
+        bufferedTalon.reset();
+        verify(talon).reset();
+        assertEquals(0, bufferedTalon.getPosition());
+
+        bufferedTalon.setPosition(250);
+        verify(talon).setPosition(250);
+        assertEquals(250, bufferedTalon.getPosition());
+
+        // the next read phase reads the Talon again
+        doReturn(260).when(talon).getPosition();
+        coordinator.readSensors();
+        assertEquals(260, bufferedTalon.getPosition());
+    }
+
+    private static IDashboardLogger createLogger()
+    {
+        IDashboardLogger logger = mock(IDashboardLogger.class);
+        INumberLogChannel channel = value ->
+        {
+        };
+
+        doReturn(channel).when(logger).registerNumberChannel(anyString(), anyString());
+        return logger;
+    }
+}
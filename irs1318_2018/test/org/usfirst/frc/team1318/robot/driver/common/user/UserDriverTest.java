@@ -0,0 +1,203 @@
+package org.usfirst.frc.team1318.robot.driver.common.user;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.usfirst.frc.team1318.robot.ElectronicsConstants;
+import org.usfirst.frc.team1318.robot.TestWpilibProvider;
+import org.usfirst.frc.team1318.robot.common.wpilib.IJoystick;
+import org.usfirst.frc.team1318.robot.driver.MacroOperation;
+import org.usfirst.frc.team1318.robot.driver.Operation;
+import org.usfirst.frc.team1318.robot.driver.Shift;
+import org.usfirst.frc.team1318.robot.driver.common.IButtonMap;
+import org.usfirst.frc.team1318.robot.driver.common.IControlTask;
+import org.usfirst.frc.team1318.robot.driver.common.UserInputDeviceButton;
+import org.usfirst.frc.team1318.robot.driver.common.buttons.ButtonType;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.DigitalOperationDescription;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.MacroOperationDescription;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.OperationDescription;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.ShiftDescription;
+import org.usfirst.frc.team1318.robot.driver.common.descriptions.UserInputDevice;
+
+import com.google.inject.Injector;
+
+public class UserDriverTest
+{
+    // operations, controlled by the driver's trigger and thumb buttons
+    private static final Operation FirstOperation = Operation.DriveTrainSimpleMode;
+    private static final Operation SecondOperation = Operation.DriveTrainUsePositionalMode;
+    private static final UserInputDeviceButton FirstOperationButton = UserInputDeviceButton.JOYSTICK_STICK_TRIGGER_BUTTON;
+    private static final UserInputDeviceButton SecondOperationButton = UserInputDeviceButton.JOYSTICK_STICK_THUMB_BUTTON;
+
+    // macros, the first two affect the first operation, and the third affects the second operation
+    private static final UserInputDeviceButton FirstMacroButton = UserInputDeviceButton.JOYSTICK_STICK_BOTTOM_LEFT_BUTTON;
+    private static final UserInputDeviceButton SecondMacroButton = UserInputDeviceButton.JOYSTICK_STICK_BOTTOM_RIGHT_BUTTON;
+    private static final UserInputDeviceButton ThirdMacroButton = UserInputDeviceButton.JOYSTICK_STICK_TOP_LEFT_BUTTON;
+
+    private final IControlTask firstTask = UserDriverTest.createTask();
+    private final IControlTask secondTask = UserDriverTest.createTask();
+    private final IControlTask thirdTask = UserDriverTest.createTask();
+
+    private final TestWpilibProvider testProvider = new TestWpilibProvider();
+    private final IJoystick joystick = this.testProvider.getJoystick(ElectronicsConstants.JOYSTICK_DRIVER_PORT);
+
+    @Test
+    public void testNewMacro_Starts()
+    {
+        UserDriver driver = this.createDriver();
+
+        this.press(UserDriverTest.FirstMacroButton);
+        driver.update();
+
+        verify(this.firstTask).begin();
+        verify(this.firstTask).update();
+    }
+
+    @Test
+    public void testMacroUsurpedByUser_Cancelled()
+    {
+        UserDriver driver = this.createDriver();
+
+        this.press(UserDriverTest.FirstMacroButton);
+        driver.update();
+        verify(this.firstTask).begin();
+
+        // rule #1: user input on an operation cancels the macro using it
+        this.release(UserDriverTest.FirstMacroButton);
+        this.press(UserDriverTest.FirstOperationButton);
+        driver.update();
+
+        verify(this.firstTask).stop();
+    }
+
+    @Test
+    public void testMacroUsurpedByNewMacro_OldCancelled()
+    {
+        UserDriver driver = this.createDriver();
+
+        this.press(UserDriverTest.FirstMacroButton);
+        driver.update();
+        verify(this.firstTask).begin();
+
+        // rule #2: a newly started macro replaces a previously active macro using the same operation
+        this.release(UserDriverTest.FirstMacroButton);
+        this.press(UserDriverTest.SecondMacroButton);
+        driver.update();
+
+        verify(this.firstTask).stop();
+        verify(this.secondTask).begin();
+        verify(this.secondTask, never()).stop();
+    }
+
+    @Test
+    public void testOverlappingNewMacros_BothCancelled()
+    {
+        UserDriver driver = this.createDriver();
+
+        // rule #3: two new macros using the same operation cancel each other
+        this.press(UserDriverTest.FirstMacroButton);
+        this.press(UserDriverTest.SecondMacroButton);
+        driver.update();
+
+        verify(this.firstTask, never()).begin();
+        verify(this.secondTask, never()).begin();
+    }
+
+    @Test
+    public void testNonOverlappingNewMacros_BothStart()
+    {
+        UserDriver driver = this.createDriver();
+
+        this.press(UserDriverTest.FirstMacroButton);
+        this.press(UserDriverTest.ThirdMacroButton);
+        driver.update();
+
+        verify(this.firstTask).begin();
+        verify(this.thirdTask).begin();
+    }
+
+    @Test
+    public void testMacroUsurpedByUserOnOtherOperation_Continues()
+    {
+        UserDriver driver = this.createDriver();
+
+        this.press(UserDriverTest.FirstMacroButton);
+        driver.update();
+
+        this.release(UserDriverTest.FirstMacroButton);
+        this.press(UserDriverTest.SecondOperationButton);
+        driver.update();
+
+        verify(this.firstTask, never()).stop();
+    }
+
+    private UserDriver createDriver()
+    {
+        Map<Shift, ShiftDescription> shiftMap = new HashMap<Shift, ShiftDescription>();
+
+        Map<Operation, OperationDescription> operationSchema = new HashMap<Operation, OperationDescription>();
+        operationSchema.put(
+            UserDriverTest.FirstOperation,
+            new DigitalOperationDescription(UserInputDevice.Driver, UserDriverTest.FirstOperationButton, ButtonType.Simple));
+        operationSchema.put(
+            UserDriverTest.SecondOperation,
+            new DigitalOperationDescription(UserInputDevice.Driver, UserDriverTest.SecondOperationButton, ButtonType.Simple));
+
+        Map<MacroOperation, MacroOperationDescription> macroSchema = new HashMap<MacroOperation, MacroOperationDescription>();
+        macroSchema.put(
+            MacroOperation.PIDBrake,
+            new MacroOperationDescription(
+                UserInputDevice.Driver,
+                UserDriverTest.FirstMacroButton,
+                ButtonType.Toggle,
+                () -> this.firstTask,
+                UserDriverTest.FirstOperation));
+        macroSchema.put(
+            MacroOperation.VisionCenter,
+            new MacroOperationDescription(
+                UserInputDevice.Driver,
+                UserDriverTest.SecondMacroButton,
+                ButtonType.Toggle,
+                () -> this.secondTask,
+                UserDriverTest.FirstOperation));
+        macroSchema.put(
+            MacroOperation.Intake,
+            new MacroOperationDescription(
+                UserInputDevice.Driver,
+                UserDriverTest.ThirdMacroButton,
+                ButtonType.Toggle,
+                () -> this.thirdTask,
+                UserDriverTest.SecondOperation));
+
+        IButtonMap buttonMap = mock(IButtonMap.class);
+        doReturn(shiftMap).when(buttonMap).getShiftMap();
+        doReturn(operationSchema).when(buttonMap).getOperationSchema();
+        doReturn(macroSchema).when(buttonMap).getMacroOperationSchema();
+
+        return new UserDriver(mock(Injector.class), buttonMap, this.testProvider);
+    }
+
+    private void press(UserInputDeviceButton button)
+    {
+        doReturn(true).when(this.joystick).getRawButton(button.Value);
+    }
+
+    private void release(UserInputDeviceButton button)
+    {
+        doReturn(false).when(this.joystick).getRawButton(button.Value);
+    }
+
+    private static IControlTask createTask()
+    {
+        IControlTask task = mock(IControlTask.class);
+        doReturn(false).when(task).hasCompleted();
+        doReturn(false).when(task).shouldCancel();
+        return task;
+    }
+}
@@ -0,0 +1,120 @@
+package org.usfirst.frc.team1318.robot.driver.controltasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.usfirst.frc.team1318.robot.TuningConstants;
+
+public class RamseteFollowPathTaskTest
+{
+    private static final double DesiredVelocity = 60.0;
+    private static final double DesiredTurnRate = 0.5;
+
+    @Test
+    public void testControlLaw_NoError()
+    {
+        // with no error, the reference velocity and turn rate are used as they are
+        assertEquals(
+            RamseteFollowPathTaskTest.DesiredVelocity,
+            RamseteFollowPathTask.calculateVelocity(RamseteFollowPathTaskTest.DesiredVelocity, RamseteFollowPathTaskTest.DesiredTurnRate, 0.0, 0.0),
+            1e-9);
+        assertEquals(
+            RamseteFollowPathTaskTest.DesiredTurnRate,
+            RamseteFollowPathTask.calculateTurnRate(RamseteFollowPathTaskTest.DesiredVelocity, RamseteFollowPathTaskTest.DesiredTurnRate, 0.0, 0.0),
+            1e-9);
+
+        // so the wheel positions are not corrected
+        assertEquals(0.0, RamseteFollowPathTask.updateCorrection(0.0, 60.0, 60.0, 0.02), 1e-9);
+    }
+
+    @Test
+    public void testControlLaw_ForwardError()
+    {
+        // behind the desired pose, so speed up
+        double velocity = RamseteFollowPathTask.calculateVelocity(
+            RamseteFollowPathTaskTest.DesiredVelocity,
+            RamseteFollowPathTaskTest.DesiredTurnRate,
+            2.0,
+            0.0);
+        assertTrue(velocity > RamseteFollowPathTaskTest.DesiredVelocity);
+
+        // ahead of the desired pose, so slow down
+        velocity = RamseteFollowPathTask.calculateVelocity(
+            RamseteFollowPathTaskTest.DesiredVelocity,
+            RamseteFollowPathTaskTest.DesiredTurnRate,
+            -2.0,
+            0.0);
+        assertTrue(velocity < RamseteFollowPathTaskTest.DesiredVelocity);
+    }
+
+    @Test
+    public void testControlLaw_SidewaysError()
+    {
+        // the desired pose is to the right of the robot, so turn more clockwise
+        double turnRate = RamseteFollowPathTask.calculateTurnRate(
+            RamseteFollowPathTaskTest.DesiredVelocity,
+            RamseteFollowPathTaskTest.DesiredTurnRate,
+            2.0,
+            0.0);
+        assertTrue(turnRate > RamseteFollowPathTaskTest.DesiredTurnRate);
+
+        // the desired pose is to the left of the robot, so turn less clockwise
+        turnRate = RamseteFollowPathTask.calculateTurnRate(
+            RamseteFollowPathTaskTest.DesiredVelocity,
+            RamseteFollowPathTaskTest.DesiredTurnRate,
+            -2.0,
+            0.0);
+        assertTrue(turnRate < RamseteFollowPathTaskTest.DesiredTurnRate);
+    }
+
+    @Test
+    public void testControlLaw_AngleError()
+    {
+        // the desired heading is clockwise of the robot's heading, so turn more clockwise
+        double turnRate = RamseteFollowPathTask.calculateTurnRate(
+            RamseteFollowPathTaskTest.DesiredVelocity,
+            RamseteFollowPathTaskTest.DesiredTurnRate,
+            0.0,
+            0.1);
+        assertTrue(turnRate > RamseteFollowPathTaskTest.DesiredTurnRate);
+
+        // the desired heading is counter-clockwise of the robot's heading, so turn less clockwise
+        turnRate = RamseteFollowPathTask.calculateTurnRate(
+            RamseteFollowPathTaskTest.DesiredVelocity,
+            RamseteFollowPathTaskTest.DesiredTurnRate,
+            0.0,
+            -0.1);
+        assertTrue(turnRate < RamseteFollowPathTaskTest.DesiredTurnRate);
+
+        // while facing the wrong way, less of the velocity goes towards the desired pose
+        double velocity = RamseteFollowPathTask.calculateVelocity(
+            RamseteFollowPathTaskTest.DesiredVelocity,
+            RamseteFollowPathTaskTest.DesiredTurnRate,
+            0.0,
+            0.1);
+        assertEquals(RamseteFollowPathTaskTest.DesiredVelocity * Math.cos(0.1), velocity, 1e-9);
+    }
+
+    @Test
+    public void testUpdateCorrection_Accumulates()
+    {
+        double correction = RamseteFollowPathTask.updateCorrection(0.0, 65.0, 60.0, 0.02);
+        assertEquals(0.1, correction, 1e-9);
+
+        correction = RamseteFollowPathTask.updateCorrection(correction, 55.0, 60.0, 0.04);
+        assertEquals(-0.1, correction, 1e-9);
+    }
+
+    @Test
+    public void testUpdateCorrection_Clamped()
+    {
+        double maxCorrection = TuningConstants.DRIVETRAIN_RAMSETE_MAX_CORRECTION;
+        assertEquals(maxCorrection, RamseteFollowPathTask.updateCorrection(maxCorrection - 1.0, 160.0, 60.0, 0.02), 1e-9);
+        assertEquals(maxCorrection, RamseteFollowPathTask.updateCorrection(maxCorrection, 61.0, 60.0, 0.02), 1e-9);
+        assertEquals(-maxCorrection, RamseteFollowPathTask.updateCorrection(-maxCorrection + 1.0, -40.0, 60.0, 0.02), 1e-9);
+
+        // a correction at the limit can still come back towards the planned path
+        assertEquals(maxCorrection - 0.02, RamseteFollowPathTask.updateCorrection(maxCorrection, 59.0, 60.0, 0.02), 1e-9);
+    }
+}
@@ -1,12 +1,18 @@
 package org.usfirst.frc.team1318.robot.drivetrain;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import java.util.List;
+
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.usfirst.frc.team1318.robot.ElectronicsConstants;
 import org.usfirst.frc.team1318.robot.TestWpilibProvider;
 import org.usfirst.frc.team1318.robot.TuningConstants;
@@ -189,4 +195,64 @@ public class DriveTrainMechanismTest
         verifyNoMoreInteractions(leftFollowerMotor);
         verifyNoMoreInteractions(rightFollowerMotor);
     }
+
+    @Test
+    public void testSwitchToPositionalMode_Bumpless()
+    {
+        IDashboardLogger logger = mock(IDashboardLogger.class);
+        ITimer timer = mock(ITimer.class);
+        TestWpilibProvider testProvider = new TestWpilibProvider();
+        ITalonSRX leftMotor = testProvider.getTalonSRX(ElectronicsConstants.DRIVETRAIN_LEFT_MOTOR_CAN_ID);
+        ITalonSRX rightMotor = testProvider.getTalonSRX(ElectronicsConstants.DRIVETRAIN_RIGHT_MOTOR_CAN_ID);
+
+        Driver driver = mock(Driver.class);
+
+        doReturn(0.0).when(timer).get();
+        doReturn(false).when(driver).getDigital(Operation.DriveTrainDisablePID);
+        doReturn(false).when(driver).getDigital(Operation.DriveTrainEnablePID);
+        doReturn(100.0).when(driver).getAnalog(Operation.DriveTrainLeftPosition);
+        doReturn(100.0).when(driver).getAnalog(Operation.DriveTrainRightPosition);
+        doReturn(false).when(driver).getDigital(Operation.DriveTrainUsePositionalMode);
+        doReturn(false).when(driver).getDigital(Operation.DriveTrainUseBrakeMode);
+        doReturn(false).when(driver).getDigital(Operation.DriveTrainSwapFrontOrientation);
+        doReturn(false).when(driver).getDigital(Operation.DriveTrainSimpleMode);
+        doReturn(0.5).when(driver).getAnalog(Operation.DriveTrainMoveForward);
+        doReturn(0.0).when(driver).getAnalog(Operation.DriveTrainTurn);
+        doReturn(0.0).when(leftMotor).getError();
+        doReturn(0.0).when(leftMotor).getVelocity();
+        doReturn(100).when(leftMotor).getPosition();
+        doReturn(0.0).when(rightMotor).getError();
+        doReturn(0.0).when(rightMotor).getVelocity();
+        doReturn(100).when(rightMotor).getPosition();
+
+        DriveTrainMechanism driveTrainMechanism = new DriveTrainMechanism(logger, testProvider, timer);
+        driveTrainMechanism.setDriver(driver);
+        driveTrainMechanism.readSensors();
+        driveTrainMechanism.update();
+        assertEquals(DriveTrainControlMode.Velocity, driveTrainMechanism.getControlMode());
+
+        // switch to positional mode, and then to brake mode, within the same PID time step
+        doReturn(true).when(driver).getDigital(Operation.DriveTrainUsePositionalMode);
+        driveTrainMechanism.readSensors();
+        driveTrainMechanism.update();
+        assertEquals(DriveTrainControlMode.Position, driveTrainMechanism.getControlMode());
+
+        doReturn(true).when(driver).getDigital(Operation.DriveTrainUseBrakeMode);
+        driveTrainMechanism.readSensors();
+        driveTrainMechanism.update();
+        assertEquals(DriveTrainControlMode.Brake, driveTrainMechanism.getControlMode());
+
+        // the motors keep the velocity mode that they were put in by setDriver
+        verify(leftMotor).setControlMode(eq(TalonSRXControlMode.Velocity));
+        verify(rightMotor).setControlMode(eq(TalonSRXControlMode.Velocity));
+
+        // the output carries over into positional mode instead of dropping to zero,
+        // while brake mode starts from no power so that it holds position straight away
+        ArgumentCaptor<Double> leftSetpoints = ArgumentCaptor.forClass(Double.class);
+        verify(leftMotor, times(3)).set(leftSetpoints.capture());
+        List<Double> values = leftSetpoints.getAllValues();
+        assertNotEquals(0.0, values.get(0), 0.0001);
+        assertEquals(values.get(0), values.get(1), 0.0001);
+        assertEquals(0.0, values.get(2), 0.0001);
+    }
 }
@@ -0,0 +1,85 @@
+package org.usfirst.frc.team1318.robot.general;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+import org.usfirst.frc.team1318.robot.TestWpilibProvider;
+import org.usfirst.frc.team1318.robot.common.IBooleanLogChannel;
+import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
+import org.usfirst.frc.team1318.robot.common.INumberLogChannel;
+import org.usfirst.frc.team1318.robot.common.wpilib.INavx;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+import org.usfirst.frc.team1318.robot.drivetrain.DriveTrainMechanism;
+
+public class PositionManagerTest
+{
+    @Test
+    public void testFusedAngle_NavxDisconnects()
+    {
+        TestWpilibProvider testProvider = new TestWpilibProvider();
+        INavx navx = testProvider.getNavx();
+        DriveTrainMechanism driveTrain = mock(DriveTrainMechanism.class);
+
+        doReturn(true).when(navx).isConnected();
+        PositionManager positionManager = new PositionManager(
+            PositionManagerTest.createLogger(),
+            mock(ITimer.class),
+            testProvider,
+            driveTrain);
+        positionManager.reset();
+
+        // the navx heading is used while it is connected, even though the encoders disagree
+        doReturn(30.0).when(navx).getAngle();
+        doReturn(100).when(driveTrain).getLeftPosition();
+        doReturn(-100).when(driveTrain).getRightPosition();
+        positionManager.readSensors();
+        assertEquals(30.0, positionManager.getFusedAngle(), 1e-9);
+        double odometryAngle = positionManager.getOdometryAngle();
+
+        // the navx disconnects (and stops reporting its angle), so the fused heading continues from its last heading
+        doReturn(false).when(navx).isConnected();
+        doReturn(0.0).when(navx).getAngle();
+        positionManager.readSensors();
+        assertEquals(30.0, positionManager.getFusedAngle(), 1e-9);
+
+        // and follows the encoders from there
+        doReturn(150).when(driveTrain).getLeftPosition();
+        doReturn(-150).when(driveTrain).getRightPosition();
+        positionManager.readSensors();
+        double turned = positionManager.getOdometryAngle() - odometryAngle;
+        assertEquals(30.0 + turned, positionManager.getFusedAngle(), 1e-9);
+
+        // the encoders are still used if the navx reconnects, so that the heading doesn't jump
+        doReturn(true).when(navx).isConnected();
+        doReturn(45.0).when(navx).getAngle();
+        positionManager.readSensors();
+        assertEquals(30.0 + turned, positionManager.getFusedAngle(), 1e-9);
+
+        // until the position is reset
+        positionManager.reset();
+        doReturn(0).when(driveTrain).getLeftPosition();
+        doReturn(0).when(driveTrain).getRightPosition();
+        doReturn(5.0).when(navx).getAngle();
+        positionManager.readSensors();
+        assertEquals(5.0, positionManager.getFusedAngle(), 1e-9);
+    }
+
+    private static IDashboardLogger createLogger()
+    {
+        IDashboardLogger logger = mock(IDashboardLogger.class);
+        INumberLogChannel numberChannel = value ->
+        {
+        };
+
+        IBooleanLogChannel booleanChannel = value ->
+        {
+        };
+
+        doReturn(numberChannel).when(logger).registerNumberChannel(anyString(), anyString());
+        doReturn(booleanChannel).when(logger).registerBooleanChannel(anyString(), anyString());
+        return logger;
+    }
+}
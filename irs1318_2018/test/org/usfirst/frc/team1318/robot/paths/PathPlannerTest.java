@@ -0,0 +1,81 @@
+package org.usfirst.frc.team1318.robot.paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PathPlannerTest
+{
+    private static final double MaxVelocity = 100.0;
+    private static final double MaxAcceleration = 100.0;
+    private static final double MaxCentripetalAcceleration = 80.0;
+    private static final double WheelSeparation = 24.0;
+
+    @Test
+    public void testStraightPath_SameAsTrapezoidal()
+    {
+        PathPlanner planner = new PathPlanner(
+            PathPlannerTest.MaxVelocity,
+            PathPlannerTest.MaxAcceleration,
+            PathPlannerTest.MaxCentripetalAcceleration,
+            PathPlannerTest.WheelSeparation,
+            PathPlanner.DefaultTimeStep);
+        DriveTrajectory trajectory = planner.plan(new Waypoint(0.0, 0.0, 0.0), new Waypoint(200.0, 0.0, 0.0));
+
+        // 1s to accelerate to 100 (50 distance), 1s at 100 (100 distance), 1s to decelerate (50 distance)
+        assertEquals(3.0, trajectory.getDuration(), 0.02);
+        assertEquals(50.0, trajectory.getX(1.0), 0.5);
+        assertEquals(100.0, trajectory.getVelocity(1.5), 0.5);
+        assertEquals(200.0, trajectory.getX(trajectory.getDuration()), 0.0001);
+        assertEquals(0.0, trajectory.getY(1.5), 0.0001);
+        assertEquals(0.0, trajectory.getHeading(1.5), 0.0001);
+        assertEquals(200.0, trajectory.getLeftProfile().getEndPosition(), 0.0001);
+        assertEquals(200.0, trajectory.getRightProfile().getEndPosition(), 0.0001);
+    }
+
+    @Test
+    public void testCurvedPath_WithinLimits()
+    {
+        PathPlanner planner = new PathPlanner(
+            PathPlannerTest.MaxVelocity,
+            PathPlannerTest.MaxAcceleration,
+            PathPlannerTest.MaxCentripetalAcceleration,
+            PathPlannerTest.WheelSeparation,
+            PathPlanner.DefaultTimeStep);
+        DriveTrajectory trajectory = planner.plan(
+            new Waypoint(0.0, 0.0, 0.0),
+            new Waypoint(100.0, 0.0, 0.0),
+            new Waypoint(160.0, 60.0, 90.0));
+
+        double duration = trajectory.getDuration();
+        assertEquals(160.0, trajectory.getX(duration), 0.0001);
+        assertEquals(60.0, trajectory.getY(duration), 0.0001);
+        assertEquals(90.0, trajectory.getHeading(duration), 0.01);
+
+        // turning clockwise (right), so the left wheels travel further than the right wheels
+        double leftDistance = trajectory.getLeftProfile().getEndPosition();
+        double rightDistance = trajectory.getRightProfile().getEndPosition();
+        assertEquals(Math.PI / 2.0, (leftDistance - rightDistance) / PathPlannerTest.WheelSeparation, 0.001);
+
+        for (int i = 0; i < trajectory.getSampleCount(); i++)
+        {
+            double time = i * trajectory.getTimeStep();
+            double velocity = trajectory.getVelocity(time);
+            double curvature = trajectory.getCurvature(time);
+            assertTrue(trajectory.getLeftProfile().getVelocity(time) <= PathPlannerTest.MaxVelocity + 0.01);
+            assertTrue(trajectory.getRightProfile().getVelocity(time) <= PathPlannerTest.MaxVelocity + 0.01);
+            assertTrue(velocity * velocity * Math.abs(curvature) <= PathPlannerTest.MaxCentripetalAcceleration + 0.01);
+        }
+    }
+
+    @Test
+    public void testMirroredWaypoint()
+    {
+        Waypoint mirrored = new Waypoint(10.0, 5.0, 45.0).mirror();
+
+        assertEquals(10.0, mirrored.getX(), 0.0001);
+        assertEquals(-5.0, mirrored.getY(), 0.0001);
+        assertEquals(-45.0, mirrored.getHeading(), 0.0001);
+    }
+}
@@ -0,0 +1,69 @@
+package org.usfirst.frc.team1318.robot.paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class TrajectoryCacheTest
+{
+    @Test
+    public void testSaveAndLoad() throws IOException
+    {
+        File file = File.createTempFile("paths", ".traj");
+        file.deleteOnExit();
+
+        PathPlanner planner = new PathPlanner(100.0, 100.0, 80.0, 24.0, PathPlanner.DefaultTimeStep);
+        Waypoint[] waypoints = new Waypoint[] { new Waypoint(0.0, 0.0, 0.0), new Waypoint(100.0, 0.0, 0.0), new Waypoint(160.0, 60.0, 90.0) };
+        long fingerprint = planner.getFingerprint(waypoints);
+        DriveTrajectory trajectory = planner.plan(waypoints);
+
+        TrajectoryCache cache = new TrajectoryCache(file.getPath());
+        cache.put("path", fingerprint, trajectory);
+        cache.save();
+
+        TrajectoryCache loadedCache = new TrajectoryCache(file.getPath());
+        assertTrue(loadedCache.load());
+        DriveTrajectory loadedTrajectory = loadedCache.get("path", fingerprint);
+        assertNotNull(loadedTrajectory);
+        assertEquals(trajectory.getSampleCount(), loadedTrajectory.getSampleCount());
+        assertEquals(trajectory.getTimeStep(), loadedTrajectory.getTimeStep(), 0.0);
+        for (int i = 0; i < trajectory.getSampleCount(); i++)
+        {
+            double time = i * trajectory.getTimeStep();
+            assertEquals(trajectory.getX(time), loadedTrajectory.getX(time), 0.0);
+            assertEquals(trajectory.getY(time), loadedTrajectory.getY(time), 0.0);
+            assertEquals(trajectory.getHeading(time), loadedTrajectory.getHeading(time), 0.0);
+            assertEquals(trajectory.getVelocity(time), loadedTrajectory.getVelocity(time), 0.0);
+            assertEquals(trajectory.getCurvature(time), loadedTrajectory.getCurvature(time), 0.0);
+            assertEquals(trajectory.getLeftProfile().getSamplePosition(i), loadedTrajectory.getLeftProfile().getSamplePosition(i), 0.0);
+            assertEquals(trajectory.getLeftProfile().getSampleVelocity(i), loadedTrajectory.getLeftProfile().getSampleVelocity(i), 0.0);
+            assertEquals(trajectory.getRightProfile().getSamplePosition(i), loadedTrajectory.getRightProfile().getSamplePosition(i), 0.0);
+            assertEquals(trajectory.getRightProfile().getSampleAcceleration(i), loadedTrajectory.getRightProfile().getSampleAcceleration(i), 0.0);
+        }
+
+        // the path changed since it was cached
+        waypoints[2] = new Waypoint(160.0, 70.0, 90.0);
+        assertNull(loadedCache.get("path", planner.getFingerprint(waypoints)));
+        assertNull(loadedCache.get("otherPath", fingerprint));
+    }
+
+    @Test
+    public void testLoad_MissingOrInvalidFile() throws IOException
+    {
+        File file = File.createTempFile("paths", ".traj");
+        file.deleteOnExit();
+
+        TrajectoryCache cache = new TrajectoryCache(file.getPath());
+        assertFalse(cache.load());
+
+        file.delete();
+        assertFalse(cache.load());
+    }
+}
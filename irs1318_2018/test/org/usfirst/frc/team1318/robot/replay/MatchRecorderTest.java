@@ -0,0 +1,188 @@
+package org.usfirst.frc.team1318.robot.replay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.usfirst.frc.team1318.robot.common.IDashboardLogger;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+import org.usfirst.frc.team1318.robot.driver.ButtonMap;
+import org.usfirst.frc.team1318.robot.driver.Operation;
+import org.usfirst.frc.team1318.robot.driver.common.Driver;
+
+public class MatchRecorderTest
+{
+    @Test
+    public void testRecordAndRead() throws IOException
+    {
+        File file = File.createTempFile("recording", ".match");
+        file.deleteOnExit();
+
+        ITimer timer = mock(ITimer.class);
+        Driver driver = mock(Driver.class);
+
+        MatchRecorder recorder = new MatchRecorder(new ButtonMap(), timer, mock(IDashboardLogger.class));
+        int positionChannel = recorder.registerNumberChannel("talon.1.position");
+        int gameDataChannel = recorder.registerTextChannel("ds.gameData");
+        assertEquals(positionChannel, recorder.registerNumberChannel("talon.1.position"));
+
+        recorder.start(file.getPath());
+
+        // first frame: everything is new
+        doReturn(0.02).when(timer).get();
+        doReturn(true).when(driver).getDigital(Operation.DriveTrainUsePositionalMode);
+        recorder.recordNumber(positionChannel, 100.0);
+        recorder.recordText(gameDataChannel, "LRL");
+        recorder.recordMode("Autonomous");
+        recorder.endFrame(driver);
+
+        // second frame: a channel that is registered later, and the position doesn't change
+        doReturn(0.04).when(timer).get();
+        doReturn(0.5).when(driver).getAnalog(Operation.DriveTrainMoveForward);
+        int angleChannel = recorder.registerNumberChannel("navx.angle");
+        recorder.recordNumber(positionChannel, 100.0);
+        recorder.recordNumber(angleChannel, 12.5);
+        recorder.endFrame(driver);
+
+        // third frame: the position changes
+        doReturn(0.06).when(timer).get();
+        recorder.recordNumber(positionChannel, 150.0);
+        recorder.endFrame(driver);
+
+        recorder.stop();
+
+        MatchRecording recording = new MatchRecording(file.getPath());
+        assertTrue(recording.readFrame());
+        assertEquals(1, recording.getFrameNumber());
+        assertEquals(0.02, recording.getTime(), 0.0);
+        assertEquals(100.0, recording.getNumber(recording.getChannel("talon.1.position")), 0.0);
+        assertEquals("LRL", recording.getText(recording.getChannel("ds.gameData")));
+        assertEquals("Autonomous", recording.getText(recording.getChannel(MatchRecorder.ModeChannel)));
+        assertEquals(1.0, recording.getNumber(recording.getChannel("op.DriveTrainUsePositionalMode")), 0.0);
+        assertEquals(0.0, recording.getNumber(recording.getChannel("op.DriveTrainMoveForward")), 0.0);
+        assertEquals(-1, recording.getChannel("navx.angle"));
+        assertTrue(Double.isNaN(recording.getNumber(recording.getChannel("navx.angle"))));
+        assertNull(recording.getText(-1));
+
+        assertTrue(recording.readFrame());
+        assertEquals(0.04, recording.getTime(), 0.0);
+        assertEquals(100.0, recording.getNumber(recording.getChannel("talon.1.position")), 0.0);
+        assertEquals(12.5, recording.getNumber(recording.getChannel("navx.angle")), 0.0);
+        assertEquals(0.5, recording.getNumber(recording.getChannel("op.DriveTrainMoveForward")), 0.0);
+
+        assertTrue(recording.readFrame());
+        assertEquals(0.06, recording.getTime(), 0.0);
+        assertEquals(150.0, recording.getNumber(recording.getChannel("talon.1.position")), 0.0);
+        assertEquals(12.5, recording.getNumber(recording.getChannel("navx.angle")), 0.0);
+        assertEquals("LRL", recording.getText(recording.getChannel("ds.gameData")));
+
+        assertFalse(recording.readFrame());
+    }
+
+    @Test
+    public void testStopAndResume_AppendsToFile() throws IOException
+    {
+        File file = File.createTempFile("recording", ".match");
+        file.deleteOnExit();
+
+        ITimer timer = mock(ITimer.class);
+        Driver driver = mock(Driver.class);
+
+        MatchRecorder recorder = new MatchRecorder(new ButtonMap(), timer, mock(IDashboardLogger.class));
+        int positionChannel = recorder.registerNumberChannel("talon.1.position");
+        recorder.start(file.getPath());
+
+        doReturn(0.02).when(timer).get();
+        recorder.recordMode("Autonomous");
+        recorder.recordNumber(positionChannel, 100.0);
+        recorder.endFrame(driver);
+
+        // disabled, then enabled again
+        recorder.stop();
+        assertFalse(recorder.isRecording());
+        recorder.resume();
+        assertTrue(recorder.isRecording());
+
+        doReturn(0.04).when(timer).get();
+        recorder.recordMode("Teleop");
+        int angleChannel = recorder.registerNumberChannel("navx.angle");
+        recorder.recordNumber(angleChannel, 12.5);
+        recorder.endFrame(driver);
+
+        recorder.stop();
+
+        MatchRecording recording = new MatchRecording(file.getPath());
+        assertTrue(recording.readFrame());
+        assertEquals("Autonomous", recording.getText(recording.getChannel(MatchRecorder.ModeChannel)));
+
+        assertTrue(recording.readFrame());
+        assertEquals(0.04, recording.getTime(), 0.0);
+        assertEquals("Teleop", recording.getText(recording.getChannel(MatchRecorder.ModeChannel)));
+        assertEquals(100.0, recording.getNumber(recording.getChannel("talon.1.position")), 0.0);
+        assertEquals(12.5, recording.getNumber(recording.getChannel("navx.angle")), 0.0);
+
+        assertFalse(recording.readFrame());
+    }
+
+    @Test
+    public void testWriteError_StopsRecording() throws IOException, InterruptedException
+    {
+        // writing to /dev/full always fails because the device is out of space
+        Path fullDevice = Paths.get("/dev/full");
+        Assume.assumeTrue(Files.isWritable(fullDevice));
+
+        File file = File.createTempFile("recording", ".match");
+        file.deleteOnExit();
+
+        ITimer timer = mock(ITimer.class);
+        Driver driver = mock(Driver.class);
+        IDashboardLogger logger = mock(IDashboardLogger.class);
+
+        MatchRecorder recorder = new MatchRecorder(new ButtonMap(), timer, logger);
+        int positionChannel = recorder.registerNumberChannel("talon.1.position");
+        recorder.start(file.getPath());
+        recorder.stop();
+
+        // resume into the full device instead of the recording that was started
+        Files.delete(file.toPath());
+        Files.createSymbolicLink(file.toPath(), fullDevice);
+        recorder.resume();
+        assertTrue(recorder.isRecording());
+
+        // record until the frames have been handed off to the writer, and it has failed to write them
+        for (int i = 0; i < 500 && recorder.isRecording(); i++)
+        {
+            doReturn(i * 0.02).when(timer).get();
+            recorder.recordNumber(positionChannel, i);
+            recorder.endFrame(driver);
+            Thread.sleep(1);
+        }
+
+        assertFalse(recorder.isRecording());
+        long frameCount = recorder.getFrameCount();
+
+        // frames are no longer recorded, rather than being treated as delayed
+        recorder.recordNumber(positionChannel, -1.0);
+        recorder.endFrame(driver);
+        assertEquals(frameCount, recorder.getFrameCount());
+        assertEquals(0, recorder.getDelayedFrames());
+
+        recorder.stop();
+        verify(logger, times(1)).logString(eq("rec"), eq("error"), anyString());
+    }
+}
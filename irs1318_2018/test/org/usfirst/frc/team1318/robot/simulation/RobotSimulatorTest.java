@@ -0,0 +1,54 @@
+package org.usfirst.frc.team1318.robot.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.usfirst.frc.team1318.robot.paths.PathManager;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+public class RobotSimulatorTest
+{
+    @Test
+    public void testRunAutonomous_CenterSwitchLeft()
+    {
+        // center position (no switches flipped), switch on the left: should place a cube on the left side of the switch
+        SimulationResult result = new RobotSimulator().runAutonomous("LRL", 0);
+
+        assertTrue(result.getCompleted());
+        assertTrue(result.getTime() < SimulationConstants.AUTONOMOUS_DURATION);
+        assertEquals(1, result.getCubesPlaced());
+        assertTrue(result.getX() > 0.0);
+        assertTrue(result.getY() < 0.0);
+
+        // the routine's tasks should have been timed, each within the time the whole routine took
+        assertFalse(result.getTaskTimings().isEmpty());
+        for (TaskTiming timing : result.getTaskTimings())
+        {
+            assertTrue(timing.getName(), timing.getDuration() >= 0.0);
+            assertTrue(timing.getName(), timing.getEndTime() <= result.getTime() + SimulationConstants.LOOP_PERIOD);
+        }
+    }
+
+    @Test
+    public void testParseDipSwitches()
+    {
+        assertEquals(0, RobotSimulator.parseDipSwitches("000000"));
+        assertEquals(5, RobotSimulator.parseDipSwitches("101000"));
+        assertEquals("101000", RobotSimulator.formatDipSwitches(5));
+    }
+
+    @Test
+    public void testSimulationModule_NoTrajectoryCache()
+    {
+        // simulations must never read or write the robot's trajectory cache file
+        Injector injector = Guice.createInjector(new SimulationModule(new SimulationWpilibProvider(), new SimulationLogger()));
+        PathManager pathManager = injector.getInstance(PathManager.class);
+        assertNull(pathManager.getCacheFileName());
+        assertTrue(pathManager == injector.getInstance(PathManager.class));
+    }
+}
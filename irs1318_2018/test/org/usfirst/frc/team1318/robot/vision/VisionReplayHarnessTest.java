@@ -0,0 +1,42 @@
+package org.usfirst.frc.team1318.robot.vision;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.usfirst.frc.team1318.robot.common.wpilib.ITimer;
+import org.usfirst.frc.team1318.robot.vision.pipelines.HSVCenterPipeline;
+
+/**
+ * Replays recorded frames through the pipeline and checks that it still finds the same centers.  Only runs when the
+ * folder of frames is provided (-Dvision.replay.folder=...), and it should contain the expected centers (centers.csv,
+ * written by running the VisionReplayHarness over the folder).
+ */
+public class VisionReplayHarnessTest
+{
+    private static final String FolderProperty = "vision.replay.folder";
+    private static final String ExpectedCentersFileName = "centers.csv";
+    private static final double Tolerance = 1.0;
+
+    @Test
+    public void testRecordedFrames_SameCenters() throws IOException
+    {
+        String frameFolder = System.getProperty(VisionReplayHarnessTest.FolderProperty);
+        Assume.assumeNotNull(frameFolder);
+
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+
+        HSVCenterPipeline pipeline = new HSVCenterPipeline(mock(ITimer.class), VisionConstants.SHOULD_UNDISTORT, false);
+        VisionReplayHarness harness = new VisionReplayHarness(pipeline, frameFolder, 1);
+        harness.replay(1);
+        harness.printReport(System.out);
+
+        String expectedCentersFileName = new File(frameFolder, VisionReplayHarnessTest.ExpectedCentersFileName).getPath();
+        assertEquals(0, harness.compareCenters(expectedCentersFileName, VisionReplayHarnessTest.Tolerance, System.out));
+    }
+}